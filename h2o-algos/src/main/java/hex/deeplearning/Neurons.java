@@ -94,6 +94,11 @@ public abstract class Neurons {
 
   public Storage.DenseVector _avg_a;
 
+  /**
+   * The first hidden layer only uses the non-zero inputs if at most 1/SPARSE_INPUT_RATIO of them are non-zero
+   */
+  static final int SPARSE_INPUT_RATIO = 4;
+
   /**
    * Helper to check sanity of Neuron layers
    * @param training whether training or testing is done
@@ -183,6 +188,22 @@ public abstract class Neurons {
    */
   protected abstract void fprop(long seed, boolean training, int n);
 
+  /**
+   * Net input of the mini-batch: _a[mb] = _w * _previous._a[mb] + _b
+   * For the first hidden layer of sparse input only the non-zero inputs are used (the results are identical).
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   * @param n number of actually trained samples in this mini-batch
+   */
+  final void fpropNet(byte[] row_bits, int n) {
+    final int[][] ids = _previous instanceof Input ? ((Input) _previous).sparseIds(n) : null;
+    if (ids == null) {
+      gemm(_a, _w, _previous._a, _b, row_bits, n);
+      return;
+    }
+    for (int mb = 0; mb < n; ++mb)
+      gemv_sparse(_a[mb].raw(), _w.raw(), _previous._a[mb].raw(), ids[mb], ((Input) _previous).nnz(mb), _b.raw(), row_bits);
+  }
+
   /**
    *  Back propagation of error terms stored in _e (for non-final layers)
    */
@@ -238,6 +259,8 @@ public abstract class Neurons {
     final boolean fast_mode = params._fast_mode;
     final int cols = _previous._a[0].size();
     assert(partial_grad.length == n);
+    // in fast mode, only the weights of the non-zero inputs are updated
+    final int[][] ids = fast_mode && _previous instanceof Input ? ((Input) _previous).sparseIds(n) : null;
 
     double avg_grad2 = 0;
 
@@ -246,7 +269,9 @@ public abstract class Neurons {
     for( int mb = 0; mb < n; mb++ ) {
       if (_shortcut && partial_grad[mb] == 0f) return;
       final boolean update_prev = _previous._e != null && _previous._e[mb] != null;
-      for( int col = 0; col < cols; col++ ) {
+      final int ncols = ids != null ? ((Input) _previous).nnz(mb) : cols;
+      for( int c = 0; c < ncols; c++ ) {
+        final int col = ids != null ? ids[mb][c] : c;
         int w = idx + col;
 
         // for Maxout, return the "winning" linear index into the matrix
@@ -485,11 +510,39 @@ public abstract class Neurons {
 
     private DataInfo _dinfo; //training data
 
+    // per mini-batch row: sorted indices of the (potentially) non-zero input units, -1 if not known (hashed input)
+    private int[][] _nzIds;
+    private int[] _nnz;
+
     Input(DeepLearningParameters params, int units, final DataInfo d) {
       super(units);
       _dinfo = d;
       _a = new Storage.DenseVector[params._mini_batch_size];
       for (int i=0;i<_a.length;++i) _a[i] = new Storage.DenseVector(units);
+      _nzIds = new int[params._mini_batch_size][];
+      _nnz = new int[params._mini_batch_size];
+      Arrays.fill(_nnz, -1);
+    }
+
+    /**
+     * Indices of the non-zero input units of the mini-batch rows, only available if all the rows are sparse enough
+     * for the first hidden layer to only use the non-zero inputs
+     * @param n Actual mini-batch size
+     * @return per mini-batch row the sorted indices of the non-zero units (the first nnz(mb) entries are valid), or null
+     */
+    int[][] sparseIds(int n) {
+      for (int mb = 0; mb < n; ++mb)
+        if (_nnz[mb] < 0 || _nnz[mb] * SPARSE_INPUT_RATIO > units) return null;
+      return _nzIds;
+    }
+
+    int nnz(int mb) { return _nnz[mb]; }
+
+    private void addNonZero(int mb, int id) {
+      int[] ids = _nzIds[mb];
+      if (ids == null || ids.length == _nnz[mb])
+        _nzIds[mb] = ids = ids == null ? new int[16] : Arrays.copyOf(ids, ids.length * 2);
+      ids[_nnz[mb]++] = id;
     }
 
     @Override protected void bprop(int n) { throw new UnsupportedOperationException(); }
@@ -597,22 +650,35 @@ public abstract class Neurons {
           for (int i = 0; i < nums.length; ++i)
             _a[mb].set(cM + i, Double.isNaN(nums[i]) ? 0f /*Always do MeanImputation during scoring*/ : nums[i]);
 //        }
+        _nnz[mb] = -1;
       } else {
         assert(_a[mb].size() == _dinfo.fullN());
+        _nnz[mb] = 0;
         for (int i = 0; i < numcat; ++i) {
           if(cats[i] >= 0) {
             _a[mb].set(cats[i], 1f); // one-hot encode categoricals
+            addNonZero(mb, cats[i]);
           }
         }
         if (numIds != null) {
           //sparse
-          for (int i = 0; i < numIds.length; ++i)
+          for (int i = 0; i < numIds.length; ++i) {
             _a[mb].set(numIds[i], Double.isNaN(nums[i]) ? 0f /*Always do MeanImputation during scoring*/ : nums[i]);
+            if (_a[mb].get(numIds[i]) != 0) addNonZero(mb, numIds[i]);
+          }
         } else {
           //dense
-          for (int i = 0; i < nums.length; ++i)
+          for (int i = 0; i < nums.length; ++i) {
             _a[mb].set(_dinfo.numStart() + i, Double.isNaN(nums[i]) ? 0f /*Always do MeanImputation during scoring*/ : nums[i]);
+            if (_a[mb].get(_dinfo.numStart() + i) != 0) addNonZero(mb, _dinfo.numStart() + i);
+          }
         }
+        final int[] ids = _nzIds[mb];
+        for (int i = 1; i < _nnz[mb]; ++i)
+          if (ids[i] < ids[i-1]) {
+            Arrays.sort(ids, 0, _nnz[mb]);
+            break;
+          }
       }
 
       // Input Dropout
@@ -633,9 +699,7 @@ public abstract class Neurons {
   public static class Tanh extends Neurons {
     public Tanh(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropNet(_dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb)
         for( int row = 0; row < rows; row++ )
@@ -758,9 +822,7 @@ public abstract class Neurons {
   public static class Rectifier extends Neurons {
     public Rectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropNet(_dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb) {
         for( int row = 0; row < rows; row++ ) {
@@ -808,8 +870,7 @@ public abstract class Neurons {
   public static class ExpRectifier extends Neurons {
     public ExpRectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropNet(_dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for( int row = 0; row < rows; row++ ) {
         for (int mb=0;mb<n;++mb) {
@@ -871,8 +932,7 @@ public abstract class Neurons {
   public static class Softmax extends Output {
     public Softmax(int units) { super(units); }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, null);
+      fpropNet(null, n);
       for (int mb=0;mb<n;++mb) {
         final double max = ArrayUtils.maxValue(_a[mb].raw());
         double scaling = 0;
@@ -928,8 +988,7 @@ public abstract class Neurons {
       super(1);
     }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropNet(_dropout != null ? _dropout.bits() : null, n);
     }
 
     /**
@@ -975,13 +1034,20 @@ public abstract class Neurons {
    * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
    */
   static void gemv_row_optimized(final double[] res, final float[] a, final double[] x, final double[] y, final byte[] row_bits) {
+    assert(res.length == y.length);
+    gemv_rows(res, a, x, y, row_bits, 0, y.length);
+  }
+
+  /**
+   * Same as {@link #gemv_row_optimized} for the rows row0 (inclusive) to row1 (exclusive) only, the other entries
+   * of res are not touched. Shared by gemv and the tiles of gemm.
+   */
+  static void gemv_rows(final double[] res, final float[] a, final double[] x, final double[] y, final byte[] row_bits, final int row0, final int row1) {
     final int cols = x.length;
-    final int rows = y.length;
-    assert(res.length == rows);
     final int extra=cols-cols%8;
     final int multiple = (cols/8)*8-1;
-    int idx = 0;
-    for (int row = 0; row<rows; row++) {
+    int idx = row0 * cols;
+    for (int row = row0; row<row1; row++) {
       res[row] = 0;
       if( row_bits == null || (row_bits[row / 8] & (1 << (row % 8))) != 0) {
         double psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0, psum4 = 0, psum5 = 0, psum6 = 0, psum7 = 0;
@@ -1021,4 +1087,112 @@ public abstract class Neurons {
   static void gemv_naive(final Storage.DenseVector res, final Storage.DenseRowMatrix a, final Storage.DenseVector x, final Storage.DenseVector y, byte[] row_bits) {
     gemv_naive(res.raw(), a.raw(), x.raw(), y.raw(), row_bits);
   }
+
+  /**
+   * Mat-Vec Plus Add for a sparse vector x (with optional row dropout)
+   * Only the given non-zero entries of x are used, they are summed in the same order as in gemv_row_optimized
+   * (the results are identical).
+   * @param res = a*x+y (pre-allocated, will be overwritten)
+   * @param a matrix of size rows x cols
+   * @param x vector of length cols
+   * @param ids sorted indices of the non-zero entries of x
+   * @param nnz number of valid entries of ids
+   * @param y vector of length rows
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   */
+  static void gemv_sparse(final double[] res, final float[] a, final double[] x, final int[] ids, final int nnz, final double[] y, final byte[] row_bits) {
+    final int cols = x.length;
+    final int rows = y.length;
+    assert(res.length == rows);
+    final int extra=cols-cols%8;
+    final double[] psum = new double[8];
+    int idx = 0;
+    for (int row = 0; row<rows; row++) {
+      res[row] = 0;
+      if( row_bits == null || (row_bits[row / 8] & (1 << (row % 8))) != 0) {
+        Arrays.fill(psum, 0);
+        int k = 0;
+        for (; k < nnz && ids[k] < extra; ++k)
+          psum[ids[k] & 7] += a[idx + ids[k]] * x[ids[k]];
+        res[row] += psum[0] + psum[1] + psum[2] + psum[3];
+        res[row] += psum[4] + psum[5] + psum[6] + psum[7];
+        for (; k < nnz; ++k)
+          res[row] += a[idx + ids[k]] * x[ids[k]];
+        res[row] += y[row];
+      }
+      idx += cols;
+    }
+  }
+
+  // number of matrix entries of a tile of rows kept in cache while it is applied to the whole mini-batch
+  static final int GEMM_TILE = 1 << 14;
+
+  /**
+   * Mini-batch Mat-Mat Plus Add (with optional row dropout): res[mb] = a*x[mb]+y for every mb < n
+   * The rows of a are processed in tiles that stay in cache while they are applied to all the mini-batch rows, the
+   * mini-batch rows are processed in pairs (every matrix entry is loaded once per pair).
+   * Every dot product is summed in the same order as in gemv_row_optimized (the results are identical).
+   * @param res = a*x[mb]+y (pre-allocated, will be overwritten)
+   * @param a matrix of size rows x cols
+   * @param x mini-batch of vectors of length cols
+   * @param y vector of length rows
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   * @param n actual mini-batch size
+   */
+  static void gemm(final Storage.DenseVector[] res, final Storage.DenseRowMatrix a, final Storage.DenseVector[] x, final Storage.DenseVector y, final byte[] row_bits, final int n) {
+    if (n == 1) {
+      gemv(res[0], a, x[0], y, row_bits);
+      return;
+    }
+    final float[] w = a.raw();
+    final double[] b = y.raw();
+    final int cols = x[0].size();
+    final int rows = b.length;
+    final int tile = Math.max(1, GEMM_TILE / Math.max(1, cols));
+    for (int row0 = 0; row0 < rows; row0 += tile) {
+      final int row1 = Math.min(rows, row0 + tile);
+      int mb = 0;
+      for (; mb + 1 < n; mb += 2)
+        gemm_rows2(res[mb].raw(), res[mb + 1].raw(), w, x[mb].raw(), x[mb + 1].raw(), b, row_bits, row0, row1);
+      if (mb < n)
+        gemv_rows(res[mb].raw(), w, x[mb].raw(), b, row_bits, row0, row1);
+    }
+  }
+
+  private static void gemm_rows2(final double[] res0, final double[] res1, final float[] a, final double[] x0, final double[] x1, final double[] y, final byte[] row_bits, final int row0, final int row1) {
+    final int cols = x0.length;
+    final int extra=cols-cols%8;
+    final int multiple = (cols/8)*8-1;
+    for (int row = row0; row < row1; row++) {
+      res0[row] = 0;
+      res1[row] = 0;
+      if( row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) continue;
+      final int idx = row * cols;
+      double p0 = 0, p1 = 0, p2 = 0, p3 = 0, p4 = 0, p5 = 0, p6 = 0, p7 = 0;
+      double q0 = 0, q1 = 0, q2 = 0, q3 = 0, q4 = 0, q5 = 0, q6 = 0, q7 = 0;
+      for (int col = 0; col < multiple; col += 8) {
+        final int off = idx + col;
+        final double a0 = a[off], a1 = a[off + 1], a2 = a[off + 2], a3 = a[off + 3];
+        final double a4 = a[off + 4], a5 = a[off + 5], a6 = a[off + 6], a7 = a[off + 7];
+        p0 += a0 * x0[col    ]; q0 += a0 * x1[col    ];
+        p1 += a1 * x0[col + 1]; q1 += a1 * x1[col + 1];
+        p2 += a2 * x0[col + 2]; q2 += a2 * x1[col + 2];
+        p3 += a3 * x0[col + 3]; q3 += a3 * x1[col + 3];
+        p4 += a4 * x0[col + 4]; q4 += a4 * x1[col + 4];
+        p5 += a5 * x0[col + 5]; q5 += a5 * x1[col + 5];
+        p6 += a6 * x0[col + 6]; q6 += a6 * x1[col + 6];
+        p7 += a7 * x0[col + 7]; q7 += a7 * x1[col + 7];
+      }
+      res0[row] += p0 + p1 + p2 + p3;
+      res0[row] += p4 + p5 + p6 + p7;
+      res1[row] += q0 + q1 + q2 + q3;
+      res1[row] += q4 + q5 + q6 + q7;
+      for (int col = extra; col < cols; col++) {
+        res0[row] += a[idx + col] * x0[col];
+        res1[row] += a[idx + col] * x1[col];
+      }
+      res0[row] += y[row];
+      res1[row] += y[row];
+    }
+  }
 }
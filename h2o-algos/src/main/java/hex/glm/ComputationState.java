@@ -7,6 +7,7 @@ import hex.glm.GLM.GLMGradientSolver;
 import hex.glm.GLMModel.GLMParameters;
 import hex.glm.GLMModel.GLMParameters.Family;
 import hex.gram.Gram;
+import hex.gram.SparseGram;
 import hex.optimization.ADMM;
 import hex.optimization.OptimizationUtils.GradientInfo;
 import hex.optimization.OptimizationUtils.GradientSolver;
@@ -333,10 +334,13 @@ public final class ComputationState {
       int [] newCols = MemoryManager.malloc4(P);
       int j = 0;
       int[] oldActiveCols = _activeData._activeCols == null ? new int[]{P} : _activeData.activeCols();
+      int k = 0;
       for (int i = 0; i < P; ++i) {
+        while (_screenedCols != null && k < _screenedCols.length && _screenedCols[k] < i) k++;
         if(j < oldActiveCols.length && oldActiveCols[j] == i)
           j++;
-        else if (_ginfo._gradient[i] > rhs || -_ginfo._gradient[i] > rhs)
+        else if (_ginfo._gradient[i] > rhs || -_ginfo._gradient[i] > rhs 
+                || (_screenedCols != null && k < _screenedCols.length && _screenedCols[k] == i))
           newCols[newlySelected++] = i; // choose active columns here
       }
       if(_parms._max_active_predictors != -1 && (oldActiveCols.length + newlySelected -1) > _parms._max_active_predictors){
@@ -774,6 +778,7 @@ public final class ComputationState {
    */
   public static final class GramXY {
     public final Gram gram;
+    public final SparseGram sparseGram; // instead of gram for wide sparse data, see useSparseGram
     final double[] beta;
     final int[] activeCols;
     int [] newCols;
@@ -785,7 +790,16 @@ public final class ComputationState {
 
 
     public GramXY(Gram gram, double[] xy, double [] grads, double[] beta, int[] activeCols, int [] newActiveCols, double yy, double likelihood) {
+      this(gram, null, xy, grads, beta, activeCols, newActiveCols, yy, likelihood);
+    }
+
+    public GramXY(SparseGram gram, double[] xy, double[] beta, int[] activeCols, double yy, double likelihood) {
+      this(null, gram, xy, null, beta, activeCols, null, yy, likelihood);
+    }
+
+    private GramXY(Gram gram, SparseGram sparseGram, double[] xy, double [] grads, double[] beta, int[] activeCols, int [] newActiveCols, double yy, double likelihood) {
       this.gram = gram;
+      this.sparseGram = sparseGram;
       this.xy = xy;
       this.grads = grads;
       this.beta = beta == null ? null : beta.clone();
@@ -881,6 +895,22 @@ public final class ComputationState {
 
   GramXY _currGram;
   GLMModel.GLMWeightsFun _glmw;
+  boolean _useSparseGram; // IRLSM of wide sparse data, see GLM#sparseGramApplies
+  int[] _screenedCols; // columns to be selected by the strong rules regardless of the gradient (sorted)
+
+  /**
+   * Same as {@link #computeNewGram} but the gram is accumulated as a {@link SparseGram}. Columns without any
+   * non-zero value are not dropped, they are kept at zero by the solver.
+   */
+  protected GramXY computeNewSparseGram(DataInfo activeData, double [] beta){
+    double obj_reg = _parms._obj_reg;
+    if(_glmw == null) _glmw = new GLMModel.GLMWeightsFun(_parms);
+    GLMTask.GLMIterationTask gt = new GLMTask.GLMIterationTask(_job._key, activeData, _glmw, beta, _activeClass)
+            .withSparseGram().doAll(activeData._adaptedFrame);
+    gt._sparseGram.mul(obj_reg);
+    ArrayUtils.mult(gt._xy,obj_reg);
+    return new GramXY(gt._sparseGram,gt._xy,beta,activeData.activeCols(),gt._yy,gt._likelihood);
+  }
 
 
   // get cached gram or incrementally update or compute new one
@@ -889,6 +919,8 @@ public final class ComputationState {
     boolean weighted = _parms._family != Family.gaussian || _parms._link != GLMParameters.Link.identity;
     if(_parms._family == Family.multinomial) // no caching
       return computeNewGram(activeDataMultinomial(_activeClass),beta,s);
+    if(_useSparseGram)
+      return computeNewSparseGram(activeData(),beta);
     if(s != GLMParameters.Solver.COORDINATE_DESCENT)
       // only cache for solver==COD
       //    caching only makes difference when running with lambda search
@@ -9,6 +9,7 @@ import hex.glm.GLMTask.*;
 import hex.gram.Gram;
 import hex.gram.Gram.Cholesky;
 import hex.gram.Gram.NonSPDMatrixException;
+import hex.gram.SparseGram;
 import hex.optimization.ADMM;
 import hex.optimization.ADMM.L1Solver;
 import hex.optimization.ADMM.ProximalSolver;
@@ -113,6 +114,7 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
   private boolean _doInit = true;  // flag setting whether or not to run init
   private double [] _xval_deviances;
   private double [] _xval_sd;
+  private int [][] _cvActiveCols; // per lambda: columns active in the cv models, see cvActiveCols
 
   /**
    * GLM implementation of N-fold cross-validation.
@@ -159,11 +161,10 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
         double testDevSq = 0;
         for (int i = 0; i < cvModelBuilders.length; ++i) {  // run cv for each lambda value
           GLM g = (GLM) cvModelBuilders[i];
-          if (g._model._output._submodels[lidx] != null) {
-            double lambda = g._model._output._submodels[lidx].lambda_value;
-            g._driver.computeSubmodel(lidx, lambda, Double.NaN, Double.NaN);
-            testDev += g._model._output._submodels[lidx].devianceValid;
-            testDevSq += g._model._output._submodels[lidx].devianceValid * g._model._output._submodels[lidx].devianceValid;
+          Submodel sm = g.cvSubmodel(lidx);
+          if (sm != null) {
+            testDev += sm.devianceValid;
+            testDevSq += sm.devianceValid * sm.devianceValid;
           }
         }
         double testDevAvg = testDev / cvModelBuilders.length; // average testDevAvg for fixed submodel index
@@ -187,6 +188,7 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
             Keyed.remove(k);
       }
       _parms._lambda = Arrays.copyOf(_parms._lambda,lmin_max+1);
+      _cvActiveCols = cvActiveCols(cvModelBuilders, _parms._lambda.length);
       _xval_deviances = Arrays.copyOf(_xval_deviances, lmin_max+1);
       _xval_sd = Arrays.copyOf(_xval_sd, lmin_max+1);
       for (int i = 0; i < cvModelBuilders.length; ++i) {
@@ -212,6 +214,68 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
     _doInit = false;
   }
 
+  /**
+   * Submodel of a cv model for the lambda with the given index (the submodels are requested in order). The submodels
+   * the cv model finished during its own lambda search are reused, the submodel is fitted only if the cv model
+   * stopped early (before reaching the lambda or without finishing the submodel).
+   */
+  Submodel cvSubmodel(int lidx) {
+    Submodel[] sms = _model._output._submodels;
+    if (lidx > sms.length || lidx == sms.length && _parms._alpha.length > 1) // cannot continue with the next alpha
+      return null;
+    if (lidx < sms.length && (sms[lidx] == null || !(sms[lidx].devianceValid < 0)))
+      return sms[lidx];
+    double lambda = lidx < sms.length ? sms[lidx].lambda_value : _parms._lambda[lidx];
+    Submodel sm = _driver.computeSubmodel(lidx, lambda, Double.NaN, Double.NaN); // appended as the last submodel
+    if (lidx < sms.length) { // replaces the unfinished submodel
+      sms = _model._output._submodels;
+      sms[lidx] = sm;
+      _model._output._submodels = Arrays.copyOf(sms, sms.length - 1);
+    }
+    return sm;
+  }
+
+  // Read on every use to allow comparing the models built with and without the columns of the cv models
+  static boolean isCVScreeningEnabled() {
+    return H2O.getSysBoolProperty("glm.cv_screening", true);
+  }
+
+  /**
+   * Columns active in any of the fold models, per lambda. The main model adds them to the columns selected by the
+   * strong rules - they are likely to be active in the main model too and adding them upfront saves the refits
+   * after failed KKT checks.
+   */
+  private int[][] cvActiveCols(ModelBuilder[] cvModelBuilders, int nlambdas) {
+    if (!isCVScreeningEnabled() || !_parms._lambda_search || _parms._alpha.length > 1 || _parms._HGLM || _parms._family == Family.multinomial 
+            || _parms._family == Family.ordinal)
+      return null;
+    String[] coefNames = _dinfo.coefNames();
+    HashMap<String, Integer> ids = new HashMap<>();
+    for (int i = 0; i < coefNames.length; ++i)
+      ids.put(coefNames[i], i);
+    int[][] res = new int[nlambdas][];
+    for (int lidx = 0; lidx < nlambdas; ++lidx) {
+      boolean[] active = new boolean[coefNames.length];
+      for (ModelBuilder mb : cvModelBuilders) {
+        GLMModel.GLMOutput output = ((GLM) mb)._model._output;
+        Submodel sm = lidx < output._submodels.length ? output._submodels[lidx] : null;
+        if (sm == null) continue;
+        String[] names = output._coefficient_names;
+        int n = sm.idxs == null ? sm.beta.length : sm.idxs.length;
+        for (int k = 0; k < n; ++k) {
+          Integer id = ids.get(names[sm.idxs == null ? k : sm.idxs[k]]); // null for the intercept
+          if (id != null && (sm.idxs != null || sm.beta[k] != 0)) active[id] = true;
+        }
+      }
+      int cnt = 0;
+      for (boolean b : active) if (b) ++cnt;
+      res[lidx] = MemoryManager.malloc4(cnt);
+      for (int i = 0, j = 0; i < active.length; ++i)
+        if (active[i]) res[lidx][j++] = i;
+    }
+    return res;
+  }
+
   protected void checkMemoryFootPrint(DataInfo activeData) {
     if (_parms._solver == Solver.IRLSM || _parms._solver == Solver.COORDINATE_DESCENT) {
       int p = activeData.fullN();
@@ -595,6 +659,22 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       }
       if (_parms._link == Link.family_default)
         _parms._link = _parms._family.defaultLink;
+      if (_parms._solver == Solver.SGD) {
+        if (_parms._family == Family.multinomial || _parms._family == Family.ordinal || _parms._family == Family.tweedie 
+                || _parms._family == Family.negativebinomial)
+          error("_solver", "SGD solver is not supported for family " + _parms._family + ".");
+        if (_parms._HGLM || gam.equals(_parms._glmType))
+          error("_solver", "SGD solver is not supported for HGLM and GAM.");
+        if (_parms._beta_constraints != null || _parms._non_negative)
+          error("_solver", "SGD solver does not support beta constraints.");
+        if (_parms._sgd_batch_size < 1)
+          error("_sgd_batch_size", "sgd_batch_size must be a positive number.");
+        if (!(_parms._sgd_learning_rate > 0))
+          error("_sgd_learning_rate", "sgd_learning_rate must be a positive number.");
+        if (_parms._sgd_holdout < 0 || _parms._sgd_holdout == 1)
+          error("_sgd_holdout", "sgd_holdout must be 0 (no rows held out) or larger than 1.");
+        if (error_count() > 0) return;
+      }
       if (_parms._plug_values != null) {
         Frame plugValues = _parms._plug_values.get();
         if (plugValues == null) {
@@ -621,7 +701,9 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
           _parms._max_iterations = _parms._lambda_search ? _parms._nlambdas * 100 * numclasses : numclasses * Math.max(20, _dinfo.fullN() >> 2);
           if(_parms._alpha[0] > 0)
             _parms._max_iterations *= 10;
-        } else
+        } else if (_parms._solver == Solver.SGD) // passes over the data
+          _parms._max_iterations = _parms._lambda_search ? 2 * _parms._nlambdas : 2;
+        else
           _parms._max_iterations = _parms._lambda_search ? 10 * _parms._nlambdas : 50;
       }
       if (_valid != null)
@@ -985,6 +1067,11 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
   
   private transient ComputationState _state;
 
+  // Whether the model was fitted with the sparse gram, see #sparseGramApplies
+  boolean usedSparseGram() {
+    return _state != null && _state._useSparseGram;
+  }
+
   /**
    * Main loop of the glm algo.
    */
@@ -1055,6 +1142,19 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       return xy;
     }
 
+    private double[] ADMM_solve(SparseGram gram, double [] xy) {
+      SparseGramSolver slvr = new SparseGramSolver(gram, xy, _parms._intercept, _state.l2pen(), _state.l1pen(), _state.activeBC()._betaGiven, _state.activeBC()._rho, _state.activeBC()._betaLB, _state.activeBC()._betaUB);
+      _chol = null;
+      xy = MemoryManager.malloc8d(xy.length);
+      if(_state.l1pen() == 0 && !_state.activeBC().hasBounds()) {
+        slvr.solve(xy);
+      } else {
+        if(_state._u == null) _state._u = MemoryManager.malloc8d(_state.activeData().fullN()+1);
+        (_lslvr = new ADMM.L1Solver(1e-4, 10000, _state._u)).solve(slvr, xy, _state.l1pen(), _parms._intercept, _state.activeBC()._betaLB, _state.activeBC()._betaUB);
+      }
+      return xy;
+    }
+
     private void fitCOD_multinomial(Solver s) {
       double[] beta = _state.betaMultinomial();
       LineSearchSolver ls;
@@ -1507,9 +1607,9 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       ComputationState.GramXY gramXY = _state.computeGram(_state.beta(),s);
       Log.info(LogMsg("Gram computed in " + (System.currentTimeMillis()-t0) + "ms"));
       double [] beta = _parms._solver == Solver.COORDINATE_DESCENT?COD_solve(gramXY,_state._alpha,_state.lambda())
-              :ADMM_solve(gramXY.gram,gramXY.xy);
+              :gramXY.sparseGram != null?ADMM_solve(gramXY.sparseGram,gramXY.xy):ADMM_solve(gramXY.gram,gramXY.xy);
       // compute mse
-      double [] x = ArrayUtils.mmul(gramXY.gram.getXX(),beta);
+      double [] x = gramXY.sparseGram != null?gramXY.sparseGram.mul(beta):ArrayUtils.mmul(gramXY.gram.getXX(),beta);
       for(int i = 0; i < x.length; ++i)
         x[i] = (x[i] - 2*gramXY.xy[i]);
       double l = .5*(ArrayUtils.innerProduct(x,beta)/_parms._obj_reg + gramXY.yy );
@@ -1540,6 +1640,7 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
             }
             if (!_checkPointFirstIter)
               betaCnd = s == Solver.COORDINATE_DESCENT ? COD_solve(gram, _state._alpha, _state.lambda())
+                      : gram.sparseGram != null ? ADMM_solve(gram.sparseGram, gram.xy)
                       : ADMM_solve(gram.gram, gram.xy); // this will shrink betaCnd if needed but this call may be skipped
           }
           firstIter = false;
@@ -1571,6 +1672,48 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       }
     }
     
+    /**
+     * Mini-batch stochastic gradient descent, each iteration is a single pass over the data (see {@link GLMSGDTask}).
+     * Meant for very long data where a few passes give a good enough approximation of the solution. Stops when the
+     * loss of the held out rows (every sgd_holdout-th row) stops improving. Unless sgd_average is turned off, the
+     * coefficients are averaged over the steps after the first pass.
+     */
+    private void fitSGD() {
+      DataInfo dinfo = _state.activeData();
+      double[] beta = _state.beta();
+      if (beta == null) {
+        beta = MemoryManager.malloc8d(dinfo.fullN() + 1);
+        if (_parms._intercept)
+          beta[beta.length - 1] = new GLMWeightsFun(_parms).link(_state._ymu[0]);
+      }
+      beta = beta.clone();
+      double[] m = MemoryManager.malloc8d(beta.length);
+      double[] v = MemoryManager.malloc8d(beta.length);
+      double[] avg = null;
+      long t = 0;
+      long avgStart = 0;
+      double bestHoldoutLoss = Double.POSITIVE_INFINITY;
+      while (true) {
+        GLMSGDTask sgd = new GLMSGDTask(_job._key, dinfo, _parms, beta, m, v, avg, t, avgStart, _state.l1pen(), _state.l2pen(), 
+                _parms._sgd_batch_size, _parms._sgd_learning_rate, _parms._sgd_holdout).doAll(dinfo._adaptedFrame);
+        beta = sgd._beta;
+        m = sgd._m;
+        v = sgd._v;
+        avg = sgd._avg;
+        t = sgd._tEnd;
+        double holdoutLoss = sgd._holdoutWsum > 0 ? sgd._holdoutLikelihood / sgd._holdoutWsum : Double.NaN;
+        Log.info(LogMsg("SGD pass done, " + sgd._steps + " steps, holdout loss = " + holdoutLoss));
+        boolean improved = !(holdoutLoss >= bestHoldoutLoss * (1 - _parms._objective_epsilon));
+        if (holdoutLoss < bestHoldoutLoss) bestHoldoutLoss = holdoutLoss;
+        if (!progress((avg != null ? avg : beta).clone(), sgd._likelihood) || !improved)
+          return;
+        if (_parms._sgd_average && avg == null) {
+          avg = beta.clone();
+          avgStart = t;
+        }
+      }
+    }
+
     private void fitLBFGS() {
       double [] beta = _state.beta();
       final double l1pen = _state.l1pen();
@@ -1805,6 +1948,9 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
     }
     private void fitModel() {
       Solver solver = (_parms._solver == Solver.AUTO) ? defaultSolver() : _parms._solver;
+      _state._useSparseGram = solver == Solver.IRLSM && sparseGramApplies();
+      if (_state._useSparseGram)
+        Log.info(LogMsg("IRLSM with sparse gram, the least squares problems are solved by conjugate gradients"));
       if (_parms._HGLM) {
         fitHGLM();
       } else {
@@ -1828,6 +1974,9 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
           case L_BFGS:
             fitLBFGS();
             break;
+          case SGD:
+            fitSGD();
+            break;
           case COORDINATE_DESCENT_NAIVE:
             fitCOD();
             break;
@@ -2189,6 +2338,7 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
           _model.addSubmodel(sm);
         }
         if (!_parms._HGLM) {  // only perform this when HGLM is not used.
+          _state._screenedCols = _cvActiveCols != null && i < _cvActiveCols.length ? _cvActiveCols[i] : null;
           if (!_checkPointFirstIter)
             _state.setLambda(lambda);
         }
@@ -2546,8 +2696,10 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       for(int c = 0; c < _nclass; ++c)
         max_active += _state.activeDataMultinomial(c).fullN();
     else max_active = _state.activeData().fullN();
-    if(max_active >= 5000) // cutoff has to be somewhere
+    if(max_active >= 5000 && !sparseGramApplies()) // cutoff has to be somewhere
       s = Solver.L_BFGS;
+    else if(max_active >= 5000)
+      Log.info(LogMsg("picked solver " + s + " with sparse gram"));
     else if(_parms._lambda_search) { // lambda search prefers coordinate descent
       // l1 lambda search is better with coordinate descent!
       s = Solver.COORDINATE_DESCENT;
@@ -2557,12 +2709,42 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       s = Solver.L_BFGS; // multinomial does better with lbfgs
     else
       Log.info(LogMsg("picked solver " + s));
-    if(s != Solver.L_BFGS && _parms._max_active_predictors == -1)
+    if(s != Solver.L_BFGS && max_active < 5000 && _parms._max_active_predictors == -1)
       _parms._max_active_predictors = 5000;
     _parms._solver = s;
     return s;
   }
 
+  /**
+   * The sparse gram changes the solver of the (proximal) least squares problems (conjugate gradients instead of
+   * Cholesky decomposition), it is therefore used only if asked for with -Dsys.ai.h2o.glm.sparse_gram=true.
+   * Read on every use to allow switching it between the model builds.
+   */
+  static boolean isSparseGramEnabled() {
+    return H2O.getSysBoolProperty("glm.sparse_gram", false);
+  }
+
+  /**
+   * IRLSM of very wide data with only a few non-zeros per row (eg. one-hot encoded high cardinality categoricals)
+   * accumulates the gram as a {@link SparseGram} and solves it iteratively instead of computing dense N x N gram
+   * and its Cholesky decomposition. The sparse gram can not provide p-values nor detect collinear columns.
+   */
+  private boolean sparseGramApplies() {
+    if(!isSparseGramEnabled() || _parms._HGLM || gam.equals(_parms._glmType) || _parms._compute_p_values || _parms._remove_collinear_columns)
+      return false;
+    if(_parms._family == Family.multinomial || _parms._family == Family.ordinal)
+      return false;
+    DataInfo dinfo = _state.activeData();
+    int N = dinfo.fullN();
+    if(N < 5000) return false;
+    long nrows = dinfo._adaptedFrame.numRows();
+    if(nrows == 0) return false;
+    double nnzPerRow = dinfo._cats + 1; // one level per categorical + intercept
+    for(int i = 0; i < dinfo._nums; ++i)
+      nnzPerRow += (double) dinfo._adaptedFrame.vec(dinfo._cats + i).nzCnt() / nrows;
+    return nnzPerRow * nnzPerRow <= N;
+  }
+
   double objVal(double likelihood, double[] beta, double lambda) {
     double alpha = _parms._alpha[0];
     double proximalPen = 0;
@@ -2868,6 +3050,150 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
     }
   }
 
+  /**
+   * Same as {@link GramSolver} for a {@link SparseGram}. Cholesky decomposition of a sparse gram would fill in, the
+   * (proximal) least squares problems are solved by the conjugate gradient method with the diagonal preconditioner
+   * instead, starting from the previous solution (ADMM solves a sequence of close problems).
+   */
+  public static final class SparseGramSolver implements ProximalSolver {
+    private static final double TOL = 1e-8; // relative residual
+    private static final int MAX_ITER = 1000;
+
+    private final SparseGram _gram;
+    private final double[] _xy;
+    private final double[] _rho;
+    private final double[] _diagAdd; // l2 and proximal penalties added to the gram
+    private final double[] _precond;
+    private final boolean[] _fixed;  // coefficients kept at zero (constant columns, intercept if not fitted)
+    private double[] _x;
+    private int _iter;
+
+    public SparseGramSolver(SparseGram gram, double[] xy, boolean intercept, double l2pen, double l1pen, double[] beta_given, double[] proxPen, double[] lb, double[] ub) {
+      _gram = gram;
+      final int N = xy.length;
+      final int icptCol = N - 1;
+      // rho is picked the same way as in GramSolver
+      int ii = intercept ? 1 : 0;
+      double[] rhos = MemoryManager.malloc8d(N);
+      double[] diag = gram.diag();
+      double min = Double.POSITIVE_INFINITY;
+      for (int i = 0; i < N - ii; ++i) {
+        double d = xy[i];
+        d = d >= 0 ? d : -d;
+        if (d < min && d != 0) min = d;
+      }
+      double ybar = xy[icptCol];
+      for (int i = 0; i < N - ii; ++i) {
+        double y = xy[i];
+        if (y == 0) y = min;
+        double xbar = gram.get(icptCol, i);
+        double x = ((y - ybar * xbar) / ((diag[i] - xbar * xbar) + l2pen));
+        rhos[i] = ADMM.L1Solver.estimateRho(x, l1pen, lb == null ? Double.NEGATIVE_INFINITY : lb[i], ub == null ? Double.POSITIVE_INFINITY : ub[i]);
+      }
+      if (intercept && (lb != null && !Double.isInfinite(lb[icptCol]) || ub != null && !Double.isInfinite(ub[icptCol])))
+        rhos[icptCol] = 1;
+      _diagAdd = MemoryManager.malloc8d(N);
+      for (int i = 0; i < icptCol; ++i)
+        _diagAdd[i] = l2pen;
+      xy = xy.clone();
+      if (proxPen != null && beta_given != null) {
+        for (int i = 0; i < N; ++i) {
+          _diagAdd[i] += proxPen[i];
+          xy[i] += proxPen[i] * beta_given[i];
+        }
+      }
+      _fixed = new boolean[N];
+      _precond = MemoryManager.malloc8d(N);
+      for (int i = 0; i < N; ++i) {
+        _fixed[i] = diag[i] == 0 || (i == icptCol && !intercept);
+        double d = diag[i] + _diagAdd[i] + rhos[i];
+        _precond[i] = d > 0 ? 1.0 / d : 1;
+      }
+      if (!intercept) xy[icptCol] = 0;
+      _xy = xy;
+      _rho = rhos;
+      _x = MemoryManager.malloc8d(N);
+    }
+
+    // solve the problem w/o the proximal penalty
+    public void solve(double[] result) {
+      solve(null, result);
+    }
+
+    @Override
+    public double[] rho() {
+      return _rho;
+    }
+
+    @Override
+    public boolean solve(double[] beta_given, double[] result) {
+      final int N = _xy.length;
+      double[] b = MemoryManager.malloc8d(N);
+      for (int i = 0; i < N; ++i)
+        if (!_fixed[i])
+          b[i] = beta_given != null ? _xy[i] + _rho[i] * beta_given[i] : _xy[i];
+      double bnorm = Math.sqrt(ArrayUtils.innerProduct(b, b));
+      double[] x = _x;
+      if (bnorm == 0) {
+        Arrays.fill(x, 0);
+      } else {
+        double[] r = b;
+        double[] ap = multiply(x);
+        for (int i = 0; i < N; ++i)
+          r[i] -= ap[i];
+        double[] z = MemoryManager.malloc8d(N);
+        for (int i = 0; i < N; ++i)
+          z[i] = _precond[i] * r[i];
+        double[] p = z.clone();
+        double rz = ArrayUtils.innerProduct(r, z);
+        for (int k = 0; k < MAX_ITER && Math.sqrt(ArrayUtils.innerProduct(r, r)) > TOL * bnorm; ++k, ++_iter) {
+          ap = multiply(p);
+          double pap = ArrayUtils.innerProduct(p, ap);
+          if (!(pap > 0)) break;
+          double alpha = rz / pap;
+          for (int i = 0; i < N; ++i) {
+            x[i] += alpha * p[i];
+            r[i] -= alpha * ap[i];
+            z[i] = _precond[i] * r[i];
+          }
+          double rzNew = ArrayUtils.innerProduct(r, z);
+          double beta = rzNew / rz;
+          rz = rzNew;
+          for (int i = 0; i < N; ++i)
+            p[i] = z[i] + beta * p[i];
+        }
+      }
+      System.arraycopy(x, 0, result, 0, N);
+      return true;
+    }
+
+    // (G + diagAdd + rho) * x, rows and columns of the fixed coefficients are zero
+    private double[] multiply(double[] x) {
+      double[] res = _gram.mul(x);
+      for (int i = 0; i < res.length; ++i)
+        res[i] = _fixed[i] ? 0 : res[i] + (_diagAdd[i] + _rho[i]) * x[i];
+      return res;
+    }
+
+    @Override
+    public boolean hasGradient() {
+      return false;
+    }
+
+    @Override
+    public GradientInfo gradient(double[] beta) {
+      double[] grad = _gram.mul(beta);
+      for (int i = 0; i < _xy.length; ++i)
+        grad[i] += _diagAdd[i] * beta[i] - _xy[i];
+      return new GradientInfo(Double.NaN, grad);
+    }
+
+    @Override
+    public int iter() {
+      return _iter;
+    }
+  }
+
 
   public static class ProximalGradientInfo extends GradientInfo {
     final GradientInfo _origGinfo;
@@ -9,6 +9,7 @@ import hex.glm.GLMModel.GLMParameters.Link;
 import hex.glm.GLMModel.GLMWeights;
 import hex.glm.GLMModel.GLMWeightsFun;
 import hex.gram.Gram;
+import hex.gram.SparseGram;
 import water.*;
 import water.H2O.H2OCountedCompleter;
 import water.fvec.C0DChunk;
@@ -746,6 +747,154 @@ public abstract class GLMTask  {
     }
   }
 
+  /**
+   * One pass of mini-batch stochastic gradient descent (Adam) over the data, see GLM#fitSGD.
+   *
+   * Every node streams through its own chunks only. The threads of a node update the same coefficients without any
+   * locking (hogwild), the coefficients of the nodes are averaged at the end of the pass. Every {@code holdout}-th row
+   * is not trained on, its loss is used to check the convergence.
+   */
+  public static class GLMSGDTask extends MRTask<GLMSGDTask> {
+    static final double BETA1 = .9;
+    static final double BETA2 = .999;
+    static final double EPS = 1e-8;
+
+    final DataInfo _dinfo;
+    final GLMWeightsFun _glmf;
+    final double _l1pen;
+    final double _l2pen;
+    final double _learningRate;
+    final int _batchSize;
+    final int _holdout;
+    final long _t;
+    final long _avgStart; // step after which the coefficients are averaged
+    // IN/OUT: coefficients, Adam moments and the averaged coefficients (null if not averaging)
+    double[] _beta;
+    double[] _m;
+    double[] _v;
+    double[] _avg;
+    // OUT
+    long _tEnd;
+    long _steps;
+    double _likelihood; // of all the rows, evaluated before they were trained on
+    double _holdoutLikelihood;
+    double _holdoutWsum;
+
+    private transient long[] _nodeSteps;
+
+    public GLMSGDTask(Key jobKey, DataInfo dinfo, GLMParameters parms, double[] beta, double[] m, double[] v, double[] avg,
+                      long t, long avgStart, double l1pen, double l2pen, int batchSize, double learningRate, int holdout) {
+      _dinfo = dinfo;
+      _glmf = new GLMWeightsFun(parms);
+      _beta = beta;
+      _m = m;
+      _v = v;
+      _avg = avg;
+      _t = t;
+      _avgStart = avgStart;
+      _l1pen = l1pen;
+      _l2pen = l2pen;
+      _batchSize = batchSize;
+      _learningRate = learningRate;
+      _holdout = holdout;
+    }
+
+    @Override
+    protected void setupLocal() {
+      _nodeSteps = new long[1]; // shared by all the threads of the node
+    }
+
+    @Override
+    public void map(Chunk[] chks) {
+      final int N = _beta.length;
+      final int numStart = _dinfo.numStart();
+      final long start = chks[0].start();
+      double[] grad = MemoryManager.malloc8d(N);
+      Row row = _dinfo.newDenseRow();
+      int n = 0;
+      double wsum = 0;
+      for (int r = 0; r < chks[0]._len; ++r) {
+        _dinfo.extractDenseRow(chks, r, row);
+        if (row.predictors_bad || row.response_bad || row.weight == 0) continue;
+        double y = row.response(0);
+        double mu = _glmf.linkInv(row.innerProduct(_beta) + row.offset);
+        mu = mu == 0 ? GLMModel._EPS : mu;
+        double l = row.weight * _glmf.likelihood(y, mu);
+        _likelihood += l;
+        if (_holdout > 0 && (start + r) % _holdout == 0) {
+          _holdoutLikelihood += l;
+          _holdoutWsum += row.weight;
+          continue;
+        }
+        double var = _glmf.variance(mu);
+        if (var < GLMModel._EPS) var = GLMModel._EPS;
+        double g = row.weight * (mu - y) / (var * _glmf.linkDeriv(mu));
+        for (int i = 0; i < row.nBins; ++i)
+          grad[row.binIds[i]] += g;
+        for (int i = 0; i < row.numVals.length; ++i)
+          grad[numStart + i] += g * row.numVals[i];
+        grad[N - 1] += g;
+        wsum += row.weight;
+        if (++n == _batchSize) {
+          step(grad, wsum);
+          n = 0;
+          wsum = 0;
+        }
+      }
+      if (n > 0) step(grad, wsum);
+      _tEnd = _t + _nodeSteps[0];
+    }
+
+    // Adam step with the mean gradient of the mini-batch, l1 penalty is applied by soft-thresholding; clears grad
+    private void step(double[] grad, double wsum) {
+      final long t = _t + ++_nodeSteps[0];
+      final double bc1 = 1 - Math.pow(BETA1, t);
+      final double bc2 = 1 - Math.pow(BETA2, t);
+      final int icpt = _beta.length - 1;
+      for (int i = 0; i < _beta.length; ++i) {
+        if (i == icpt && !_dinfo._intercept) break;
+        double g = grad[i] / wsum + (i == icpt ? 0 : _l2pen * _beta[i]);
+        grad[i] = 0;
+        double m = _m[i] = BETA1 * _m[i] + (1 - BETA1) * g;
+        double v = _v[i] = BETA2 * _v[i] + (1 - BETA2) * g * g;
+        double rate = _learningRate / (Math.sqrt(v / bc2) + EPS);
+        double b = _beta[i] - rate * m / bc1;
+        if (i != icpt && _l1pen > 0)
+          b = b > 0 ? Math.max(0, b - rate * _l1pen) : Math.min(0, b + rate * _l1pen);
+        _beta[i] = b;
+        if (_avg != null)
+          _avg[i] += (b - _avg[i]) / (t - _avgStart);
+      }
+      _steps++;
+    }
+
+    @Override
+    public void reduce(GLMSGDTask t) {
+      if (_beta != t._beta && t._steps > 0) { // coming from another node, average weighted by the number of steps
+        double w = (double) t._steps / (_steps + t._steps);
+        average(_beta, t._beta, w);
+        average(_m, t._m, w);
+        average(_v, t._v, w);
+        if (_avg != null) average(_avg, t._avg, w);
+      }
+      _steps += t._steps;
+      _tEnd = Math.max(_tEnd, t._tEnd);
+      _likelihood += t._likelihood;
+      _holdoutLikelihood += t._holdoutLikelihood;
+      _holdoutWsum += t._holdoutWsum;
+    }
+
+    private static void average(double[] x, double[] y, double w) {
+      for (int i = 0; i < x.length; ++i)
+        x[i] += w * (y[i] - x[i]);
+    }
+
+    @Override
+    public void postGlobal() {
+      if (_tEnd < _t) _tEnd = _t;
+    }
+  }
+
   public static class GLMGaussianGradientTask extends GLMGradientTask {
     public GLMGaussianGradientTask(Key jobKey, DataInfo dinfo, GLMParameters parms, double lambda, double [] beta) {
       super(jobKey,dinfo,parms._obj_reg,lambda,beta);
@@ -1498,6 +1647,9 @@ public abstract class GLMTask  {
     double [][]_beta_multinomial;
     double []_beta;
     protected Gram  _gram; // wx%*%x
+    SparseGram _sparseGram; // wx%*%x of wide sparse data (instead of _gram), see withSparseGram
+    boolean _useSparseGram;
+    final boolean _blocked = Gram.isBlockedEnabled(); // blocked accumulation of the gram, see Gram#addRowBlocked
     double [] _xy; // wx^t%*%z,
     double _yy;
     final double [] _ymu;
@@ -1527,12 +1679,24 @@ public abstract class GLMTask  {
 
     @Override public boolean handlesSparseData(){return true;}
 
+    /**
+     * Accumulates the gram into a {@link SparseGram} instead of the dense {@link Gram}. The rows are always
+     * processed as sparse rows, the centering of standardized columns is applied by the sparse gram.
+     */
+    public GLMIterationTask withSparseGram() {
+      _useSparseGram = true;
+      return setSparse(true);
+    }
+
     transient private double _sparseOffset;
 
     @Override
     public void chunkInit() {
       // initialize
-      _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats,true);
+      if(_useSparseGram)
+        _sparseGram = new SparseGram(_dinfo.fullN(), true);
+      else
+        _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats,true);
       _xy = MemoryManager.malloc8d(_dinfo.fullN()+1); // + 1 is for intercept
       if(_sparse)
         _sparseOffset = GLM.sparseOffset(_beta,_dinfo);
@@ -1589,16 +1753,27 @@ public abstract class GLMTask  {
       }
       if(_dinfo._intercept)
         _xy[_xy.length-1] += wz;
-      _gram.addRow(r,w);
+      if(_sparseGram != null) _sparseGram.addRow(r,w);
+      else if(_blocked && _gram.useBlocked()) _gram.addRowBlocked(r,w);
+      else _gram.addRow(r,w);
     }
 
     @Override
-    public void chunkDone(){adjustForSparseStandardizedZeros();}
+    public void chunkDone(){
+      if(_sparseGram != null) {
+        _sparseGram.compact();
+        adjustSparseGramForStandardizedZeros();
+        return;
+      }
+      _gram.flushRows();
+      adjustForSparseStandardizedZeros();
+    }
 
     @Override
     public void reduce(GLMIterationTask git){
       ArrayUtils.add(_xy, git._xy);
-      _gram.add(git._gram);
+      if(_sparseGram != null) _sparseGram.add(git._sparseGram);
+      else _gram.add(git._gram);
       _nobs += git._nobs;
       wsum += git.wsum;
       wsumu += git.wsumu;
@@ -1634,8 +1809,21 @@ public abstract class GLMTask  {
       }
     }
 
+    // same as adjustForSparseStandardizedZeros, the gram is centered implicitly
+    private void adjustSparseGramForStandardizedZeros(){
+      if(_dinfo._normSub != null) {
+        int ns = _dinfo.numStart();
+        double[] center = MemoryManager.malloc8d(_xy.length);
+        for (int i = ns; i < _dinfo.fullN(); ++i) {
+          center[i] = _dinfo._normSub[i - ns] * _dinfo._normMul[i - ns];
+          _xy[i] -= _xy[_xy.length - 1] * center[i];
+        }
+        _sparseGram.setCentering(center);
+      }
+    }
+
     public boolean hasNaNsOrInf() {
-      return ArrayUtils.hasNaNsOrInfs(_xy) || _gram.hasNaNsOrInfs();
+      return ArrayUtils.hasNaNsOrInfs(_xy) || (_sparseGram != null ? _sparseGram.hasNaNsOrInfs() : _gram.hasNaNsOrInfs());
     }
   }
   
@@ -22,6 +22,14 @@ public final class Gram extends Iced<Gram> {
   int _fullN;
   final static int MIN_TSKSZ=10000;
 
+  // Blocked accumulation of the dense numeric part (see addRowBlocked)
+  static final int BLOCK_ROWS = 256;  // rows buffered before they are added to the gram
+  static final int BLOCK_COLS = 64;   // columns of the tiles of the rank-k update
+  static final int MIN_BLOCKED_COLS = 32;
+  private transient double[] _rows; // buffered numeric values, column-major [_denseN][BLOCK_ROWS]
+  private transient double[] _rowWs; // weights of the buffered rows
+  private transient int _nrows;
+
   private static class XXCache {
     public final boolean lowerDiag;
     public final boolean icptFirst;
@@ -777,6 +785,10 @@ public final class Gram extends Iced<Gram> {
   }
 
   public final void   addRowDense(DataInfo.Row row, double w) {
+    addRowDense(row, w, true);
+  }
+
+  private void addRowDense(DataInfo.Row row, double w, boolean numsXnums) {
     final int intercept = _hasIntercept?1:0;
     final int denseRowStart = _fullN - _denseN - _diagN - intercept; // we keep dense numbers at the right bottom of the matrix, -1 is for intercept
     final int denseColStart = _fullN - _denseN - intercept;
@@ -787,8 +799,9 @@ public final class Gram extends Iced<Gram> {
     for(int i = 0; i < _denseN; ++i) if(row.numVals[i] != 0) {
       final double [] mrow = _xx[i+denseRowStart];
       final double d = w * row.numVals[i];
-      for(int j = 0; j <= i; ++j) if(row.numVals[j] != 0)
-        mrow[j+denseColStart] += d* row.numVals[j];
+      if(numsXnums)
+        for(int j = 0; j <= i; ++j) if(row.numVals[j] != 0)
+          mrow[j+denseColStart] += d* row.numVals[j];
       if(_hasIntercept)
         interceptRow[i+denseColStart] += d; // intercept*x[i]
       // nums * cats
@@ -813,6 +826,85 @@ public final class Gram extends Iced<Gram> {
     if(hasDiag)
       _diag[row.binIds[0]] += w;
   }
+
+  /**
+   * Whether the blocked accumulation is turned on. Read by the tasks when they are created (not per row), so it can
+   * be turned off for a single model build.
+   */
+  public static boolean isBlockedEnabled() {
+    return H2O.getSysBoolProperty("gram.blocked", true);
+  }
+
+  /**
+   * Whether the dense numeric part is wide enough for {@link #addRowBlocked} to pay off.
+   */
+  public final boolean useBlocked() {
+    return _denseN >= MIN_BLOCKED_COLS;
+  }
+
+  /**
+   * Same as {@link #addRow} except that the numeric x numeric part of dense rows is not added right away. The rows
+   * are buffered and added {@link #BLOCK_ROWS} at a time as a rank-k update computed tile by tile - the tiles
+   * of the buffer stay in the cache while they are being multiplied instead of streaming the whole lower triangle
+   * through the cache for every row. {@link #flushRows()} needs to be called after the last row.
+   */
+  public final void addRowBlocked(DataInfo.Row row, double w) {
+    if(row.numIds != null) {
+      addRowSparse(row, w);
+      return;
+    }
+    addRowDense(row, w, false);
+    if(_rows == null) {
+      _rows = MemoryManager.malloc8d(_denseN * BLOCK_ROWS);
+      _rowWs = MemoryManager.malloc8d(BLOCK_ROWS);
+    }
+    for(int i = 0; i < _denseN; ++i)
+      _rows[i * BLOCK_ROWS + _nrows] = row.numVals[i];
+    _rowWs[_nrows++] = w;
+    if(_nrows == BLOCK_ROWS)
+      flushRows();
+  }
+
+  /**
+   * Adds the rows buffered by {@link #addRowBlocked} to the gram.
+   */
+  public final void flushRows() {
+    final int n = _nrows;
+    if(n == 0) return;
+    _nrows = 0;
+    final int intercept = _hasIntercept?1:0;
+    final int denseRowStart = _fullN - _denseN - _diagN - intercept;
+    final int denseColStart = _fullN - _denseN - intercept;
+    final double[] rows = _rows;
+    final double[] wx = MemoryManager.malloc8d(n);
+    for(int ib = 0; ib < _denseN; ib += BLOCK_COLS) {
+      final int ie = Math.min(ib + BLOCK_COLS, _denseN);
+      for(int jb = 0; jb <= ib; jb += BLOCK_COLS) {
+        for(int i = ib; i < ie; ++i) {
+          final int io = i * BLOCK_ROWS;
+          for(int r = 0; r < n; ++r)
+            wx[r] = _rowWs[r] * rows[io + r];
+          final double[] mrow = _xx[i + denseRowStart];
+          final int je = Math.min(jb + BLOCK_COLS, i + 1);
+          for(int j = jb; j < je; ++j) {
+            final int jo = j * BLOCK_ROWS;
+            double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            int r = 0;
+            for(; r + 3 < n; r += 4) {
+              s0 += wx[r] * rows[jo + r];
+              s1 += wx[r + 1] * rows[jo + r + 1];
+              s2 += wx[r + 2] * rows[jo + r + 2];
+              s3 += wx[r + 3] * rows[jo + r + 3];
+            }
+            for(; r < n; ++r)
+              s0 += wx[r] * rows[jo + r];
+            mrow[j + denseColStart] += (s0 + s1) + (s2 + s3);
+          }
+        }
+      }
+    }
+  }
+
   public void mul(double x){
     if(_diag != null)for(int i = 0; i < _diag.length; ++i)
       _diag[i] *= x;
@@ -981,6 +1073,7 @@ public final class Gram extends Iced<Gram> {
     public Gram _gram;
     public long _nobs;
     boolean _intercept = false;
+    final boolean _blocked = isBlockedEnabled();
 
     public GramTask(Key<Job> jobKey, DataInfo dinfo){
       super(null,dinfo,jobKey);
@@ -995,12 +1088,14 @@ public final class Gram extends Iced<Gram> {
     }
     double _prev = 0;
     @Override protected void processRow(DataInfo.Row r) {
-      _gram.addRow(r, r.weight);
+      if(_blocked && _gram.useBlocked()) _gram.addRowBlocked(r, r.weight);
+      else _gram.addRow(r, r.weight);
       ++_nobs;
       double current = (_gram.get(_dinfo.fullN()-1,_dinfo.fullN()-1) - _prev);
       _prev += current;
     }
     @Override public void chunkDone(){
+      _gram.flushRows();
       if(_std) {
         if (_nobs > 0) {  // removing NA rows may produce _nobs=0
           double r = 1.0 / _nobs;
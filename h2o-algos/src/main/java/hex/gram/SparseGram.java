@@ -0,0 +1,278 @@
+package hex.gram;
+
+import hex.DataInfo;
+import water.Iced;
+import water.MemoryManager;
+
+import java.util.Arrays;
+
+/**
+ * Sparse version of {@link Gram} for wide data with only a few non-zero values per row (eg. many one-hot encoded
+ * levels). Only the entries of the lower triangle that were observed in the data (pairs of columns that were
+ * non-zero in the same row) are stored, {@link Gram} keeps the complete triangle and needs O(N^2) memory.
+ *
+ * The entries are accumulated in a hash table and compacted to a sorted row-wise (CSR) form in {@link #compact()},
+ * only the compact form is sent over the wire and merged. The columns are indexed the same way as in {@link Gram}
+ * (categorical levels, numeric columns, intercept last).
+ *
+ * Sparse rows of standardized data are not centered (see {@link hex.FrameTask2}), the centering is applied implicitly
+ * (see {@link #setCentering(double[])}) - centering would make the gram dense.
+ */
+public final class SparseGram extends Iced<SparseGram> {
+
+  private static final long EMPTY = -1;
+
+  private final int _fullN; // including the intercept
+  private final boolean _hasIntercept;
+
+  // compact form: row i has entries _cols[_rowStart[i]] .. _cols[_rowStart[i+1]-1] (sorted, j <= i)
+  private int[] _rowStart;
+  private int[] _cols;
+  private double[] _vals;
+  private double[] _center; // subtracted from the columns (null if the rows were centered)
+
+  // accumulation: open-addressing hash table of (i << 32 | j) keys
+  private transient long[] _hkeys;
+  private transient double[] _hvals;
+  private transient int _hsize;
+  private transient int[] _ids;
+  private transient double[] _xs;
+
+  public SparseGram(int N, boolean hasIntercept) {
+    _fullN = N + (hasIntercept ? 1 : 0);
+    _hasIntercept = hasIntercept;
+  }
+
+  public final int fullN() { return _fullN; }
+
+  /**
+   * Number of stored entries of the lower triangle.
+   */
+  public final long nonZeros() {
+    if (_hkeys != null) return _hsize;
+    return _cols == null ? 0 : _cols.length;
+  }
+
+  public void addRow(DataInfo.Row r, double w) {
+    if (_hkeys == null) {
+      if (_cols != null) throw new IllegalStateException("Gram was already compacted");
+      _hkeys = new long[1024];
+      Arrays.fill(_hkeys, EMPTY);
+      _hvals = MemoryManager.malloc8d(_hkeys.length);
+    }
+    final int numStart = _fullN - (_hasIntercept ? 1 : 0) - (r.numIds == null ? r.nNums : 0);
+    final int len = r.nBins + r.nNums + (_hasIntercept ? 1 : 0);
+    if (_ids == null || _ids.length < len) {
+      _ids = new int[len];
+      _xs = new double[len];
+    }
+    int n = 0;
+    for (int i = 0; i < r.nBins; ++i) {
+      _ids[n] = r.binIds[i];
+      _xs[n++] = 1;
+    }
+    for (int i = 0; i < r.nNums; ++i) {
+      if (r.numVals[i] == 0) continue;
+      _ids[n] = r.numIds == null ? numStart + i : r.numIds[i];
+      _xs[n++] = r.numVals[i];
+    }
+    if (_hasIntercept) {
+      _ids[n] = _fullN - 1;
+      _xs[n++] = 1;
+    }
+    for (int a = 0; a < n; ++a) {
+      final double d = w * _xs[a];
+      for (int b = 0; b <= a; ++b) {
+        int i = _ids[a], j = _ids[b];
+        if (j > i) { int t = i; i = j; j = t; }
+        add(((long) i << 32) | j, d * _xs[b]);
+      }
+    }
+  }
+
+  private void add(long key, double val) {
+    int mask = _hkeys.length - 1;
+    int slot = hash(key) & mask;
+    while (_hkeys[slot] != EMPTY && _hkeys[slot] != key)
+      slot = (slot + 1) & mask;
+    if (_hkeys[slot] == EMPTY) {
+      _hkeys[slot] = key;
+      if (++_hsize > (_hkeys.length >> 1)) {
+        _hvals[slot] += val;
+        rehash();
+        return;
+      }
+    }
+    _hvals[slot] += val;
+  }
+
+  private static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private void rehash() {
+    long[] keys = _hkeys;
+    double[] vals = _hvals;
+    _hkeys = new long[keys.length << 1];
+    Arrays.fill(_hkeys, EMPTY);
+    _hvals = MemoryManager.malloc8d(_hkeys.length);
+    int mask = _hkeys.length - 1;
+    for (int k = 0; k < keys.length; ++k) {
+      if (keys[k] == EMPTY) continue;
+      int slot = hash(keys[k]) & mask;
+      while (_hkeys[slot] != EMPTY)
+        slot = (slot + 1) & mask;
+      _hkeys[slot] = keys[k];
+      _hvals[slot] = vals[k];
+    }
+  }
+
+  /**
+   * Converts the accumulated entries to the compact form, needs to be called before the gram is merged or used.
+   */
+  public void compact() {
+    if (_hkeys == null) {
+      if (_cols == null) { // no rows
+        _rowStart = new int[_fullN + 1];
+        _cols = new int[0];
+        _vals = new double[0];
+      }
+      return;
+    }
+    long[] keys = new long[_hsize];
+    int n = 0;
+    for (long key : _hkeys)
+      if (key != EMPTY) keys[n++] = key;
+    Arrays.sort(keys); // sorted by row and then by column
+    _rowStart = new int[_fullN + 1];
+    _cols = new int[n];
+    _vals = MemoryManager.malloc8d(n);
+    int mask = _hkeys.length - 1;
+    for (int k = 0; k < n; ++k) {
+      int slot = hash(keys[k]) & mask;
+      while (_hkeys[slot] != keys[k])
+        slot = (slot + 1) & mask;
+      _rowStart[(int) (keys[k] >>> 32) + 1]++;
+      _cols[k] = (int) keys[k];
+      _vals[k] = _hvals[slot];
+    }
+    for (int i = 0; i < _fullN; ++i)
+      _rowStart[i + 1] += _rowStart[i];
+    _hkeys = null;
+    _hvals = null;
+    _hsize = 0;
+  }
+
+  /**
+   * Merges a compacted gram into this (compacted) gram.
+   */
+  public void add(SparseGram g) {
+    assert _hkeys == null && g._hkeys == null : "grams need to be compacted before they are merged";
+    int[] rowStart = new int[_fullN + 1];
+    int[] cols = new int[_cols.length + g._cols.length];
+    double[] vals = MemoryManager.malloc8d(cols.length);
+    int n = 0;
+    for (int i = 0; i < _fullN; ++i) {
+      int a = _rowStart[i], ae = _rowStart[i + 1];
+      int b = g._rowStart[i], be = g._rowStart[i + 1];
+      while (a < ae || b < be) {
+        if (b == be || (a < ae && _cols[a] < g._cols[b])) {
+          cols[n] = _cols[a];
+          vals[n++] = _vals[a++];
+        } else if (a == ae || g._cols[b] < _cols[a]) {
+          cols[n] = g._cols[b];
+          vals[n++] = g._vals[b++];
+        } else {
+          cols[n] = _cols[a];
+          vals[n++] = _vals[a++] + g._vals[b++];
+        }
+      }
+      rowStart[i + 1] = n;
+    }
+    _rowStart = rowStart;
+    _cols = Arrays.copyOf(cols, n);
+    _vals = Arrays.copyOf(vals, n);
+    if (_center == null) _center = g._center;
+  }
+
+  public void mul(double x) {
+    for (int k = 0; k < _vals.length; ++k)
+      _vals[k] *= x;
+  }
+
+  /**
+   * Centering of the columns: the gram is used as if {@code center} was subtracted from every row. The centering
+   * of the intercept column needs to be 0.
+   */
+  public void setCentering(double[] center) {
+    assert center == null || center.length == _fullN && (!_hasIntercept || center[_fullN - 1] == 0);
+    _center = center;
+  }
+
+  private double stored(int i, int j) {
+    if (j > i) { int t = i; i = j; j = t; }
+    int k = Arrays.binarySearch(_cols, _rowStart[i], _rowStart[i + 1], j);
+    return k >= 0 ? _vals[k] : 0;
+  }
+
+  public double get(int i, int j) {
+    double v = stored(i, j);
+    if (_center != null) {
+      final int icpt = _fullN - 1;
+      v += - _center[i] * stored(icpt, j) - _center[j] * stored(icpt, i) + stored(icpt, icpt) * _center[i] * _center[j];
+    }
+    return v;
+  }
+
+  public double[] diag() {
+    double[] d = MemoryManager.malloc8d(_fullN);
+    for (int i = 0; i < _fullN; ++i)
+      d[i] = get(i, i);
+    return d;
+  }
+
+  /**
+   * res = G * x
+   */
+  public void mul(double[] x, double[] res) {
+    Arrays.fill(res, 0);
+    for (int i = 0; i < _fullN; ++i) {
+      final double xi = x[i];
+      double s = 0;
+      for (int k = _rowStart[i]; k < _rowStart[i + 1]; ++k) {
+        final int j = _cols[k];
+        s += _vals[k] * x[j];
+        if (j != i) res[j] += _vals[k] * xi;
+      }
+      res[i] += s;
+    }
+    if (_center != null) { // G - c*a' - a*c' + n*c*c', a being the intercept column
+      final int icpt = _fullN - 1;
+      double[] a = MemoryManager.malloc8d(_fullN);
+      for (int j = 0; j < _fullN; ++j)
+        a[j] = stored(icpt, j);
+      double ax = 0, cx = 0;
+      for (int j = 0; j < _fullN; ++j) {
+        ax += a[j] * x[j];
+        cx += _center[j] * x[j];
+      }
+      final double n = a[icpt];
+      for (int i = 0; i < _fullN; ++i)
+        res[i] += -_center[i] * ax - a[i] * cx + n * _center[i] * cx;
+    }
+  }
+
+  public double[] mul(double[] x) {
+    double[] res = MemoryManager.malloc8d(x.length);
+    mul(x, res);
+    return res;
+  }
+
+  public final boolean hasNaNsOrInfs() {
+    for (double v : _vals)
+      if (Double.isNaN(v) || Double.isInfinite(v)) return true;
+    return false;
+  }
+
+}
@@ -27,6 +27,10 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   @Override public ToEigenVec getToEigenVec() { return LinearAlgebraUtils.toEigen; }
   // Convergence tolerance
   final static private double TOLERANCE = 1e-4;
+  // Skip the distances to the other centers using per-row lower bounds (Hamerly), read on every model build
+  static boolean useHamerly() {
+    return H2O.getSysBoolProperty("kmeans.hamerly", true);
+  }
 
   @Override public ModelCategory[] can_build() { return new ModelCategory[]{ ModelCategory.Clustering }; }
 
@@ -103,6 +107,14 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         error("_cluster_size_constraints", "\"The number of cluster size constraints is not equal to k = \" + _parms._k");
       }
     }
+    if (_parms._mini_batch_size < 0)
+      error("_mini_batch_size", "mini_batch_size must be non-negative");
+    if (_parms._mini_batch_size > 0) {
+      if (_parms._estimate_k)
+        error("_mini_batch_size", "Mini-batch iterations cannot be used to estimate k.");
+      if (_parms._cluster_size_constraints != null)
+        error("_mini_batch_size", "Mini-batch iterations cannot be used with cluster_size_constraints.");
+    }
     if(_parms._fold_assignment == Model.Parameters.FoldAssignmentScheme.Stratified){
       error("fold_assignment", "K-means is an unsupervised algorithm; the stratified fold assignment cannot be used because of the missing response column.");
     }
@@ -181,6 +193,51 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       return centers;
     }
 
+    // Mini-batch K-means (Sculley, "Web-scale k-means clustering"): every iteration a uniform sample of the rows is
+    // assigned to the nearest centers and every center moves towards its rows with a learning rate decreasing with the
+    // number of rows it was assigned so far. Categorical columns of the centers are the most common level of the rows.
+    // Runs max_iterations-1 iterations (the last one is the full assignment pass), returns the new centers.
+    double[][] miniBatchIterations(KMeansModel model, Vec[] vecs, double[][] centers, double[] means, double[] mults, int[] modes, boolean work_unit_iter) {
+      final int k = centers.length;
+      final int N = centers[0].length;
+      centers = ArrayUtils.deepClone(centers);
+      final double prob = Math.min(1, (double) _parms._mini_batch_size / train().numRows());
+      final long seed = _parms.getOrMakeRealSeed();
+      long[] counts = new long[k];
+      long[][][] cats = new long[k][N][];
+      for (int clu = 0; clu < k; clu++)
+        for (int col = 0; col < N; col++)
+          cats[clu][col] = _isCats[col] == null ? null : new long[vecs[col].cardinality()];
+      ClusterDist cd = new ClusterDist();
+      for (int iter = 0; iter < _parms._max_iterations - 1; iter++) {
+        double[][] batch = new Sampler(means, mults, modes, _isCats, prob, seed + (iter + 1) * 0x9E3779B97F4A7C15L, hasWeightCol()).doAll(vecs)._sampled;
+        int[] assigned = new int[batch.length];
+        for (int i = 0; i < batch.length; i++)
+          assigned[i] = closest(centers, batch[i], _isCats, cd)._cluster;
+        for (int i = 0; i < batch.length; i++) {
+          final int clu = assigned[i];
+          final double eta = 1.0 / ++counts[clu];
+          for (int col = 0; col < N; col++)
+            if (_isCats[col] != null)
+              cats[clu][col][(int) batch[i][col]]++;
+            else
+              centers[clu][col] += eta * (batch[i][col] - centers[clu][col]);
+        }
+        for (int clu = 0; clu < k; clu++)
+          if (counts[clu] > 0)
+            for (int col = 0; col < N; col++)
+              if (_isCats[col] != null)
+                centers[clu][col] = ArrayUtils.maxIndex(cats[clu][col]);
+        model._output._centers_raw = destandardize(centers, _isCats, means, mults);
+        if (work_unit_iter) {
+          model.update(_job);
+          _job.update(1);
+        }
+        if (stop_requested()) break;
+      }
+      return centers;
+    }
+
     // Number of reinitialization attempts for preventing empty clusters
     transient private int _reinit_attempts;
     // Handle the case where some centers go dry.  Rescue only 1 cluster
@@ -302,10 +359,12 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           Log.info("Cutoff for relative improvement in within_cluster_sum_of_squares: " + rel_improvement_cutoff);
 
         Vec[] vecs2;
+        Vec lowerBounds = null; // distance to the second closest center (Hamerly)
         long csum = 0;
         if(!constrained) {
           vecs2 = Arrays.copyOf(vecs, vecs.length+1);
           vecs2[vecs2.length-1] = vecs2[0].makeCon(-1);
+          if (useHamerly()) lowerBounds = vecs2[0].makeCon(0);
         } else {
           int newVecLength = vecs.length + 2 * centers.length + 3; // data (+ weight column) + distances + edge indices + result distance + old assignment + new assignment
           vecs2 = Arrays.copyOf(vecs, newVecLength);
@@ -328,13 +387,24 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           }
           model._output._iterations = 0;  // Loop ends only when iterations > max_iterations with strict inequality
           double[][] lo=null, hi=null;
+          double[][] boundCenters = null; // centers the lower bounds were computed for
           boolean stop = false;
+          final boolean miniBatch = _parms._mini_batch_size > 0;
+          if (miniBatch) {
+            centers = miniBatchIterations(model, vecs, centers, means, mults, impute_cat, work_unit_iter);
+            Log.info("Running a full assignment pass after the mini-batch iterations.");
+          }
           do {
             assert(centers.length == k);
             IterationTask task;
             if(!constrained) {
               //Lloyds algorithm
-              task = new LloydsIterationTask(centers, means, mults, impute_cat, _isCats, k, hasWeightCol()).doAll(vecs2); //1 PASS OVER THE DATA
+              if (lowerBounds == null) {
+                task = new LloydsIterationTask(centers, null, false, means, mults, impute_cat, _isCats, k, hasWeightCol()).doAll(vecs2); //1 PASS OVER THE DATA
+              } else {
+                task = new LloydsIterationTask(centers, boundCenters, true, means, mults, impute_cat, _isCats, k, hasWeightCol()).doAll(ArrayUtils.append(vecs2, lowerBounds)); //1 PASS OVER THE DATA
+                boundCenters = ArrayUtils.deepClone(centers);
+              }
             }  else {
               // Constrained K-means
               
@@ -377,7 +447,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
             }
 
             stop = (task._reassigned_count < Math.max(1,train().numRows()*TOLERANCE) ||
-                    model._output._iterations >= _parms._max_iterations || stop_requested());
+                    model._output._iterations >= _parms._max_iterations || miniBatch || stop_requested());
             if (stop) {
               if (model._output._iterations < _parms._max_iterations)
                 Log.info("K-means converged after " + model._output._iterations + " iterations.");
@@ -413,6 +483,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
             centers = splitLargestCluster(centers, lo, hi, means, mults, impute_cat, vecs2, k);
         } //k-finder
         vecs2[vecs2.length-1].remove();
+        if (lowerBounds != null) lowerBounds.remove();
         
         // Create metrics by scoring on training set otherwise scores are based on last Lloyd iteration
         // These lines cause the training metrics are recalculated on strange model values.
@@ -632,7 +703,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   // -------------------------------------------------------------------------
   // Sample rows with increasing probability the farther they are from any
   // cluster center.
-  private static class Sampler extends MRTask<Sampler> {
+  static class Sampler extends MRTask<Sampler> {
     // IN
     double[][] _centers;
     double[] _means, _mults; // Standardization
@@ -646,6 +717,11 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     // OUT
     double[][] _sampled;   // New cluster centers
 
+    // Uniform sample (each row with the given probability)
+    Sampler( double[] means, double[] mults, int[] modes, String[][] isCats, double prob, long seed, boolean hasWeight ) {
+      this(null, means, mults, modes, isCats, 0, prob, seed, hasWeight);
+    }
+
     Sampler( double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, double sqr, double prob, long seed, boolean hasWeight ) {
       _centers = centers;
       _means = means;
@@ -665,12 +741,23 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       Random rand = RandomUtils.getRNG(0);
       ClusterDist cd = new ClusterDist();
 
-      for( int row = 0; row < cs[0]._len; row++ ) {
-        rand.setSeed(_seed + cs[0].start()+row);
-        data(values, cs, row, _means, _mults, _modes);
-        double sqr = minSqr(_centers, values, _isCats, cd);
-        if( _probability * sqr > rand.nextDouble() * _sqr )
+      if (_centers == null) {
+        // uniform sample - skip over the rows that are not sampled (geometric distribution of the gaps)
+        rand.setSeed(_seed + cs[0].start());
+        final double logq = Math.log1p(-_probability);
+        for( int row = nextSampled(rand, logq, -1); row < cs[0]._len; row = nextSampled(rand, logq, row) ) {
+          if (_hasWeight && cs[N].atd(row) == 0) continue; // skip holdout rows
+          data(values, cs, row, _means, _mults, _modes);
           list.add(values.clone());
+        }
+      } else {
+        for( int row = 0; row < cs[0]._len; row++ ) {
+          rand.setSeed(_seed + cs[0].start()+row);
+          data(values, cs, row, _means, _mults, _modes);
+          double sqr = minSqr(_centers, values, _isCats, cd);
+          if( _probability * sqr > rand.nextDouble() * _sqr )
+            list.add(values.clone());
+        }
       }
 
       _sampled = new double[list.size()][];
@@ -680,6 +767,12 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       _modes = null;
     }
 
+    private static int nextSampled(Random rand, double logq, int row) {
+      if (logq == Double.NEGATIVE_INFINITY) return row + 1; // probability 1
+      double gap = Math.floor(Math.log(1 - rand.nextDouble()) / logq);
+      return gap >= Integer.MAX_VALUE - row - 1 ? Integer.MAX_VALUE : row + 1 + (int) gap;
+    }
+
     @Override public void reduce(Sampler other) {
       _sampled = ArrayUtils.append(_sampled, other._sampled);
     }
@@ -721,15 +814,46 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   //   Compute new mean/center & variance & rows for each cluster
   //   Compute distance between clusters
   //   Compute total sqr distance
+  //
+  // With the lower bounds (Hamerly's algorithm) the last column keeps for every row a lower bound of the distance to
+  // the second closest center. The distance to the assigned center is always computed (it is needed for the
+  // statistics), the distances to the other centers are skipped if the assigned center is closer than the lower bound
+  // or than half the distance to the nearest other center. The bounds are moved by the maximal shift of the centers
+  // since the bounds were computed. Distances here are square roots of the KMeans distance (a metric).
 
   private static class LloydsIterationTask extends IterationTask {
-    
-    LloydsIterationTask(double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, int k, boolean hasWeight ) {
+    double[][] _boundCenters;       // centers the lower bounds were computed for (null if the bounds are not valid)
+    final boolean _bounded;         // lower bounds are passed as the last column
+    transient double _maxShift;     // maximal distance a center moved since the bounds were computed
+    transient double[] _halfSep;    // half the distance to the nearest other center
+
+    LloydsIterationTask(double[][] centers, double[][] boundCenters, boolean bounded, double[] means, double[] mults, int[] modes, String[][] isCats, int k, boolean hasWeight ) {
       super(centers, means, mults, modes, isCats, k, hasWeight);
+      _boundCenters = boundCenters;
+      _bounded = bounded;
+    }
+
+    @Override protected void setupLocal() {
+      if (!_bounded) return;
+      _maxShift = 0;
+      if (_boundCenters == null || _boundCenters.length != _k) {
+        _maxShift = Double.POSITIVE_INFINITY; // the bounds are not valid
+      } else {
+        for (int clu = 0; clu < _k; clu++)
+          _maxShift = Math.max(_maxShift, Math.sqrt(hex.genmodel.GenModel.KMeans_distance(_boundCenters[clu], _centers[clu], _isCats)));
+      }
+      _halfSep = new double[_k];
+      Arrays.fill(_halfSep, Double.POSITIVE_INFINITY);
+      for (int c1 = 0; c1 < _k; c1++)
+        for (int c2 = c1 + 1; c2 < _k; c2++) {
+          double half = 0.5 * Math.sqrt(hex.genmodel.GenModel.KMeans_distance(_centers[c1], _centers[c2], _isCats));
+          _halfSep[c1] = Math.min(_halfSep[c1], half);
+          _halfSep[c2] = Math.min(_halfSep[c2], half);
+        }
     }
 
     @Override public void map(Chunk[] cs) {
-      int N = cs.length - (_hasWeight ? 1:0) - 1 /*clusterassignment*/;
+      int N = cs.length - (_hasWeight ? 1:0) - 1 /*clusterassignment*/ - (_bounded ? 1 : 0) /*lower bounds*/;
       assert _centers[0].length==N;
       _lo = new double[_k][N];
       for( int clu=0; clu< _k; clu++ )
@@ -747,7 +871,8 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           _cats[clu][col] = _isCats[col]==null ? null : new long[cs[col].vec().cardinality()];
       _worst_err = 0;
 
-      Chunk assignment = cs[cs.length-1];
+      Chunk assignment = cs[N + (_hasWeight ? 1 : 0)];
+      Chunk bounds = _bounded ? cs[cs.length-1] : null;
       // Find closest cluster center for each row
       double[] values = new double[N]; // Temp data to hold row as doubles
       ClusterDist cd = new ClusterDist();
@@ -756,21 +881,30 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         if (weight == 0) continue; //skip holdout rows
         assert(weight == 1); //K-Means only works for weight 1 (or weight 0 for holdout)
         data(values, cs, row, _means, _mults, _modes); // Load row as doubles
-        closest(_centers, values, _isCats, cd); // Find closest cluster center
+        if (bounds == null) {
+          closest(_centers, values, _isCats, cd); // Find closest cluster center
+        } else {
+          final int assigned = (int) assignment.at8(row);
+          final double lower = bounds.atd(row) - _maxShift;
+          boolean skip = false;
+          if (assigned >= 0 && assigned < _k) {
+            cd._dist = hex.genmodel.GenModel.KMeans_distance(_centers[assigned], values, _isCats);
+            cd._cluster = assigned;
+            skip = Math.sqrt(cd._dist) < Math.max(_halfSep[assigned], lower); // no other center can be closer
+          }
+          if (skip) bounds.set(row, Math.max(lower, 0));
+          else bounds.set(row, Math.sqrt(closest2(_centers, values, _isCats, cd))); // Find closest and second closest cluster center
+        }
         if (cd._cluster != assignment.at8(row)) {
           _reassigned_count+=weight;
           assignment.set(row, cd._cluster);
         }
-        for( int clu=0; clu< _k; clu++ ) {
-          for( int col=0; col<N; col++ ) {
-            if (cd._cluster == clu) {
-              _lo[clu][col] = Math.min(values[col], _lo[clu][col]);
-              _hi[clu][col] = Math.max(values[col], _hi[clu][col]);
-            }
-          }
-        }
         int clu = cd._cluster;
         assert clu != -1;       // No broken rows
+        for( int col=0; col<N; col++ ) {
+          _lo[clu][col] = Math.min(values[col], _lo[clu][col]);
+          _hi[clu][col] = Math.max(values[col], _hi[clu][col]);
+        }
         _cSqr[clu] += cd._dist;
 
         // Add values and increment counter for chosen cluster
@@ -787,6 +921,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       for( int clu = 0; clu < _k; clu++ )
         if( _size[clu] != 0 ) ArrayUtils.div(_cMeans[clu], _size[clu]);
       _centers = null;
+      _boundCenters = null;
       _means = _mults = null;
       _modes = null;
     }
@@ -992,6 +1127,25 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     return cd;                  // Return for flow-coding
   }
 
+  /** Return the nearest of N cluster center/centroids with the square-distance, and the square-distance to the second nearest one. */
+  private static double closest2(double[][] centers, double[] point, String[][] isCats, ClusterDist cd) {
+    int min = -1;
+    double minSqr = Double.MAX_VALUE, secondSqr = Double.MAX_VALUE;
+    for( int cluster = 0; cluster < centers.length; cluster++ ) {
+      double sqr = hex.genmodel.GenModel.KMeans_distance(centers[cluster],point,isCats);
+      if( sqr < minSqr ) {      // Record nearest cluster
+        min = cluster;
+        secondSqr = minSqr;
+        minSqr = sqr;
+      } else if( sqr < secondSqr ) {
+        secondSqr = sqr;
+      }
+    }
+    cd._cluster = min;          // Record nearest cluster
+    cd._dist = minSqr;          // Record square-distance
+    return secondSqr;
+  }
+
   /** Return square-distance of point to all clusters. */
   private static double[] getDistances(double[][] centers, double[] point, String[][] isCats) {
     double[] distances = new double[centers.length];
@@ -52,11 +52,14 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "checkpoint",
       "sample_rate",
       "sample_rate_per_class",
+      "goss_top_rate",
+      "goss_other_rate",
       "col_sample_rate",
       "col_sample_rate_change_per_level",
       "col_sample_rate_per_tree",
       "min_split_improvement",
       "histogram_type",
+      "histogram_subtraction",
       "max_abs_leafnode_pred",
       "pred_noise_bandwidth",
       "categorical_encoding",
@@ -81,6 +84,12 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
     @API(help = "Row sample rate per tree (from 0.0 to 1.0)", gridable = true)
     public double sample_rate;
 
+    @API(help="Gradient-based one-side sampling (GOSS): fraction of rows with the largest gradients that are always used for building a tree (0 disables GOSS)", level = API.Level.expert, gridable = true)
+    public double goss_top_rate;
+
+    @API(help="Gradient-based one-side sampling (GOSS): fraction of rows randomly sampled from the rows with small gradients, their weights are scaled up accordingly", level = API.Level.expert, gridable = true)
+    public double goss_other_rate;
+
     @API(help="Column sample rate (from 0.0 to 1.0)", level = API.Level.critical, gridable = true)
     public double col_sample_rate;
 
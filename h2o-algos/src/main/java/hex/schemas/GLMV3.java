@@ -72,6 +72,10 @@ public class GLMV3 extends ModelBuilderSchema<GLM,GLMV3,GLMV3.GLMParametersV3> {
             "interactions",
             "interaction_pairs",
             "obj_reg",
+            "sgd_batch_size",
+            "sgd_learning_rate",
+            "sgd_holdout",
+            "sgd_average",
             "stopping_rounds",
             "stopping_metric",
             "stopping_tolerance",
@@ -108,7 +112,7 @@ public class GLMV3 extends ModelBuilderSchema<GLM,GLMV3,GLMV3.GLMParametersV3> {
     @API(help = "Theta", level = Level.critical, gridable = true)
     public double theta; // used by negtaive binomial distribution family
 
-    @API(help = "AUTO will set the solver based on given data and the other parameters. IRLSM is fast on on problems with small number of predictors and for lambda-search with L1 penalty, L_BFGS scales better for datasets with many columns.", values = {"AUTO", "IRLSM", "L_BFGS","COORDINATE_DESCENT_NAIVE", "COORDINATE_DESCENT", "GRADIENT_DESCENT_LH", "GRADIENT_DESCENT_SQERR"}, level = Level.critical)
+    @API(help = "AUTO will set the solver based on given data and the other parameters. IRLSM is fast on on problems with small number of predictors and for lambda-search with L1 penalty, L_BFGS scales better for datasets with many columns.", values = {"AUTO", "IRLSM", "L_BFGS","COORDINATE_DESCENT_NAIVE", "COORDINATE_DESCENT", "GRADIENT_DESCENT_LH", "GRADIENT_DESCENT_SQERR", "SGD"}, level = Level.critical)
     public Solver solver;
 
     @API(help = "Distribution of regularization between the L1 (Lasso) and L2 (Ridge) penalties. A value of 1 for alpha represents Lasso regression, a value of 0 produces Ridge regression, and anything in between specifies the amount of mixing between the two. Default value of alpha is 0 when SOLVER = 'L-BFGS'; 0.5 otherwise.", level = Level.critical, gridable = true)
@@ -170,6 +174,19 @@ public class GLMV3 extends ModelBuilderSchema<GLM,GLMV3,GLMV3.GLMParametersV3> {
     @API(help="Likelihood divider in objective value computation, default is 1/nobs")
     public double obj_reg;
 
+    @API(help = "Number of rows per mini-batch of the SGD solver.", level = Level.expert, gridable = true)
+    public int sgd_batch_size;
+
+    @API(help = "Learning rate of the Adam updates of the SGD solver.", level = Level.expert, gridable = true)
+    public double sgd_learning_rate;
+
+    @API(help = "Every sgd_holdout-th row is held out by the SGD solver, it stops when the loss of the held out rows " +
+            "stops improving. Use 0 to train on all the rows for max_iterations passes.", level = Level.expert, gridable = true)
+    public int sgd_holdout;
+
+    @API(help = "Average the coefficients of the SGD solver over the steps after the first pass.", level = Level.expert, gridable = true)
+    public boolean sgd_average;
+
     @API(help = "Link function.", level = Level.secondary, values = {"family_default", "identity", "logit", "log",
             "inverse", "tweedie", "ologit"}) //"oprobit", "ologlog": will be supported.
     public GLMParameters.Link link;
@@ -32,7 +32,8 @@ public class KMeansV3 extends ClusteringModelBuilderSchema<KMeans,KMeansV3,KMean
         "max_runtime_secs",
         "categorical_encoding",
         "export_checkpoints_dir", 
-        "cluster_size_constraints"
+        "cluster_size_constraints",
+        "mini_batch_size"
     };
 
     // Input fields
@@ -58,5 +59,8 @@ public class KMeansV3 extends ClusteringModelBuilderSchema<KMeans,KMeansV3,KMean
 
     @API(help = "An array specifying the minimum number of points that should be in each cluster. The length of the constraints array has to be the same as the number of clusters.", level = API.Level.expert)
     public int[] cluster_size_constraints = null;
+
+    @API(help = "If positive, the Lloyds iterations are replaced by mini-batch iterations on random samples of about this many rows, followed by a single full assignment pass. Zero to disable.", level = API.Level.expert, gridable = true)
+    public int mini_batch_size = 0;
   }
 }
@@ -84,6 +84,10 @@ public class SharedTreeV3<B extends SharedTree, S extends SharedTreeV3<B,S,P>, P
     @API(help="What type of histogram to use for finding optimal split points", values = { "AUTO", "UniformAdaptive", "Random", "QuantilesGlobal", "RoundRobin"}, level = API.Level.secondary, gridable = true)
     public SharedTreeParameters.HistogramType histogram_type;
 
+    @API(help="Build histograms only for the smaller child of each split and derive histograms of the larger child by subtracting them " +
+            "from the histograms of the parent. Children then keep the bins of the parent instead of adapting them to the range of their data.", level = API.Level.expert, gridable = true)
+    public boolean histogram_subtraction;
+
     @API(help="Use Platt Scaling to calculate calibrated class probabilities. Calibration can provide more accurate estimates of class probabilities.", level = API.Level.expert)
     public boolean calibrate_model;
 
@@ -16,6 +16,8 @@ public class Word2VecV3 extends ModelBuilderSchema<Word2Vec,Word2VecV3,Word2VecV
             "norm_model",
             "vec_size",
             "window_size",
+            "negative_samples",
+            "syncs_per_epoch",
             "sent_sample_rate",
             "init_learning_rate",
             "epochs",
@@ -30,11 +32,17 @@ public class Word2VecV3 extends ModelBuilderSchema<Word2Vec,Word2VecV3,Word2VecV
     @API(help="Set max skip length between words")
     public int window_size;
 
+    @API(help="Number of negative words drawn for each target word (used only with NegativeSampling)")
+    public int negative_samples;
+
+    @API(help="Number of times the word vectors are synchronized between the nodes in each epoch", level = API.Level.expert)
+    public int syncs_per_epoch;
+
     @API(help="Set threshold for occurrence of words. Those that appear with higher frequency in the training data\n" +
             "\t\twill be randomly down-sampled; useful range is (0, 1e-5)")
     public float sent_sample_rate;
 
-    @API(help="Use Hierarchical Softmax", values = {"HSM"})
+    @API(help="Use Hierarchical Softmax or Negative Sampling", values = {"HSM", "NegativeSampling"})
     public Word2Vec.NormModel norm_model;
 
     @API(help="Number of training iterations to run")
@@ -1,5 +1,6 @@
 package hex.svd;
 
+import Jama.EigenvalueDecomposition;
 import Jama.Matrix;
 import Jama.QRDecomposition;
 import Jama.SingularValueDecomposition;
@@ -24,12 +25,14 @@ import water.fvec.Vec;
 import water.rapids.Rapids;
 import water.util.ArrayUtils;
 import water.util.PrettyPrint;
+import water.util.RandomUtils;
 import water.util.TwoDimTable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Random;
 
 import static hex.util.DimensionReductionUtils.createScoringHistoryTableDR;
 import static hex.util.DimensionReductionUtils.getTransformedEigenvectors;
@@ -41,6 +44,7 @@ import static water.util.ArrayUtils.*;
  * <a href = "http://www.cs.yale.edu/homes/el327/datamining2013aFiles/07_singular_value_decomposition.pdf">SVD via Power Method Algorithm</a>
  * <a href = "https://www.cs.cmu.edu/~venkatg/teaching/CStheory-infoage/book-chapter-4.pdf">Proof of Convergence for Power Method</a>
  * <a href = "http://arxiv.org/pdf/0909.4061.pdf">Randomized Algorithms for Matrix Approximation</a>
+ * <a href = "https://arxiv.org/pdf/1609.00048.pdf">Practical Sketching Algorithms for Low-Rank Matrix Approximation</a>
  * @author anqi_fu
  */
 public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.SVDOutput> {
@@ -515,6 +519,79 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
       return u;
     }
 
+    // Single-view sketching (Algorithms 1 and 3) from Tropp et al (https://arxiv.org/pdf/1609.00048.pdf)
+    // The training data is read only once: the pass forms the range sketch Y = A\Omega and the co-range sketch
+    // W = \Psi A, the low rank approximation A ~ QX with Q = orth(Y), X = (\Psi Q)^+ W is recovered locally.
+    // Y itself is only kept (and read once more) if U is requested, otherwise the pass only needs Y'Y and \Psi Y.
+    private Frame singlePassSVD(DataInfo dinfo, SVDModel model, String u_name) {
+      final int k = Math.min(2 * _parms._nv + 1, _ncolExp);   // size of the range sketch
+      final int l = 2 * k + 1;                                // size of the co-range sketch
+      Frame yfrm = null;
+      DataInfo yinfo = null;
+
+      try {
+        // 1) Form the sketches Y = A\Omega and W = \Psi A where \Omega, \Psi ~ N(0,1)
+        _job.update(1, "Sketching training data in a single pass");
+        double[][] omegat = ArrayUtils.gaussianArray(k, _ncolExp, _parms._seed);
+        SketchTask stsk = new SketchTask(_job._key, dinfo, omegat, l, _parms._seed);
+        if (_parms._keep_u) {
+          stsk.doAll(k, Vec.T_NUM, dinfo._adaptedFrame);
+          yfrm = stsk.outputFrame(Key.<Frame>make(), null, null);
+        } else
+          stsk.doAll(dinfo._adaptedFrame);
+        // Cannot calculate SVD if all rows contain missing value(s) and hence were skipped
+        if (stsk._nobs == 0)
+          error("_train", "Every row in _train contains at least one missing value. Consider setting impute_missing = TRUE.");
+        if (error_count() > 0) throw new IllegalArgumentException("Found validation errors: " + validationErrors());
+        model._output._nobs = stsk._nobs;
+        model._output._total_variance = stsk._sumSq / (stsk._nobs - 1);
+        model.update(_job);
+
+        // 2) Q = YT with T = V\Lambda^{-1/2} from Y'Y = V\Lambda V', directions in the null space of Y are dropped
+        _job.update(1, "Recovering singular vectors from the sketches locally");
+        EigenvalueDecomposition eig = new Matrix(stsk._yty).eig();
+        double[] lambda = eig.getRealEigenvalues();   // ascending
+        double[][] evec = eig.getV().getArray();
+        int m = 0;
+        while (m < k && lambda[k - 1 - m] > lambda[k - 1] * 1e-10) m++;   // numerical rank of Y
+        if (m == 0)
+          throw new IllegalArgumentException("_train SVD: Training data (with categoricals expanded) is a zero matrix.");
+        double[][] t = MemoryManager.malloc8d(k, m);
+        for (int j = 0; j < m; j++) {
+          double norm = 1 / Math.sqrt(lambda[k - 1 - j]);
+          for (int i = 0; i < k; i++)
+            t[i][j] = evec[i][k - 1 - j] * norm;
+        }
+        Matrix tJ = new Matrix(t, k, m);
+
+        // 3) X = (\Psi Q)^+ W is m by p, SVD of X' = VDW' gives A ~ (QW)DV'
+        Matrix xJ = new Matrix(stsk._psiy).times(tJ).solve(new Matrix(stsk._w));
+        SingularValueDecomposition svdJ = xJ.transpose().svd();
+        if (m < _parms._nv) {  // dataset is rank deficient
+          _matrixRankReached = true;
+          _job.warn("_train SVD: Dataset is rank deficient.  _parms._nv was " + _parms._nv + " and is now set to " + m);
+          _parms._nv = m;
+        }
+        model._output._d = Arrays.copyOf(svdJ.getSingularValues(), _parms._nv);
+        model._output._v = svdJ.getU().getMatrix(0, _ncolExp - 1, 0, _parms._nv - 1).getArray();
+        model._output._iterations = 1;
+
+        // 4) Form U = QW = Y(TW) from the range sketch
+        _job.update(1, "Forming distributed orthonormal matrix U");
+        if (!_parms._keep_u) return null;
+        double[][] tw = tJ.times(svdJ.getV().getMatrix(0, m - 1, 0, _parms._nv - 1)).getArray();
+        yinfo = new DataInfo(yfrm, null, true, DataInfo.TransformType.NONE, false, false, false);
+        DKV.put(yinfo._key, yinfo);
+        model._output._u_key = Key.make(u_name);
+        BMulTask btsk = new BMulTask(_job._key, yinfo, ArrayUtils.transpose(tw));
+        btsk.doAll(_parms._nv, Vec.T_NUM, yinfo._adaptedFrame);
+        return btsk.outputFrame(model._output._u_key, null, null);
+      } finally {
+        if (yinfo != null) yinfo.remove();
+        if (yfrm != null) yfrm.delete();
+      }
+    }
+
     /*
       Form orthonormal matrix U = QV
      */
@@ -787,6 +864,8 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
           scoreTable.put("average SEE", model._output._history_average_SEE);
           model._output._scoring_history = createScoringHistoryTableDR(scoreTable,
                   "Scoring History from Randomized SVD", _job.start_time());
+        } else if(_parms._svd_method == SVDParameters.Method.SinglePass) {
+          u = singlePassSVD(dinfo, model, u_name);
         } else
           error("_svd_method", "Unrecognized SVD method " + _parms._svd_method);
 
@@ -1005,4 +1084,83 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
       }
     }
   }
+
+  // Sketch the n by p matrix A in a single pass: W = \Psi A (l by p), the Gram Y'Y (k by k) and \Psi Y (l by k) of
+  // the range sketch Y = A\Omega, Y is output (when outputs are requested), rows of \Psi are drawn on the fly
+  private static class SketchTask extends FrameTask<SketchTask> {
+    final double[][] _omegat;   // \Omega' is k by p for convenient multiplication
+    final int _l;
+    final long _psiSeed;
+
+    public double[][] _w;
+    public double[][] _yty;
+    public double[][] _psiy;
+    public double _sumSq;
+    public long _nobs;
+
+    private transient Random _rng;   // rows of \Psi of the current chunk
+    private transient double[] _y, _psi;
+
+    public SketchTask(Key<Job> jobKey, DataInfo dinfo, double[][] omegat, int l, long seed) {
+      super(jobKey, dinfo);
+      _omegat = omegat;
+      _l = l;
+      _psiSeed = seed;
+    }
+
+    @Override protected boolean chunkInit() {
+      if (_w == null) {
+        _w = MemoryManager.malloc8d(_l, _omegat[0].length);
+        _yty = MemoryManager.malloc8d(_omegat.length, _omegat.length);
+        _psiy = MemoryManager.malloc8d(_l, _omegat.length);
+        _y = MemoryManager.malloc8d(_omegat.length);
+        _psi = MemoryManager.malloc8d(_l);
+      }
+      _rng = null;
+      return true;
+    }
+
+    @Override protected void processRow(long gid, DataInfo.Row row) {
+      if (_rng == null) _rng = RandomUtils.getRNG(0x6A09E667F3BCC909L ^ (_psiSeed + gid));
+      final int k = _omegat.length;
+      for (int i = 0; i < k; i++)
+        _y[i] = row.innerProduct(_omegat[i]);
+      for (int j = 0; j < _l; j++) {
+        _psi[j] = _rng.nextGaussian();
+        row.addToArray(_psi[j], _w[j]);
+        for (int i = 0; i < k; i++)
+          _psiy[j][i] += _psi[j] * _y[i];
+      }
+      for (int i = 0; i < k; i++)
+        for (int j = 0; j <= i; j++)
+          _yty[i][j] += _y[i] * _y[j];
+      _sumSq += row.twoNormSq();
+      ++_nobs;
+    }
+
+    @Override protected void processRow(long gid, DataInfo.Row row, NewChunk[] outputs) {
+      processRow(gid, row);
+      for (int i = 0; i < _y.length; i++)
+        outputs[i].addNum(_y[i]);
+    }
+
+    @Override public void reduce(SketchTask other) {
+      if (_w == null) {
+        _w = other._w; _yty = other._yty; _psiy = other._psiy;
+      } else if (other._w != null) {
+        ArrayUtils.add(_w, other._w);
+        ArrayUtils.add(_yty, other._yty);
+        ArrayUtils.add(_psiy, other._psiy);
+      }
+      _sumSq += other._sumSq;
+      _nobs += other._nobs;
+    }
+
+    @Override protected void postGlobal() {
+      if (_yty == null) _yty = new double[_omegat.length][_omegat.length];
+      for (int i = 0; i < _yty.length; i++)
+        for (int j = 0; j < i; j++)
+          _yty[j][i] = _yty[i][j];
+    }
+  }
 }
@@ -5,6 +5,7 @@ import hex.genmodel.utils.DistributionFamily;
 import org.apache.log4j.Logger;
 import sun.misc.Unsafe;
 import water.*;
+import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.Vec;
 import water.nbhm.UtilUnsafe;
@@ -62,6 +63,9 @@ public final class DHistogram extends Iced {
   protected double [] _vals; // Values w, wY and wYY encoded per bin in a single array. 
                              // If _pred1 or _pred2 are specified they are included as well.
                              // If constraints are used and gamma denominator or nominator needs to be calculated its will be included.
+  private PackedBins _packed; // compact form of _vals while the histogram is being reduced, see pack()
+  private boolean _binsDropped; // _vals were dropped after the splits were found, see dropBins()
+  private boolean _hadNAs; // NA bin was not empty before the bins were dropped
   protected final int _vals_dim; // _vals.length == _vals_dim * _nbin; How many values per bin are encoded in _vals.
                                  // Current possible values are
                                  // - 3:_pred1 nor _pred2 provided and gamma denominator is not needed 
@@ -252,6 +256,30 @@ public final class DHistogram extends Iced {
     // Do not allocate the big arrays here; wait for scoreCols to pick which cols will be used.
   }
 
+  /**
+   * Makes an empty histogram with exactly the same bins as the given histogram (see {@link #hasSameLayout(DHistogram)}).
+   * Used for histogram subtraction: the bins of the children of a split are inherited from the parent histogram.
+   */
+  private DHistogram(DHistogram h, boolean initNA) {
+    _name = h._name;
+    _minSplitImprovement = h._minSplitImprovement;
+    _isInt = h._isInt;
+    _nbin = h._nbin;
+    _step = h._step;
+    _min = h._min;
+    _maxEx = h._maxEx;
+    _initNA = initNA;
+    _pred1 = h._pred1;
+    _pred2 = h._pred2;
+    _vals_dim = h._vals_dim;
+    _dist = h._dist;
+    _min2 = Double.MAX_VALUE;
+    _maxIn = -Double.MAX_VALUE;
+    _histoType = h._histoType; // already resolved (no AUTO, no RoundRobin)
+    _seed = h._seed;
+    _globalQuantilesKey = h._globalQuantilesKey;
+  }
+
   // Interpolate d to find bin#
   public int bin(final double col_data) {
     if(Double.isNaN(col_data)) return _nbin; // NA bucket
@@ -289,6 +317,8 @@ public final class DHistogram extends Iced {
   public double bins(int b) { return w(b); }
 
   public boolean hasNABin() {
+    if (_binsDropped)
+      return _hadNAs;
     if (_vals == null)
       return _initNA; // we are in the initial histogram (and didn't see the data yet)
     else
@@ -350,6 +380,17 @@ public final class DHistogram extends Iced {
     assert _nbin > 0;
   }
 
+  /**
+   * Computes the bins (split points) without allocating space for the data, used for histograms
+   * that only map values to bins (see {@link PreBinning}).
+   */
+  void initBins() {
+    if (_splitPts != null)
+      return; // Already initialized
+    init();
+    _vals = null;
+  }
+
   // Add one row to a bin found via simple linear interpolation.
   // Compute bin min/max.
   // Compute response mean & variance.
@@ -372,6 +413,8 @@ public final class DHistogram extends Iced {
   // Merge two equal histograms together.  Done in a F/J reduce, so no
   // synchronization needed.
   public void add( DHistogram dsh ) {
+    unpack();
+    dsh.unpack();
     assert (_vals == null || dsh._vals == null) || (_isInt == dsh._isInt && _nbin == dsh._nbin && _step == dsh._step &&
       _min == dsh._min && _maxEx == dsh._maxEx);
     if( dsh._vals == null ) return;
@@ -383,6 +426,94 @@ public final class DHistogram extends Iced {
     if (_maxIn < dsh._maxIn) _maxIn = dsh._maxIn;
   }
 
+  /**
+   * Replaces the values by their compact form, used for histograms that are going to be sent over the wire.
+   * The values need to be restored by {@link #unpack()} before the histogram is used.
+   */
+  void pack() {
+    if (_vals == null) return;
+    _packed = new PackedBins(_vals, _vals_dim);
+    _vals = null;
+  }
+
+  void unpack() {
+    if (_packed == null) return;
+    _vals = _packed.unpack();
+    _packed = null;
+  }
+
+  /**
+   * Drops the values of a histogram whose splits were already evaluated on another node, keeps only what is needed
+   * to make the histograms of the next level (observed min/max and presence of NAs), see {@link HistogramReduceScatter}.
+   */
+  void dropBins() {
+    if (_vals == null) return;
+    _hadNAs = wNA() > 0;
+    _binsDropped = true;
+    _vals = null;
+  }
+
+  boolean binsDropped() {
+    return _binsDropped;
+  }
+
+  /**
+   * Two histograms have the same layout if the same value falls into the same bin in both of them.
+   * Split points are always derived from the fields compared here (see {@link #init(double[])}).
+   */
+  public boolean hasSameLayout(DHistogram h) {
+    return hasSameBins(h) && _vals_dim == h._vals_dim;
+  }
+
+  /**
+   * Two histograms have the same bins if they map every value to the same bin index.
+   * The seed is only relevant for random split points.
+   */
+  public boolean hasSameBins(DHistogram h) {
+    return _isInt == h._isInt && _nbin == h._nbin && _step == h._step && _min == h._min && _maxEx == h._maxEx &&
+            _histoType == h._histoType && (_histoType != SharedTreeModel.SharedTreeParameters.HistogramType.Random || _seed == h._seed);
+  }
+
+  /**
+   * Fills this (empty) histogram with the difference of the histogram of the parent node and the histogram
+   * of the sibling node. Rows of the parent are partitioned between the two children and all three histograms
+   * share the same bins, the result is thus the histogram that would be computed from the rows of this node.
+   * Observed min/max are estimated conservatively from the non-empty bins.
+   */
+  public void setDifference(DHistogram parent, DHistogram sibling) {
+    assert _vals == null;
+    assert _vals_dim == 3 : "Histograms depending on node predictions cannot be subtracted";
+    assert hasSameLayout(parent) && hasSameLayout(sibling);
+    init();
+    assert _nbin == parent._nbin;
+    final double[] pvals = parent._vals;
+    final double[] svals = sibling._vals; // null if the sibling didn't see any rows
+    int first = -1, last = -1;
+    for (int b = 0; b <= _nbin; b++) { // including the NA bin
+      int i = _vals_dim * b;
+      double w = pvals[i] - (svals == null ? 0 : svals[i]);
+      if (w <= 1e-10 * pvals[i])
+        continue; // Empty bin (or just a round-off residue)
+      _vals[i] = w;
+      _vals[i + 1] = pvals[i + 1] - (svals == null ? 0 : svals[i + 1]);
+      _vals[i + 2] = Math.max(0, pvals[i + 2] - (svals == null ? 0 : svals[i + 2]));
+      if (b < _nbin) {
+        if (first < 0) first = b;
+        last = b;
+      }
+    }
+    if (first < 0)
+      return; // All rows of the parent went to the sibling
+    double min = first == 0 ? parent._min2 : Math.max(parent._min2, binAt(first));
+    double maxIn = last == _nbin - 1 ? parent._maxIn : Math.min(parent._maxIn, binAt(last + 1));
+    if (_isInt > 0) {
+      min = Math.ceil(min);
+      maxIn = Math.min(parent._maxIn, Math.ceil(maxIn));
+    }
+    _min2 = Math.min(min, maxIn);
+    _maxIn = maxIn;
+  }
+
   // Inclusive min & max
   public double find_min  () { return _min2 ; }
   public double find_maxIn() { return _maxIn; }
@@ -424,6 +555,10 @@ public final class DHistogram extends Iced {
             parms._min_split_improvement, parms._histogram_type, seed, globalQuantilesKey, cs);
   }
 
+  static DHistogram makeWithLayoutOf(DHistogram h, boolean hasNAs) {
+    return new DHistogram(h, hasNAs);
+  }
+
   // Pretty-print a histogram
   @Override public String toString() {
     StringBuilder sb = new StringBuilder();
@@ -484,28 +619,114 @@ public final class DHistogram extends Iced {
       double col_data = cs[k];
       if (col_data < _min2) _min2 = col_data;
       if (col_data > _maxIn) _maxIn = col_data;
-      double y = ys[k];
-      assert (!Double.isNaN(y));
-      double wy = weight * y;
-      double wyy = wy * y;
-      int b = bin(col_data);
-      final int binDimStart = _vals_dim*b;
-      _vals[binDimStart + 0] += weight;
-      _vals[binDimStart + 1] += wy;
-      _vals[binDimStart + 2] += wyy;
-      if (_vals_dim >= 5 && !Double.isNaN(resp[k])) { // FIXME (PUBDEV-7553): This needs to be applied even with monotone constraints disabled
-        if (_dist._family.equals(DistributionFamily.quantile)) {
-          _vals[binDimStart + 3] += _dist.deviance(weight, y, _pred1);
-          _vals[binDimStart + 4] += _dist.deviance(weight, y, _pred2);
-        } else {
-          _vals[binDimStart + 3] += weight * (_pred1 - y) * (_pred1 - y);
-          _vals[binDimStart + 4] += weight * (_pred2 - y) * (_pred2 - y);
-        }
-        if (_vals_dim >= 6) {
-          _vals[binDimStart + 5] += _dist.gammaDenom(weight, resp[k], y, preds[k]);
-          if (_vals_dim == 7) {
-            _vals[binDimStart + 6] += _dist.gammaNum(weight, resp[k], y, preds[k]);
-          }
+      addRow(bin(col_data), k, weight, ys[k], resp, preds);
+    }
+  }
+
+  /**
+   * Same as {@link #updateHisto(double[], double[], double[], double[], double[], int[], int, int)} for a column
+   * that was pre-binned with the bins of this histogram (see {@link PreBinning}).
+   * Raw values are only needed to find the exact min/max, they are only read for the rows in the lowest
+   * and in the highest non-empty bin.
+   * @param bins bin indices of the rows of the chunk (NA bin for missing values)
+   * @param raw chunk of the original column
+   */
+  void updateHistoBinned(double[] ws, double resp[], int[] bins, Chunk raw, double[] ys, double[] preds, int[] rows, int hi, int lo){
+    int minBin = Integer.MAX_VALUE, maxBin = -1;
+    for(int r = lo; r< hi; ++r) {
+      final int k = rows[r];
+      final double weight = ws[k];
+      if (weight == 0)
+        continue;
+      final int b = bins[k];
+      if (b != _nbin) {
+        if (b < minBin) minBin = b;
+        if (b > maxBin) maxBin = b;
+      }
+      addRow(b, k, weight, ys[k], resp, preds);
+    }
+    if (maxBin < 0)
+      return; // Only NAs
+    for(int r = lo; r< hi; ++r) {
+      final int k = rows[r];
+      final int b = bins[k];
+      if ((b == minBin || b == maxBin) && ws[k] != 0) {
+        double col_data = raw.atd(k);
+        if (col_data < _min2) _min2 = col_data;
+        if (col_data > _maxIn) _maxIn = col_data;
+      }
+    }
+  }
+
+  /**
+   * Adds a single row with a non-zero value of a bundled column (see {@link FeatureBundles}).
+   * @param b bin of the value w.r.t. the bins of this histogram
+   * @param col_data the value itself
+   */
+  void updateHistoBundled(int b, double col_data, double weight, double y) {
+    assert _vals_dim == 3 : "Histograms depending on node predictions are not built from bundles";
+    if (_vals == null) init();
+    if (col_data < _min2) _min2 = col_data;
+    if (col_data > _maxIn) _maxIn = col_data;
+    addRow(b, -1, weight, y, null, null);
+  }
+
+  /**
+   * Adds a single row with a non-zero (or missing) value of a sparse chunk, the zeros of the chunk are added later
+   * by {@link #addZeros(double[])}.
+   */
+  void updateHistoSparse(double col_data, double weight, double y) {
+    assert _vals_dim == 3 : "Histograms depending on node predictions are built from all rows";
+    if (col_data < _min2) _min2 = col_data;
+    if (col_data > _maxIn) _maxIn = col_data;
+    addRow(bin(col_data), -1, weight, y, null, null);
+  }
+
+  /**
+   * Completes a histogram of a bundled column (or of a column with sparse chunks): only the rows with a non-zero
+   * value were added so far, all other rows of the node have value 0. Their contribution is the difference
+   * of the totals of the node and of the rows already in this histogram.
+   * @param totals sums of weights, wY and wYY of all rows of the node
+   */
+  void addZeros(double[] totals) {
+    assert _vals_dim == 3;
+    if (_vals == null) init();
+    double w = totals[0], wy = totals[1], wyy = totals[2];
+    for (int i = 0; i < _vals.length; i += _vals_dim) {
+      w -= _vals[i];
+      wy -= _vals[i + 1];
+      wyy -= _vals[i + 2];
+    }
+    if (w <= 1e-10 * totals[0])
+      return; // No zeros (just a round-off residue)
+    final int i = _vals_dim * bin(0);
+    _vals[i] += w;
+    _vals[i + 1] += wy;
+    _vals[i + 2] += Math.max(0, wyy);
+    if (0 < _min2) _min2 = 0;
+    if (0 > _maxIn) _maxIn = 0;
+  }
+
+  private void addRow(int b, int k, double weight, double y, double[] resp, double[] preds) {
+    assert (!Double.isNaN(y));
+    double wy = weight * y;
+    double wyy = wy * y;
+    final int binDimStart = _vals_dim*b;
+    _vals[binDimStart + 0] += weight;
+    _vals[binDimStart + 1] += wy;
+    _vals[binDimStart + 2] += wyy;
+    if (_vals_dim >= 5 && !Double.isNaN(resp[k])) { // FIXME (PUBDEV-7553): This needs to be applied even with monotone constraints disabled
+      if (_dist._family.equals(DistributionFamily.quantile)) {
+        _vals[binDimStart + 3] += _dist.deviance(weight, y, _pred1);
+        _vals[binDimStart + 4] += _dist.deviance(weight, y, _pred2);
+      } else {
+        _vals[binDimStart + 3] += weight * (_pred1 - y) * (_pred1 - y);
+        _vals[binDimStart + 4] += weight * (_pred2 - y) * (_pred2 - y);
+      }
+      if (_vals_dim >= 6) {
+        _vals[binDimStart + 5] += _dist.gammaDenom(weight, resp[k], y, preds[k]);
+        if (_vals_dim == 7) {
+          _vals[binDimStart + 6] += _dist.gammaNum(weight, resp[k], y, preds[k]);
         }
       }
     }
@@ -248,7 +248,7 @@ public class DTree extends Iced {
         // unrelated column will not change the j'th columns min/max.
         // Tighten min/max based on actual observed data for tracked columns
         double min, maxEx;
-        if( h._vals == null || _equal > 1) { // Not tracked this last pass? For bitset, always keep the full range of factors
+        if( (h._vals == null && !h.binsDropped()) || _equal > 1) { // Not tracked this last pass? For bitset, always keep the full range of factors
           min = h._min;         // Then no improvement over last go
           maxEx = h._maxEx;
         } else {                // Else pick up tighter observed bounds
@@ -303,12 +303,24 @@ public class DTree extends Iced {
         final boolean hasNAs = (_nasplit == DHistogram.NASplitDir.NALeft && way == 0 || 
                 _nasplit == DHistogram.NASplitDir.NARight && way == 1) && h.hasNABin();
 
-        nhists[j] = DHistogram.make(h._name, adj_nbins, h._isInt, min, maxEx, hasNAs,h._seed*0xDECAF+(way+1), parms, h._globalQuantilesKey, cs);
+        if (inheritsBins(h, j, parms, cs))
+          nhists[j] = DHistogram.makeWithLayoutOf(h, hasNAs); // the larger child's histogram can be derived by subtraction
+        else
+          nhists[j] = DHistogram.make(h._name, adj_nbins, h._isInt, min, maxEx, hasNAs,h._seed*0xDECAF+(way+1), parms, h._globalQuantilesKey, cs);
         cnt++;                    // At least some chance of splitting
       }
       return cnt == 0 ? null : nhists;
     }
 
+    /**
+     * With histogram subtraction, children keep the bins of the parent (except for the split column)
+     * so that histogram of one child can be obtained as the parent's histogram minus the histogram of the other child.
+     * Not applicable to histograms that depend on node predictions (constraints).
+     */
+    private boolean inheritsBins(DHistogram h, int col, SharedTreeModel.SharedTreeParameters parms, Constraints cs) {
+      return parms._histogram_subtraction && col != _col && cs == null && h._vals != null && h._vals_dim == 3;
+    }
+
     public Constraints nextLevelConstraints(Constraints currentConstraints, int way, double splat, SharedTreeModel.SharedTreeParameters parms) {
       int constraint = currentConstraints.getColumnConstraint(_col);
       if (constraint == 0) {
@@ -330,6 +342,7 @@ public class DTree extends Iced {
   // any split-decision.
   public static class UndecidedNode extends Node {
     public transient DHistogram[] _hs; //(up to) one histogram per column
+    public transient DHistogram[] _parentHs; // filled histograms of the parent, kept for one level for histogram subtraction
     public transient Constraints _cs;
     public final int _scoreCols[];      // A list of columns to score; could be null for all
     public UndecidedNode( DTree tree, int pid, DHistogram[] hs, Constraints cs ) {
@@ -487,35 +500,7 @@ public class DTree extends Iced {
 
     // Pick the best column from the given histograms
     public Split bestCol(UndecidedNode u, DHistogram hs[], Constraints cs) {
-      DTree.Split best = null;
-      if( hs == null ) return null;
-      final int maxCols = u._scoreCols == null /* all cols */ ? hs.length : u._scoreCols.length;
-      List<FindSplits> findSplits = new ArrayList<>();
-      //total work is to find the best split across sum_over_cols_to_split(nbins)
-      long nbinsSum = 0;
-      for( int i=0; i<maxCols; i++ ) {
-        int col = u._scoreCols == null ? i : u._scoreCols[i];
-        if( hs[col]==null || hs[col].actNBins() <= 1 )
-          continue;
-        nbinsSum += hs[col].actNBins();
-      }
-      // for small work loads, do a serial loop, otherwise, submit work to FJ thread pool
-      final boolean isSmall = (nbinsSum <= 1024); //heuristic - 50 cols with 20 nbins, or 1 column with 1024 bins, etc.
-      for( int i=0; i<maxCols; i++ ) {
-        int col = u._scoreCols == null ? i : u._scoreCols[i];
-        if( hs[col]==null || hs[col].actNBins() <= 1 )
-          continue;
-        FindSplits fs = new FindSplits(hs, cs, col, u._nid);
-        findSplits.add(fs);
-        if (isSmall) fs.compute();
-      }
-      if (!isSmall) jsr166y.ForkJoinTask.invokeAll(findSplits);
-      for( FindSplits fs : findSplits) {
-        DTree.Split s = fs._s;
-        if( s == null ) continue;
-        if (best == null || s.se() < best.se()) best = s;
-      }
-      return best;
+      return _tree.bestSplit(u, hs, cs);
     }
 
     public final class FindSplits extends RecursiveAction {
@@ -534,32 +519,30 @@ public class DTree extends Iced {
         computeSplit();
       }
       public final DTree.Split computeSplit() {
-        final double min, max;
-        final int constraint;
-        final boolean useBounds;
-        final Distribution dist;
-        if (_cs != null) {
-          min = _cs._min;
-          max = _cs._max;
-          constraint = _cs.getColumnConstraint(_col);
-          useBounds = _cs.useBounds();
-          dist = _cs._dist;
-        } else {
-          min = Double.NaN;
-          max = Double.NaN;
-          constraint = 0;
-          useBounds = false;
-          dist = null;
-        }
-        _s = findBestSplitPoint(_hs[_col], _col, _tree._parms._min_rows, constraint, min, max, useBounds, dist);
+        _s = findBestSplitPoint(_hs[_col], _col, _tree._parms._min_rows, _cs);
         return _s;
       }
     }
 
     public DecidedNode(UndecidedNode n, DHistogram hs[], Constraints cs) {
+      this(n, hs, cs, null, true, true);
+    }
+
+    /**
+     * Makes a node with a split that was already found (eg. by {@link HistogramReduceScatter}), null if the node
+     * cannot be split.
+     *
+     * @param completeHs false if the histograms are not complete (the bins were dropped by
+     *                   {@link HistogramReduceScatter}), the children then cannot use histogram subtraction
+     */
+    DecidedNode(UndecidedNode n, DHistogram hs[], Constraints cs, Split split, boolean completeHs) {
+      this(n, hs, cs, split, false, completeHs);
+    }
+
+    private DecidedNode(UndecidedNode n, DHistogram hs[], Constraints cs, Split split, boolean findSplit, boolean completeHs) {
       super(n._tree,n._pid,n._nid); // Replace Undecided with this DecidedNode
       _nids = new int[2];           // Split into 2 subsets
-      _split = bestCol(n,hs,cs);  // Best split-point for this tree
+      _split = findSplit ? bestCol(n,hs,cs) : split;  // Best split-point for this tree
       if( _split == null) {
         // Happens because the predictor columns cannot split the responses -
         // which might be because all predictor columns are now constant, or
@@ -575,7 +558,14 @@ public class DTree extends Iced {
         DHistogram nhists[] = _split.nextLevelHistos(hs, way,_splat, _tree._parms, ncs); //maintains the full range for NAvsREST
         assert nhists==null || nhists.length==_tree._ncols;
         // Assign a new (yet undecided) node to each child, and connect this (the parent) decided node and the newly made histograms to it
-        _nids[way] = nhists == null ? ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID : makeUndecidedNode(nhists,ncs)._nid;
+        if (nhists == null) {
+          _nids[way] = ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID;
+        } else {
+          UndecidedNode child = makeUndecidedNode(nhists, ncs);
+          if (_tree._parms._histogram_subtraction && completeHs)
+            child._parentHs = hs;
+          _nids[way] = child._nid;
+        }
       }
     }
 
@@ -820,7 +810,94 @@ public class DTree extends Iced {
     assert ab.position() == sz;
     return new CompressedTree(ab.buf(), _seed,tid,cls);
   }
-  
+
+  /**
+   * Finds the best split of a node across the columns it scores. This is the only implementation of the search,
+   * it is used both by {@link DecidedNode#bestCol} and for all the nodes of a level at once by {@link #bestSplits}.
+   * @return best split, null if the node cannot be split
+   */
+  Split bestSplit(UndecidedNode u, final DHistogram[] hs, final Constraints cs) {
+    if( hs == null ) return null;
+    final int maxCols = u._scoreCols == null /* all cols */ ? hs.length : u._scoreCols.length;
+    final int[] cols = new int[maxCols];
+    int ncols = 0;
+    //total work is to find the best split across sum_over_cols_to_split(nbins)
+    long nbinsSum = 0;
+    for( int i=0; i<maxCols; i++ ) {
+      int col = u._scoreCols == null ? i : u._scoreCols[i];
+      if( hs[col]==null || hs[col].actNBins() <= 1 )
+        continue;
+      cols[ncols++] = col;
+      nbinsSum += hs[col].actNBins();
+    }
+    final Split[] splits = new Split[ncols];
+    // for small work loads, do a serial loop, otherwise, submit work to FJ thread pool
+    if (nbinsSum <= 1024) { //heuristic - 50 cols with 20 nbins, or 1 column with 1024 bins, etc.
+      for (int k = 0; k < ncols; k++)
+        splits[k] = findBestSplitPoint(hs[cols[k]], cols[k], _parms._min_rows, cs);
+    } else {
+      List<RecursiveAction> tasks = new ArrayList<>(ncols);
+      for (int k = 0; k < ncols; k++) {
+        final int i = k;
+        tasks.add(new RecursiveAction() {
+          @Override
+          protected void compute() {
+            splits[i] = findBestSplitPoint(hs[cols[i]], cols[i], _parms._min_rows, cs);
+          }
+        });
+      }
+      jsr166y.ForkJoinTask.invokeAll(tasks);
+    }
+    Split best = null;
+    for (Split s : splits) // ties go to the first column
+      if (s != null && (best == null || s.se() < best.se())) best = s;
+    return best;
+  }
+
+  /**
+   * Finds the best splits of the undecided nodes of a tree level at once, the nodes are searched concurrently
+   * (see {@link #bestSplit}). This keeps all cores busy when the levels are small and the columns have only a few
+   * bins (eg. many trees of a multinomial model are built at the same time).
+   * @param hcs histograms of the nodes, [node - leafOffset][column]
+   * @return best split of each node (null if the node cannot be split)
+   */
+  Split[] bestSplits(final int leafOffset, final DHistogram[][] hcs) {
+    final Split[] splits = new Split[hcs.length];
+    List<RecursiveAction> tasks = new ArrayList<>(hcs.length);
+    for (int n = 0; n < hcs.length; n++) {
+      final int leaf = n;
+      tasks.add(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          UndecidedNode u = undecided(leaf + leafOffset);
+          splits[leaf] = bestSplit(u, hcs[leaf], u._cs);
+        }
+      });
+    }
+    jsr166y.ForkJoinTask.invokeAll(tasks);
+    return splits;
+  }
+
+  static Split findBestSplitPoint(DHistogram hs, int col, double min_rows, Constraints cs) {
+    final double min, max;
+    final int constraint;
+    final boolean useBounds;
+    final Distribution dist;
+    if (cs != null) {
+      min = cs._min;
+      max = cs._max;
+      constraint = cs.getColumnConstraint(col);
+      useBounds = cs.useBounds();
+      dist = cs._dist;
+    } else {
+      min = Double.NaN;
+      max = Double.NaN;
+      constraint = 0;
+      useBounds = false;
+      dist = null;
+    }
+    return findBestSplitPoint(hs, col, min_rows, constraint, min, max, useBounds, dist);
+  }
 
   static Split findBestSplitPoint(DHistogram hs, int col, double min_rows, int constraint, double min, double max, 
                                   boolean useBounds, Distribution dist) {
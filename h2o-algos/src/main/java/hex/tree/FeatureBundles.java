@@ -0,0 +1,319 @@
+package hex.tree;
+
+import water.H2O;
+import water.Iced;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Exclusive feature bundling of sparse predictors.
+ *
+ * Sparse predictors (eg. one-hot encoded categoricals or bag-of-words features) are typically mutually exclusive,
+ * they are rarely non-zero in the same row. Mutually exclusive predictors are merged into a bundle - a single column
+ * holding for every row a code of the (only) non-zero predictor of the bundle and of its bin, 0 if all predictors
+ * of the bundle are zero. {@link ScoreBuildHistogram2} then builds the histograms of all predictors of a bundle
+ * in a single pass over the rows of the bundle instead of one pass per predictor. The rows where a predictor is zero
+ * are accounted for at the end from the totals of the node (see {@link DHistogram#addZeros(double[])}).
+ *
+ * Bundling only changes how the histograms are computed, the histograms themselves are the same - split decisions
+ * still refer to the original predictors and the models are not affected.
+ *
+ * Bundles are found greedily on a sample of the rows and verified on all the data afterwards, predictors conflicting
+ * with another predictor of the same bundle in any row are removed from the bundle.
+ */
+class FeatureBundles extends Iced<FeatureBundles> {
+
+  // read for every model, bundling can be turned off for a single model build
+  static boolean isEnabled() {
+    return H2O.getSysBoolProperty("sharedtree.feature_bundling", true);
+  }
+
+  private static final double MAX_DENSITY = 0.1; // only predictors with at most 10% non-zeros are bundled
+  private static final int SAMPLE_SIZE = 10000; // rows used to find the bundles
+  private static final int MAX_CODES = 1 << 16; // codes of a bundle fit in 2 bytes
+  private static final int MAX_CANDIDATE_BUNDLES = 100; // bundles tried for each predictor
+
+  final int[][] _cols; // predictors of each bundle
+  final int[] _bundleOf; // bundle of each predictor, -1 if the predictor is not bundled
+  private final int[][] _offsets; // per bundle, per predictor: code of the first bin of the predictor
+  final int[][] _posOf; // per bundle, per code: position of the predictor in the bundle
+  final int[][] _binOf; // per bundle, per code: bin of the predictor
+
+  private FeatureBundles(int ncols, int[][] cols, DHistogram[] layouts) {
+    _cols = cols;
+    _bundleOf = new int[ncols];
+    Arrays.fill(_bundleOf, -1);
+    _offsets = new int[cols.length][];
+    _posOf = new int[cols.length][];
+    _binOf = new int[cols.length][];
+    for (int b = 0; b < cols.length; b++) {
+      _offsets[b] = new int[cols[b].length];
+      int codes = 1; // code 0: all predictors of the bundle are zero
+      for (int i = 0; i < cols[b].length; i++) {
+        _bundleOf[cols[b][i]] = b;
+        _offsets[b][i] = codes;
+        codes += layouts[cols[b][i]]._nbin + 1; // including the NA bin
+      }
+      _posOf[b] = new int[codes];
+      _binOf[b] = new int[codes];
+      for (int i = 0; i < cols[b].length; i++) {
+        for (int bin = 0; bin <= layouts[cols[b][i]]._nbin; bin++) {
+          _posOf[b][_offsets[b][i] + bin] = i;
+          _binOf[b][_offsets[b][i] + bin] = bin;
+        }
+      }
+    }
+  }
+
+  int numBundles() {
+    return _cols.length;
+  }
+
+  int numBundled() {
+    int n = 0;
+    for (int[] cols : _cols) n += cols.length;
+    return n;
+  }
+
+  boolean isBundled(int col) {
+    return _bundleOf[col] >= 0;
+  }
+
+  /**
+   * Finds bundles of mutually exclusive sparse predictors.
+   * @param fr training frame
+   * @param ncols number of predictors
+   * @param layouts bins of the pre-binned predictors (see {@link PreBinning}), only pre-binned predictors are bundled
+   * @return bundles or null if there are no predictors to bundle
+   */
+  static FeatureBundles find(Frame fr, int ncols, DHistogram[] layouts) {
+    if (!isEnabled() || layouts == null)
+      return null;
+    Vec[] vecs = fr.vecs();
+    int[] candidates = new int[ncols];
+    int ncandidates = 0;
+    for (int c = 0; c < ncols; c++) {
+      Vec v = vecs[c];
+      if (layouts[c] != null && layouts[c]._nbin + 2 <= MAX_CODES && v.nzCnt() + v.naCnt() <= MAX_DENSITY * v.length())
+        candidates[ncandidates++] = c;
+    }
+    if (ncandidates < 2)
+      return null;
+    candidates = Arrays.copyOf(candidates, ncandidates);
+    Vec[] candidateVecs = new Vec[ncandidates];
+    for (int i = 0; i < ncandidates; i++)
+      candidateVecs[i] = vecs[candidates[i]];
+
+    long stride = Math.max(1, (fr.numRows() + SAMPLE_SIZE - 1) / SAMPLE_SIZE);
+    int[][] sampledRows = new SampleNonZeros(stride).doAll(candidateVecs)._rows;
+    int[][] bundles = bundle(candidates, sampledRows, layouts);
+    if (bundles.length == 0)
+      return null;
+
+    // the sample doesn't see all the rows, remove predictors that conflict with another predictor of the bundle
+    boolean[] conflicts = new FindConflicts(bundles).doAll(candidateVecs)._conflicts;
+    List<int[]> verified = new ArrayList<>();
+    for (int[] bundle : bundles) {
+      int[] cols = new int[bundle.length];
+      int n = 0;
+      for (int i : bundle)
+        if (!conflicts[i])
+          cols[n++] = candidates[i];
+      if (n < 2) continue;
+      verified.add(Arrays.copyOf(cols, n));
+    }
+    if (verified.isEmpty())
+      return null;
+    return new FeatureBundles(ncols, verified.toArray(new int[0][]), layouts);
+  }
+
+  /**
+   * Greedy bundling: predictors with the most non-zeros go first, each predictor is added to the first bundle
+   * it doesn't conflict with (in the sample of the rows).
+   * @return bundles of at least 2 predictors, given by the positions of the predictors in the list of candidates
+   */
+  private static int[][] bundle(int[] candidates, final int[][] sampledRows, DHistogram[] layouts) {
+    Integer[] order = new Integer[candidates.length];
+    for (int i = 0; i < order.length; i++) order[i] = i;
+    Arrays.sort(order, (a, b) -> sampledRows[b].length - sampledRows[a].length);
+    List<List<Integer>> members = new ArrayList<>();
+    List<BitSet> usedRows = new ArrayList<>();
+    List<Integer> usedCodes = new ArrayList<>();
+    for (int i : order) {
+      int codes = layouts[candidates[i]]._nbin + 1;
+      int found = -1;
+      for (int b = members.size() - 1; b >= Math.max(0, members.size() - MAX_CANDIDATE_BUNDLES) && found < 0; b--) {
+        if (usedCodes.get(b) + codes > MAX_CODES) continue;
+        found = b;
+        for (int r : sampledRows[i])
+          if (usedRows.get(b).get(r)) {
+            found = -1;
+            break;
+          }
+      }
+      if (found < 0) {
+        found = members.size();
+        members.add(new ArrayList<>());
+        usedRows.add(new BitSet(SAMPLE_SIZE));
+        usedCodes.add(1);
+      }
+      members.get(found).add(i);
+      for (int r : sampledRows[i])
+        usedRows.get(found).set(r);
+      usedCodes.set(found, usedCodes.get(found) + codes);
+    }
+    List<int[]> bundles = new ArrayList<>();
+    for (List<Integer> m : members) {
+      if (m.size() < 2) continue;
+      int[] bundle = new int[m.size()];
+      for (int j = 0; j < bundle.length; j++) bundle[j] = m.get(j);
+      bundles.add(bundle);
+    }
+    return bundles.toArray(new int[0][]);
+  }
+
+  /**
+   * Makes a frame of the bundled predictors, one Vec per bundle.
+   */
+  Frame encode(Frame fr, DHistogram[] layouts) {
+    Vec[] vecs = new Vec[_bundleOf.length];
+    DHistogram[] bundled = new DHistogram[_bundleOf.length];
+    int n = 0;
+    for (int[] cols : _cols)
+      for (int c : cols) {
+        vecs[n] = fr.vec(c);
+        bundled[n++] = layouts[c];
+      }
+    String[] names = new String[_cols.length];
+    byte[] types = new byte[_cols.length];
+    for (int b = 0; b < _cols.length; b++)
+      names[b] = "Bundle_" + b;
+    Arrays.fill(types, Vec.T_NUM);
+    return new Encode(this, Arrays.copyOf(bundled, n)).doAll(types, Arrays.copyOf(vecs, n)).outputFrame(null, names, null);
+  }
+
+  private static boolean isNonZero(Chunk c, int row) {
+    return c.isNA(row) || c.atd(row) != 0;
+  }
+
+  // Indices of the non-zero values of each column in a sample of the rows (every stride-th row)
+  private static class SampleNonZeros extends MRTask<SampleNonZeros> {
+    private final long _stride;
+    int[][] _rows;
+
+    SampleNonZeros(long stride) {
+      _stride = stride;
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      _rows = new int[cs.length][];
+      long start = cs[0].start();
+      for (int c = 0; c < cs.length; c++) {
+        int[] rows = new int[8];
+        int n = 0;
+        for (int r = cs[c].nextNZ(-1, true); r < cs[c]._len; r = cs[c].nextNZ(r, true)) {
+          long row = start + r;
+          if (row % _stride != 0 || !isNonZero(cs[c], r)) continue;
+          if (n == rows.length) rows = Arrays.copyOf(rows, 2 * n);
+          rows[n++] = (int) (row / _stride);
+        }
+        _rows[c] = Arrays.copyOf(rows, n);
+      }
+    }
+
+    @Override
+    public void reduce(SampleNonZeros mrt) {
+      for (int c = 0; c < _rows.length; c++) {
+        int[] rows = Arrays.copyOf(_rows[c], _rows[c].length + mrt._rows[c].length);
+        System.arraycopy(mrt._rows[c], 0, rows, _rows[c].length, mrt._rows[c].length);
+        _rows[c] = rows;
+      }
+    }
+  }
+
+  // Flags the predictors that are non-zero in the same row as a predictor that precedes them in the bundle
+  private static class FindConflicts extends MRTask<FindConflicts> {
+    private final int[][] _bundles;
+    boolean[] _conflicts;
+
+    FindConflicts(int[][] bundles) {
+      _bundles = bundles;
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      _conflicts = new boolean[cs.length];
+      int[] owner = new int[cs[0]._len];
+      Arrays.fill(owner, -1);
+      for (int[] bundle : _bundles) {
+        for (int c : bundle)
+          for (int r = cs[c].nextNZ(-1, true); r < cs[c]._len; r = cs[c].nextNZ(r, true)) {
+            if (!isNonZero(cs[c], r)) continue;
+            if (owner[r] < 0) owner[r] = c;
+            else _conflicts[c] = true;
+          }
+        for (int c : bundle) // reset just the rows touched by this bundle
+          for (int r = cs[c].nextNZ(-1, true); r < cs[c]._len; r = cs[c].nextNZ(r, true))
+            owner[r] = -1;
+      }
+    }
+
+    @Override
+    public void reduce(FindConflicts mrt) {
+      for (int c = 0; c < _conflicts.length; c++)
+        _conflicts[c] |= mrt._conflicts[c];
+    }
+  }
+
+  private static class Encode extends MRTask<Encode> {
+    private final FeatureBundles _bundles;
+    private final DHistogram[] _layouts; // bins of the bundled predictors, in the order of the bundles
+
+    Encode(FeatureBundles bundles, DHistogram[] layouts) {
+      _bundles = bundles;
+      _layouts = layouts;
+    }
+
+    @Override
+    public void setupLocal() {
+      for (DHistogram h : _layouts)
+        h.initBins(); // split points are not sent over the wire
+    }
+
+    @Override
+    public void map(Chunk[] cs, NewChunk[] ncs) {
+      final int len = cs[0]._len;
+      int[] codes = new int[len];
+      int[] rows = new int[len];
+      int c = 0;
+      for (int b = 0; b < ncs.length; b++) {
+        int n = 0;
+        for (int i = 0; i < _bundles._cols[b].length; i++, c++) {
+          for (int r = cs[c].nextNZ(-1, true); r < len; r = cs[c].nextNZ(r, true)) {
+            if (!isNonZero(cs[c], r)) continue;
+            codes[r] = _bundles._offsets[b][i] + _layouts[c].bin(cs[c].atd(r));
+            rows[n++] = r; // predictors of a bundle are exclusive, each row is seen at most once
+          }
+        }
+        Arrays.sort(rows, 0, n);
+        int prev = 0;
+        for (int j = 0; j < n; j++) {
+          ncs[b].addZeros(rows[j] - prev);
+          ncs[b].addNum(codes[rows[j]], 0);
+          prev = rows[j] + 1;
+        }
+        ncs[b].addZeros(len - prev);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,230 @@
+package hex.tree;
+
+import water.H2O;
+import water.Key;
+import water.util.IcedBitSet;
+
+import java.util.Arrays;
+
+/**
+ * Tree compiled from a {@link CompressedTree} into a flat struct-of-arrays form (split column, threshold,
+ * NA direction and child references per node, leaf values in a separate array).
+ *
+ * The compressed form needs to be decoded byte by byte for every row (including the categorical bitsets) which makes
+ * scoring of a large number of rows expensive. The flat form is decoded only once and is used to score blocks
+ * of rows tree by tree - the nodes of the tree stay in the cache while the rows of the block are being scored.
+ *
+ * The decisions are the same as in {@link hex.genmodel.algos.tree.SharedTreeMojoModel#scoreTree}.
+ */
+final class FlatTree {
+
+  // read whenever a model is scored, flat scoring can be turned off without restarting the cloud
+  static boolean isEnabled() {
+    return H2O.getSysBoolProperty("sharedtree.flat_scoring", true);
+  }
+
+  static final int BLOCK_SIZE = 256; // rows scored by all trees at once
+
+  private static final byte NUMERIC = 0;
+  private static final byte BITSET = 1;
+  private static final byte NA_VS_REST = 2;
+
+  private final int[] _col;
+  private final float[] _split;
+  private final byte[] _type;
+  private final boolean[] _naRight;
+  private final int[] _left;  // index of the child node, or ~index of the leaf
+  private final int[] _right; // the same for the right child
+  private final int[] _bitsStart; // categorical splits: position of the first bit in _bits
+  private final int[] _bitsMin;   // categorical splits: level represented by the first bit
+  private final int[] _bitsLen;   // categorical splits: number of levels in the bitset
+  private final long[] _bits;
+  private final float[] _leaves;
+  private final int _root;
+
+  private FlatTree(Builder b) {
+    _col = Arrays.copyOf(b._col, b._nnodes);
+    _split = Arrays.copyOf(b._split, b._nnodes);
+    _type = Arrays.copyOf(b._type, b._nnodes);
+    _naRight = Arrays.copyOf(b._naRight, b._nnodes);
+    _left = Arrays.copyOf(b._left, b._nnodes);
+    _right = Arrays.copyOf(b._right, b._nnodes);
+    _bitsStart = Arrays.copyOf(b._bitsStart, b._nnodes);
+    _bitsMin = Arrays.copyOf(b._bitsMin, b._nnodes);
+    _bitsLen = Arrays.copyOf(b._bitsLen, b._nnodes);
+    _bits = Arrays.copyOf(b._bits, (b._nbits + 63) >> 6);
+    _leaves = Arrays.copyOf(b._leaves, b._nleaves);
+    _root = b._root;
+  }
+
+  /**
+   * Compiles a tree, returns null if the tree uses a split that is not supported in the flat form.
+   */
+  static FlatTree compile(CompressedTree ct) {
+    Builder b = new Builder(ct);
+    b.visit();
+    return b._unsupported ? null : new FlatTree(b);
+  }
+
+  /**
+   * Compiles all trees of a model, returns null if any of the trees cannot be compiled.
+   */
+  static FlatTree[][] compile(Key<CompressedTree>[][] treeKeys) {
+    FlatTree[][] trees = new FlatTree[treeKeys.length][];
+    for (int t = 0; t < treeKeys.length; t++) {
+      trees[t] = new FlatTree[treeKeys[t].length];
+      for (int c = 0; c < treeKeys[t].length; c++) {
+        if (treeKeys[t][c] == null) continue;
+        trees[t][c] = compile(treeKeys[t][c].get());
+        if (trees[t][c] == null) return null;
+      }
+    }
+    return trees;
+  }
+
+  /**
+   * Upper bounds of the values of categorical columns (cardinality), infinity for the numeric columns. Levels
+   * outside of the domain follow the NA direction.
+   */
+  static double[] cardinalities(String[][] domains, int ncols) {
+    double[] card = new double[ncols];
+    for (int c = 0; c < ncols; c++)
+      card[c] = domains != null && domains[c] != null ? domains[c].length : Double.POSITIVE_INFINITY;
+    return card;
+  }
+
+  /**
+   * Scores a block of rows and adds the predictions to the output.
+   * @param block column-major block of rows, block[col][row]
+   * @param len number of rows in the block
+   * @param card cardinalities of the columns (see {@link #cardinalities})
+   * @param out predictions of the rows, the prediction of the tree is added to them
+   */
+  void score(double[][] block, int len, double[] card, double[] out) {
+    for (int row = 0; row < len; row++) {
+      int n = _root;
+      while (n >= 0)
+        n = next(n, block[_col[n]][row], card[_col[n]]);
+      out[row] += _leaves[~n];
+    }
+  }
+
+  /**
+   * Scores a single row.
+   */
+  double score(double[] row, double[] card) {
+    int n = _root;
+    while (n >= 0)
+      n = next(n, row[_col[n]], card[_col[n]]);
+    return _leaves[~n];
+  }
+
+  private int next(int n, double d, double card) {
+    if (Double.isNaN(d) || d >= card)
+      return _naRight[n] ? _right[n] : _left[n];
+    switch (_type[n]) {
+      case NUMERIC:
+        return d >= _split[n] ? _right[n] : _left[n];
+      case BITSET:
+        int level = (int) d - _bitsMin[n];
+        if (level < 0 || level >= _bitsLen[n])
+          return _naRight[n] ? _right[n] : _left[n];
+        int bit = _bitsStart[n] + level;
+        return (_bits[bit >> 6] & (1L << bit)) != 0 ? _right[n] : _left[n];
+      default: // NA_VS_REST
+        return _left[n];
+    }
+  }
+
+  private static class Builder extends TreeVisitor<RuntimeException> {
+    private int[] _col = new int[16];
+    private float[] _split = new float[16];
+    private byte[] _type = new byte[16];
+    private boolean[] _naRight = new boolean[16];
+    private int[] _left = new int[16];
+    private int[] _right = new int[16];
+    private int[] _bitsStart = new int[16];
+    private int[] _bitsMin = new int[16];
+    private int[] _bitsLen = new int[16];
+    private long[] _bits = new long[1];
+    private float[] _leaves = new float[16];
+    private int _nnodes;
+    private int _nleaves;
+    private int _nbits;
+    private int _root;
+    private boolean _unsupported;
+    private int[] _stack = new int[16];
+    private int _sp;
+
+    Builder(CompressedTree ct) { super(ct); }
+
+    @Override
+    protected void pre(int col, float fcmp, IcedBitSet gcmp, int equal, int naSplitDirInt) {
+      // equality splits are not produced anymore, NA-vs-rest splits of categoricals would need
+      // the last bitset seen on the path (see SharedTreeMojoModel#scoreTree)
+      if (equal == 1 || (naSplitDirInt == DhnasdNaVsRest && equal != 0))
+        _unsupported = true;
+      if (_nnodes == _col.length) grow();
+      int n = _nnodes++;
+      _col[n] = col;
+      _split[n] = fcmp;
+      _naRight[n] = !(naSplitDirInt == DhnasdNaLeft || naSplitDirInt == DhnasdLeft);
+      _left[n] = _right[n] = Integer.MIN_VALUE;
+      if (naSplitDirInt == DhnasdNaVsRest) {
+        _type[n] = NA_VS_REST;
+      } else if (equal == 2 || equal == 3) {
+        _type[n] = BITSET;
+        int bitoff = gcmp.max() - gcmp.size();
+        _bitsStart[n] = _nbits;
+        _bitsMin[n] = bitoff;
+        _bitsLen[n] = gcmp.size();
+        if (_nbits + gcmp.size() > _bits.length << 6)
+          _bits = Arrays.copyOf(_bits, Math.max(_bits.length << 1, (_nbits + gcmp.size() + 63) >> 6));
+        for (int i = 0; i < gcmp.size(); i++, _nbits++)
+          if (gcmp.contains(bitoff + i))
+            _bits[_nbits >> 6] |= 1L << _nbits;
+      } else {
+        _type[n] = NUMERIC;
+      }
+      attach(n);
+      if (_sp == _stack.length) _stack = Arrays.copyOf(_stack, _sp << 1);
+      _stack[_sp++] = n;
+    }
+
+    @Override
+    protected void post(int col, float fcmp, int equal) {
+      _sp--;
+    }
+
+    @Override
+    protected void leaf(float pred) {
+      if (_nleaves == _leaves.length) _leaves = Arrays.copyOf(_leaves, _nleaves << 1);
+      _leaves[_nleaves] = pred;
+      attach(~_nleaves++);
+    }
+
+    private void attach(int ref) {
+      if (_sp == 0) {
+        _root = ref;
+        return;
+      }
+      int parent = _stack[_sp - 1];
+      if (_left[parent] == Integer.MIN_VALUE) _left[parent] = ref;
+      else _right[parent] = ref;
+    }
+
+    private void grow() {
+      int len = _col.length << 1;
+      _col = Arrays.copyOf(_col, len);
+      _split = Arrays.copyOf(_split, len);
+      _type = Arrays.copyOf(_type, len);
+      _naRight = Arrays.copyOf(_naRight, len);
+      _left = Arrays.copyOf(_left, len);
+      _right = Arrays.copyOf(_right, len);
+      _bitsStart = Arrays.copyOf(_bitsStart, len);
+      _bitsMin = Arrays.copyOf(_bitsMin, len);
+      _bitsLen = Arrays.copyOf(_bitsLen, len);
+    }
+  }
+
+}
@@ -0,0 +1,233 @@
+package hex.tree;
+
+import jsr166y.ForkJoinTask;
+import jsr166y.RecursiveAction;
+import water.*;
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Distributed split finding (reduce-scatter of the histograms).
+ *
+ * By default the histograms of all leaves and columns are reduced to the node that builds the tree and the splits
+ * are found there. For wide data this makes the node a bottleneck both in network traffic and CPU. In the
+ * reduce-scatter mode {@link ScoreBuildHistogram2} keeps the histograms built on each node locally. Every node then
+ * owns a subset of the columns, it collects the histograms of its columns from the other nodes, merges them and
+ * finds the best splits of its columns. Only the winning splits are sent back, together with the histograms
+ * stripped of their bins (see {@link DHistogram#dropBins()}) - those are needed to make the histograms of the next
+ * level. The histogram of the winning column is kept complete (it is needed to find the split point).
+ *
+ * Histogram subtraction needs the complete histograms of the parent and it is therefore not used for the trees
+ * built in this mode.
+ */
+class HistogramReduceScatter extends MRTask<HistogramReduceScatter> {
+
+
+  // histograms built on this node ([column][leaf]), stored by ScoreBuildHistogram2 until the splits are found
+  private static final NonBlockingHashMap<Key, DHistogram[][]> LOCAL_HISTOS = new NonBlockingHashMap<>();
+
+  private final Key _key;
+  private final int _ncols;
+  private final double _minRows;
+  private final int[][] _scoreCols; // per leaf: columns to score (null for all)
+  private final Constraints[] _cs;  // per leaf
+
+  /* @OUT */ DTree.Split[] _splits; // per leaf: best split
+  /* @OUT */ DHistogram[][] _hs;    // [leaf][column]: histograms without bins (except for the column of the best split)
+
+  private HistogramReduceScatter(Key key, int ncols, double minRows, int[][] scoreCols, Constraints[] cs) {
+    _key = key;
+    _ncols = ncols;
+    _minRows = minRows;
+    _scoreCols = scoreCols;
+    _cs = cs;
+  }
+
+  /**
+   * Read on every use to allow switching the mode between the model builds. The mode is meant for multi-node clouds,
+   * a single node cloud can use it only if forced (for testing).
+   */
+  static boolean isEnabled(boolean buildTreeOneNode) {
+    if (buildTreeOneNode || !H2O.getSysBoolProperty("sharedtree.histogram.reduce_scatter", false))
+      return false;
+    return H2O.CLOUD.size() > 1 || H2O.getSysBoolProperty("sharedtree.histogram.reduce_scatter.force", false);
+  }
+
+  static void keepLocal(Key key, DHistogram[][] hcs) {
+    LOCAL_HISTOS.put(key, hcs);
+  }
+
+  static int numLocal() {
+    return LOCAL_HISTOS.size();
+  }
+
+  /**
+   * Finds the splits of the leaves of a tree level using the histograms kept on the nodes under the given key.
+   */
+  static HistogramReduceScatter findSplits(Key key, DTree tree, int leafOffset, int numLeafs) {
+    int[][] scoreCols = new int[numLeafs][];
+    Constraints[] cs = new Constraints[numLeafs];
+    for (int n = 0; n < numLeafs; n++) {
+      DTree.UndecidedNode udn = tree.undecided(n + leafOffset);
+      scoreCols[n] = udn._scoreCols;
+      cs[n] = udn._cs;
+    }
+    try {
+      return new HistogramReduceScatter(key, tree._ncols, tree._parms._min_rows, scoreCols, cs).doAllNodes();
+    } finally {
+      removeLocal(key);
+    }
+  }
+
+  /**
+   * Removes the histograms kept under the given keys from all the nodes.
+   */
+  static void removeLocal(final Key... keys) {
+    new MRTask() {
+      @Override
+      protected void setupLocal() {
+        for (Key key : keys)
+          LOCAL_HISTOS.remove(key);
+      }
+    }.doAllNodes();
+  }
+
+  @Override
+  protected void setupLocal() {
+    final int numLeafs = _cs.length;
+    _splits = new DTree.Split[numLeafs];
+    _hs = new DHistogram[numLeafs][_ncols];
+    final int self = H2O.SELF.index();
+    final int nnodes = H2O.CLOUD.size();
+    int[] owned = ownedColumns(self, nnodes);
+    if (owned.length == 0)
+      return;
+    // Collect the histograms of the owned columns from all the other nodes and merge them
+    DHistogram[][] hs = select(LOCAL_HISTOS.get(_key), owned, numLeafs);
+    List<RPC<FetchHistograms>> rpcs = new ArrayList<>();
+    for (int i = 0; i < nnodes; i++)
+      if (i != self)
+        rpcs.add(RPC.call(H2O.CLOUD._memary[i], new FetchHistograms(_key, owned, numLeafs)));
+    for (RPC<FetchHistograms> rpc : rpcs) {
+      DHistogram[][] remote = rpc.get()._hs;
+      for (int i = 0; i < owned.length; i++)
+        for (int n = 0; n < numLeafs; n++) {
+          if (remote[i][n] == null) continue;
+          if (hs[i][n] == null) hs[i][n] = remote[i][n];
+          else hs[i][n].add(remote[i][n]);
+        }
+    }
+    for (int i = 0; i < owned.length; i++)
+      for (int n = 0; n < numLeafs; n++)
+        if (hs[i][n] != null) {
+          hs[i][n].unpack();
+          hs[i][n].reducePrecision();
+          _hs[n][owned[i]] = hs[i][n];
+        }
+    // Find the best split of every leaf among the owned columns
+    List<FindLeafSplit> tasks = new ArrayList<>(numLeafs);
+    for (int n = 0; n < numLeafs; n++)
+      tasks.add(new FindLeafSplit(n, owned));
+    ForkJoinTask.invokeAll(tasks);
+  }
+
+  private int[] ownedColumns(int self, int nnodes) {
+    int cnt = 0;
+    for (int c = self; c < _ncols; c += nnodes) cnt++;
+    int[] owned = new int[cnt];
+    for (int i = 0; i < cnt; i++)
+      owned[i] = self + i * nnodes;
+    return owned;
+  }
+
+  // histograms of the given columns, [column][leaf]
+  private static DHistogram[][] select(DHistogram[][] hcs, int[] cols, int numLeafs) {
+    DHistogram[][] hs = new DHistogram[cols.length][];
+    for (int i = 0; i < cols.length; i++)
+      hs[i] = hcs != null && hcs[cols[i]] != null ? hcs[cols[i]] : new DHistogram[numLeafs];
+    return hs;
+  }
+
+  private class FindLeafSplit extends RecursiveAction {
+    private final int _leaf;
+    private final int[] _owned;
+
+    FindLeafSplit(int leaf, int[] owned) {
+      _leaf = leaf;
+      _owned = owned;
+    }
+
+    @Override
+    protected void compute() {
+      final DHistogram[] hs = _hs[_leaf];
+      final int[] scoreCols = _scoreCols[_leaf];
+      DTree.Split best = null;
+      for (int col : _owned) {
+        if (scoreCols != null && !contains(scoreCols, col))
+          continue;
+        if (hs[col] == null || hs[col].actNBins() <= 1)
+          continue;
+        DTree.Split s = DTree.findBestSplitPoint(hs[col], col, _minRows, _cs[_leaf]);
+        if (s != null && (best == null || s.se() < best.se()))
+          best = s;
+      }
+      _splits[_leaf] = best;
+      for (int col : _owned)
+        if (hs[col] != null && (best == null || best.col() != col))
+          hs[col].dropBins();
+    }
+  }
+
+  private static boolean contains(int[] cols, int col) {
+    for (int c : cols)
+      if (c == col) return true;
+    return false;
+  }
+
+  @Override
+  public void reduce(HistogramReduceScatter mrt) {
+    for (int n = 0; n < _splits.length; n++) {
+      DTree.Split s1 = _splits[n], s2 = mrt._splits[n];
+      if (s2 != null && (s1 == null || s2.se() < s1.se() || (s2.se() == s1.se() && s2.col() < s1.col()))) {
+        if (s1 != null) _hs[n][s1.col()].dropBins();
+        _splits[n] = s2;
+      } else if (s2 != null) {
+        mrt._hs[n][s2.col()].dropBins();
+      }
+      for (int c = 0; c < _ncols; c++) // columns are owned by exactly one node
+        if (_hs[n][c] == null) _hs[n][c] = mrt._hs[n][c];
+    }
+  }
+
+  /**
+   * Sends the histograms of the requested columns kept on this node.
+   */
+  private static class FetchHistograms extends DTask<FetchHistograms> {
+    // IN
+    private final Key _key;
+    private final int[] _cols;
+    private final int _numLeafs;
+    // OUT
+    DHistogram[][] _hs; // [column][leaf]
+
+    FetchHistograms(Key key, int[] cols, int numLeafs) {
+      // the caller blocks on the result in setupLocal, run above its priority to avoid a deadlock
+      super((byte)(Thread.currentThread() instanceof H2O.FJWThr ? currThrPriority()+1 : H2O.MIN_HI_PRIORITY-2));
+      _key = key;
+      _cols = cols;
+      _numLeafs = numLeafs;
+    }
+
+    @Override
+    public void compute2() {
+      _hs = select(LOCAL_HISTOS.get(_key), _cols, _numLeafs);
+      for (DHistogram[] hs : _hs)
+        for (DHistogram h : hs)
+          if (h != null) h.pack();
+      tryComplete();
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+package hex.tree;
+
+import water.H2O;
+import water.Iced;
+import water.MemoryManager;
+
+/**
+ * Compact form of the values of a {@link DHistogram} used while the histograms are being reduced across the nodes.
+ *
+ * Only non-empty bins are kept (deep in a tree most bins of a node are empty, in particular for categorical columns
+ * with many levels) and the weights are stored as ints if they are all whole numbers (which is always the case
+ * for data without a weights column). The conversion is lossless unless values are stored as floats
+ * ({@code sharedtree.histogram.float_wire}) which halves the size of the remaining values at the cost of precision
+ * comparable to {@link DHistogram#reducePrecision()} - weights are never stored as floats.
+ */
+final class PackedBins extends Iced<PackedBins> {
+
+  static final boolean FLOAT_VALUES = H2O.getSysBoolProperty("sharedtree.histogram.float_wire", false);
+
+  private final int _len; // number of the values (including empty bins)
+  private final int _dim; // values per bin
+  private final byte[] _nonEmpty; // bitmap of the non-empty bins
+  private final int[] _counts; // weights of the non-empty bins if they are all whole numbers, null otherwise
+  private final double[] _vals; // values of the non-empty bins (without the weights if they are in _counts)
+  private final float[] _fvals; // the same as floats (if FLOAT_VALUES is enabled)
+
+  PackedBins(double[] vals, int dim) {
+    _len = vals.length;
+    _dim = dim;
+    final int nbins = vals.length / dim;
+    _nonEmpty = new byte[(nbins + 7) >> 3];
+    int nonEmpty = 0;
+    boolean whole = true;
+    for (int b = 0; b < nbins; b++) {
+      double w = vals[b * dim];
+      if (w == 0 && isEmpty(vals, b * dim, dim))
+        continue;
+      _nonEmpty[b >> 3] |= 1 << (b & 7);
+      nonEmpty++;
+      whole &= w == (int) w;
+    }
+    _counts = whole ? new int[nonEmpty] : null;
+    int nvals = nonEmpty * (whole ? dim - 1 : dim);
+    double[] dvals = FLOAT_VALUES ? null : new double[nvals];
+    float[] fvals = FLOAT_VALUES ? new float[nvals] : null;
+    int i = 0, j = 0;
+    for (int b = 0; b < nbins; b++) {
+      if (!isNonEmpty(b)) continue;
+      int d = 0;
+      if (whole) {
+        _counts[i++] = (int) vals[b * dim];
+        d = 1;
+      }
+      for (; d < dim; d++, j++) {
+        if (dvals != null) dvals[j] = vals[b * dim + d];
+        else fvals[j] = (float) vals[b * dim + d];
+      }
+    }
+    _vals = dvals;
+    _fvals = fvals;
+  }
+
+  private static boolean isEmpty(double[] vals, int off, int dim) {
+    for (int d = 0; d < dim; d++)
+      if (vals[off + d] != 0) return false;
+    return true;
+  }
+
+  private boolean isNonEmpty(int b) {
+    return (_nonEmpty[b >> 3] & (1 << (b & 7))) != 0;
+  }
+
+  double[] unpack() {
+    double[] vals = MemoryManager.malloc8d(_len);
+    final int nbins = _len / _dim;
+    int i = 0, j = 0;
+    for (int b = 0; b < nbins; b++) {
+      if (!isNonEmpty(b)) continue;
+      int d = 0;
+      if (_counts != null) {
+        vals[b * _dim] = _counts[i++];
+        d = 1;
+      }
+      for (; d < _dim; d++, j++)
+        vals[b * _dim + d] = _vals != null ? _vals[j] : _fvals[j];
+    }
+    return vals;
+  }
+
+}
@@ -0,0 +1,92 @@
+package hex.tree;
+
+import water.H2O;
+import water.Key;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+
+import java.util.Arrays;
+
+/**
+ * One-time pre-binning of the predictor columns.
+ *
+ * Maps every value of a predictor to the index of its bin in the top-level histogram of the column and stores
+ * the indices in a new Vec (NAs get the index of the NA bin). Bin indices are small integers and are compressed
+ * to 1 or 2 bytes per row. The bins of the top-level histograms are the same for all trees (unless they are random),
+ * {@link ScoreBuildHistogram2} can therefore use the indices directly, skipping decompression of the column
+ * and the bin lookup, whenever the histogram of a node has the same bins as the top-level histogram. This is the
+ * case for the root nodes, for categorical and small-range integer columns that keep their full range and
+ * for all columns that inherit the bins of the parent (histogram subtraction).
+ */
+class PreBinning extends MRTask<PreBinning> {
+
+  // read for every model, pre-binning can be turned off for a single model build
+  static boolean isEnabled() {
+    return H2O.getSysBoolProperty("sharedtree.prebinning", true);
+  }
+
+  private final DHistogram[] _layouts;
+
+  private PreBinning(DHistogram[] layouts) {
+    _layouts = layouts;
+  }
+
+  /**
+   * Bins of the top-level histograms that can be used for pre-binning, null for columns that cannot be pre-binned.
+   */
+  static DHistogram[] layouts(Frame fr, int ncols, int nbins, SharedTreeModel.SharedTreeParameters parms, Key[] globalQuantilesKeys) {
+    if (!isEnabled() || parms._histogram_type == SharedTreeModel.SharedTreeParameters.HistogramType.Random
+            || parms._histogram_type == SharedTreeModel.SharedTreeParameters.HistogramType.RoundRobin)
+      return null; // Bins of random histograms are different in every tree
+    DHistogram[] layouts = DHistogram.initialHist(fr, ncols, nbins, new DHistogram[ncols], parms._seed, parms, globalQuantilesKeys, null);
+    boolean any = false;
+    for (DHistogram h : layouts) {
+      if (h == null) continue;
+      h.initBins();
+      any = true;
+    }
+    return any ? layouts : null;
+  }
+
+  /**
+   * Makes a frame of bin indices, one Vec per predictor (a constant NA Vec for predictors that are not pre-binned).
+   * Bundled predictors are not binned individually, their bins are part of the bundle (see {@link FeatureBundles}).
+   */
+  static Frame binIndices(Frame fr, DHistogram[] layouts, FeatureBundles bundles) {
+    if (bundles != null) {
+      layouts = layouts.clone();
+      for (int c = 0; c < layouts.length; c++)
+        if (bundles.isBundled(c)) layouts[c] = null;
+    }
+    Vec[] vecs = new Vec[layouts.length];
+    System.arraycopy(fr.vecs(), 0, vecs, 0, layouts.length);
+    String[] names = new String[layouts.length];
+    for (int i = 0; i < names.length; i++)
+      names[i] = "Bins_" + fr._names[i];
+    byte[] types = new byte[layouts.length];
+    Arrays.fill(types, Vec.T_NUM);
+    return new PreBinning(layouts).doAll(types, vecs).outputFrame(null, names, null);
+  }
+
+  @Override
+  public void setupLocal() {
+    for (DHistogram h : _layouts)
+      if (h != null) h.initBins(); // split points are not sent over the wire
+  }
+
+  @Override
+  public void map(Chunk[] cs, NewChunk[] ncs) {
+    for (int c = 0; c < cs.length; c++) {
+      DHistogram h = _layouts[c];
+      if (h == null) {
+        ncs[c].addNAs(cs[c]._len);
+        continue;
+      }
+      for (int row = 0; row < cs[c]._len; row++)
+        ncs[c].addNum(h.bin(cs[c].atd(row)), 0);
+    }
+  }
+}
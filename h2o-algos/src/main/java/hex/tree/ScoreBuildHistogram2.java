@@ -9,7 +9,9 @@ import water.util.IcedBitSet;
 import water.util.VecUtils;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by tomas on 10/28/16.
@@ -58,24 +60,51 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  */
 public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
+  // read for every level, sparse histograms can be turned off for a single model build
+  static boolean isSparseEnabled() {
+    return H2O.getSysBoolProperty("sharedtree.sparse_histograms", true);
+  }
+
   transient int []   _cids;
   transient Chunk[][] _chks;
   transient double [][] _ys;
   transient double [][] _ws;
   transient int [][] _nhs;
   transient int [][] _rss;
+  transient int [][] _nnids; // per chunk: leaf of each row, only kept for chunks with sparse predictors
+  transient double[][][] _chunkTotals; // per chunk, per leaf: sums of weights, wY and wYY of the rows of the leaf
+  transient double[][] _leafTotals; // per leaf: the same for all local rows (null if sparse histograms are disabled)
+  transient boolean[] _sparseCols; // columns with histograms built from the non-zero values of (some) chunks
   Frame _fr2;
   final int _numLeafs;
   final IcedBitSet _activeCols;
+  final IcedBitSet[] _derivedCols; // per leaf: columns derived by histogram subtraction (not computed from data), null if none
+  final boolean _sparseHistograms; // build histograms of sparse chunks from their non-zero values
+  final boolean _checkDerived; // debug: derived histograms are also computed from data and compared to the result of the subtraction
+  static final AtomicLong CHECKED_DERIVED = new AtomicLong(); // number of derived histograms checked in debug mode
   final int _respIdx;
   final int _predsIdx;
+  final int _binIdx; // index of the first pre-binned predictor, -1 if predictors are not pre-binned
+  final DHistogram[] _binLayouts; // bins used for pre-binning, per predictor
+  final int _bundleIdx; // index of the first bundle of sparse predictors, -1 if predictors are not bundled
+  final FeatureBundles _bundles;
+  transient BitSet[] _fromBundle; // per leaf: columns whose histograms are built from their bundle
+  transient int[][][] _fromColumn; // per bundle, per leaf: bundled columns (positions in the bundle) built from the column itself
+  transient double[][][] _bundleTotals; // per bundle, per leaf: sums of weights, wY and wYY of the rows of the leaf (null if not needed)
+  final Key _scatterKey; // histograms are kept on the nodes under this key for HistogramReduceScatter, null to reduce them
 
   public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, 
-                              int respIdx, int weightIdx, int predsIdx, int workIdx, int nidIdxs) {
+                              int respIdx, int weightIdx, int predsIdx, int workIdx, int nidIdxs, int binIdx, DHistogram[] binLayouts,
+                              int bundleIdx, FeatureBundles bundles, Key scatterKey) {
     super(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, weightIdx, workIdx, nidIdxs);
     _numLeafs = _hcs.length;
     _respIdx = respIdx;
     _predsIdx = predsIdx;
+    _binIdx = binIdx;
+    _binLayouts = binLayouts;
+    _bundleIdx = bundleIdx;
+    _bundles = bundles;
+    _scatterKey = scatterKey;
 
     int hcslen = _hcs.length;
     IcedBitSet activeCols = new IcedBitSet(ncols);
@@ -90,9 +119,125 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
       }
     }
     _activeCols = activeCols;
+    // histograms kept on the nodes are never reduced, postGlobal cannot derive the histograms from them
+    _derivedCols = _scatterKey == null && tree._parms._histogram_subtraction ? findDerivedCols() : null;
+    _checkDerived = _derivedCols != null && H2O.getSysBoolProperty("sharedtree.histogram_subtraction.check", false);
+    _sparseHistograms = isSparseEnabled();
     _hcs = ArrayUtils.transpose(_hcs);
   }
 
+  /**
+   * Histogram subtraction: the histograms of the larger child of a split can be derived from the histograms of
+   * the parent and the smaller child (see {@link DHistogram#setDifference(DHistogram, DHistogram)}).
+   * A column is derived only if the sibling computes its histogram and all three histograms share the same bins.
+   */
+  private IcedBitSet[] findDerivedCols() {
+    IcedBitSet[] derived = new IcedBitSet[_hcs.length];
+    for (int n = 0; n < _hcs.length; n++) {
+      DTree.UndecidedNode udn = _tree.undecided(n + _leaf);
+      DTree.UndecidedNode sib = sibling(udn);
+      if (udn._parentHs == null || _hcs[n] == null || sib == null || _hcs[sib._nid - _leaf] == null)
+        continue;
+      DTree.Split split = _tree.decided(udn._pid)._split;
+      boolean isLeft = _tree.decided(udn._pid)._nids[0] == udn._nid;
+      if (isLeft ? split._n0 <= split._n1 : split._n1 < split._n0)
+        continue; // Only the larger child is derived (ties go to the right child)
+      DHistogram[] sibHs = _hcs[sib._nid - _leaf];
+      IcedBitSet cols = null;
+      for (int c = 0; c < _ncols; c++) {
+        DHistogram h = _hcs[n][c], ph = udn._parentHs[c], sh = sibHs[c];
+        if (h == null || ph == null || sh == null || ph._vals == null)
+          continue;
+        if (!h.hasSameLayout(ph) || !sh.hasSameLayout(ph) || !isScored(udn, c) || !isScored(sib, c))
+          continue;
+        if (cols == null) cols = new IcedBitSet(_ncols);
+        cols.set(c);
+      }
+      derived[n] = cols;
+    }
+    return derived;
+  }
+
+  // Other child of the same parent if it is being built on this level, null otherwise
+  private DTree.UndecidedNode sibling(DTree.UndecidedNode udn) {
+    if (udn._pid == DTree.NO_PARENT)
+      return null;
+    int[] nids = _tree.decided(udn._pid)._nids;
+    int sibNid = nids[0] == udn._nid ? nids[1] : nids[0];
+    return sibNid >= _leaf ? _tree.undecided(sibNid) : null;
+  }
+
+  private static boolean isScored(DTree.UndecidedNode udn, int col) {
+    return udn._scoreCols == null || ArrayUtils.find(udn._scoreCols, col) >= 0;
+  }
+
+  // Can the histogram use the pre-binned values of the column?
+  private boolean usesBins(DHistogram h, int col) {
+    return _binIdx >= 0 && _binLayouts[col] != null && h.hasSameBins(_binLayouts[col]);
+  }
+
+  private boolean isDerived(int n, int col) {
+    return !_checkDerived && _derivedCols != null && _derivedCols[n] != null && _derivedCols[n].contains(col);
+  }
+
+  /**
+   * Exclusive feature bundling: the histogram of a bundled column is built from the bundle if it has the bins used
+   * to encode the bundle (and doesn't depend on the predictions of the node), otherwise from the column itself.
+   */
+  private void findBundledCols() {
+    final int nbundles = _bundles.numBundles();
+    _fromBundle = new BitSet[_numLeafs];
+    _fromColumn = new int[nbundles][_numLeafs][];
+    _bundleTotals = new double[nbundles][_numLeafs][];
+    for (int n = 0; n < _numLeafs; n++) {
+      int[] sCols = _tree.undecided(n + _leaf)._scoreCols;
+      boolean[] scored = null;
+      if (sCols != null) {
+        scored = new boolean[_ncols];
+        for (int c : sCols) scored[c] = true;
+      }
+      _fromBundle[n] = new BitSet(_ncols);
+      for (int b = 0; b < nbundles; b++) {
+        int[] cols = _bundles._cols[b];
+        int[] fromColumn = new int[cols.length];
+        int m = 0;
+        boolean any = false;
+        for (int i = 0; i < cols.length; i++) {
+          int c = cols[i];
+          DHistogram h = _hcs[c][n];
+          if (h == null || (scored != null && !scored[c]) || isDerived(n, c))
+            continue;
+          if (h._vals_dim == 3 && h.hasSameBins(_binLayouts[c])) {
+            _fromBundle[n].set(c);
+            any = true;
+          } else
+            fromColumn[m++] = i;
+        }
+        _fromColumn[b][n] = Arrays.copyOf(fromColumn, m);
+        _bundleTotals[b][n] = any ? new double[3] : null;
+      }
+    }
+  }
+
+  // Units of work of the histogram pass: columns (index >= 0) and bundles of columns (encoded as -1-bundle)
+  private int[] features(int[] cols) {
+    boolean[] bundles = new boolean[_bundles.numBundles()];
+    int ncols = cols == null ? _ncols : cols.length;
+    int[] features = new int[ncols];
+    int n = 0;
+    for (int i = 0; i < ncols; i++) {
+      int c = cols == null ? i : cols[i];
+      int b = _bundles._bundleOf[c];
+      if (b < 0)
+        features[n++] = c;
+      else if (!bundles[b]) {
+        bundles[b] = true;
+        features[n++] = -1 - b;
+      }
+    }
+    return Arrays.copyOf(features, n);
+  }
+
   @Override
   public ScoreBuildHistogram dfork2(byte[] types, Frame fr, boolean run_local) {
     _fr2 = fr;
@@ -164,6 +309,11 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     _ws = new double[_cids.length][];
     _nhs = new int[_cids.length][];
     _rss = new int[_cids.length][];
+    if (_sparseHistograms) {
+      _nnids = new int[_cids.length][];
+      _chunkTotals = new double[_cids.length][][];
+      _sparseCols = new boolean[_ncols];
+    }
     long [] espc = v.espc();
     int largestChunkSz = 0;
     for(int i = 1; i < espc.length; ++i){
@@ -212,7 +362,8 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
         for (int row = 0; row < nnids.length; row++)
           if (nnids[row] >= 0)
             rows[nh[nnids[row]]++] = row;
-
+        if (_nnids != null && hasSparsePredictors(chks))
+          _nnids[id] = nnids;
       }
       @Override
       protected void map(int id) {
@@ -232,22 +383,36 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
           if(_weightIdx != -1){
             _ws[id] = chks[_weightIdx].getDoubles(MemoryManager.malloc8d(len), 0, len);
           }
+          if (_chunkTotals != null)
+            _chunkTotals[id] = chunkTotals(id);
         }
       }
     },new H2O.H2OCountedCompleter(this){
       public void onCompletion(CountedCompleter cc){
+        if (_chunkTotals != null) {
+          _leafTotals = new double[_numLeafs][3];
+          for (double[][] totals : _chunkTotals)
+            for (int n = 0; n < _numLeafs; n++)
+              ArrayUtils.add(_leafTotals[n], totals[n]);
+          _chunkTotals = null;
+        }
         final int ncols = _ncols;
-        final int [] active_cols = _activeCols == null?null:new int[Math.max(1,_activeCols.cardinality())];
-        int nactive_cols = active_cols == null?ncols:active_cols.length;
-        final int numWrks = _hcs.length*nactive_cols < 16*1024?H2O.NUMCPUS:Math.min(H2O.NUMCPUS,Math.max(4*H2O.NUMCPUS/nactive_cols,1));
-        final int rem = H2O.NUMCPUS-numWrks*ncols;
-        ScoreBuildHistogram2.this.addToPendingCount(1+nactive_cols);
-        if(active_cols != null) {
+        int [] cols = _activeCols == null?null:new int[Math.max(1,_activeCols.cardinality())];
+        if(cols != null) {
           int j = 0;
           for (int i = 0; i < ncols; ++i)
             if (_activeCols.contains(i))
-              active_cols[j++] = i;
+              cols[j++] = i;
         }
+        if(_bundles != null && _numLeafs > 0) { // columns of a bundle are processed together
+          findBundledCols();
+          cols = features(cols);
+        }
+        final int [] active_cols = cols;
+        int nactive_cols = active_cols == null?ncols:active_cols.length;
+        final int numWrks = _hcs.length*nactive_cols < 16*1024?H2O.NUMCPUS:Math.min(H2O.NUMCPUS,Math.max(4*H2O.NUMCPUS/nactive_cols,1));
+        final int rem = H2O.NUMCPUS-numWrks*ncols;
+        ScoreBuildHistogram2.this.addToPendingCount(1+nactive_cols);
         // MRTask (over columns) launching MrTasks (over number of workers) for each column.
         // We want FJ to start processing all the columns before parallelizing within column to reduce memory overhead.
         // (running single column in n threads means n-copies of the histogram)
@@ -261,6 +426,11 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
           @Override
           protected void map(int c) {
             c = active_cols == null?c:active_cols[c];
+            if (c < 0) {
+              int b = -1 - c;
+              new LocalMR(new ComputeBundleHistoThread(b,_bundleTotals[b],fLargestChunkSz,new AtomicInteger()),numWrks + (b < rem?1:0),ScoreBuildHistogram2.this).fork();
+              return;
+            }
             new LocalMR(new ComputeHistoThread(_hcs.length == 0?new DHistogram[0]:_hcs[c],c,fLargestChunkSz,new AtomicInteger()),numWrks + (c < rem?1:0),ScoreBuildHistogram2.this).fork();
           }
         },nactive_cols,ScoreBuildHistogram2.this).fork();
@@ -268,6 +438,41 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     }).fork();
   }
 
+  private boolean hasSparsePredictors(Chunk[] chks) {
+    for (int c = 0; c < _ncols; c++)
+      if (chks[c].isSparseZero())
+        return true;
+    return false;
+  }
+
+  // Sums of weights, wY and wYY of the rows of each leaf in a chunk (rows with zero weight are not part of the histograms)
+  private double[][] chunkTotals(int id) {
+    final int[] nh = _nhs[id];
+    final int[] rs = _rss[id];
+    final double[] ws = _ws[id];
+    final double[] ys = _ys[id];
+    double[][] totals = new double[_numLeafs][3];
+    for (int n = 0; n < _numLeafs; n++) {
+      final double[] t = totals[n];
+      for (int r = n == 0 ? 0 : nh[n - 1]; r < nh[n]; r++) {
+        final int k = rs[r];
+        final double weight = ws[k];
+        if (weight == 0)
+          continue;
+        final double wy = weight * ys[k];
+        t[0] += weight;
+        t[1] += wy;
+        t[2] += wy * ys[k];
+      }
+    }
+    return totals;
+  }
+
+  // Can the histogram be built from the non-zero values only (the zeros are added in closeLocal)?
+  private boolean buildsSparse(DHistogram h, Chunk chk, int id) {
+    return _nnids != null && _nnids[id] != null && h._vals_dim == 3 && chk.isSparseZero();
+  }
+
   private static void mergeHistos(DHistogram [] hcs, DHistogram [] hcs2){
     // Distributed histograms need a little work
     for( int i=0; i< hcs.length; i++ ) {
@@ -301,21 +506,24 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     @Override
     protected void map(int id){
       double[] cs = null;
+      int[] bins = null;
       double[] resp = null;
       double[] preds = null;
       for(int i = _cidx.getAndIncrement(); i < _cids.length; i = _cidx.getAndIncrement()) {
         if (cs == null) {
           cs = MemoryManager.malloc8d(_maxChunkSz);
+          if (_binIdx >= 0 && _binLayouts[_col] != null)
+            bins = MemoryManager.malloc4(_maxChunkSz);
           if (_respIdx >= 0)
             resp = MemoryManager.malloc8d(_maxChunkSz);
           if (_predsIdx >= 0)
             preds = MemoryManager.malloc8d(_maxChunkSz);
         }
-        computeChunk(i, cs, _ws[i], resp, preds);
+        computeChunk(i, cs, bins, _ws[i], resp, preds);
       }
     }
 
-    private void computeChunk(int id, double[] cs, double[] ws, double[] resp, double[] preds){
+    private void computeChunk(int id, double[] cs, int[] bins, double[] ws, double[] resp, double[] preds){
       int [] nh = _nhs[id];
       int [] rs = _rss[id];
       Chunk resChk = _chks[id][_workIdx];
@@ -324,25 +532,53 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
       if(_weightIdx != -1) _chks[id][_weightIdx].getDoubles(ws, 0, len);
       final int hcslen = _lh.length;
       boolean extracted = false;
+      boolean binsExtracted = false;
+      boolean respExtracted = false;
+      final Chunk chk = _chks[id][_col];
+      DHistogram[] sparseHs = null; // leaves built from the non-zero values
       for (int n = 0; n < hcslen; n++) {
         int sCols[] = _tree.undecided(n + _leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
         if (sCols == null || ArrayUtils.find(sCols, _col) >= 0) {
           DHistogram h = _lh[n];
           int hi = nh[n];
           int lo = (n == 0 ? 0 : nh[n - 1]);
-          if (hi == lo || h == null) continue; // Ignore untracked columns in this split
+          if (hi == lo || h == null || isDerived(n, _col)) continue; // Ignore untracked (or derived) columns in this split
           if (h._vals == null) h.init();
-          if (! extracted) {
-            _chks[id][_col].getDoubles(cs, 0, len);
-            if (h._vals_dim >= 6) {
-              _chks[id][_respIdx].getDoubles(resp, 0, len);
-              if (h._vals_dim == 7) {
-                _chks[id][_predsIdx].getDoubles(preds, 0, len);
-              }
+          if (buildsSparse(h, chk, id)) {
+            if (sparseHs == null) sparseHs = new DHistogram[hcslen];
+            sparseHs[n] = h;
+            continue;
+          }
+          if (h._vals_dim >= 6 && ! respExtracted) {
+            _chks[id][_respIdx].getDoubles(resp, 0, len);
+            if (h._vals_dim == 7) {
+              _chks[id][_predsIdx].getDoubles(preds, 0, len);
             }
-            extracted = true;
+            respExtracted = true;
           }
-          h.updateHisto(ws, resp, cs, ys, preds, rs, hi, lo);
+          if (usesBins(h, _col)) {
+            if (! binsExtracted) {
+              _chks[id][_binIdx + _col].getIntegers(bins, 0, len, -1);
+              binsExtracted = true;
+            }
+            h.updateHistoBinned(ws, resp, bins, _chks[id][_col], ys, preds, rs, hi, lo);
+          } else {
+            if (! extracted) {
+              _chks[id][_col].getDoubles(cs, 0, len);
+              extracted = true;
+            }
+            h.updateHisto(ws, resp, cs, ys, preds, rs, hi, lo);
+          }
+        }
+      }
+      if (sparseHs != null) {
+        _sparseCols[_col] = true;
+        final int[] nnids = _nnids[id];
+        for (int k = chk.nextNZ(-1, true); k < len; k = chk.nextNZ(k, true)) {
+          final int n = nnids[k];
+          if (n < 0 || sparseHs[n] == null || ws[k] == 0)
+            continue;
+          sparseHs[n].updateHistoSparse(chk.atd(k), ws[k], ys[k]);
         }
       }
     }
@@ -354,12 +590,213 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     }
   }
 
+  /**
+   * Builds the histograms of all columns of a bundle in a single pass over the codes of the bundle
+   * (see {@link FeatureBundles}). Only the rows with non-zero values are added, the zeros are added in {@link #closeLocal()}.
+   */
+  private class ComputeBundleHistoThread extends MrFun<ComputeBundleHistoThread> {
+    final int _maxChunkSz;
+    final int _bundle;
+    final int[] _cols;
+    final DHistogram[][] _lh; // per column of the bundle, per leaf
+    final double[][] _totals; // per leaf
+
+    AtomicInteger _cidx;
+
+    ComputeBundleHistoThread(int bundle, double[][] totals, int maxChunkSz, AtomicInteger cidx) {
+      this(bundle, new DHistogram[_bundles._cols[bundle].length][], totals, maxChunkSz, cidx);
+      for (int i = 0; i < _cols.length; i++)
+        _lh[i] = _hcs[_cols[i]];
+    }
+
+    private ComputeBundleHistoThread(int bundle, DHistogram[][] lh, double[][] totals, int maxChunkSz, AtomicInteger cidx) {
+      _bundle = bundle; _cols = _bundles._cols[bundle]; _lh = lh; _totals = totals; _maxChunkSz = maxChunkSz;
+      _cidx = cidx;
+    }
+
+    @Override
+    public ComputeBundleHistoThread makeCopy() {
+      DHistogram[][] lh = new DHistogram[_lh.length][];
+      for (int i = 0; i < lh.length; i++)
+        lh[i] = ArrayUtils.deepClone(_lh[i]);
+      double[][] totals = new double[_totals.length][];
+      for (int n = 0; n < totals.length; n++)
+        totals[n] = _totals[n] == null ? null : new double[3];
+      return new ComputeBundleHistoThread(_bundle, lh, totals, _maxChunkSz, _cidx);
+    }
+
+    @Override
+    protected void map(int id){
+      double[] cs = null;
+      int[] codes = null;
+      double[] resp = null;
+      double[] preds = null;
+      for(int i = _cidx.getAndIncrement(); i < _cids.length; i = _cidx.getAndIncrement()) {
+        if (cs == null) {
+          cs = MemoryManager.malloc8d(_maxChunkSz);
+          codes = MemoryManager.malloc4(_maxChunkSz);
+          if (_respIdx >= 0)
+            resp = MemoryManager.malloc8d(_maxChunkSz);
+          if (_predsIdx >= 0)
+            preds = MemoryManager.malloc8d(_maxChunkSz);
+        }
+        computeChunk(i, cs, codes, _ws[i], resp, preds);
+      }
+    }
+
+    private void computeChunk(int id, double[] cs, int[] codes, double[] ws, double[] resp, double[] preds){
+      int [] nh = _nhs[id];
+      int [] rs = _rss[id];
+      Chunk [] chks = _chks[id];
+      int len = chks[_workIdx]._len;
+      double [] ys = ScoreBuildHistogram2.this._ys[id];
+      if(_weightIdx != -1) chks[_weightIdx].getDoubles(ws, 0, len);
+      final int[] posOf = _bundles._posOf[_bundle];
+      final int[] binOf = _bundles._binOf[_bundle];
+      boolean codesExtracted = false;
+      boolean respExtracted = false;
+      for (int n = 0; n < _numLeafs; n++) {
+        int hi = nh[n];
+        int lo = (n == 0 ? 0 : nh[n - 1]);
+        if (hi == lo) continue;
+        for (int i : _fromColumn[_bundle][n]) { // histograms with bins different from the bins of the bundle
+          DHistogram h = _lh[i][n];
+          if (h._vals == null) h.init();
+          if (h._vals_dim >= 6 && ! respExtracted) {
+            chks[_respIdx].getDoubles(resp, 0, len);
+            if (h._vals_dim == 7) {
+              chks[_predsIdx].getDoubles(preds, 0, len);
+            }
+            respExtracted = true;
+          }
+          chks[_cols[i]].getDoubles(cs, 0, len);
+          h.updateHisto(ws, resp, cs, ys, preds, rs, hi, lo);
+        }
+        final double[] totals = _totals[n];
+        if (totals == null) continue; // no histogram of this leaf is built from the bundle
+        if (! codesExtracted) {
+          chks[_bundleIdx + _bundle].getIntegers(codes, 0, len, 0);
+          codesExtracted = true;
+        }
+        final BitSet fromBundle = _fromBundle[n];
+        for (int r = lo; r < hi; ++r) {
+          final int k = rs[r];
+          final double weight = ws[k];
+          if (weight == 0)
+            continue;
+          final double y = ys[k];
+          final double wy = weight * y;
+          totals[0] += weight;
+          totals[1] += wy;
+          totals[2] += wy * y;
+          final int code = codes[k];
+          if (code == 0)
+            continue; // all columns of the bundle are zero
+          final int i = posOf[code];
+          if (fromBundle.get(_cols[i]))
+            _lh[i][n].updateHistoBundled(binOf[code], chks[_cols[i]].atd(k), weight, y);
+        }
+      }
+    }
+
+    @Override
+    protected void reduce(ComputeBundleHistoThread cc) {
+      assert _lh != cc._lh;
+      for (int i = 0; i < _lh.length; i++)
+        mergeHistos(_lh[i], cc._lh[i]);
+      for (int n = 0; n < _totals.length; n++)
+        if (_totals[n] != null)
+          ArrayUtils.add(_totals[n], cc._totals[n]);
+    }
+  }
+
+  @Override
+  protected void closeLocal() {
+    if (_sparseCols != null) {
+      // add the zeros of the columns built from sparse chunks, the zeros of all chunks are derived at once
+      for (int c = 0; c < _ncols; c++) {
+        if (!_sparseCols[c]) continue;
+        for (int n = 0; n < _numLeafs; n++) {
+          DHistogram h = _hcs[c][n];
+          if (h == null || h._vals_dim != 3 || _leafTotals[n][0] == 0 || isDerived(n, c)
+                  || !isScored(_tree.undecided(n + _leaf), c))
+            continue;
+          h.addZeros(_leafTotals[n]);
+        }
+      }
+    }
+    if (_bundleTotals != null) {
+      // add the zeros of the columns built from bundles, the histograms are complete before they are reduced across the nodes
+      for (int b = 0; b < _bundleTotals.length; b++)
+        for (int n = 0; n < _numLeafs; n++) {
+          double[] totals = _bundleTotals[b][n];
+          if (totals == null || totals[0] == 0) continue;
+          for (int c : _bundles._cols[b])
+            if (_fromBundle[n].get(c))
+              _hcs[c][n].addZeros(totals);
+        }
+    }
+    if (_scatterKey != null) {
+      HistogramReduceScatter.keepLocal(_scatterKey, _hcs);
+      _hcs = new DHistogram[_hcs.length][]; // nothing to reduce
+      return;
+    }
+    packHistos();
+  }
+
+  @Override public void reduce(ScoreBuildHistogram sbh) {
+    super.reduce(sbh);
+    packHistos(); // the result might be sent to another node
+  }
+
+  // Histograms are reduced across the nodes in a compact form, see PackedBins
+  private void packHistos() {
+    if (H2O.CLOUD.size() == 1)
+      return;
+    for (DHistogram[] ary : _hcs)
+      for (DHistogram dh : ary)
+        if (dh != null) dh.pack();
+  }
+
   @Override public void postGlobal(){
+    if (_scatterKey != null)
+      return; // splits are found by HistogramReduceScatter
+    for (DHistogram[] ary : _hcs)
+      for (DHistogram dh : ary)
+        if (dh != null) dh.unpack();
     _hcs = ArrayUtils.transpose(_hcs);
+    if (_derivedCols != null) {
+      for (int n = 0; n < _hcs.length; n++) {
+        if (_derivedCols[n] == null) continue;
+        DTree.UndecidedNode udn = _tree.undecided(n + _leaf);
+        DHistogram[] sibHs = _hcs[sibling(udn)._nid - _leaf];
+        for (int c = 0; c < _ncols; c++) {
+          if (!_derivedCols[n].contains(c)) continue;
+          if (_checkDerived)
+            checkDerived(_hcs[n][c], udn._parentHs[c], sibHs[c]);
+          else
+            _hcs[n][c].setDifference(udn._parentHs[c], sibHs[c]);
+        }
+      }
+    }
     for(DHistogram [] ary:_hcs)
       for(DHistogram dh:ary) {
         if(dh == null) continue;
         dh.reducePrecision();
       }
   }
+
+  // Compares a histogram computed from the data with the histogram derived from the parent and the sibling
+  private static void checkDerived(DHistogram h, DHistogram parent, DHistogram sibling) {
+    DHistogram derived = DHistogram.makeWithLayoutOf(h, h._initNA);
+    derived.setDifference(parent, sibling);
+    for (int i = 0; i < derived._vals.length; i++) {
+      double expected = h._vals == null ? 0 : h._vals[i];
+      double tolerance = 1e-6 * Math.max(1, Math.abs(parent._vals[i]));
+      if (Math.abs(expected - derived._vals[i]) > tolerance)
+        throw new IllegalStateException("Histogram of column " + h._name + " derived by subtraction doesn't match " +
+                "the histogram computed from the data: " + derived._vals[i] + " != " + expected + " (index " + i + ")");
+    }
+    CHECKED_DERIVED.incrementAndGet();
+  }
 }
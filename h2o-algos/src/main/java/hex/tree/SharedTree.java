@@ -21,8 +21,11 @@ import water.util.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class SharedTree<
     M extends SharedTreeModel<M,P,O>, 
@@ -69,6 +72,9 @@ public abstract class SharedTree<
 
   private transient Frame _calib;
 
+  // Keys of the histograms kept on the nodes by HistogramReduceScatter whose splits were not found yet
+  private transient Set<Key> _scatterKeys = Collections.newSetFromMap(new ConcurrentHashMap<Key, Boolean>());
+
   protected final Frame validWorkspace() { return _validWorkspace; }
   protected transient Frame _validWorkspace;
   protected transient int _lastScoredTree = 0;
@@ -76,6 +82,13 @@ public abstract class SharedTree<
   protected transient Frame _trainPredsCache;
   protected transient Frame _validPredsCache;
 
+  // Pre-binned predictors (bin indices w.r.t. the top-level histograms), see PreBinning
+  private transient DHistogram[] _binLayouts;
+  private transient Frame _binned;
+  // Bundles of mutually exclusive sparse predictors, see FeatureBundles
+  private transient FeatureBundles _bundles;
+  private transient Frame _bundled;
+
   public boolean isSupervised(){return true;}
 
   @Override public boolean haveMojo() { return true; }
@@ -295,6 +308,17 @@ public abstract class SharedTree<
           fs.blockForPending();
         }
 
+        // map all predictors to the bins of the top-level histograms once, the bin indices are reused by all trees
+        _binLayouts = PreBinning.layouts(_train, _ncols, Math.max(_parms._nbins_top_level, _parms._nbins), _parms, getGlobalQuantilesKeys());
+        if (_binLayouts != null) {
+          _bundles = FeatureBundles.find(_train, _ncols, _binLayouts);
+          if (_bundles != null) {
+            LOG.info("Exclusive feature bundling: " + _bundles.numBundled() + " sparse predictors merged into " + _bundles.numBundles() + " bundles.");
+            _bundled = _bundles.encode(_train, _binLayouts);
+          }
+          _binned = PreBinning.binIndices(_train, _binLayouts, _bundles);
+        }
+
         // Also add to the basic working Frame these sets:
         //   nclass Vecs of current forest results (sum across all trees)
         //   nclass Vecs of working/temp data
@@ -354,6 +378,18 @@ public abstract class SharedTree<
           _trainPredsCache.remove();
           _trainPredsCache = null;
         }
+        if (_binned != null) {
+          _binned.remove();
+          _binned = null;
+        }
+        if (_bundled != null) {
+          _bundled.remove();
+          _bundled = null;
+        }
+        if (!_scatterKeys.isEmpty()) { // the build failed or was cancelled before the splits were found
+          HistogramReduceScatter.removeLocal(_scatterKeys.toArray(new Key[0]));
+          _scatterKeys.clear();
+        }
       }
     }
 
@@ -438,6 +474,12 @@ public abstract class SharedTree<
     return ScoreKeeper.ProblemType.forSupervised(_nclass > 1);
   }
   
+  /**
+   * Per-row weights of the rows sampled for the current trees, to be used instead of the observation weights
+   * when building the trees (null if the sampling doesn't modify the weights).
+   */
+  protected Vec sampleWeights() { return null; }
+
   // --------------------------------------------------------------------------
   // Build an entire layer of all K trees
   protected DHistogram[][][] buildLayer(final Frame fr, final int nbins, int nbins_cats, final DTree ktrees[], final int leafs[], final DHistogram hcs[][][], boolean build_tree_one_node) {
@@ -483,15 +525,27 @@ public abstract class SharedTree<
       // Add temporary workspace vectors (optional weights are taken over from fr)
       int respIdx = fr2.find(_parms._response_column);
       int weightIdx = fr2.find(_parms._weights_column);
+      Vec sampleWeights = sampleWeights();
+      if (sampleWeights != null) { // row sampling re-weighted the rows, use the sample weights instead
+        weightIdx = fr2.numCols(); fr2.add("SampleWeights", sampleWeights);
+      }
       int predsIdx = fr2.numCols(); fr2.add(fr._names[idx_tree(k)],vecs[idx_tree(k)]); //tree predictions
       int workIdx =  fr2.numCols(); fr2.add(fr._names[idx_work(k)],vecs[idx_work(k)]); //target value to fit (copy of actual response for DRF, residual for GBM)
       int nidIdx  =  fr2.numCols(); fr2.add(fr._names[idx_nids(k)],vecs[idx_nids(k)]); //node indices for tree construction
+      int binIdx  = -1;
+      if (_binned != null) {
+        binIdx = fr2.numCols(); fr2.add(_binned); //pre-binned predictors
+      }
+      int bundleIdx = -1;
+      if (_bundled != null) {
+        bundleIdx = fr2.numCols(); fr2.add(_bundled); //bundles of sparse predictors
+      }
       if (LOG.isTraceEnabled()) LOG.trace("Building a layer for class " + k + ":\n" + fr2.toTwoDimTable());
       // Async tree building
       // step 1: build histograms
       // step 2: split nodes
       H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, 
-              respIdx, weightIdx, predsIdx, workIdx, nidIdx));
+              respIdx, weightIdx, predsIdx, workIdx, nidIdx, binIdx, _binLayouts, bundleIdx, _bundles));
     }
     // Block for all K trees to complete.
     boolean did_split=false;
@@ -532,11 +586,16 @@ public abstract class SharedTree<
     final int _predsIdx;
     final int _workIdx;
     final int _nidIdx;
+    final int _binIdx;
+    final DHistogram[] _binLayouts;
+    final int _bundleIdx;
+    final FeatureBundles _bundles;
 
     boolean _did_split;
 
     ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family,
-                      int respIdx, int weightIdx, int predsIdx, int workIdx, int nidIdx) {
+                      int respIdx, int weightIdx, int predsIdx, int workIdx, int nidIdx, int binIdx, DHistogram[] binLayouts,
+                      int bundleIdx, FeatureBundles bundles) {
       _st   = st;
       _k    = k;
       _nbins= nbins;
@@ -553,6 +612,10 @@ public abstract class SharedTree<
       _predsIdx = predsIdx;
       _workIdx = workIdx;
       _nidIdx = nidIdx;
+      _binIdx = binIdx;
+      _binLayouts = binLayouts;
+      _bundleIdx = bundleIdx;
+      _bundles = bundles;
     }
     @Override public void compute2() {
       // Fuse 2 conceptual passes into one:
@@ -564,18 +627,33 @@ public abstract class SharedTree<
       // got assigned into.  Collect counts, mean, variance, min, max per bin,
       // per column.
 //      new ScoreBuildHistogram(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
+      Key scatterKey = _st.canFindSplitsDistributed() && HistogramReduceScatter.isEnabled(_build_tree_one_node) ? Key.make() : null;
+      if (scatterKey != null) _st._scatterKeys.add(scatterKey);
       new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, 
-              _respIdx, _weightIdx, _predsIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
+              _respIdx, _weightIdx, _predsIdx, _workIdx, _nidIdx, _binIdx, _binLayouts, _bundleIdx, _bundles, scatterKey).dfork2(null,_fr2,_build_tree_one_node);
     }
     @Override public void onCompletion(CountedCompleter caller) {
-      ScoreBuildHistogram sbh = (ScoreBuildHistogram) caller;
+      ScoreBuildHistogram2 sbh = (ScoreBuildHistogram2) caller;
       final int leafOffset = _leafOffsets[_k];
       int tmax = _tree.len();   // Number of total splits in tree K
+      // Histograms were not reduced, find the splits on the nodes owning the columns
+      HistogramReduceScatter rs = null;
+      if (sbh._scatterKey != null) {
+        rs = HistogramReduceScatter.findSplits(sbh._scatterKey, _tree, leafOffset, tmax - leafOffset);
+        _st._scatterKeys.remove(sbh._scatterKey); // removed from the nodes by findSplits
+      }
+      // Otherwise search the leaves concurrently, the nodes are then created one by one to keep the node ids stable
+      DTree.Split[] splits = rs == null && tmax - leafOffset > 1 && _st.canFindSplitsDistributed() && searchLevelAtOnce() ?
+              _tree.bestSplits(leafOffset, sbh._hcs) : null;
       for (int leaf = leafOffset; leaf < tmax; leaf++) { // Visit all the new splits (leaves)
         DTree.UndecidedNode udn = _tree.undecided(leaf);
         if (LOG.isTraceEnabled()) LOG.trace((_st._nclass==1?"Regression":("Class "+_st._response.domain()[_k]))+",\n  Undecided node:"+udn);
         // Replace the Undecided with the Split decision
-        DTree.DecidedNode dn = _st.makeDecided(udn, sbh._hcs[leaf - leafOffset], udn._cs);
+        DTree.DecidedNode dn = rs != null ? 
+                new DTree.DecidedNode(udn, rs._hs[leaf - leafOffset], udn._cs, rs._splits[leaf - leafOffset], false) :
+                splits != null ? new DTree.DecidedNode(udn, sbh._hcs[leaf - leafOffset], udn._cs, splits[leaf - leafOffset], true) :
+                _st.makeDecided(udn, sbh._hcs[leaf - leafOffset], udn._cs);
+        udn._parentHs = null; // Histograms of the previous level are no longer needed
         if (LOG.isTraceEnabled()) LOG.trace(dn + "\n" + dn._split);
         if (dn._split == null) udn.doNotSplit();
         else {
@@ -655,6 +733,20 @@ public abstract class SharedTree<
     return new DTree.DecidedNode(udn, hs, cs);
   }
 
+  /**
+   * Whether the splits can be found outside of {@link #makeDecided} - on the nodes owning the columns
+   * (see {@link HistogramReduceScatter}) or for all leaves of a level at once (see {@link DTree#bestSplits}),
+   * builders that override {@link #makeDecided} cannot.
+   */
+  protected boolean canFindSplitsDistributed() {
+    return true;
+  }
+
+  // Read on every use to allow comparing the models built with and without the search of a level at once
+  static boolean searchLevelAtOnce() {
+    return H2O.getSysBoolProperty("sharedtree.level_split_search", true);
+  }
+
   // Read the 'tree' columns, do model-specific math and put the results in the
   // fs[] array, and return the sum.  Dividing any fs[] element by the sum
   // turns the results into a probability distribution.
@@ -63,6 +63,8 @@ public abstract class SharedTreeModel<
     public enum HistogramType { AUTO, UniformAdaptive, Random, QuantilesGlobal, RoundRobin }
     public HistogramType _histogram_type = HistogramType.AUTO; // What type of histogram to use for finding optimal split points
 
+    public boolean _histogram_subtraction = false; // Derive histograms of the larger child from the parent's and the sibling's histograms
+
     public double _r2_stopping = Double.MAX_VALUE; // Stop when the r^2 metric equals or exceeds this value
 
     public int _nbins_top_level = 1<<10; //hardcoded maximum top-level number of bins for real-valued columns
@@ -559,6 +561,88 @@ public abstract class SharedTreeModel<
     return preds;
   }
 
+  /**
+   * Models that can turn the sums of the tree predictions into the final predictions using
+   * {@link #unifyPreds(double[], double[], double)} are scored in blocks of rows by {@link FlatTree}s.
+   */
+  protected boolean isFlatScoringSupported() { return false; }
+
+  /**
+   * Turns the sums of the predictions of all trees into the final predictions (inverse link, averaging...).
+   */
+  protected double[] unifyPreds(double[] data, double[] preds, double offset) { return preds; }
+
+  @Override
+  protected BigScorePredict setupBigScorePredict(BigScore bs) {
+    if (!FlatTree.isEnabled() || !isFlatScoringSupported())
+      return bs;
+    final FlatTree[][] trees = FlatTree.compile(_output._treeKeys);
+    if (trees == null)
+      return bs;
+    final double[] card = FlatTree.cardinalities(_output._domains, _output.nfeatures());
+    return new BigScorePredict() {
+      @Override
+      public BigScoreChunkPredict initMap(Frame fr, Chunk[] chks) {
+        return new FlatTreeChunkPredict(trees, card, chks[0]._len);
+      }
+    };
+  }
+
+  /**
+   * Scores the rows of a chunk in blocks, all trees are applied to a block of rows before moving to the next block.
+   * Rows are expected to be requested in order, as {@link BigScore} does.
+   */
+  private class FlatTreeChunkPredict implements BigScoreChunkPredict {
+    private final FlatTree[][] _trees;
+    private final double[] _card;
+    private final int _len;
+    private final double[][] _block; // block of rows, column-major
+    private final double[][] _sums;  // sums of the tree predictions of the rows of the block
+    private int _start = -1;         // first row of the current block
+
+    FlatTreeChunkPredict(FlatTree[][] trees, double[] card, int len) {
+      _trees = trees;
+      _card = card;
+      _len = len;
+      int bs = Math.min(FlatTree.BLOCK_SIZE, len);
+      _block = new double[_output.nfeatures()][bs];
+      int nclass = trees.length == 0 ? 1 : trees[0].length;
+      _sums = new double[nclass == 1 ? 1 : nclass + 1][bs];
+    }
+
+    private void scoreBlock(Chunk[] chks, int start) {
+      int len = Math.min(_sums[0].length, _len - start);
+      for (int c = 0; c < _block.length; c++)
+        chks[c].getDoubles(_block[c], start, start + len);
+      for (double[] s : _sums)
+        Arrays.fill(s, 0);
+      for (FlatTree[] classTrees : _trees)
+        for (int c = 0; c < classTrees.length; c++)
+          if (classTrees[c] != null)
+            classTrees[c].score(_block, len, _card, _sums[classTrees.length == 1 ? 0 : c + 1]);
+      _start = start;
+    }
+
+    @Override
+    public double[] score0(Chunk[] chks, double offset, int row_in_chunk, double[] tmp, double[] preds) {
+      if (_start < 0 || row_in_chunk < _start || row_in_chunk >= _start + _sums[0].length)
+        scoreBlock(chks, row_in_chunk);
+      int r = row_in_chunk - _start;
+      for (int i = 0; i < tmp.length; i++)
+        tmp[i] = _block[i][r];
+      Arrays.fill(preds, 0);
+      for (int i = 0; i < _sums.length; i++)
+        preds[i] = _sums[i][r];
+      double[] scored = unifyPreds(tmp, preds, offset);
+      if (needsPostProcess() && isSupervised())
+        score0PostProcessSupervised(scored, tmp);
+      return scored;
+    }
+
+    @Override
+    public void close() {}
+  }
+
   // Score per line per tree
   private void score0(double[] data, double[] preds, int treeIdx) {
     Key[] keys = _output._treeKeys[treeIdx];
@@ -12,6 +12,7 @@ import water.MRTask;
 import water.fvec.C0DChunk;
 import water.fvec.Chunk;
 import water.fvec.Frame;
+import water.fvec.Vec;
 
 import java.util.Random;
 
@@ -77,6 +78,16 @@ public class DRF extends SharedTree<hex.tree.drf.DRFModel, hex.tree.drf.DRFModel
   private class DRFDriver extends Driver {
     @Override protected boolean doOOBScoring() { return true; }
 
+    @Override
+    protected Frame makeValidWorkspace() {
+      // sums of the predictions of the trees that were already scored on the validation frame
+      Vec[] tmp = _valid.anyVec().makeVolatileDoubles(_nclass == 2 && _model.binomialOpt() ? 1 : _nclass);
+      String[] tmpNames = new String[tmp.length];
+      for (int i = 0; i < tmpNames.length; i++)
+        tmpNames[i] = "__P_" + i;
+      return new Frame(tmpNames, tmp);
+    }
+
     // --- Private data handled only on master node
     // Classification or Regression:
     // Tree votes/SSE of individual trees on OOB rows
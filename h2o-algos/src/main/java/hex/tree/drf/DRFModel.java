@@ -1,13 +1,17 @@
 package hex.tree.drf;
 
+import hex.tree.Score;
 import hex.tree.SharedTreeModel;
 import hex.tree.SharedTreeModelWithContributions;
 import hex.util.EffectiveParametersUtils;
 import water.Key;
+import water.fvec.Chunk;
 import water.fvec.NewChunk;
 import water.util.MathUtils;
 import water.util.SBPrintStream;
 
+import java.util.Arrays;
+
 public class DRFModel extends SharedTreeModelWithContributions<DRFModel, DRFModel.DRFParameters, DRFModel.DRFOutput> {
 
   public static class DRFParameters extends SharedTreeModelWithContributions.SharedTreeParameters {
@@ -52,12 +56,43 @@ public class DRFModel extends SharedTreeModelWithContributions<DRFModel, DRFMode
 
   @Override protected boolean binomialOpt() { return !_parms._binomial_double_trees; }
 
+  /**
+   * Incremental scoring of the validation frame: sums of the predictions of the trees that were already scored are
+   * kept in the workspace columns, only the new trees are scored.
+   */
+  @Override
+  protected final double[] score0Incremental(Score.ScoreIncInfo sii, Chunk[] chks, double offset, int row_in_chunk, double[] tmp, double[] preds) {
+    assert _output.nfeatures() == tmp.length;
+    for (int i = 0; i < tmp.length; i++)
+      tmp[i] = chks[i].atd(row_in_chunk);
+
+    Arrays.fill(preds, 0);
+    if (sii._startTree > 0)
+      for (int i = 0; i < sii._workspaceColCnt; i++)
+        preds[sii._predsAryOffset + i] = chks[sii._workspaceColIdx + i].atd(row_in_chunk);
+
+    score0(tmp, preds, offset, sii._startTree, _output._treeKeys.length);
+
+    for (int i = 0; i < sii._workspaceColCnt; i++)
+      chks[sii._workspaceColIdx + i].set(row_in_chunk, preds[sii._predsAryOffset + i]);
+
+    unifyPreds(tmp, preds, offset);
+    score0PostProcessSupervised(preds, tmp);
+    return preds;
+  }
+
   /** Bulk scoring API for one row.  Chunks are all compatible with the model,
    *  and expect the last Chunks are for the final distribution and prediction.
    *  Default method is to just load the data into the tmp array, then call
    *  subclass scoring logic. */
   @Override protected double[] score0(double[] data, double[] preds, double offset, int ntrees) {
     super.score0(data, preds, offset, ntrees);
+    return unifyPreds(data, preds, offset);
+  }
+
+  @Override protected boolean isFlatScoringSupported() { return true; }
+
+  @Override protected double[] unifyPreds(double[] data, double[] preds, double offset) {
     int N = _output._ntrees;
     if (_output.nclasses() == 1) { // regression - compute avg over all trees
       if (N>=1) preds[0] /= N;
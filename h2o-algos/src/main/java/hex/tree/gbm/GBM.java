@@ -182,6 +182,17 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       error("_max_abs_leafnode_pred", "max_abs_leafnode_pred must be larger than 0.");
     if (_parms._pred_noise_bandwidth < 0)
       error("_pred_noise_bandwidth", "pred_noise_bandwidth must be >= 0.");
+    if (_parms._goss_top_rate != 0) {
+      if (!(0. < _parms._goss_top_rate && _parms._goss_top_rate < 1.0))
+        error("_goss_top_rate", "goss_top_rate must be between 0 and 1");
+      if (!(0. < _parms._goss_other_rate && _parms._goss_top_rate + _parms._goss_other_rate <= 1.0))
+        error("_goss_other_rate", "goss_other_rate must be larger than 0 and goss_top_rate + goss_other_rate must not exceed 1");
+      if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null)
+        error("_goss_top_rate", "GOSS cannot be combined with sample_rate or sample_rate_per_class.");
+      if (_parms._distribution == DistributionFamily.laplace || _parms._distribution == DistributionFamily.quantile 
+              || _parms._distribution == DistributionFamily.huber)
+        error("_goss_top_rate", "GOSS is not supported for " + _parms._distribution + " distribution.");
+    }
 
     if ((_train != null) && (_parms._monotone_constraints != null)) {
       TreeUtils.checkMonotoneConstraints(this, _train, _parms._monotone_constraints);
@@ -200,10 +211,30 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
     }
   }
 
+  // Weights of the rows sampled by GOSS for the trees being built, null if GOSS is not used
+  private transient Vec _gossWeights;
+
+  @Override
+  protected Vec sampleWeights() {
+    return _gossWeights;
+  }
+
   // ----------------------
   private class GBMDriver extends Driver {
     private transient FrameMap frameMap;
 
+    @Override
+    public void computeImpl() {
+      try {
+        super.computeImpl();
+      } finally {
+        if (_gossWeights != null) { // tree building failed or was cancelled
+          _gossWeights.remove();
+          _gossWeights = null;
+        }
+      }
+    }
+
     @Override
     protected Frame makeValidWorkspace() {
       // FIXME: this is not efficient, we need a sparse volatile chunks
@@ -413,8 +444,21 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       // ----
       // ESL2, page 387.  Step 2b iii.  Compute the gammas (leaf node predictions === fit best constant), and store them back
       // into the tree leaves.  Includes learn_rate.
-      GammaPass gp = new GammaPass(frameMap, ktrees, leaves, distributionImpl, _nclass);
-      gp.doAll(_train);
+      GammaPass gp;
+      if (_gossWeights != null) {
+        // leaf predictions need to use the same (amplified) weights as the histograms
+        Frame gossTrain = new Frame(_train);
+        gossTrain.add("GOSS_Weights", _gossWeights);
+        FrameMap gossFrameMap = new FrameMap(GBM.this);
+        gossFrameMap.weightIndex = gossTrain.numCols() - 1;
+        gp = new GammaPass(gossFrameMap, ktrees, leaves, distributionImpl, _nclass);
+        gp.doAll(gossTrain);
+        _gossWeights.remove();
+        _gossWeights = null;
+      } else {
+        gp = new GammaPass(frameMap, ktrees, leaves, distributionImpl, _nclass);
+        gp.doAll(_train);
+      }
       if (_parms._distribution == DistributionFamily.laplace) {
         fitBestConstantsQuantile(ktrees, leaves[0], 0.5); //special case for Laplace: compute the median for each leaf node and store that as prediction
       } else if (_parms._distribution == DistributionFamily.quantile) {
@@ -501,7 +545,9 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       }
 
       // Sample - mark the lines by putting 'OUT_OF_BAG' into nid(<klass>) vector
-      if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null) {
+      if (_parms.useGoss()) {
+        sampleGoss(ktrees, rseed);
+      } else if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null) {
         Sample ss[] = new Sample[_nclass];
         for (int k = 0; k < _nclass; k++)
           if (ktrees[k] != null)
@@ -556,6 +602,34 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       } // -- k-trees are done
     }
 
+    /**
+     * Gradient-based one-side sampling (Ke et al. 2017: LightGBM: A Highly Efficient Gradient Boosting Decision Tree).
+     * Keeps the goss_top_rate fraction of rows with the largest gradients (summed over all class trees) and samples
+     * goss_other_rate fraction of all rows from the rest. Weights of the sampled small-gradient rows are scaled up
+     * by (1-goss_top_rate)/goss_other_rate, the same rows are used for all class trees.
+     */
+    private void sampleGoss(DTree[] ktrees, long seed) {
+      boolean[] active = new boolean[_nclass];
+      for (int k = 0; k < _nclass; k++)
+        active[k] = ktrees[k] != null;
+      Vec absGrad = new ComputeAbsGradient(frameMap, active).doAll(Vec.T_NUM, _train).outputFrame().anyVec();
+      try {
+        double threshold = MathUtils.computeWeightedQuantile(_weights, absGrad, 1 - _parms._goss_top_rate);
+        double otherRate = _parms._goss_other_rate / (1 - _parms._goss_top_rate); // sample rate of the small-gradient rows
+        double amplification = (1 - _parms._goss_top_rate) / _parms._goss_other_rate;
+        _gossWeights = _train.anyVec().makeVolatileDoubles(1)[0];
+        Frame fr = new Frame(_train);
+        fr.add("AbsGradient", absGrad);
+        fr.add("GOSS_Weights", _gossWeights);
+        new GossSample(frameMap.weightIndex, frameMap.nids0Index, active, threshold, otherRate, amplification, seed).doAll(fr, _parms._build_tree_one_node);
+        if (LOG.isTraceEnabled()) {
+          LOG.trace("GOSS threshold: " + threshold + ", sampled OOB rows. NIDS:\n" + new Frame(vec_nids(_train, 0)).toTwoDimTable());
+        }
+      } finally {
+        absGrad.remove();
+      }
+    }
+
     // Jerome Friedman 1999: Greedy Function Approximation: A Gradient Boosting Machine
     // https://statweb.stanford.edu/~jhf/ftp/trebst.pdf
     private void fitBestConstantsHuber(DTree[] ktrees, int firstLeafIndex, double huberDelta) {
@@ -1027,6 +1101,79 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
   }
 
 
+  // Magnitude of the gradient (the residual) summed over all class trees, NA for rows that don't participate in training
+  private static class ComputeAbsGradient extends MRTask<ComputeAbsGradient> {
+    private final FrameMap fm;
+    private final boolean[] _active;
+
+    ComputeAbsGradient(FrameMap frameMap, boolean[] active) {
+      fm = frameMap;
+      _active = active;
+    }
+
+    @Override
+    public void map(Chunk[] chks, NewChunk[] nc) {
+      final Chunk y = chks[fm.responseIndex];
+      final Chunk weights = fm.weightIndex >= 0 ? chks[fm.weightIndex] : new C0DChunk(1, chks[0]._len);
+      for (int row = 0; row < chks[0]._len; ++row) {
+        if (weights.atd(row) == 0 || y.isNA(row)) {
+          nc[0].addNA();
+          continue;
+        }
+        double g = 0;
+        for (int k = 0; k < _active.length; k++)
+          if (_active[k]) g += Math.abs(chks[fm.work0Index + k].atd(row));
+        nc[0].addNum(g);
+      }
+    }
+  }
+
+  // GOSS row sampling: marks rows that were not sampled as OUT_OF_BAG and stores the weights of the sampled rows,
+  // the gradient magnitudes and the (volatile) output weights are the last two columns of the frame
+  static class GossSample extends MRTask<GossSample> {
+    private final int _weightIndex;
+    private final int _nids0Index;
+    private final boolean[] _active;
+    private final double _threshold;
+    private final double _otherRate;
+    private final double _amplification;
+    private final long _seed;
+
+    GossSample(int weightIndex, int nids0Index, boolean[] active, double threshold, double otherRate, double amplification, long seed) {
+      _weightIndex = weightIndex;
+      _nids0Index = nids0Index;
+      _active = active;
+      _threshold = threshold;
+      _otherRate = otherRate;
+      _amplification = amplification;
+      _seed = seed;
+    }
+
+    @Override
+    public void map(Chunk[] chks) {
+      final Chunk absGrad = chks[chks.length - 2];
+      final C8DVolatileChunk gossWeights = (C8DVolatileChunk) chks[chks.length - 1];
+      final Chunk weights = _weightIndex >= 0 ? chks[_weightIndex] : new C0DChunk(1, chks[0]._len);
+      final double[] ws = gossWeights.getValues();
+      Random rand = RandomUtils.getRNG(_seed);
+      for (int row = 0; row < absGrad._len; row++) {
+        double w = weights.atd(row);
+        boolean skip = absGrad.isNA(row);
+        if (!skip && absGrad.atd(row) < _threshold) {
+          rand.setSeed(_seed + row + absGrad.start()); //seeding is independent of chunking
+          if (rand.nextFloat() < _otherRate) w *= _amplification;
+          else skip = true;
+        }
+        if (skip) {
+          w = 0;
+          for (int k = 0; k < _active.length; k++)
+            if (_active[k]) ((C4VolatileChunk) chks[_nids0Index + k]).getValues()[row] = ScoreBuildHistogram.OUT_OF_BAG;
+        }
+        ws[row] = w;
+      }
+    }
+  }
+
   public static class DiffMinusMedianDiff extends MRTask<DiffMinusMedianDiff> {
     private final int _strataMin;
     private double[] _terminalMedians;
@@ -1193,7 +1340,11 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
     public void map(Chunk[] chks) {
       _denom = new double[_nclass][];
       _num = new double[_nclass][];
-      final Chunk resp = chks[fm.responseIndex]; // Response for this frame
+      // Columns shared by all the classes are decoded once per chunk
+      final int len = chks[0]._len;
+      final double[] resp = chks[fm.responseIndex].getDoubles(MemoryManager.malloc8d(len), 0, len); // Response for this frame
+      final double[] offset = fm.offsetIndex >= 0 ? chks[fm.offsetIndex].getDoubles(MemoryManager.malloc8d(len), 0, len) : null;
+      final double[] weights = fm.weightIndex >= 0 ? chks[fm.weightIndex].getDoubles(MemoryManager.malloc8d(len), 0, len) : null;
 
       // For all tree/klasses
       for (int k = 0; k < _nclass; k++) {
@@ -1208,20 +1359,18 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
         final C4VolatileChunk nids = (C4VolatileChunk) chks[fm.nids0Index + k]; // Node-ids  for this tree/class
         int[] nids_vals = nids.getValues();
         final Chunk ress = chks[fm.work0Index + k];  // Residuals for this tree/class
-        final Chunk offset = fm.offsetIndex >= 0 ? chks[fm.offsetIndex] : new C0DChunk(0, chks[0]._len);
         final Chunk preds = chks[fm.tree0Index + k];
-        final Chunk weights = fm.weightIndex >= 0 ? chks[fm.weightIndex] : new C0DChunk(1, chks[0]._len);
 
         // If we have all constant responses, then we do not split even the
         // root and the residuals should be zero.
         if (tree.root() instanceof LeafNode)
           continue;
         for (int row = 0; row < nids._len; row++) { // For all rows
-          double w = weights.atd(row);
+          double w = weights != null ? weights[row] : 1;
           if (w == 0)
             continue;
 
-          double y = resp.atd(row); //response
+          double y = resp[row]; //response
           if (Double.isNaN(y))
             continue;
 
@@ -1253,7 +1402,7 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
                   || _dist._family == DistributionFamily.quantile) continue;
 
           double z = ress.atd(row);  // residual
-          double f = preds.atd(row) + offset.atd(row);
+          double f = preds.atd(row) + (offset != null ? offset[row] : 0);
           int idx = leafnid - leaf;
           num[idx] += _dist.gammaNum(w, y, z, f);
           denom[idx] += _dist.gammaDenom(w, y, z, f);
@@ -28,6 +28,8 @@ public class GBMModel extends SharedTreeModelWithContributions<GBMModel, GBMMode
     public double _max_abs_leafnode_pred;
     public double _pred_noise_bandwidth;
     public KeyValue[] _monotone_constraints;
+    public double _goss_top_rate; // GOSS: fraction of rows with the largest gradients that are always kept (0 disables GOSS)
+    public double _goss_other_rate; // GOSS: fraction of rows sampled from the remaining rows
 
     public GBMParameters() {
       super();
@@ -39,6 +41,12 @@ public class GBMModel extends SharedTreeModelWithContributions<GBMModel, GBMMode
       _max_depth = 5;
       _max_abs_leafnode_pred = Double.MAX_VALUE;
       _pred_noise_bandwidth =0;
+      _goss_top_rate = 0;
+      _goss_other_rate = 0.1;
+    }
+
+    public boolean useGoss() {
+      return _goss_top_rate > 0;
     }
 
     public String algoName() { return "GBM"; }
@@ -212,6 +220,12 @@ public class GBMModel extends SharedTreeModelWithContributions<GBMModel, GBMMode
     return score0Probabilities(preds, offset);
   }
 
+  @Override protected boolean isFlatScoringSupported() { return true; }
+
+  @Override protected double[] unifyPreds(double[] data, double[] preds, double offset) {
+    return score0Probabilities(preds, offset);
+  }
+
   private double[] score0Probabilities(double preds[/*nclasses+1*/], double offset) {
     if (_parms._distribution == DistributionFamily.bernoulli
         || _parms._distribution == DistributionFamily.quasibinomial
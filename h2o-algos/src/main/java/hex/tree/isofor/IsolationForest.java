@@ -132,6 +132,11 @@ public class IsolationForest extends SharedTree<IsolationForestModel, IsolationF
     }.doAll(_train);
   }
 
+  @Override
+  protected boolean canFindSplitsDistributed() {
+    return false;
+  }
+
   @Override
   protected DTree.DecidedNode makeDecided(DTree.UndecidedNode udn, DHistogram hs[], Constraints cs) {
     return new IFDecidedNode(udn, hs, cs);
@@ -0,0 +1,81 @@
+package hex.word2vec;
+
+import water.Key;
+import water.Keyed;
+
+/**
+ * Alias table (Walker's alias method, Vose's construction) of the unigram distribution raised to the 3/4 power,
+ * used to draw the negative words in negative sampling. A word is drawn in constant time from a random bucket
+ * and a uniform number: the bucket's own word is kept with probability _prob[bucket], otherwise its alias is used.
+ */
+class UnigramTable extends Keyed<UnigramTable> {
+  private static final double POWER = 0.75;
+
+  float[] _prob;
+  int[] _alias;
+
+  public UnigramTable() {}
+
+  private UnigramTable(Key<UnigramTable> key, int size) {
+    super(key);
+    _prob = new float[size];
+    _alias = new int[size];
+  }
+
+  static UnigramTable buildUnigramTable(long[] wordCounts) {
+    final int size = wordCounts.length;
+
+    double[] p = new double[size];
+    double total = 0;
+    for (int i = 0; i < size; i++) {
+      p[i] = Math.pow(wordCounts[i], POWER);
+      total += p[i];
+    }
+    // Split the words into the buckets below and above the average probability
+    int[] small = new int[size];
+    int[] large = new int[size];
+    int ns = 0, nl = 0;
+    for (int i = 0; i < size; i++) {
+      p[i] = p[i] * size / total;
+      if (p[i] < 1) small[ns++] = i;
+      else large[nl++] = i;
+    }
+    UnigramTable t = new UnigramTable(Key.<UnigramTable>make(), size);
+    // Fill up every small bucket with a part of a large one
+    while (ns > 0 && nl > 0) {
+      int s = small[--ns];
+      int l = large[--nl];
+      t._prob[s] = (float) p[s];
+      t._alias[s] = l;
+      p[l] = (p[l] + p[s]) - 1;
+      if (p[l] < 1) small[ns++] = l;
+      else large[nl++] = l;
+    }
+    // Remaining buckets are full (up to the rounding errors)
+    while (nl > 0) {
+      int l = large[--nl];
+      t._prob[l] = 1;
+      t._alias[l] = l;
+    }
+    while (ns > 0) {
+      int s = small[--ns];
+      t._prob[s] = 1;
+      t._alias[s] = s;
+    }
+    return t;
+  }
+
+  /**
+   * @param bucket random bucket, 0-(size-1)
+   * @param u uniform random number from [0, 1)
+   * @return index of the sampled word
+   */
+  int sample(int bucket, float u) {
+    return u < _prob[bucket] ? bucket : _alias[bucket];
+  }
+
+  int size() {
+    return _prob.length;
+  }
+
+}
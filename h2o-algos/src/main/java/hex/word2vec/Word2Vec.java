@@ -14,7 +14,7 @@ import java.util.List;
 
 public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecParameters,Word2VecModel.Word2VecOutput> {
   public enum WordModel { SkipGram, CBOW }
-  public enum NormModel { HSM }
+  public enum NormModel { HSM, NegativeSampling }
 
   @Override public ModelCategory[] can_build() { return new ModelCategory[]{ ModelCategory.WordEmbedding, }; }
   @Override public BuilderVisibility builderVisibility() { return BuilderVisibility.Stable; }
@@ -47,6 +47,8 @@ public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecP
     if (_parms._vec_size > Word2VecParameters.MAX_VEC_SIZE) error("_vec_size", "Requested vector size of "+_parms._vec_size +" in Word2Vec, exceeds limit of "+Word2VecParameters.MAX_VEC_SIZE+".");
     if (_parms._vec_size < 1) error("_vec_size", "Requested vector size of " + _parms._vec_size + " in Word2Vec, is not allowed.");
     if (_parms._window_size < 1) error("_window_size", "Negative window size not allowed for Word2Vec.  Expected value > 0, received " + _parms._window_size);
+    if (_parms._norm_model == NormModel.NegativeSampling && _parms._negative_samples < 1) error("_negative_samples", "Negative sampling needs at least one negative word.  Expected value > 0, received " + _parms._negative_samples);
+    if (_parms._syncs_per_epoch < 1) error("_syncs_per_epoch", "Word vectors need to be synchronized at least once per epoch.  Expected value > 0, received " + _parms._syncs_per_epoch);
     if (_parms._sent_sample_rate < 0.0) error("_sent_sample_rate", "Negative sentence sample rate not allowed for Word2Vec.  Expected a value > 0.0, received " + _parms._sent_sample_rate);
     if (_parms._init_learning_rate < 0.0) error("_init_learning_rate", "Negative learning rate not allowed for Word2Vec.  Expected a value > 0.0, received " + _parms._init_learning_rate);
     if (_parms._epochs < 1) error("_epochs", "Negative epoch count not allowed for Word2Vec.  Expected value > 0, received " + _parms._epochs);
@@ -85,24 +87,32 @@ public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecP
       // main loop
       Log.info("Word2Vec: Starting to train model, " + _parms._epochs + " epochs.");
       long tstart = System.currentTimeMillis();
-      for (int i = 0; i < _parms._epochs; i++) {
-        long start = System.currentTimeMillis();
-        WordVectorTrainer trainer = new WordVectorTrainer(_job, modelInfo).doAll(_parms.trainVec());
-        long stop = System.currentTimeMillis();
-        long actProcessedWords = trainer._processedWords;
-        long estProcessedWords = trainer._nodeProcessedWords._val;
-        if (estProcessedWords < 0.95 * actProcessedWords)
-          Log.warn("Estimated number processed words " + estProcessedWords +
-                  " is significantly lower than actual number processed words " + actProcessedWords);
-        trainer.updateModelInfo(modelInfo);
-        model.update(_job); // Early version of model is visible
-        double duration = (stop - start) / 1000.0;
-        Log.info("Epoch " + i + " took "  + duration + "s; Words trained/s: " + actProcessedWords / duration);
-        model._output._epochs=i;
-
-        if (stop_requested()) { // do at least one iteration to avoid null model being returned and all hell will break loose
-          break;
+      final int syncs = _parms._syncs_per_epoch;
+      try {
+        for (int i = 0; i < _parms._epochs; i++) {
+          long start = System.currentTimeMillis();
+          long actProcessedWords = 0, estProcessedWords = 0;
+          for (int s = 0; s < syncs; s++) {
+            WordVectorTrainer trainer = new WordVectorTrainer(_job, modelInfo, s, syncs).doAll(_parms.trainVec());
+            actProcessedWords += trainer._processedWords;
+            estProcessedWords += trainer._nodeProcessedWords._val;
+            trainer.updateModelInfo(modelInfo);
+          }
+          long stop = System.currentTimeMillis();
+          if (estProcessedWords < 0.95 * actProcessedWords)
+            Log.warn("Estimated number processed words " + estProcessedWords +
+                    " is significantly lower than actual number processed words " + actProcessedWords);
+          model.update(_job); // Early version of model is visible
+          double duration = (stop - start) / 1000.0;
+          Log.info("Epoch " + i + " took "  + duration + "s; Words trained/s: " + actProcessedWords / duration);
+          model._output._epochs=i;
+
+          if (stop_requested()) { // do at least one iteration to avoid null model being returned and all hell will break loose
+            break;
+          }
         }
+      } finally {
+        WordVectorTrainer.removeLocalWeights(_job._key);
       }
       long tstop  = System.currentTimeMillis();
       Log.info("Total time: " + (tstop - tstart) / 1000.0);
@@ -301,6 +301,10 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
     public int _min_word_freq = 5;
     public int _vec_size = 100;
     public int _window_size = 5;
+    public int _negative_samples = 5;  // number of negative words drawn for each target word (NegativeSampling)
+    // number of times the word vectors are synchronized between the nodes in each epoch, each sync trains on a slice
+    // of the chunks; only the rows of the weight matrices changed since the previous sync are exchanged
+    public int _syncs_per_epoch = 1;
     public int _epochs = 5;
     public float _init_learning_rate = 0.025f;
     public float _sent_sample_rate = 1e-3f;
@@ -330,7 +334,10 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
     long _totalProcessedWords = 0L;
 
     float[] _syn0, _syn1;
-    Key<HBWTree> _treeKey;
+    // rows of _syn0/_syn1 changed by the last sync, null if the nodes don't have a copy of the weights yet
+    int[] _syncRows0, _syncRows1;
+    Key<HBWTree> _treeKey;          // hierarchical softmax
+    Key<UnigramTable> _unigramKey;  // negative sampling
     Key<Vocabulary> _vocabKey;
     Key<WordCounts> _wordCountsKey;
 
@@ -366,10 +373,12 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
         countAry[idx] = wc.getValue()._val;
         vocab._data.put(wc.getKey(), idx++);
       }
-      HBWTree t = HBWTree.buildHuffmanBinaryWordTree(countAry);
 
       _vocabWordCount = vocabWordCount;
-      _treeKey = publish(t);
+      if (_parameters._norm_model == Word2Vec.NormModel.NegativeSampling)
+        _unigramKey = publish(UnigramTable.buildUnigramTable(countAry));
+      else
+        _treeKey = publish(HBWTree.buildHuffmanBinaryWordTree(countAry));
       _vocabKey = publish(vocab);
       _wordCountsKey = publish(wordCounts);
 
@@ -0,0 +1,124 @@
+package hex.word2vec;
+
+import water.Iced;
+import water.MemoryManager;
+
+import java.util.Arrays;
+
+/**
+ * Subset of the rows of a weight matrix (represented in a 1D array, where M[i,j] == array[i * VEC_SIZE + j]).
+ *
+ * Used to exchange only the rows changed since the last sync between the nodes. The rows sent back by the nodes
+ * are averaged weighted by the number of words the nodes processed - a row not touched by a node counts with its
+ * value from the last sync. This gives the same result as the weighted average of the complete matrices.
+ */
+class WordVectorRows extends Iced<WordVectorRows> {
+
+  int[] _rows;      // sorted
+  float[] _vals;    // values of the rows, _vals[k * VEC_SIZE + j] is M[_rows[k],j]
+  long[] _weights;  // per row: number of words processed by the nodes that touched the row, null before the first merge
+
+  WordVectorRows() {
+    _rows = new int[0];
+    _vals = new float[0];
+  }
+
+  /**
+   * Selected rows of a matrix.
+   */
+  static WordVectorRows of(float[] syn, int[] rows, int vecSize) {
+    WordVectorRows r = new WordVectorRows();
+    r._rows = rows;
+    r._vals = MemoryManager.malloc4f(rows.length * vecSize);
+    for (int k = 0; k < rows.length; k++)
+      System.arraycopy(syn, rows[k] * vecSize, r._vals, k * vecSize, vecSize);
+    return r;
+  }
+
+  /**
+   * Collects the touched rows of a matrix.
+   */
+  void collect(float[] syn, boolean[] touched, int vecSize) {
+    int n = 0;
+    for (boolean t : touched)
+      if (t) n++;
+    _rows = new int[n];
+    _vals = MemoryManager.malloc4f(n * vecSize);
+    _weights = null;
+    for (int i = 0, k = 0; i < touched.length; i++) {
+      if (!touched[i]) continue;
+      _rows[k] = i;
+      System.arraycopy(syn, i * vecSize, _vals, k++ * vecSize, vecSize);
+    }
+  }
+
+  private long weight(int k, long words) {
+    return _weights == null ? words : _weights[k];
+  }
+
+  /**
+   * Merges the rows of another node (or group of nodes) into this object.
+   *
+   * @param words number of words processed by the node(s) of this object
+   * @param other rows of the other node(s)
+   * @param otherWords number of words processed by the other node(s)
+   */
+  void merge(long words, WordVectorRows other, long otherWords, int vecSize) {
+    int[] rows = new int[_rows.length + other._rows.length];
+    float[] vals = MemoryManager.malloc4f(rows.length * vecSize);
+    long[] weights = new long[rows.length];
+    int a = 0, b = 0, n = 0;
+    while (a < _rows.length || b < other._rows.length) {
+      if (b == other._rows.length || (a < _rows.length && _rows[a] < other._rows[b])) {
+        rows[n] = _rows[a];
+        weights[n] = weight(a, words);
+        System.arraycopy(_vals, a++ * vecSize, vals, n++ * vecSize, vecSize);
+      } else if (a == _rows.length || other._rows[b] < _rows[a]) {
+        rows[n] = other._rows[b];
+        weights[n] = other.weight(b, otherWords);
+        System.arraycopy(other._vals, b++ * vecSize, vals, n++ * vecSize, vecSize);
+      } else {
+        long wa = weight(a, words), wb = other.weight(b, otherWords);
+        rows[n] = _rows[a];
+        weights[n] = wa + wb;
+        float c = weights[n] == 0 ? 0 : (float) wb / weights[n];
+        for (int j = 0; j < vecSize; j++)
+          vals[n * vecSize + j] = (1.0f - c) * _vals[a * vecSize + j] + c * other._vals[b * vecSize + j];
+        a++; b++; n++;
+      }
+    }
+    _rows = Arrays.copyOf(rows, n);
+    _vals = Arrays.copyOf(vals, n * vecSize);
+    _weights = Arrays.copyOf(weights, n);
+  }
+
+  /**
+   * Overwrites the rows of a matrix with the values of this object.
+   */
+  void copyTo(float[] syn, int vecSize) {
+    for (int k = 0; k < _rows.length; k++)
+      System.arraycopy(_vals, k * vecSize, syn, _rows[k] * vecSize, vecSize);
+  }
+
+  /**
+   * Merges the rows into the matrix of the model: every row becomes the average of the rows of all the nodes.
+   *
+   * @param syn matrix of the model (values of the last sync)
+   * @param words total number of words processed by all the nodes
+   * @return indices of the changed rows
+   */
+  int[] mergeInto(float[] syn, long words, int vecSize) {
+    if (_weights == null) { // single node
+      copyTo(syn, vecSize);
+      return _rows;
+    }
+    for (int k = 0; k < _rows.length; k++) {
+      float c = words == 0 ? 0 : (float) _weights[k] / words;
+      final int l = _rows[k] * vecSize;
+      for (int j = 0; j < vecSize; j++)
+        syn[l + j] = (1.0f - c) * syn[l + j] + c * _vals[k * vecSize + j];
+    }
+    return _rows;
+  }
+
+}
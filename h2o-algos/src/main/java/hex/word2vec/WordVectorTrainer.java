@@ -1,13 +1,14 @@
 package hex.word2vec;
 
 import water.DKV;
+import water.H2O;
 import water.Job;
 import water.Key;
 import water.MRTask;
 import water.fvec.Chunk;
+import water.nbhm.NonBlockingHashMap;
 import water.parser.BufferedString;
 import hex.word2vec.Word2VecModel.*;
-import water.util.ArrayUtils;
 import water.util.IcedHashMap;
 import water.util.IcedHashMapGeneric;
 import water.util.IcedLong;
@@ -21,12 +22,17 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   private static final float[] _expTable = calcExpTable();
   private static final float LEARNING_RATE_MIN_FACTOR = 0.0001F; // learning rate stops decreasing at (initLearningRate * this factor)
 
+  // copies of the weight matrices ({syn0, syn1}) kept on the nodes between the syncs, by the key of the job
+  private static final NonBlockingHashMap<Key, float[][]> LOCAL_WEIGHTS = new NonBlockingHashMap<>();
+
   // Job
   private final Job<Word2VecModel> _job;
 
   // Params
   private final Word2Vec.WordModel _wordModel;
-  private final int _wordVecSize, _windowSize, _epochs;
+  private final Word2Vec.NormModel _normModel;
+  private final int _wordVecSize, _windowSize, _epochs, _negative;
+  private final int _slice, _slices; // trains only on the chunks with cidx % _slices == _slice
   private final float _initLearningRate;
   private final float _sentSampleRate;
   private final long _vocabWordCount;
@@ -35,35 +41,53 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   private final Key<Vocabulary> _vocabKey;
   private final Key<WordCounts> _wordCountsKey;
   private final Key<HBWTree> _treeKey;
+  private final Key<UnigramTable> _unigramKey;
+  private final Key _localKey;
   private final long _prevTotalProcessedWords;
 
-  // Model IN & OUT
-  // _syn0 represents the matrix of synaptic weights connecting the input layer of the NN to the hidden layer,
-  // similarly _syn1 corresponds to the weight matrix of the synapses connecting the hidden layer to the output layer
-  // both matrices are represented in a 1D array, where M[i,j] == array[i * VEC_SIZE + j]
-  float[] _syn0, _syn1;
+  // Model IN
+  // complete weight matrices are only sent with the first sync, the nodes keep their copies and later receive
+  // just the rows changed by the last sync
+  private float[] _initSyn0, _initSyn1;
+  private WordVectorRows _syncSyn0, _syncSyn1;
+
+  // Model OUT
+  WordVectorRows _rows0, _rows1; // rows touched by the node(s)
   long _processedWords = 0L;
 
   // Node-Local (Shared)
   IcedLong _nodeProcessedWords; // mutable long, approximates the total number of words processed by this node
+  // _syn0 represents the matrix of synaptic weights connecting the input layer of the NN to the hidden layer,
+  // similarly _syn1 corresponds to the weight matrix of the synapses connecting the hidden layer to the output layer
+  // both matrices are represented in a 1D array, where M[i,j] == array[i * VEC_SIZE + j]
+  // the node copies are updated by all the map calls without locking (hogwild)
+  private transient float[] _syn0, _syn1;
+  private transient boolean[] _touched0, _touched1;
   private transient IcedHashMapGeneric<BufferedString, Integer> _vocab;
   private transient IcedHashMap<BufferedString, IcedLong> _wordCounts;
   private transient int[][] _HBWTCode;
   private transient int[][] _HBWTPoint;
+  private transient UnigramTable _unigram;
 
   private float _curLearningRate;
   private long _seed = System.nanoTime();
 
-  public WordVectorTrainer(Job<Word2VecModel> job, Word2VecModelInfo input) {
+  public WordVectorTrainer(Job<Word2VecModel> job, Word2VecModelInfo input, int slice, int slices) {
     super(null);
     _job = job;
+    _localKey = job._key;
+    _slice = slice;
+    _slices = slices;
 
     _treeKey = input._treeKey;
+    _unigramKey = input._unigramKey;
     _vocabKey = input._vocabKey;
     _wordCountsKey = input._wordCountsKey;
 
     // Params
     _wordModel = input.getParams()._word_model;
+    _normModel = input.getParams()._norm_model;
+    _negative = input.getParams()._negative_samples;
     _wordVecSize = input.getParams()._vec_size;
     _windowSize = input.getParams()._window_size;
     _sentSampleRate = input.getParams()._sent_sample_rate;
@@ -73,8 +97,13 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     _vocabWordCount = input._vocabWordCount;
     _prevTotalProcessedWords = input._totalProcessedWords;
 
-    _syn0 = input._syn0;
-    _syn1 = input._syn1;
+    if (input._syncRows0 == null) {
+      _initSyn0 = input._syn0;
+      _initSyn1 = input._syn1;
+    } else {
+      _syncSyn0 = WordVectorRows.of(input._syn0, input._syncRows0, _wordVecSize);
+      _syncSyn1 = WordVectorRows.of(input._syn1, input._syncRows1, _wordVecSize);
+    }
     _curLearningRate = calcLearningRate(_initLearningRate, _epochs, _prevTotalProcessedWords, _vocabWordCount);
   }
 
@@ -82,10 +111,53 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   protected void setupLocal() {
     _vocab = ((Vocabulary) DKV.getGet(_vocabKey))._data;
     _wordCounts = ((WordCounts) DKV.getGet(_wordCountsKey))._data;
-    HBWTree t = DKV.getGet(_treeKey);
-    _HBWTCode = t._code;
-    _HBWTPoint = t._point;
+    if (_normModel == Word2Vec.NormModel.NegativeSampling) {
+      _unigram = DKV.getGet(_unigramKey);
+    } else {
+      HBWTree t = DKV.getGet(_treeKey);
+      _HBWTCode = t._code;
+      _HBWTPoint = t._point;
+    }
     _nodeProcessedWords = new IcedLong(0L);
+
+    if (_initSyn0 != null) {
+      // the node works on its own copy, the weights of the model only change in the sync
+      LOCAL_WEIGHTS.put(_localKey, new float[][]{_initSyn0.clone(), _initSyn1.clone()});
+      _initSyn0 = _initSyn1 = null;
+    }
+    float[][] syn = LOCAL_WEIGHTS.get(_localKey);
+    if (syn == null)
+      throw new IllegalStateException("Word vectors of job " + _localKey + " are not available on node " + H2O.SELF);
+    _syn0 = syn[0];
+    _syn1 = syn[1];
+    if (_syncSyn0 != null) {
+      _syncSyn0.copyTo(_syn0, _wordVecSize);
+      _syncSyn1.copyTo(_syn1, _wordVecSize);
+      _syncSyn0 = _syncSyn1 = null;
+    }
+    _touched0 = new boolean[_syn0.length / _wordVecSize];
+    _touched1 = new boolean[_syn1.length / _wordVecSize];
+    _rows0 = new WordVectorRows();
+    _rows1 = new WordVectorRows();
+  }
+
+  @Override
+  protected void closeLocal() {
+    // only the touched rows are sent back, the objects are shared by all the tasks (and results) of this node
+    _rows0.collect(_syn0, _touched0, _wordVecSize);
+    _rows1.collect(_syn1, _touched1, _wordVecSize);
+  }
+
+  /**
+   * Removes the copies of the weights kept on the nodes during the training.
+   */
+  static void removeLocalWeights(final Key key) {
+    new MRTask() {
+      @Override
+      protected void setupLocal() {
+        LOCAL_WEIGHTS.remove(key);
+      }
+    }.doAllNodes();
   }
 
   // Precompute the exp() table
@@ -99,6 +171,7 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   }
 
   @Override public void map(Chunk chk) {
+    if (chk.cidx() % _slices != _slice) return; // trained in a different sync
     final int winSize = _windowSize, vecSize = _wordVecSize;
     float[] neu1 = new float[vecSize];
     float[] neu1e = new float[vecSize];
@@ -150,14 +223,13 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   }
 
   @Override public void reduce(WordVectorTrainer other) {
-    _processedWords += other._processedWords;
-    if (_syn0 != other._syn0) { // other task worked on a different syn0
-      float c = (float) other._processedWords / _processedWords;
-      ArrayUtils.add(1.0f - c, _syn0, c, other._syn0);
-      ArrayUtils.add(1.0f - c, _syn1, c, other._syn1);
+    if (_rows0 != other._rows0) { // other task worked on a different node
+      _rows0.merge(_processedWords, other._rows0, other._processedWords, _wordVecSize);
+      _rows1.merge(_processedWords, other._rows1, other._processedWords, _wordVecSize);
       // for diagnostics only
       _nodeProcessedWords._val += other._nodeProcessedWords._val;
     }
+    _processedWords += other._processedWords;
   }
 
   private void skipGram(int curWord, int winWord, float[] neu1e) {
@@ -165,10 +237,14 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     final int l1 = winWord * vecSize;
     for (int i = 0; i < vecSize; i++) neu1e[i] = 0;
 
-    hierarchicalSoftmaxSG(curWord, l1, neu1e);
+    if (_normModel == Word2Vec.NormModel.NegativeSampling)
+      negativeSamplingSG(curWord, l1, neu1e);
+    else
+      hierarchicalSoftmaxSG(curWord, l1, neu1e);
 
     // Learned weights input -> hidden
     for (int i = 0; i < vecSize; i++) _syn0[i + l1] += neu1e[i];
+    _touched0[winWord] = true;
   }
 
   private void hierarchicalSoftmaxSG(final int targetWord, final int l1, float[] neu1e) {
@@ -191,6 +267,29 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
       for (int j = 0; j < vecSize; j++) neu1e[j] += gradient * _syn1[j + l2];
       // Learn weights hidden -> output
       for (int j = 0; j < vecSize; j++) _syn1[j + l2] += gradient * _syn0[j + l1];
+      _touched1[_HBWTPoint[targetWord][i]] = true;
+    }
+  }
+
+  private void negativeSamplingSG(final int targetWord, final int l1, float[] neu1e) {
+    final int vecSize = _wordVecSize;
+    final float alpha = _curLearningRate;
+
+    for (int d = 0; d <= _negative; d++) {
+      final int word = d == 0 ? targetWord : sampleNegative();
+      if (d > 0 && word == targetWord) continue;
+      final int l2 = word * vecSize;
+
+      float f = 0;
+      // Propagate hidden -> output
+      for (int j = 0; j < vecSize; j++) f += _syn0[j + l1] * _syn1[j + l2];
+
+      float gradient = negativeSamplingGradient(f, d == 0 ? 1 : 0, alpha);
+      // Propagate errors output -> hidden
+      for (int j = 0; j < vecSize; j++) neu1e[j] += gradient * _syn1[j + l2];
+      // Learn weights hidden -> output
+      for (int j = 0; j < vecSize; j++) _syn1[j + l2] += gradient * _syn0[j + l1];
+      _touched1[word] = true;
     }
   }
 
@@ -209,7 +308,10 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     final int curWinSize = winSize * 2 + 1 - winSize;
 
     for (int i = 0; i < vecSize; i++) neu1[i] /= bagSize;
-    hierarchicalSoftmaxCBOW(curWord, neu1, neu1e);
+    if (_normModel == Word2Vec.NormModel.NegativeSampling)
+      negativeSamplingCBOW(curWord, neu1, neu1e);
+    else
+      hierarchicalSoftmaxCBOW(curWord, neu1, neu1e);
 
     // hidden -> in
     for (int winIdx = winSizeMod; winIdx < curWinSize; winIdx++) {
@@ -218,6 +320,7 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
         if (winWordSentIdx < 0 || winWordSentIdx >= sentLen) continue;
         winWord = sentence[winWordSentIdx];
         for (int i = 0; i < vecSize; i++) _syn0[i + winWord * vecSize] += neu1e[i];
+        _touched0[winWord] = true;
       }
     }
   }
@@ -243,9 +346,49 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
       for (int j = 0; j < vecSize; j++) neu1e[j] += gradient * _syn1[j + l2];
       // Learn weights hidden -> output
       for (int j = 0; j < vecSize; j++) _syn1[j + l2] += gradient * neu1[j];
+      _touched1[_HBWTPoint[targetWord][i]] = true;
+    }
+  }
+
+  private void negativeSamplingCBOW(final int targetWord, float[] neu1, float[] neu1e) {
+    final int vecSize = _wordVecSize;
+    final float alpha = _curLearningRate;
+
+    for (int d = 0; d <= _negative; d++) {
+      final int word = d == 0 ? targetWord : sampleNegative();
+      if (d > 0 && word == targetWord) continue;
+      final int l2 = word * vecSize;
+
+      float f = 0;
+      // Propagate hidden -> output
+      for (int j = 0; j < vecSize; j++) f += neu1[j] * _syn1[j + l2];
+
+      float gradient = negativeSamplingGradient(f, d == 0 ? 1 : 0, alpha);
+      // Propagate errors output -> hidden
+      for (int j = 0; j < vecSize; j++) neu1e[j] += gradient * _syn1[j + l2];
+      // Learn weights hidden -> output
+      for (int j = 0; j < vecSize; j++) _syn1[j + l2] += gradient * neu1[j];
+      _touched1[word] = true;
     }
   }
 
+  /**
+   * Gradient of the logistic loss of a target (label 1) or a negative word (label 0), the sigmoid is clamped
+   * to 0/1 outside of the range of the exp() table.
+   */
+  private static float negativeSamplingGradient(float f, int label, float alpha) {
+    if (f >= MAX_EXP) return (label - 1) * alpha;
+    else if (f <= -MAX_EXP) return label * alpha;
+    else return (label - _expTable[(int) ((f + MAX_EXP) * (EXP_TABLE_SIZE / MAX_EXP / 2))]) * alpha;
+  }
+
+  /**
+   * Draws a negative word from the unigram distribution (raised to the 3/4 power).
+   */
+  private int sampleNegative() {
+    return _unigram.sample(cheapRandInt(_unigram.size()), cheapRandInt(0x10000) / 65536f);
+  }
+
   /**
    * Calculates a new global learning rate for the next round
    * of map/reduce calls.
@@ -259,8 +402,8 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   }
 
   public void updateModelInfo(Word2VecModelInfo modelInfo) {
-    modelInfo._syn0 = _syn0;
-    modelInfo._syn1 = _syn1;
+    modelInfo._syncRows0 = _rows0.mergeInto(modelInfo._syn0, _processedWords, _wordVecSize);
+    modelInfo._syncRows1 = _rows1.mergeInto(modelInfo._syn1, _processedWords, _wordVecSize);
     modelInfo._totalProcessedWords += _processedWords;
   }
 
@@ -109,4 +109,71 @@ public class NeuronsTest extends water.TestUtil {
     System.out.println("optimized dense row * dense time: " + PrettyPrint.msecs(System.currentTimeMillis()-start, true));
   }
 
+  @Test
+  public void matrixMatTest() {
+    Random rng = new Random(0xBEEF);
+    for (int cols : new int[]{3, 8, 37, 2000}) {
+      int rows = 700;
+      float[] a = new float[rows * cols];
+      for (int i = 0; i < a.length; ++i)
+        a[i] = (float) rng.nextGaussian();
+      double[] y = new double[rows];
+      for (int row = 0; row < rows; ++row)
+        y[row] = rng.nextGaussian();
+      byte[] bits = new byte[(rows + 7) / 8];
+      rng.nextBytes(bits);
+      Storage.DenseRowMatrix dra = new Storage.DenseRowMatrix(a, rows, cols);
+      Storage.DenseVector dy = new Storage.DenseVector(y);
+      for (int n : new int[]{1, 2, 5}) {
+        Storage.DenseVector[] x = new Storage.DenseVector[n];
+        Storage.DenseVector[] res = new Storage.DenseVector[n];
+        for (int mb = 0; mb < n; ++mb) {
+          x[mb] = new Storage.DenseVector(cols);
+          for (int col = 0; col < cols; ++col)
+            x[mb].set(col, rng.nextGaussian());
+          res[mb] = new Storage.DenseVector(rows);
+        }
+        for (byte[] rowBits : new byte[][]{null, bits}) {
+          gemm(res, dra, x, dy, rowBits, n);
+          for (int mb = 0; mb < n; ++mb) {
+            Storage.DenseVector expected = new Storage.DenseVector(rows);
+            gemv(expected, dra, x[mb], dy, rowBits);
+            Assert.assertArrayEquals(expected.raw(), res[mb].raw(), 0);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void sparseMatrixVecTest() {
+    Random rng = new Random(0xC0FFEE);
+    for (int cols : new int[]{5, 16, 1003}) {
+      int rows = 50;
+      float[] a = new float[rows * cols];
+      for (int i = 0; i < a.length; ++i)
+        a[i] = (float) rng.nextGaussian();
+      double[] y = new double[rows];
+      for (int row = 0; row < rows; ++row)
+        y[row] = rng.nextGaussian();
+      double[] x = new double[cols];
+      int[] ids = new int[cols];
+      int nnz = 0;
+      for (int col = 0; col < cols; ++col)
+        if (rng.nextInt(5) == 0) {
+          x[col] = rng.nextGaussian();
+          ids[nnz++] = col;
+        }
+      byte[] bits = new byte[(rows + 7) / 8];
+      rng.nextBytes(bits);
+      for (byte[] rowBits : new byte[][]{null, bits}) {
+        double[] expected = new double[rows];
+        double[] res = new double[rows];
+        gemv_row_optimized(expected, a, x, y, rowBits);
+        gemv_sparse(res, a, x, ids, nnz, y, rowBits);
+        Assert.assertArrayEquals(expected, res, 0);
+      }
+    }
+  }
+
 }
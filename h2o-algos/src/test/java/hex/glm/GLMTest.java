@@ -16,6 +16,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 import water.*;
 import water.H2O.H2OCountedCompleter;
+import water.exceptions.H2OModelBuilderIllegalArgumentException;
 import water.fvec.*;
 import water.parser.BufferedString;
 import water.parser.ParseDataset;
@@ -1903,6 +1904,85 @@ public class GLMTest  extends TestUtil {
     }
   }
 
+  /**
+   * The cv models' submodels are reused and their active columns are added to the strong rules of the main model,
+   * neither may change the chosen lambda nor the coefficients.
+   */
+  @Test public void testXvalLambdaSearchReuse() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(parse_test_file("smalldata/glm_test/prostate_cat_replaced.csv"));
+      for (boolean standardize : new boolean[]{true, false}) {
+        GLMParameters params = new GLMParameters(Family.binomial);
+        params._response_column = "CAPSULE";
+        params._ignored_columns = new String[]{"ID"};
+        params._train = fr._key;
+        params._lambda_search = true;
+        params._nfolds = 3;
+        params._seed = 1234;
+        params._alpha = new double[]{0.5};
+        params._standardize = standardize;
+        GLMModel screened = (GLMModel) Scope.track_generic(new GLM(params).trainModel().get());
+        GLMModel notScreened;
+        System.setProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "glm.cv_screening", "false");
+        try {
+          notScreened = (GLMModel) Scope.track_generic(new GLM(params).trainModel().get());
+        } finally {
+          System.clearProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "glm.cv_screening");
+        }
+        assertEquals(notScreened._output._selected_submodel_idx, screened._output._selected_submodel_idx);
+        assertEquals(notScreened._output.lambda_best(), screened._output.lambda_best(), 0);
+        assertEquals(notScreened._output._submodels.length, screened._output._submodels.length);
+        HashMap<String, Double> expected = notScreened.coefficients();
+        HashMap<String, Double> actual = screened.coefficients();
+        for (String name : expected.keySet())
+          assertEquals(name, expected.get(name), actual.get(name), 1e-4 * Math.max(1, Math.abs(expected.get(name))));
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  /**
+   * The cv models stop their lambda search after a few iterations, the submodels needed to find the cross-validated
+   * lambda are fitted afterwards.
+   */
+  @Test public void testXvalLambdaSearchFoldStoppedEarly() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(parse_test_file("smalldata/glm_test/prostate_cat_replaced.csv"));
+      GLMParameters params = new GLMParameters(Family.binomial);
+      params._response_column = "CAPSULE";
+      params._ignored_columns = new String[]{"ID"};
+      params._train = fr._key;
+      params._lambda_search = true;
+      params._nlambdas = 50;
+      params._nfolds = 3;
+      params._seed = 1234;
+      params._alpha = new double[]{0.5};
+      params._max_iterations = 12;
+      params._keep_cross_validation_models = true;
+      GLMModel model = (GLMModel) Scope.track_generic(new GLM(params).trainModel().get());
+      Key[] cvKeys = model._output._cross_validation_models;
+      int nlambdas = model._output._submodels.length;
+      boolean stoppedEarly = false;
+      for (Key k : cvKeys) {
+        GLMModel cv = (GLMModel) Scope.track_generic(DKV.<GLMModel>getGet(k));
+        assertTrue(cv._output._submodels.length >= nlambdas - 1);
+        for (int lidx = 0; lidx < nlambdas - 1; lidx++) {
+          assertNotNull(cv._output._submodels[lidx]);
+          assertFalse(cv._output._submodels[lidx].devianceValid < 0);
+          assertEquals(model._output._submodels[lidx].lambda_value, cv._output._submodels[lidx].lambda_value, 0);
+        }
+        stoppedEarly |= cv._output._submodels[cv._output._submodels.length - 1].iteration >= params._max_iterations;
+      }
+      assertTrue(stoppedEarly);
+      assertTrue(model._output.lambda_best() > 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
   /**
    * Test that lambda search gets (almost) the same result as running the model for each lambda separately.
    */
@@ -2360,4 +2440,195 @@ public class GLMTest  extends TestUtil {
       Scope.exit();
     }
   }
+
+  @Test
+  public void testSGDSolverGaussian() {
+    Scope.enter();
+    try {
+      final int nrows = 50000;
+      Random rnd = new Random(0xFEED);
+      double[][] cols = new double[4][nrows];
+      for (int r = 0; r < nrows; r++) {
+        cols[0][r] = rnd.nextGaussian();
+        cols[1][r] = rnd.nextGaussian();
+        cols[2][r] = rnd.nextGaussian();
+        cols[3][r] = 1 + 2 * cols[0][r] - 3 * cols[1][r] + .5 * cols[2][r] + .1 * rnd.nextGaussian();
+      }
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withColNames("x1", "x2", "x3", "y")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, cols[0])
+              .withDataForCol(1, cols[1])
+              .withDataForCol(2, cols[2])
+              .withDataForCol(3, cols[3])
+              .build());
+      GLMParameters params = new GLMParameters(Family.gaussian);
+      params._response_column = "y";
+      params._train = fr._key;
+      params._lambda = new double[]{0};
+      params._solver = Solver.IRLSM;
+      GLMModel irlsm = new GLM(params).trainModel().get();
+      Scope.track_generic(irlsm);
+      params._solver = Solver.SGD;
+      params._max_iterations = 10;
+      GLMModel sgd = new GLM(params).trainModel().get();
+      Scope.track_generic(sgd);
+      HashMap<String, Double> expected = irlsm.coefficients();
+      HashMap<String, Double> actual = sgd.coefficients();
+      for (String name : expected.keySet())
+        assertEquals(name, expected.get(name), actual.get(name), 5e-2);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testSGDSolverBinomial() {
+    Scope.enter();
+    try {
+      final int nrows = 100000;
+      final double[] levelEffect = {0, .8, -.6};
+      Random rnd = new Random(0xB1A5);
+      double[][] nums = new double[2][nrows];
+      String[] cat = new String[nrows];
+      String[] y = new String[nrows];
+      for (int r = 0; r < nrows; r++) {
+        nums[0][r] = rnd.nextGaussian();
+        nums[1][r] = rnd.nextGaussian();
+        int level = rnd.nextInt(levelEffect.length);
+        cat[r] = "l" + level;
+        double eta = -.5 + 1.5 * nums[0][r] - nums[1][r] + levelEffect[level];
+        y[r] = rnd.nextDouble() < 1 / (1 + Math.exp(-eta)) ? "1" : "0";
+      }
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withColNames("x1", "x2", "c", "y")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_CAT, Vec.T_CAT)
+              .withDataForCol(0, nums[0])
+              .withDataForCol(1, nums[1])
+              .withDataForCol(2, cat)
+              .withDataForCol(3, y)
+              .withChunkLayout(30000, 30000, 40000)
+              .build());
+      GLMParameters params = new GLMParameters(Family.binomial);
+      params._response_column = "y";
+      params._train = fr._key;
+      params._lambda = new double[]{0};
+      params._solver = Solver.IRLSM;
+      GLMModel irlsm = (GLMModel) Scope.track_generic(new GLM(params).trainModel().get());
+      HashMap<String, Double> expected = irlsm.coefficients();
+
+      params._solver = Solver.SGD;
+      params._max_iterations = 10;
+      GLMModel sgd = (GLMModel) Scope.track_generic(new GLM(params).trainModel().get());
+      // the parameters of the solver are set per model: smaller batches, all rows used for training
+      params._sgd_batch_size = 64;
+      params._sgd_holdout = 0;
+      params._max_iterations = 5;
+      GLMModel sgdSmallBatches = (GLMModel) Scope.track_generic(new GLM(params).trainModel().get());
+      for (GLMModel m : new GLMModel[]{sgd, sgdSmallBatches}) {
+        HashMap<String, Double> actual = m.coefficients();
+        for (String name : expected.keySet())
+          assertEquals(name, expected.get(name), actual.get(name), 5e-2);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testSGDSolverInvalidParameters() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withColNames("x", "y")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, ard(1, 2, 3, 4, 5))
+              .withDataForCol(1, ard(2, 4, 5, 8, 11))
+              .build());
+      GLMParameters params = new GLMParameters(Family.gaussian);
+      params._response_column = "y";
+      params._train = fr._key;
+      params._solver = Solver.SGD;
+      params._sgd_holdout = 1; // every row would be held out
+      try {
+        new GLM(params).trainModel().get();
+        fail("should've thrown");
+      } catch (H2OModelBuilderIllegalArgumentException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("sgd_holdout"));
+      }
+      params._sgd_holdout = 100;
+      params._sgd_learning_rate = 0;
+      try {
+        new GLM(params).trainModel().get();
+        fail("should've thrown");
+      } catch (H2OModelBuilderIllegalArgumentException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("sgd_learning_rate"));
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testSparseGramMatchesDenseGram() {
+    try {
+      Scope.enter();
+      final int nrows = 40000, nlevels1 = 5200, nlevels2 = 100;
+      Random rnd = new Random(0xC0FFEE);
+      double[] effect1 = new double[nlevels1];
+      for (int l = 0; l < nlevels1; l++)
+        effect1[l] = rnd.nextGaussian();
+      String[] c1 = new String[nrows], c2 = new String[nrows];
+      double[] x1 = new double[nrows], x2 = new double[nrows], y = new double[nrows];
+      for (int r = 0; r < nrows; r++) {
+        int l1 = r < nlevels1 ? r : rnd.nextInt(nlevels1); // every level is present
+        int l2 = rnd.nextInt(nlevels2);
+        c1[r] = "a" + l1;
+        c2[r] = "b" + l2;
+        x1[r] = rnd.nextDouble() < 0.05 ? 1 + rnd.nextInt(10) : 0; // sparse numeric column
+        x2[r] = rnd.nextGaussian();
+        y[r] = 2 + effect1[l1] + 0.1 * (l2 % 7) + 0.5 * x1[r] - x2[r] + 0.1 * rnd.nextGaussian();
+      }
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withColNames("c1", "c2", "x1", "x2", "y")
+              .withVecTypes(Vec.T_CAT, Vec.T_CAT, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, c1)
+              .withDataForCol(1, c2)
+              .withDataForCol(2, x1)
+              .withDataForCol(3, x2)
+              .withDataForCol(4, y)
+              .withChunkLayout(10000, 10000, 10000, 10000)
+              .build());
+      for (boolean standardize : new boolean[]{true, false}) {
+        GLMParameters params = new GLMParameters(Family.gaussian);
+        params._response_column = "y";
+        params._train = fr._key;
+        params._solver = Solver.IRLSM;
+        params._alpha = new double[]{0};
+        params._lambda = new double[]{1e-4};
+        params._standardize = standardize;
+
+        GLM dense = new GLM(params);
+        GLMModel denseModel = (GLMModel) Scope.track_generic(dense.trainModel().get());
+        assertFalse(dense.usedSparseGram()); // opt-in only
+        GLMModel sparseModel;
+        System.setProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "glm.sparse_gram", "true");
+        try {
+          GLM sparse = new GLM(params);
+          sparseModel = (GLMModel) Scope.track_generic(sparse.trainModel().get());
+          assertTrue(sparse.usedSparseGram());
+        } finally {
+          System.clearProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "glm.sparse_gram");
+        }
+        HashMap<String, Double> expected = denseModel.coefficients();
+        HashMap<String, Double> actual = sparseModel.coefficients();
+        assertEquals(expected.size(), actual.size());
+        for (String name : expected.keySet())
+          assertEquals(name + " (standardize=" + standardize + ")", expected.get(name), actual.get(name),
+                  1e-4 * Math.max(1, Math.abs(expected.get(name))));
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
 }
@@ -7,6 +7,7 @@ import hex.genmodel.algos.glrm.GlrmRegularizer;
 import hex.glrm.GLRMModel.GLRMParameters;
 import hex.pca.PCA;
 import hex.pca.PCAModel;
+import hex.svd.SVDModel;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
@@ -261,6 +262,39 @@ public class GLRMTest extends TestUtil {
     }
   }
 
+  @Test public void testArrestsSVDSinglePass() throws InterruptedException, ExecutionException {
+    // For k < ncol the sketches of the single pass SVD still span the whole column space: same initialization as GramSVD
+    GLRMModel[] models = new GLRMModel[2];
+    Frame train = null;
+    try {
+      train = parse_test_file(Key.make("arrests.hex"), "smalldata/pca_test/USArrests.csv");
+      SVDModel.SVDParameters.Method[] methods = {SVDModel.SVDParameters.Method.GramSVD, SVDModel.SVDParameters.Method.SinglePass};
+      for (int i = 0; i < methods.length; i++) {
+        GLRMParameters parms = new GLRMParameters();
+        parms._train = train._key;
+        parms._k = 3;
+        parms._transform = DataInfo.TransformType.STANDARDIZE;
+        parms._init = GlrmInitialization.SVD;
+        parms._svd_method = methods[i];
+        parms._seed = 1234;
+        parms._max_iterations = 1000;
+        parms._min_step_size = 1e-8;
+
+        models[i] = new GLRM(parms).trainModel().get();
+        Log.info(methods[i] + ": Iteration " + models[i]._output._iterations + ": Objective value = " + models[i]._output._objective);
+      }
+      SVDModel gram = DKV.getGet(models[0]._output._init_key);
+      SVDModel single = DKV.getGet(models[1]._output._init_key);
+      Assert.assertArrayEquals(gram._output._d, single._output._d, TOLERANCE);
+      checkEigvec(gram._output._v, single._output._v, TOLERANCE);
+      Assert.assertEquals(models[0]._output._objective, models[1]._output._objective, 1e-4 * models[0]._output._objective);
+    } finally {
+      if (train != null) train.delete();
+      for (GLRMModel model : models)
+        if (model != null) model.delete();
+    }
+  }
+
   @Test public void testArrestsPlusPlus() throws InterruptedException, ExecutionException {
     GLRMModel model = null;
     Frame train = null;
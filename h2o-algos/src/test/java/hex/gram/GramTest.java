@@ -0,0 +1,155 @@
+package hex.gram;
+
+import hex.DataInfo;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.H2O;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GramTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  @Test
+  public void blockedRowsMatchAddRow() {
+    Scope.enter();
+    try {
+      final int nlevels = 3, nnums = 70, nrows = 600;
+      Random rnd = new Random(42);
+      Vec[] vecs = new Vec[nnums + 1];
+      String[] names = new String[vecs.length];
+      vecs[0] = Scope.track(Vec.makeVec(new long[]{0, 1, 2}, new String[]{"a", "b", "c"}, Vec.newKey()));
+      names[0] = "cat";
+      for (int i = 1; i < vecs.length; i++) {
+        vecs[i] = Scope.track(Vec.makeVec(new double[]{rnd.nextGaussian(), rnd.nextGaussian(), rnd.nextGaussian()}, Vec.newKey()));
+        names[i] = "num" + i;
+      }
+      DataInfo dinfo = new DataInfo(new Frame(names, vecs), null, 0, true, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE,
+              false, false, false, /* weights */ false, /* offset */ false, /* fold */ false);
+      Gram g1 = new Gram(dinfo);
+      Gram g2 = new Gram(dinfo);
+      assertTrue(g2.useBlocked());
+      DataInfo.Row row = dinfo.newDenseRow();
+      for (int r = 0; r < nrows; r++) {
+        for (int i = 0; i < nnums; i++)
+          row.numVals[i] = rnd.nextInt(5) == 0 ? 0 : rnd.nextGaussian();
+        row.binIds[0] = rnd.nextInt(nlevels);
+        row.nBins = 1;
+        double w = rnd.nextDouble();
+        g1.addRow(row, w);
+        g2.addRowBlocked(row, w);
+      }
+      g2.flushRows();
+      assertArrayEquals(g1._diag, g2._diag, 1e-10);
+      for (int i = 0; i < g1._xx.length; i++)
+        assertArrayEquals(g1._xx[i], g2._xx[i], 1e-10);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void gramTaskWithoutBlockedRows() {
+    final String property = H2O.OptArgs.SYSTEM_PROP_PREFIX + "gram.blocked";
+    Scope.enter();
+    try {
+      final int nnums = 40, nrows = 1000;
+      Random rnd = new Random(0xB10C);
+      Vec[] vecs = new Vec[nnums];
+      String[] names = new String[nnums];
+      for (int i = 0; i < nnums; i++) {
+        double[] vals = new double[nrows];
+        for (int r = 0; r < nrows; r++)
+          vals[r] = rnd.nextGaussian();
+        vecs[i] = Scope.track(Vec.makeVec(vals, Vec.newKey()));
+        names[i] = "num" + i;
+      }
+      DataInfo dinfo = new DataInfo(new Frame(names, vecs), null, 0, true, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE,
+              false, false, false, /* weights */ false, /* offset */ false, /* fold */ false);
+      Gram.GramTask blocked = new Gram.GramTask(null, dinfo, false, true);
+      assertTrue(blocked._blocked);
+      blocked.doAll(dinfo._adaptedFrame);
+      Gram.GramTask rowWise;
+      System.setProperty(property, "false"); // read when the task is created
+      try {
+        rowWise = new Gram.GramTask(null, dinfo, false, true);
+      } finally {
+        System.clearProperty(property);
+      }
+      assertFalse(rowWise._blocked);
+      rowWise.doAll(dinfo._adaptedFrame);
+      assertEquals(rowWise._nobs, blocked._nobs);
+      final int N = dinfo.fullN() + 1;
+      for (int i = 0; i < N; i++)
+        for (int j = 0; j < N; j++)
+          assertEquals(rowWise._gram.get(i, j), blocked._gram.get(i, j), 1e-8);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void sparseGramMatchesGram() {
+    Scope.enter();
+    try {
+      final int nlevels = 3, nnums = 5, nrows = 200;
+      Random rnd = new Random(7);
+      Vec[] vecs = new Vec[nnums + 1];
+      String[] names = new String[vecs.length];
+      vecs[0] = Scope.track(Vec.makeVec(new long[]{0, 1, 2}, new String[]{"a", "b", "c"}, Vec.newKey()));
+      names[0] = "cat";
+      for (int i = 1; i < vecs.length; i++) {
+        vecs[i] = Scope.track(Vec.makeVec(new double[]{rnd.nextGaussian(), rnd.nextGaussian(), rnd.nextGaussian()}, Vec.newKey()));
+        names[i] = "num" + i;
+      }
+      DataInfo dinfo = new DataInfo(new Frame(names, vecs), null, 0, true, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE,
+              false, false, false, /* weights */ false, /* offset */ false, /* fold */ false);
+      final int N = dinfo.fullN() + 1;
+      double[] center = new double[N];
+      for (int i = 0; i < nnums; i++)
+        center[nlevels + i] = rnd.nextGaussian();
+      Gram g = new Gram(dinfo);
+      SparseGram sg1 = new SparseGram(dinfo.fullN(), true);
+      SparseGram sg2 = new SparseGram(dinfo.fullN(), true);
+      DataInfo.Row row = dinfo.newDenseRow();
+      DataInfo.Row centered = dinfo.newDenseRow();
+      for (int r = 0; r < nrows; r++) {
+        for (int i = 0; i < nnums; i++) {
+          row.numVals[i] = rnd.nextInt(3) == 0 ? rnd.nextGaussian() : 0;
+          centered.numVals[i] = row.numVals[i] - center[nlevels + i];
+        }
+        row.binIds[0] = centered.binIds[0] = rnd.nextInt(nlevels);
+        row.nBins = centered.nBins = 1;
+        double w = rnd.nextDouble();
+        g.addRow(centered, w);
+        (r % 2 == 0 ? sg1 : sg2).addRow(row, w);
+      }
+      sg1.compact();
+      sg2.compact();
+      sg1.add(sg2);
+      sg1.setCentering(center);
+      for (int i = 0; i < N; i++)
+        for (int j = 0; j < N; j++)
+          assertEquals(g.get(i, j), sg1.get(i, j), 1e-10);
+      double[] x = new double[N];
+      for (int i = 0; i < N; i++)
+        x[i] = rnd.nextGaussian();
+      double[] expected = new double[N];
+      g.mul(x, expected);
+      assertArrayEquals(expected, sg1.mul(x), 1e-10);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+}
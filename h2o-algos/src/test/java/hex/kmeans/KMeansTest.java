@@ -6,12 +6,15 @@ import hex.SplitFrame;
 import hex.genmodel.easy.EasyPredictModelWrapper;
 import org.junit.*;
 import water.DKV;
+import water.H2O;
 import water.Key;
 import water.Scope;
 import water.TestUtil;
 import water.exceptions.H2OModelBuilderIllegalArgumentException;
 import water.fvec.Frame;
 import water.fvec.NFSFileVec;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
 import water.parser.ParseDataset;
 import water.util.*;
 
@@ -684,4 +687,124 @@ public class KMeansTest extends TestUtil {
     }
   }
 
+  @Test public void testIrisMiniBatch() {
+    KMeansModel kmm = null, kmmMiniBatch = null;
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader_correct.csv");
+
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._train = fr._key;
+      parms._ignored_columns = new String[]{"species"};
+      parms._k = 3;
+      parms._standardize = true;
+      parms._max_iterations = 20;
+      parms._init = KMeans.Initialization.Furthest;
+      kmm = doSeed(parms, 1234);
+
+      parms._mini_batch_size = 30;
+      kmmMiniBatch = doSeed(parms, 1234);
+
+      Assert.assertEquals(1, kmmMiniBatch._output._iterations);
+      Assert.assertEquals(kmm._output._tot_withinss, kmmMiniBatch._output._tot_withinss, 0.1 * kmm._output._tot_withinss);
+    } finally {
+      if( fr  != null ) fr.delete();
+      if( kmm != null ) kmm.delete();
+      if( kmmMiniBatch != null ) kmmMiniBatch.delete();
+    }
+  }
+
+  @Test public void testHamerlySameAsLloyds() {
+    Scope.enter();
+    try {
+      Frame iris = Scope.track(parse_test_file("smalldata/iris/iris_wheader.csv")); // species is categorical
+      Frame weather = Scope.track(parse_test_file("smalldata/junit/weather.csv"));
+      for (Frame fr : new Frame[]{iris, weather}) {
+        for (long seed : new long[]{1, 42, 1234, 0xDECAF}) {
+          KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+          parms._train = fr._key;
+          if (fr == weather) parms._ignored_columns = new String[]{"Date"};
+          parms._k = 4;
+          parms._standardize = true;
+          parms._max_iterations = 50;
+          parms._init = KMeans.Initialization.PlusPlus;
+          KMeansModel hamerly = (KMeansModel) Scope.track_generic(doSeed(parms, seed));
+          KMeansModel lloyds;
+          System.setProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "kmeans.hamerly", "false");
+          try {
+            lloyds = (KMeansModel) Scope.track_generic(doSeed(parms, seed));
+          } finally {
+            System.clearProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "kmeans.hamerly");
+          }
+          String msg = fr._key + ", seed " + seed;
+          assertEquals(msg, lloyds._output._iterations, hamerly._output._iterations);
+          assertArrayEquals(msg, lloyds._output._size, hamerly._output._size);
+          assertArrayEquals(msg, lloyds._output._withinss, hamerly._output._withinss, 1e-10);
+          assertEquals(msg, lloyds._output._tot_withinss, hamerly._output._tot_withinss, 1e-10);
+          for (int c = 0; c < lloyds._output._centers_raw.length; c++)
+            assertArrayEquals(msg, lloyds._output._centers_raw[c], hamerly._output._centers_raw[c], 1e-10);
+          Frame lloydsAssignments = Scope.track(lloyds.score(fr));
+          Frame hamerlyAssignments = Scope.track(hamerly.score(fr));
+          assertVecEquals(lloydsAssignments.vec(0), hamerlyAssignments.vec(0), 0);
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testMiniBatchSampleSize() {
+    Scope.enter();
+    try {
+      final int nrows = 100000;
+      final long[] layout = {1, 30000, 999, 25000, 43000, 1000}; // uneven chunks, one with a single row
+      double[] x = new double[nrows], w = new double[nrows];
+      for (int r = 0; r < nrows; r++) {
+        x[r] = r;
+        w[r] = r % 4 == 0 ? 0 : 1; // every 4th row is held out
+      }
+      Frame fr = new TestFrameBuilder()
+              .withColNames("x", "w")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, x)
+              .withDataForCol(1, w)
+              .withChunkLayout(layout)
+              .build();
+      assertEquals(layout.length, fr.anyVec().nChunks());
+      final double[] means = {0};
+      final int[] modes = {-1};
+      final String[][] isCats = {null};
+      for (int miniBatchSize : new int[]{10, 100, 1000, 10000, nrows}) {
+        double prob = Math.min(1, (double) miniBatchSize / nrows);
+        double sd = Math.sqrt(nrows * prob * (1 - prob));
+        for (long seed : new long[]{1, 42, 0xBADDECAF}) {
+          double[][] sample = new KMeans.Sampler(means, null, modes, isCats, prob, seed, false).doAll(fr.vec("x"))._sampled;
+          assertEquals("batch " + miniBatchSize + ", seed " + seed, nrows * prob, sample.length, Math.max(1, 5 * sd));
+          // no row is sampled twice and the sample covers the whole frame
+          double[] rows = new double[sample.length];
+          for (int i = 0; i < sample.length; i++)
+            rows[i] = sample[i][0];
+          Arrays.sort(rows);
+          for (int i = 1; i < rows.length; i++)
+            assertTrue(rows[i - 1] < rows[i]);
+          if (miniBatchSize >= 1000) {
+            int inLastChunks = 0;
+            for (double r : rows)
+              if (r >= nrows - 44000) inLastChunks++;
+            assertEquals(0.44 * sample.length, inLastChunks, 5 * Math.sqrt(0.44 * 0.56 * sample.length));
+          }
+          // held out rows (zero weight) are never sampled
+          double[][] weighted = new KMeans.Sampler(means, null, modes, isCats, prob, seed, true).doAll(fr.vec("x"), fr.vec("w"))._sampled;
+          for (double[] row : weighted)
+            assertNotEquals(0, row[0] % 4, 0);
+          assertEquals(0.75 * nrows * prob, weighted.length, Math.max(1, 5 * sd));
+        }
+      }
+      double[][] all = new KMeans.Sampler(means, null, modes, isCats, 1, 42, false).doAll(fr.vec("x"))._sampled;
+      assertEquals(nrows, all.length);
+    } finally {
+      Scope.exit();
+    }
+  }
+
 }
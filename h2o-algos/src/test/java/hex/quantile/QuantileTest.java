@@ -7,6 +7,8 @@ import org.junit.Ignore;
 import org.junit.Test;
 import water.*;
 import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
 import water.util.ArrayUtils;
 
 import java.util.Arrays;
@@ -716,4 +718,93 @@ public class QuantileTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testSketchMatchesExact() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(parse_test_file("smalldata/iris/iris_wheader.csv"));
+      QuantileModel.QuantileParameters parms = new QuantileModel.QuantileParameters();
+      parms._train = fr._key;
+      QuantileModel exact = new Quantile(parms).trainModel().get();
+      Scope.track_generic(exact);
+
+      parms._method = QuantileModel.QuantileMethod.SKETCH;
+      parms._sketch_accuracy = 0.01;
+      QuantileModel sketch = new Quantile(parms).trainModel().get();
+      Scope.track_generic(sketch);
+
+      Assert.assertEquals(1, sketch._output._iterations);
+      for (int c = 0; c < 4; c++) { // numeric columns
+        double range = fr.vec(c).max() - fr.vec(c).min();
+        for (int p = 0; p < parms._probs.length; p++)
+          Assert.assertEquals(exact._output._quantiles[c][p], sketch._output._quantiles[c][p], 0.05 * range);
+      }
+      // categorical column is skipped
+      for (double q : sketch._output._quantiles[4])
+        Assert.assertTrue(Double.isNaN(q));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testSketchEmpty() {
+    Scope.enter();
+    try {
+      // all NAs and all zero weights give empty sketches
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withColNames("na", "x", "weights")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, new double[]{Double.NaN, Double.NaN, Double.NaN, Double.NaN})
+              .withDataForCol(1, new double[]{1, 2, 3, 4})
+              .withDataForCol(2, new double[]{0, 0, 0, 0})
+              .withChunkLayout(2, 2)
+              .build());
+      QuantileModel.QuantileParameters parms = new QuantileModel.QuantileParameters();
+      parms._train = fr._key;
+      parms._weights_column = "weights";
+      parms._ignore_const_cols = false;
+      parms._method = QuantileModel.QuantileMethod.SKETCH;
+      QuantileModel model = new Quantile(parms).trainModel().get();
+      Scope.track_generic(model);
+      for (double[] qs : model._output._quantiles)
+        for (double q : qs)
+          Assert.assertTrue(Double.isNaN(q));
+
+      // no rows at all
+      Frame empty = Scope.track(new TestFrameBuilder()
+              .withColNames("x")
+              .withVecTypes(Vec.T_NUM)
+              .withDataForCol(0, new double[0])
+              .build());
+      Quantile.SketchTask st = new Quantile.SketchTask(new boolean[]{false}, 0.01, false).doAll(empty);
+      Assert.assertTrue(st._sketches == null || Double.isNaN(st._sketches[0].quantile(0.5)));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testSketchMergeable() {
+    QuantileSketch all = new QuantileSketch(0.005);
+    QuantileSketch even = new QuantileSketch(0.005);
+    QuantileSketch odd = new QuantileSketch(0.005);
+    for (int i = 0; i < 100000; i++) {
+      all.add(i, 1);
+      (i % 2 == 0 ? even : odd).add(i, 1);
+    }
+    even.merge(odd);
+    Assert.assertEquals(100000, even.totalWeight(), 0);
+    for (double p : new double[]{0, 0.001, 0.25, 0.5, 0.75, 0.999, 1}) {
+      Assert.assertEquals(p * 99999, all.quantile(p), 0.005 * 100000);
+      Assert.assertEquals(p * 99999, even.quantile(p), 0.005 * 100000);
+    }
+    // small data is exact
+    QuantileSketch small = new QuantileSketch(0.01);
+    for (double d : new double[]{5, 1, 3, 2, 4})
+      small.add(d, 1);
+    Assert.assertEquals(3, small.quantile(0.5), 0);
+    Assert.assertEquals(1.4, small.quantile(0.1), 1e-10);
+  }
+
 }
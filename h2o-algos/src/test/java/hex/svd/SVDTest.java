@@ -14,11 +14,13 @@ import water.Key;
 import water.Scope;
 import water.TestUtil;
 import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
 import water.fvec.Vec;
 import water.util.FrameUtils;
 import water.util.Log;
 
 import java.util.Arrays;
+import java.util.Random;
 import java.util.concurrent.ExecutionException;
 
 public class SVDTest extends TestUtil {
@@ -190,6 +192,107 @@ public class SVDTest extends TestUtil {
     }
   }
 
+  @Test public void testArrestsSinglePass() throws InterruptedException, ExecutionException {
+    // Expected right singular values and vectors (the sketches span the whole column space for nv = ncol)
+    double[] d_expected = new double[] {11.024148, 6.964086, 4.179904, 2.915146};
+    double[][] v_expected = ard(ard(-0.5358995, 0.4181809, -0.3412327, 0.64922780),
+                                ard(-0.5831836, 0.1879856, -0.2681484, -0.74340748),
+                                ard(-0.2781909, -0.8728062, -0.3780158, 0.13387773),
+                                ard(-0.5434321, -0.1673186, 0.8177779, 0.08902432));
+    SVDModel model = null;
+    Frame train = null, score = null;
+    try {
+      train = parse_test_file(Key.make("arrests.hex"), "smalldata/pca_test/USArrests.csv");
+      SVDModel.SVDParameters parms = new SVDModel.SVDParameters();
+      parms._train = train._key;
+      parms._nv = 4;
+      parms._seed = 1234;
+      parms._keep_u = true;
+      parms._transform = DataInfo.TransformType.STANDARDIZE;
+      parms._svd_method = SVDParameters.Method.SinglePass;
+      parms._save_v_frame = false;
+
+      model = new SVD(parms).trainModel().get();
+      Assert.assertArrayEquals(d_expected, model._output._d, TOLERANCE);
+      TestUtil.checkEigvec(v_expected, model._output._v, TOLERANCE);
+      Frame u = DKV.getGet(model._output._u_key);
+      Assert.assertEquals(4, u.numCols());
+      for (int k = 0; k < u.numCols(); k++)  // columns of U have unit norm
+        Assert.assertEquals(1, u.vec(k).sigma() * u.vec(k).sigma() * (u.numRows() - 1) +
+                u.vec(k).mean() * u.vec(k).mean() * u.numRows(), TOLERANCE);
+      score = model.score(train);
+    } finally {
+      if (train != null) train.delete();
+      if (score != null) score.delete();
+      if (model != null) model.delete();
+    }
+  }
+
+  @Test public void testSinglePassLowRank() throws InterruptedException, ExecutionException {
+    final int nrows = 1200, ncols = 10, nv = 3;
+    // data of rank <= nv: the sketches (k = 2*nv+1 < ncols) span the column space, the factors are recovered exactly
+    for (int rank : new int[]{nv, nv - 1}) {
+      try {
+        Scope.enter();
+        Frame train = Scope.track(lowRankFrame(nrows, ncols, rank, 42 + rank));
+        SVDModel gram = (SVDModel) Scope.track_generic(new SVD(lowRankParms(train, nv, SVDParameters.Method.GramSVD)).trainModel().get());
+        Frame uGram = Scope.track(DKV.<Frame>getGet(gram._output._u_key));
+        SVDModel single = (SVDModel) Scope.track_generic(new SVD(lowRankParms(train, nv, SVDParameters.Method.SinglePass)).trainModel().get());
+        Frame u = Scope.track(DKV.<Frame>getGet(single._output._u_key));
+
+        Assert.assertEquals(rank, single._output._d.length);  // nv is reduced to the rank of the data
+        Assert.assertEquals(rank, u.numCols());
+        double[][] vGram = new double[ncols][rank];
+        for (int i = 0; i < ncols; i++)
+          vGram[i] = Arrays.copyOf(gram._output._v[i], rank);
+        for (int k = 0; k < rank; k++)
+          Assert.assertEquals(gram._output._d[k], single._output._d[k], TOLERANCE * gram._output._d[k]);
+        boolean[] flipped = TestUtil.checkEigvec(vGram, single._output._v, TOLERANCE);
+        for (int k = 0; k < rank; k++)
+          for (long r = 0; r < nrows; r++)
+            Assert.assertEquals(uGram.vec(k).at(r), flipped[k] ? -u.vec(k).at(r) : u.vec(k).at(r), TOLERANCE);
+      } finally {
+        Scope.exit();
+      }
+    }
+  }
+
+  private static SVDParameters lowRankParms(Frame train, int nv, SVDParameters.Method method) {
+    SVDParameters parms = new SVDParameters();
+    parms._train = train._key;
+    parms._nv = nv;
+    parms._seed = 1234;
+    parms._keep_u = true;
+    parms._transform = DataInfo.TransformType.NONE;
+    parms._svd_method = method;
+    parms._save_v_frame = false;
+    return parms;
+  }
+
+  // A = BC with B ~ N(0,1) of size nrows x rank and C ~ N(0,1) of size rank x ncols, spread over several chunks
+  private static Frame lowRankFrame(int nrows, int ncols, int rank, long seed) {
+    Random rng = new Random(seed);
+    double[][] b = new double[nrows][rank];
+    for (double[] row : b)
+      for (int j = 0; j < rank; j++)
+        row[j] = rng.nextGaussian() * (rank - j);  // distinct singular values
+    double[][] c = new double[rank][ncols];
+    for (double[] row : c)
+      for (int j = 0; j < ncols; j++)
+        row[j] = rng.nextGaussian();
+    TestFrameBuilder builder = new TestFrameBuilder()
+            .withUniformVecTypes(ncols, Vec.T_NUM)
+            .withChunkLayout(300, 500, 400);
+    for (int j = 0; j < ncols; j++) {
+      double[] col = new double[nrows];
+      for (int i = 0; i < nrows; i++)
+        for (int l = 0; l < rank; l++)
+          col[i] += b[i][l] * c[l][j];
+      builder.withDataForCol(j, col);
+    }
+    return builder.build();
+  }
+
   @Test public void testIrisGram() throws InterruptedException, ExecutionException {
     // Expected right singular values and vectors
     double[] d_expected = new double[] {96.2090445, 19.0425654, 7.2250378, 3.1636131, 1.8816739, 1.1451307, 0.5820806};
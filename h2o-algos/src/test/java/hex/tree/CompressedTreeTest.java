@@ -10,12 +10,15 @@ import hex.tree.gbm.GBMModel;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import water.DKV;
+import water.H2O;
 import water.Scope;
 import water.TestUtil;
 import water.fvec.Frame;
 import water.fvec.Vec;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -106,6 +109,73 @@ public class CompressedTreeTest extends TestUtil  {
     }
   }
 
+  @Test
+  public void testFlatTreeScoresLikeCompressedTree() {
+    try {
+      Scope.enter();
+      GBMModel model = trainMultinomialGbm();
+      double[][] data = frameToMatrix(getAdaptedTrainFrame(model));
+      double[] card = FlatTree.cardinalities(model._output._domains, model._output.nfeatures());
+      Random rnd = new Random(42);
+      for (double[] row : data) { // NAs and unseen levels follow the NA direction
+        int c = rnd.nextInt(model._output.nfeatures());
+        if (rnd.nextInt(10) == 0) row[c] = Double.NaN;
+        else if (rnd.nextInt(10) == 0 && model._output._domains[c] != null) row[c] = model._output._domains[c].length;
+      }
+      FlatTree[][] trees = FlatTree.compile(model._output._treeKeys);
+      assertNotNull(trees);
+      for (int t = 0; t < trees.length; t++) {
+        for (int k = 0; k < trees[t].length; k++) {
+          CompressedTree tree = model._output._treeKeys[t][k].get();
+          for (double[] row : data)
+            assertEquals(tree.score(row, model._output._domains), trees[t][k].score(row, card), 0);
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testFlatTreeBlockScoring() {
+    try {
+      Scope.enter();
+      GBMModel model = trainMultinomialGbm();
+      Frame f = getAdaptedTrainFrame(model);
+      Frame preds = Scope.track(model.score(f));
+      double[][] data = frameToMatrix(f);
+      double[] expected = new double[preds.numCols()];
+      for (int r = 0; r < data.length; r++) {
+        model.score0(Arrays.copyOf(data[r], model._output.nfeatures()), expected);
+        for (int c = 1; c < preds.numCols(); c++) // class probabilities
+          assertEquals(expected[c], preds.vec(c).at(r), 1e-8);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testFlatScoringCanBeTurnedOff() {
+    final String property = H2O.OptArgs.SYSTEM_PROP_PREFIX + "sharedtree.flat_scoring";
+    try {
+      Scope.enter();
+      GBMModel model = trainMultinomialGbm();
+      Frame f = getAdaptedTrainFrame(model);
+      Frame flat = Scope.track(model.score(f));
+      Frame rowWise;
+      System.setProperty(property, "false"); // same model, scored without a restart
+      try {
+        rowWise = Scope.track(model.score(f));
+      } finally {
+        System.clearProperty(property);
+      }
+      assertFrameEquals(rowWise, flat, 1e-8);
+    } finally {
+      Scope.exit();
+    }
+  }
+
   private static double[][] frameToMatrix(Frame f) {
     double[][] rows = new double[(int) f.numRows()][];
     for (int r = 0; r < rows.length; r++) {
@@ -126,6 +196,22 @@ public class CompressedTreeTest extends TestUtil  {
     return f;
   }
 
+  private GBMModel trainMultinomialGbm() {
+    Frame f = Scope.track(parse_test_file("smalldata/logreg/prostate.csv"));
+    for (String col : new String[]{"RACE", "DPROS"})
+      f.replace(f.find(col), f.vec(col).toCategoricalVec()).remove();
+    DKV.put(f._key, f);
+
+    GBMModel.GBMParameters gbmParams = new GBMModel.GBMParameters();
+    gbmParams._seed = 123;
+    gbmParams._train = f._key;
+    gbmParams._ignored_columns = new String[]{"ID"};
+    gbmParams._response_column = "DPROS";
+    gbmParams._ntrees = 10;
+    gbmParams._max_depth = 6;
+    return (GBMModel) Scope.track_generic(new GBM(gbmParams).trainModel().get());
+  }
+
   private GBMModel trainGbm(final int ntrees) {
     Frame f = Scope.track(parse_test_file("smalldata/logreg/prostate.csv"));
 
@@ -2,12 +2,17 @@ package hex.tree;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
+import water.AutoBuffer;
 import water.DKV;
 import water.Key;
 import water.Scope;
 import water.TestUtil;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -115,4 +120,260 @@ public class DHistogramTest extends TestUtil {
     }
   }
 
+  @Test
+  public void setDifferenceMatchesHistogramOfTheRows() {
+    for (SharedTreeModel.SharedTreeParameters.HistogramType type : new SharedTreeModel.SharedTreeParameters.HistogramType[]{
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, SharedTreeModel.SharedTreeParameters.HistogramType.Random}) {
+      DHistogram parent = new DHistogram("parent", 20, 1024, (byte) 0, -5, 5, true, -0.001, type, 42L, null, null);
+      parent.init();
+      DHistogram left = DHistogram.makeWithLayoutOf(parent, true);
+      DHistogram right = DHistogram.makeWithLayoutOf(parent, true);
+      DHistogram derived = DHistogram.makeWithLayoutOf(parent, true);
+      assertTrue(left.hasSameLayout(parent));
+      assertTrue(derived.hasSameLayout(parent));
+      left.init();
+      right.init();
+
+      Random rnd = new Random(0xCAFE);
+      for (int i = 0; i < 1000; i++) {
+        double x = i % 50 == 0 ? Double.NaN : rnd.nextDouble() * 6 - 3;
+        double y = rnd.nextGaussian();
+        double w = 1 + rnd.nextInt(3);
+        parent.incr(x, y, w);
+        if (rnd.nextBoolean()) left.incr(x, y, w);
+        else right.incr(x, y, w);
+      }
+      derived.setDifference(parent, left);
+
+      for (int b = 0; b < parent.nbins(); b++) {
+        assertEquals(right.w(b), derived.w(b), 1e-8);
+        assertEquals(right.wY(b), derived.wY(b), 1e-8);
+        assertEquals(right.wYY(b), derived.wYY(b), 1e-8);
+      }
+      assertEquals(right.wNA(), derived.wNA(), 1e-8);
+      assertEquals(right.wYNA(), derived.wYNA(), 1e-8);
+      // bounds are estimated conservatively from the bins
+      assertTrue(derived.find_min() <= right.find_min());
+      assertTrue(derived.find_maxIn() >= right.find_maxIn());
+      assertTrue(derived.find_min() >= parent.find_min());
+      assertTrue(derived.find_maxIn() <= parent.find_maxIn());
+    }
+  }
+
+  @Test
+  public void updateHistoBinnedMatchesUpdateHisto() {
+    Scope.enter();
+    try {
+      Random rnd = new Random(42);
+      double[] values = new double[5000];
+      for (int i = 0; i < values.length; i++)
+        values[i] = i % 97 == 0 ? Double.NaN : rnd.nextGaussian() * 10;
+      Vec v = Scope.track(Vec.makeVec(values, Vec.newKey()));
+      Frame fr = new Frame(new String[]{"x"}, new Vec[]{v});
+
+      SharedTreeModel.SharedTreeParameters parms = new hex.tree.gbm.GBMModel.GBMParameters();
+      DHistogram[] layouts = PreBinning.layouts(fr, 1, 256, parms, new Key[1]);
+      assertNotNull(layouts);
+      Frame binned = Scope.track(PreBinning.binIndices(fr, layouts, null));
+      Chunk raw = v.chunkForChunkIdx(0);
+      int[] bins = binned.vec(0).chunkForChunkIdx(0).getIntegers(new int[raw._len], 0, raw._len, -1);
+
+      double[] ws = new double[raw._len];
+      double[] ys = new double[raw._len];
+      int[] rows = new int[raw._len];
+      int nrows = 0;
+      for (int r = 0; r < raw._len; r++) {
+        assertEquals(layouts[0].bin(raw.atd(r)), bins[r]);
+        ws[r] = rnd.nextInt(4) == 0 ? 0 : 1;
+        ys[r] = rnd.nextDouble();
+        if (rnd.nextBoolean()) rows[nrows++] = r;
+      }
+
+      DHistogram h1 = DHistogram.make("x", 256, (byte) 0, v.min(), DHistogram.find_maxEx(v.max(), 0), true, 42, parms, null, null);
+      DHistogram h2 = DHistogram.make("x", 256, (byte) 0, v.min(), DHistogram.find_maxEx(v.max(), 0), true, 42, parms, null, null);
+      assertTrue(h1.hasSameBins(layouts[0]));
+      h1.init();
+      h2.init();
+      h1.updateHisto(ws, null, raw.getDoubles(new double[raw._len], 0, raw._len), ys, null, rows, nrows, 0);
+      h2.updateHistoBinned(ws, null, bins, raw, ys, null, rows, nrows, 0);
+      assertArrayEquals(h1._vals, h2._vals, 0);
+      assertEquals(h1.find_min(), h2.find_min(), 0);
+      assertEquals(h1.find_maxIn(), h2.find_maxIn(), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void packedHistogramSurvivesSerialization() {
+    SharedTreeModel.SharedTreeParameters parms = new hex.tree.gbm.GBMModel.GBMParameters();
+    DHistogram h = DHistogram.make("x", 1000, (byte) 1, 0, 1000, false, 42, parms, null, null);
+    h.init();
+    Random rnd = new Random(42);
+    int nrows = 50;
+    double[] cs = new double[nrows], ws = new double[nrows], ys = new double[nrows];
+    int[] rows = new int[nrows];
+    for (int r = 0; r < nrows; r++) {
+      cs[r] = rnd.nextInt(1000);
+      ws[r] = 1 + rnd.nextInt(3);
+      ys[r] = rnd.nextGaussian();
+      rows[r] = r;
+    }
+    h.updateHisto(ws, null, cs, ys, null, rows, nrows, 0);
+    double[] vals = h._vals.clone();
+    int size = new AutoBuffer().put(h).buf().length;
+
+    h.pack();
+    byte[] packed = new AutoBuffer().put(h).buf();
+    assertTrue(packed.length < size / 10);
+    DHistogram h2 = new AutoBuffer(packed).get();
+    assertNull(h2._vals);
+    h2.unpack();
+    assertArrayEquals(vals, h2._vals, 0);
+    assertEquals(h.find_min(), h2.find_min(), 0);
+    assertEquals(h.find_maxIn(), h2.find_maxIn(), 0);
+  }
+
+  @Test
+  public void droppedBinsKeepRangesOfNextLevel() {
+    SharedTreeModel.SharedTreeParameters parms = new hex.tree.gbm.GBMModel.GBMParameters();
+    DHistogram[] hs = new DHistogram[2];
+    for (int c = 0; c < hs.length; c++) {
+      hs[c] = new DHistogram("x" + c, 20, 1024, (byte) 0, -5, 5, true, -0.001,
+              SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null);
+      hs[c].init();
+    }
+    Random rnd = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      double x0 = rnd.nextDouble() * 6 - 3;
+      double x1 = i % 20 == 0 ? Double.NaN : rnd.nextDouble() * 8 - 4;
+      double y = x0 > 0 ? 1 + rnd.nextGaussian() : rnd.nextGaussian();
+      hs[0].incr(x0, y, 1);
+      hs[1].incr(x1, y, 1);
+    }
+    DTree.Split split = DTree.findBestSplitPoint(hs[0], 0, parms._min_rows, null);
+    assertNotNull(split);
+    float splat = split.splat(hs);
+
+    DHistogram[] dropped = new DHistogram[]{hs[0], (DHistogram) new AutoBuffer(new AutoBuffer().put(hs[1]).buf()).get()};
+    dropped[1].dropBins();
+    assertNull(dropped[1]._vals);
+    assertTrue(dropped[1].hasNABin());
+    for (int way = 0; way < 2; way++) {
+      DHistogram[] expected = split.nextLevelHistos(hs, way, splat, parms, null);
+      DHistogram[] actual = split.nextLevelHistos(dropped, way, splat, parms, null);
+      assertEquals(expected[1]._min, actual[1]._min, 0);
+      assertEquals(expected[1]._maxEx, actual[1]._maxEx, 0);
+      assertEquals(expected[1].nbins(), actual[1].nbins());
+      assertEquals(expected[1]._initNA, actual[1]._initNA);
+    }
+  }
+
+  @Test
+  public void bundledHistogramsMatchUpdateHisto() {
+    Scope.enter();
+    try {
+      Random rnd = new Random(42);
+      int nrows = 5000;
+      String[] names = {"a", "b", "c", "dense"};
+      Vec[] vecs = new Vec[names.length];
+      for (int c = 0; c < vecs.length; c++) {
+        double[] values = new double[nrows];
+        for (int r = 0; r < nrows; r++) {
+          if (c == 3) values[r] = rnd.nextInt(5);
+          else if (r % 30 == 10 * c) values[r] = r % 300 == 10 * c ? Double.NaN : 1 + rnd.nextInt(6); // mutually exclusive
+        }
+        vecs[c] = Scope.track(Vec.makeVec(values, Vec.newKey()));
+      }
+      Frame fr = new Frame(names, vecs);
+
+      SharedTreeModel.SharedTreeParameters parms = new hex.tree.gbm.GBMModel.GBMParameters();
+      DHistogram[] layouts = PreBinning.layouts(fr, vecs.length, 20, parms, new Key[vecs.length]);
+      assertNotNull(layouts);
+      FeatureBundles bundles = FeatureBundles.find(fr, vecs.length, layouts);
+      assertNotNull(bundles);
+      assertEquals(1, bundles.numBundles());
+      assertEquals(3, bundles.numBundled());
+      assertFalse(bundles.isBundled(3));
+      Frame bundled = Scope.track(bundles.encode(fr, layouts));
+      int[] codes = bundled.vec(0).chunkForChunkIdx(0).getIntegers(new int[nrows], 0, nrows, -1);
+
+      double[] ws = new double[nrows];
+      double[] ys = new double[nrows];
+      int[] rows = new int[nrows];
+      for (int r = 0; r < nrows; r++) {
+        ws[r] = rnd.nextInt(4) == 0 ? 0 : 1;
+        ys[r] = rnd.nextDouble();
+        rows[r] = r;
+      }
+      for (int c = 0; c < 3; c++) {
+        int pos = bundles._cols[0][c];
+        Vec v = vecs[pos];
+        DHistogram h1 = DHistogram.make(names[pos], 20, (byte) 1, v.min(), DHistogram.find_maxEx(v.max(), 1), true, 42, parms, null, null);
+        DHistogram h2 = DHistogram.make(names[pos], 20, (byte) 1, v.min(), DHistogram.find_maxEx(v.max(), 1), true, 42, parms, null, null);
+        assertTrue(h2.hasSameBins(layouts[pos]));
+        h1.init();
+        h1.updateHisto(ws, null, v.chunkForChunkIdx(0).getDoubles(new double[nrows], 0, nrows), ys, null, rows, nrows, 0);
+        double[] totals = new double[3];
+        for (int r = 0; r < nrows; r++) {
+          if (ws[r] == 0) continue;
+          totals[0] += ws[r];
+          totals[1] += ws[r] * ys[r];
+          totals[2] += ws[r] * ys[r] * ys[r];
+          if (codes[r] != 0 && bundles._posOf[0][codes[r]] == c)
+            h2.updateHistoBundled(bundles._binOf[0][codes[r]], v.at(r), ws[r], ys[r]);
+        }
+        h2.addZeros(totals);
+        assertArrayEquals(h1._vals, h2._vals, 1e-8);
+        assertEquals(h1.find_min(), h2.find_min(), 0);
+        assertEquals(h1.find_maxIn(), h2.find_maxIn(), 0);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void sparseHistogramsMatchUpdateHisto() {
+    Scope.enter();
+    try {
+      Random rnd = new Random(42);
+      int nrows = 5000;
+      double[] values = new double[nrows];
+      for (int r = 0; r < nrows; r += 1 + rnd.nextInt(40))
+        values[r] = r % 7 == 0 ? Double.NaN : rnd.nextGaussian();
+      Vec v = Scope.track(Vec.makeVec(values, Vec.newKey()));
+      Chunk chk = v.chunkForChunkIdx(0);
+      assertTrue(chk.isSparseZero());
+
+      double[] ws = new double[nrows];
+      double[] ys = new double[nrows];
+      int[] rows = new int[nrows];
+      double[] totals = new double[3];
+      for (int r = 0; r < nrows; r++) {
+        ws[r] = rnd.nextInt(4) == 0 ? 0 : 1 + rnd.nextInt(2);
+        ys[r] = rnd.nextDouble();
+        rows[r] = r;
+        totals[0] += ws[r];
+        totals[1] += ws[r] * ys[r];
+        totals[2] += ws[r] * ys[r] * ys[r];
+      }
+      SharedTreeModel.SharedTreeParameters parms = new hex.tree.gbm.GBMModel.GBMParameters();
+      DHistogram h1 = DHistogram.make("x", 20, (byte) 0, v.min(), DHistogram.find_maxEx(v.max(), 0), true, 42, parms, null, null);
+      DHistogram h2 = DHistogram.make("x", 20, (byte) 0, v.min(), DHistogram.find_maxEx(v.max(), 0), true, 42, parms, null, null);
+      h1.init();
+      h1.updateHisto(ws, null, chk.getDoubles(new double[nrows], 0, nrows), ys, null, rows, nrows, 0);
+      h2.init();
+      for (int r = chk.nextNZ(-1, true); r < nrows; r = chk.nextNZ(r, true))
+        if (ws[r] != 0)
+          h2.updateHistoSparse(chk.atd(r), ws[r], ys[r]);
+      h2.addZeros(totals);
+      assertArrayEquals(h1._vals, h2._vals, 1e-8);
+      assertEquals(h1.find_min(), h2.find_min(), 0);
+      assertEquals(h1.find_maxIn(), h2.find_maxIn(), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
 }
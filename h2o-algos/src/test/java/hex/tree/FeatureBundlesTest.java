@@ -0,0 +1,114 @@
+package hex.tree;
+
+import hex.genmodel.algos.tree.SharedTreeNode;
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import water.H2O;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.runner.CloudSize;
+import water.runner.H2ORunner;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@RunWith(H2ORunner.class)
+@CloudSize(1)
+public class FeatureBundlesTest extends TestUtil {
+
+  static final String BUNDLING_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "sharedtree.feature_bundling";
+  private static final int NSPARSE = 20;
+
+  @Test
+  public void testBundlingDoesNotChangeTheModel() {
+    Scope.enter();
+    try {
+      Frame train = makeSparseFrame(10000, 0xFEA7);
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._response_column = "y";
+      parms._ntrees = 5;
+      parms._max_depth = 5;
+      parms._histogram_type = SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive;
+      parms._seed = 42;
+
+      // the sparse predictors are bundled
+      DHistogram[] layouts = PreBinning.layouts(train, NSPARSE + 1, Math.max(parms._nbins_top_level, parms._nbins), parms, null);
+      FeatureBundles bundles = FeatureBundles.find(train, NSPARSE + 1, layouts);
+      assertNotNull(bundles);
+      assertEquals(NSPARSE, bundles.numBundled());
+
+      GBMModel bundled = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+      GBMModel notBundled;
+      System.setProperty(BUNDLING_PROPERTY, "false");
+      try {
+        assertNull(FeatureBundles.find(train, NSPARSE + 1, layouts));
+        notBundled = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+      } finally {
+        System.clearProperty(BUNDLING_PROPERTY);
+      }
+
+      for (int t = 0; t < parms._ntrees; t++)
+        assertSameTree(notBundled.getSharedTreeSubgraph(t, 0).rootNode, bundled.getSharedTreeSubgraph(t, 0).rootNode);
+      Frame predsBundled = Scope.track(bundled.score(train));
+      Frame predsNotBundled = Scope.track(notBundled.score(train));
+      assertFrameEquals(predsNotBundled, predsBundled, 1e-6);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  static void assertSameTree(SharedTreeNode expected, SharedTreeNode actual) {
+    assertEquals(expected.isLeaf(), actual.isLeaf());
+    if (expected.isLeaf()) {
+      assertEquals(expected.getPredValue(), actual.getPredValue(), 1e-6);
+      return;
+    }
+    assertEquals(expected.getColName(), actual.getColName());
+    assertEquals(expected.getSplitValue(), actual.getSplitValue(), 0);
+    assertEquals(expected.isNaVsRest(), actual.isNaVsRest());
+    assertEquals(expected.isLeftward(), actual.isLeftward());
+    assertSameTree(expected.getLeftChild(), actual.getLeftChild());
+    assertSameTree(expected.getRightChild(), actual.getRightChild());
+  }
+
+  // mutually exclusive sparse predictors (like one-hot encoded columns), one dense predictor and the response
+  static Frame makeSparseFrame(int nrows, long seed) {
+    Random rnd = new Random(seed);
+    double[][] sparse = new double[NSPARSE][nrows];
+    double[] dense = new double[nrows];
+    double[] y = new double[nrows];
+    for (int r = 0; r < nrows; r++) {
+      int c = rnd.nextInt(2 * NSPARSE);
+      if (c < NSPARSE)
+        sparse[c][r] = 1 + rnd.nextInt(5);
+      dense[r] = rnd.nextGaussian();
+      y[r] = dense[r] + (c < NSPARSE ? (c % 5 - 2) * sparse[c][r] : 0) + 0.1 * rnd.nextGaussian();
+    }
+    String[] names = new String[NSPARSE + 2];
+    for (int c = 0; c < NSPARSE; c++)
+      names[c] = "s" + c;
+    names[NSPARSE] = "x";
+    names[NSPARSE + 1] = "y";
+    byte[] types = new byte[names.length];
+    Arrays.fill(types, Vec.T_NUM);
+    TestFrameBuilder builder = new TestFrameBuilder()
+            .withColNames(names)
+            .withVecTypes(types)
+            .withChunkLayout(4000, 3000, nrows - 7000);
+    for (int c = 0; c < NSPARSE; c++)
+      builder.withDataForCol(c, sparse[c]);
+    return builder
+            .withDataForCol(NSPARSE, dense)
+            .withDataForCol(NSPARSE + 1, y)
+            .build();
+  }
+
+}
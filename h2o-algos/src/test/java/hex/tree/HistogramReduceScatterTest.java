@@ -0,0 +1,75 @@
+package hex.tree;
+
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import water.H2O;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.runner.CloudSize;
+import water.runner.H2ORunner;
+
+import static hex.tree.FeatureBundlesTest.assertSameTree;
+import static org.junit.Assert.*;
+
+@RunWith(H2ORunner.class)
+@CloudSize(1)
+public class HistogramReduceScatterTest extends TestUtil {
+
+  private static final String SCATTER_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "sharedtree.histogram.reduce_scatter";
+  private static final String FORCE_PROPERTY = SCATTER_PROPERTY + ".force";
+  private static final String CHECK_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "sharedtree.histogram_subtraction.check";
+
+  @Test
+  public void testSameTreesWithoutHistogramSubtraction() {
+    checkSameTrees(false);
+  }
+
+  @Test
+  public void testSameTreesWithHistogramSubtraction() {
+    checkSameTrees(true);
+  }
+
+  private void checkSameTrees(boolean histogramSubtraction) {
+    Scope.enter();
+    try {
+      Frame train = HistogramSubtractionTest.prostate();
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._response_column = "CAPSULE";
+      parms._ntrees = 5;
+      parms._max_depth = 6;
+      parms._seed = 42;
+      parms._histogram_subtraction = histogramSubtraction;
+
+      GBMModel reduced = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+      GBMModel scattered;
+      System.setProperty(SCATTER_PROPERTY, "true");
+      System.setProperty(FORCE_PROPERTY, "true");
+      System.setProperty(CHECK_PROPERTY, "true");
+      try {
+        assertTrue(HistogramReduceScatter.isEnabled(false));
+        long checked = ScoreBuildHistogram2.CHECKED_DERIVED.get();
+        scattered = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+        // the histograms kept on the nodes are incomplete, none can be derived from them
+        assertEquals(checked, ScoreBuildHistogram2.CHECKED_DERIVED.get());
+      } finally {
+        System.clearProperty(SCATTER_PROPERTY);
+        System.clearProperty(FORCE_PROPERTY);
+        System.clearProperty(CHECK_PROPERTY);
+      }
+      assertEquals(0, HistogramReduceScatter.numLocal());
+
+      for (int t = 0; t < parms._ntrees; t++)
+        assertSameTree(reduced.getSharedTreeSubgraph(t, 0).rootNode, scattered.getSharedTreeSubgraph(t, 0).rootNode);
+      Frame predsReduced = Scope.track(reduced.score(train));
+      Frame predsScattered = Scope.track(scattered.score(train));
+      assertFrameEquals(predsReduced, predsScattered, 1e-6);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+}
@@ -0,0 +1,80 @@
+package hex.tree;
+
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import water.DKV;
+import water.H2O;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.runner.CloudSize;
+import water.runner.H2ORunner;
+
+import static org.junit.Assert.*;
+
+@RunWith(H2ORunner.class)
+@CloudSize(1)
+public class HistogramSubtractionTest extends TestUtil {
+
+  private static final String CHECK_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "sharedtree.histogram_subtraction.check";
+
+  @Test
+  public void testDerivedHistogramsMatchHistogramsOfTheData() {
+    Scope.enter();
+    try {
+      System.setProperty(CHECK_PROPERTY, "true");
+      Frame train = prostate();
+      long checked = ScoreBuildHistogram2.CHECKED_DERIVED.get();
+
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._response_column = "CAPSULE";
+      parms._ntrees = 5;
+      parms._max_depth = 6;
+      parms._seed = 42;
+      parms._histogram_subtraction = true;
+      // every derived histogram is compared to the histogram computed from the data, a mismatch fails the model
+      Scope.track_generic(new GBM(parms).trainModel().get());
+
+      assertTrue(ScoreBuildHistogram2.CHECKED_DERIVED.get() > checked);
+    } finally {
+      System.clearProperty(CHECK_PROPERTY);
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testNoHistogramsDerivedWithoutSubtraction() {
+    Scope.enter();
+    try {
+      System.setProperty(CHECK_PROPERTY, "true");
+      Frame train = prostate();
+      long checked = ScoreBuildHistogram2.CHECKED_DERIVED.get();
+
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._response_column = "CAPSULE";
+      parms._ntrees = 2;
+      parms._max_depth = 4;
+      parms._seed = 42;
+      Scope.track_generic(new GBM(parms).trainModel().get());
+
+      assertEquals(checked, ScoreBuildHistogram2.CHECKED_DERIVED.get());
+    } finally {
+      System.clearProperty(CHECK_PROPERTY);
+      Scope.exit();
+    }
+  }
+
+  static Frame prostate() {
+    Frame train = Scope.track(parse_test_file("./smalldata/logreg/prostate.csv"));
+    train.remove("ID").remove();
+    int ci = train.find("CAPSULE");
+    Scope.track(train.replace(ci, train.vecs()[ci].toCategoricalVec()));
+    DKV.put(train);
+    return train;
+  }
+
+}
@@ -0,0 +1,75 @@
+package hex.tree;
+
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import water.H2O;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.runner.CloudSize;
+import water.runner.H2ORunner;
+
+import static hex.tree.FeatureBundlesTest.assertSameTree;
+
+@RunWith(H2ORunner.class)
+@CloudSize(1)
+public class LevelSplitSearchTest extends TestUtil {
+
+  private static final String SEARCH_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "sharedtree.level_split_search";
+
+  @Test
+  public void testSameSplitsMultinomial() {
+    Scope.enter();
+    try {
+      Frame train = Scope.track(parse_test_file("smalldata/iris/iris_wheader.csv"));
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._response_column = "class";
+      parms._ntrees = 5;
+      parms._max_depth = 5;
+      parms._min_rows = 2;
+      parms._seed = 42;
+      checkSameSplits(parms, 3);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testSameSplitsManyBins() {
+    Scope.enter();
+    try {
+      Frame train = HistogramSubtractionTest.prostate();
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._response_column = "CAPSULE";
+      parms._ntrees = 5;
+      parms._max_depth = 6;
+      parms._nbins = 1000; // the columns of a node are searched concurrently too
+      parms._nbins_top_level = 1024;
+      parms._seed = 42;
+      checkSameSplits(parms, 1);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static void checkSameSplits(GBMModel.GBMParameters parms, int nclasses) {
+    GBMModel concurrent = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+    GBMModel sequential;
+    System.setProperty(SEARCH_PROPERTY, "false");
+    try {
+      sequential = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+    } finally {
+      System.clearProperty(SEARCH_PROPERTY);
+    }
+    for (int t = 0; t < parms._ntrees; t++)
+      for (int c = 0; c < nclasses; c++)
+        assertSameTree(sequential.getSharedTreeSubgraph(t, c).rootNode, concurrent.getSharedTreeSubgraph(t, c).rootNode);
+    Frame train = parms.train();
+    assertFrameEquals(Scope.track(sequential.score(train)), Scope.track(concurrent.score(train)), 1e-6);
+  }
+
+}
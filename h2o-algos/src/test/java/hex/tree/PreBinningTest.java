@@ -0,0 +1,50 @@
+package hex.tree;
+
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import water.H2O;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.runner.CloudSize;
+import water.runner.H2ORunner;
+
+import static hex.tree.FeatureBundlesTest.assertSameTree;
+
+@RunWith(H2ORunner.class)
+@CloudSize(1)
+public class PreBinningTest extends TestUtil {
+
+  private static final String PREBINNING_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "sharedtree.prebinning";
+
+  @Test
+  public void testSameTreesWithoutPreBinning() {
+    Scope.enter();
+    try {
+      Frame train = HistogramSubtractionTest.prostate();
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._response_column = "CAPSULE";
+      parms._ntrees = 5;
+      parms._max_depth = 6;
+      parms._seed = 42;
+
+      GBMModel binned = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+      GBMModel raw;
+      System.setProperty(PREBINNING_PROPERTY, "false");
+      try {
+        raw = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+      } finally {
+        System.clearProperty(PREBINNING_PROPERTY);
+      }
+      for (int t = 0; t < parms._ntrees; t++)
+        assertSameTree(raw.getSharedTreeSubgraph(t, 0).rootNode, binned.getSharedTreeSubgraph(t, 0).rootNode);
+      assertFrameEquals(Scope.track(raw.score(train)), Scope.track(binned.score(train)), 1e-6);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+}
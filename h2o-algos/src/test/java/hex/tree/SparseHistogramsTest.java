@@ -0,0 +1,54 @@
+package hex.tree;
+
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import water.H2O;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.runner.CloudSize;
+import water.runner.H2ORunner;
+
+import static hex.tree.FeatureBundlesTest.BUNDLING_PROPERTY;
+import static hex.tree.FeatureBundlesTest.assertSameTree;
+import static hex.tree.FeatureBundlesTest.makeSparseFrame;
+
+@RunWith(H2ORunner.class)
+@CloudSize(1)
+public class SparseHistogramsTest extends TestUtil {
+
+  private static final String SPARSE_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "sharedtree.sparse_histograms";
+
+  @Test
+  public void testSameTreesWithoutSparseHistograms() {
+    Scope.enter();
+    System.setProperty(BUNDLING_PROPERTY, "false"); // the sparse columns are scored one by one
+    try {
+      Frame train = makeSparseFrame(10000, 0x5BA5);
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._response_column = "y";
+      parms._ntrees = 5;
+      parms._max_depth = 5;
+      parms._seed = 42;
+
+      GBMModel sparse = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+      GBMModel dense;
+      System.setProperty(SPARSE_PROPERTY, "false");
+      try {
+        dense = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+      } finally {
+        System.clearProperty(SPARSE_PROPERTY);
+      }
+      for (int t = 0; t < parms._ntrees; t++)
+        assertSameTree(dense.getSharedTreeSubgraph(t, 0).rootNode, sparse.getSharedTreeSubgraph(t, 0).rootNode);
+      assertFrameEquals(Scope.track(dense.score(train)), Scope.track(sparse.score(train)), 1e-6);
+    } finally {
+      System.clearProperty(BUNDLING_PROPERTY);
+      Scope.exit();
+    }
+  }
+
+}
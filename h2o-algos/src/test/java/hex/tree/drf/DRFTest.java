@@ -2042,4 +2042,36 @@ public class DRFTest extends TestUtil {
         }
 
     }
+
+  @Test
+  public void testIncrementalValidationScoringMatchesFullScoring() {
+    try {
+      Scope.enter();
+      Frame train = Scope.track(parse_test_file("smalldata/logreg/prostate_train.csv"));
+      Frame valid = Scope.track(parse_test_file("smalldata/logreg/prostate_test.csv"));
+      for (Frame f : new Frame[]{train, valid}) {
+        f.replace(f.find("CAPSULE"), f.vec("CAPSULE").toCategoricalVec()).remove();
+        f.replace(f.find("RACE"), f.vec("RACE").toCategoricalVec()).remove();
+        DKV.put(f);
+      }
+      for (String response : new String[]{"CAPSULE", "RACE", "AGE"}) {
+        DRFModel.DRFParameters parms = new DRFModel.DRFParameters();
+        parms._train = train._key;
+        parms._valid = valid._key;
+        parms._response_column = response;
+        parms._ntrees = 10;
+        parms._score_each_iteration = true; // validation frame is scored incrementally after each tree
+        parms._seed = 42;
+        DRFModel drf = new DRF(parms).trainModel().get();
+        Scope.track_generic(drf);
+
+        Scope.track(drf.score(valid));
+        hex.ModelMetrics mm = hex.ModelMetrics.getFromDKV(drf, valid);
+        assertEquals(response, mm.mse(), drf._output._validation_metrics.mse(), 1e-8);
+        assertEquals(response, mm.mse(), drf._output._scored_valid[drf._output._ntrees]._mse, 1e-8);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
 }
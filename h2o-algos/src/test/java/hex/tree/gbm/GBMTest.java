@@ -14,6 +14,7 @@ import hex.genmodel.easy.prediction.MultinomialModelPrediction;
 import hex.genmodel.tools.PredictCsv;
 import hex.genmodel.utils.DistributionFamily;
 import hex.tree.Constraints;
+import hex.tree.ScoreBuildHistogram;
 import hex.tree.SharedTreeModel;
 import org.junit.*;
 import org.junit.contrib.java.lang.system.ProvideSystemProperty;
@@ -4293,4 +4294,146 @@ public class GBMTest extends TestUtil {
       Scope.exit();
     }
   }
+
+  @Test
+  public void testHistogramSubtraction() {
+    Scope.enter();
+    try {
+      Frame train = Scope.track(parse_test_file("./smalldata/logreg/prostate.csv"));
+      train.remove("ID").remove();
+      int ci = train.find("CAPSULE");
+      Scope.track(train.replace(ci, train.vecs()[ci].toCategoricalVec()));
+      DKV.put(train);
+
+      GBMModel.GBMParameters parms = makeGBMParameters();
+      parms._train = train._key;
+      parms._response_column = "CAPSULE";
+      parms._ntrees = 20;
+      parms._max_depth = 6;
+      parms._seed = 42;
+      GBMModel gbm = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+
+      parms._histogram_subtraction = true;
+      GBMModel gbmSubtraction = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+
+      // children keep the bins of the parent, the trees differ slightly but the fit needs to be comparable
+      double auc = ((ModelMetricsBinomial) gbm._output._training_metrics).auc_obj()._auc;
+      double aucSubtraction = ((ModelMetricsBinomial) gbmSubtraction._output._training_metrics).auc_obj()._auc;
+      assertEquals(auc, aucSubtraction, 0.05);
+      assertEquals(gbm._output._ntrees, gbmSubtraction._output._ntrees);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testGoss() {
+    Scope.enter();
+    try {
+      Frame train = Scope.track(parse_test_file("./smalldata/logreg/prostate.csv"));
+      train.remove("ID").remove();
+      int ci = train.find("CAPSULE");
+      Scope.track(train.replace(ci, train.vecs()[ci].toCategoricalVec()));
+      DKV.put(train);
+
+      GBMModel.GBMParameters parms = makeGBMParameters();
+      parms._train = train._key;
+      parms._response_column = "CAPSULE";
+      parms._ntrees = 20;
+      parms._seed = 42;
+      GBMModel gbm = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+
+      parms._goss_top_rate = 0.2;
+      parms._goss_other_rate = 0.3;
+      GBMModel gbmGoss = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+      assertEquals(20, gbmGoss._output._ntrees);
+
+      double auc = ((ModelMetricsBinomial) gbm._output._training_metrics).auc_obj()._auc;
+      double aucGoss = ((ModelMetricsBinomial) gbmGoss._output._training_metrics).auc_obj()._auc;
+      assertEquals(auc, aucGoss, 0.05);
+
+      parms._sample_rate = 0.5;
+      GBM invalid = new GBM(parms);
+      assertTrue(invalid.error_count() > 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testGossSample() {
+    Scope.enter();
+    try {
+      final int n = 20000;
+      final double topRate = 0.2, otherRate = 0.3;
+      double[] grads = new double[n];
+      for (int i = 0; i < n; i++)
+        grads[i] = (i * 7919) % n; // distinct gradient magnitudes in a shuffled order
+      Frame grad = new TestFrameBuilder()
+              .withColNames("AbsGradient")
+              .withVecTypes(Vec.T_NUM)
+              .withDataForCol(0, grads)
+              .withChunkLayout(5000, 5000, 5000, 5000)
+              .build();
+      Vec absGrad = grad.vec(0);
+      Vec nids = Scope.track(absGrad.makeVolatileInts(new int[]{0})[0]);
+      Vec gossWeights = Scope.track(absGrad.makeVolatileDoubles(1)[0]);
+
+      // same inputs as in GBMDriver.sampleGoss
+      double threshold = MathUtils.computeWeightedQuantile(null, absGrad, 1 - topRate);
+      double amplification = (1 - topRate) / otherRate;
+      new GBM.GossSample(-1, 0, new boolean[]{true}, threshold, otherRate / (1 - topRate), amplification, 42)
+              .doAll(new Frame(nids, absGrad, gossWeights));
+
+      int top = 0, other = 0;
+      double sumWeights = 0;
+      for (int i = 0; i < n; i++) {
+        double w = gossWeights.at(i);
+        sumWeights += w;
+        if (absGrad.at(i) >= threshold) { // large gradients are always kept with their original weight
+          assertEquals(1, w, 0);
+          assertEquals(0, nids.at8(i));
+          top++;
+        } else if (w > 0) { // sampled small gradients are amplified
+          assertEquals(amplification, w, 1e-10);
+          assertEquals(0, nids.at8(i));
+          other++;
+        } else {
+          assertEquals(ScoreBuildHistogram.OUT_OF_BAG, nids.at8(i));
+        }
+      }
+      assertEquals(topRate * n, top, 0.01 * n);
+      assertEquals(otherRate * n, other, 0.02 * n);
+      // amplification keeps the total weight of the data unbiased
+      assertEquals(n, sumWeights, 0.05 * n);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testMultinomialLevelSplitsAreReproducible() {
+    Scope.enter();
+    try {
+      Frame train = Scope.track(parse_test_file("smalldata/covtype/covtype.20k.data"));
+      Scope.track(train.replace(54, train.vecs()[54].toCategoricalVec()));
+      DKV.put(train);
+
+      GBMModel.GBMParameters parms = makeGBMParameters();
+      parms._train = train._key;
+      parms._response_column = "C55";
+      parms._ntrees = 3;
+      parms._max_depth = 8;
+      parms._seed = 42;
+      GBMModel gbm1 = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+      GBMModel gbm2 = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+
+      // leaves of a level (of all class trees) are searched concurrently, the trees need to be the same
+      Frame preds1 = Scope.track(gbm1.score(train));
+      Frame preds2 = Scope.track(gbm2.score(train));
+      assertFrameEquals(preds1, preds2, 0);
+    } finally {
+      Scope.exit();
+    }
+  }
 }
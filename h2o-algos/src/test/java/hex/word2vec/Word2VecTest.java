@@ -74,6 +74,131 @@ public class Word2VecTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testW2V_SG_NegativeSampling_small() {
+    String[] words = new String[220];
+    for (int i = 0; i < 200; i += 2) { words[i] = "a"; words[i + 1] = "b"; }
+    for (int i = 200; i < 220; i += 2) { words[i] = "a"; words[i + 1] = "c"; }
+    Scope.enter();
+    try {
+      Vec v = Scope.track(svec(words));
+      Frame fr = Scope.track(new Frame(Key.<Frame>make(), new String[]{"Words"}, new Vec[]{v}));
+      DKV.put(fr);
+
+      Word2VecModel.Word2VecParameters p = new Word2VecModel.Word2VecParameters();
+      p._train = fr._key;
+      p._min_word_freq = 5;
+      p._word_model = Word2Vec.WordModel.SkipGram;
+      p._norm_model = Word2Vec.NormModel.NegativeSampling;
+      p._vec_size = 10;
+      p._window_size = 5;
+      p._sent_sample_rate = 0.001f;
+      p._init_learning_rate = 0.025f;
+      p._epochs = 2;
+
+      Word2VecModel w2vm = (Word2VecModel) Scope.track_generic(new Word2Vec(p).trainModel().get());
+
+      Map<String, Float> hm = w2vm.findSynonyms("a", 2);
+      logResults(hm);
+      assertEquals(new HashSet<>(Arrays.asList("b", "c")), hm.keySet());
+      for (float f : w2vm._output._vecs)
+        assertFalse(Float.isNaN(f));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  /**
+   * Two groups of words that never appear in the same sentence: the closest words are from the same group.
+   */
+  @Test
+  public void testW2V_SG_NegativeSampling_synonyms() {
+    final int nsentences = 3000, sentLen = 8;
+    Random rnd = new Random(0xDEED);
+    String[] words = new String[nsentences * (sentLen + 1)];
+    int pos = 0;
+    for (int s = 0; s < nsentences; s++) {
+      String group = rnd.nextBoolean() ? "a" : "b";
+      for (int i = 0; i < sentLen; i++)
+        words[pos++] = group + rnd.nextInt(5);
+      words[pos++] = null; // end of the sentence
+    }
+    Scope.enter();
+    try {
+      Frame fr = new TestFrameBuilder()
+              .withColNames("Words")
+              .withVecTypes(Vec.T_STR)
+              .withDataForCol(0, words)
+              .withChunkLayout(9000, 6003, 5004, words.length - 20007)
+              .build();
+      for (int syncs : new int[]{1, 3}) {
+        Word2VecModel.Word2VecParameters p = new Word2VecModel.Word2VecParameters();
+        p._train = fr._key;
+        p._min_word_freq = 5;
+        p._word_model = Word2Vec.WordModel.SkipGram;
+        p._norm_model = Word2Vec.NormModel.NegativeSampling;
+        p._negative_samples = 3;
+        p._vec_size = 10;
+        p._window_size = 3;
+        p._sent_sample_rate = 0;
+        p._init_learning_rate = 0.025f;
+        p._epochs = 5;
+        p._syncs_per_epoch = syncs;
+
+        Word2VecModel w2vm = (Word2VecModel) Scope.track_generic(new Word2Vec(p).trainModel().get());
+        for (String group : new String[]{"a", "b"}) {
+          Map<String, Float> hm = w2vm.findSynonyms(group + "0", 4);
+          logResults(hm);
+          assertEquals("syncs_per_epoch=" + syncs,
+                  new HashSet<>(Arrays.asList(group + "1", group + "2", group + "3", group + "4")), hm.keySet());
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testW2V_NegativeSampling_invalidSamples() {
+    Scope.enter();
+    try {
+      Vec v = Scope.track(svec("a", "b", "a", "b", "a", "b", "a", "b", "a", "b"));
+      Frame fr = Scope.track(new Frame(Key.<Frame>make(), new String[]{"Words"}, new Vec[]{v}));
+      DKV.put(fr);
+
+      Word2VecModel.Word2VecParameters p = new Word2VecModel.Word2VecParameters();
+      p._train = fr._key;
+      p._norm_model = Word2Vec.NormModel.NegativeSampling;
+      p._negative_samples = 0;
+
+      Word2Vec w2v = new Word2Vec(p);
+      assertTrue(w2v.error_count() > 0);
+      assertTrue(w2v.validationErrors().contains("Negative sampling needs at least one negative word"));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testW2V_invalidSyncsPerEpoch() {
+    Scope.enter();
+    try {
+      Vec v = Scope.track(svec("a", "b", "a", "b", "a", "b", "a", "b", "a", "b"));
+      Frame fr = Scope.track(new Frame(Key.<Frame>make(), new String[]{"Words"}, new Vec[]{v}));
+      DKV.put(fr);
+
+      Word2VecModel.Word2VecParameters p = new Word2VecModel.Word2VecParameters();
+      p._train = fr._key;
+      p._syncs_per_epoch = 0;
+
+      Word2Vec w2v = new Word2Vec(p);
+      assertTrue(w2v.error_count() > 0);
+      assertTrue(w2v.validationErrors().contains("Word vectors need to be synchronized at least once per epoch"));
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test
   public void testW2V_pretrained() {
     String[] words = new String[1000];
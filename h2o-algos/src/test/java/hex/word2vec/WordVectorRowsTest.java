@@ -0,0 +1,173 @@
+package hex.word2vec;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import water.TestUtil;
+import water.runner.CloudSize;
+import water.runner.H2ORunner;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+@RunWith(H2ORunner.class)
+@CloudSize(1)
+public class WordVectorRowsTest extends TestUtil {
+
+  private static final int VEC_SIZE = 7;
+  private static final int NROWS = 50;
+
+  @Test
+  public void testSingleNode() {
+    Random rnd = new Random(0xCAFE);
+    float[] synced = randomMatrix(rnd);
+    boolean[] touched = randomRows(rnd, 0.3);
+    float[] local = train(synced, touched, rnd);
+
+    WordVectorRows rows = new WordVectorRows();
+    rows.collect(local, touched, VEC_SIZE);
+    assertNull(rows._weights);
+    float[] merged = synced.clone();
+    int[] changed = rows.mergeInto(merged, 1234, VEC_SIZE);
+
+    assertArrayEquals(local, merged, 0);
+    assertArrayEquals(touchedRows(touched), changed);
+  }
+
+  @Test
+  public void testMergeEqualsWeightedAverage() {
+    Random rnd = new Random(42);
+    for (int nnodes = 2; nnodes <= 5; nnodes++) {
+      float[] synced = randomMatrix(rnd);
+      float[][] locals = new float[nnodes][];
+      boolean[][] touched = new boolean[nnodes][];
+      long[] words = new long[nnodes];
+      for (int n = 0; n < nnodes; n++) {
+        touched[n] = randomRows(rnd, 0.1 + 0.2 * n);
+        locals[n] = train(synced, touched[n], rnd);
+        words[n] = n == 1 ? 0 : 1 + rnd.nextInt(10000); // a node without any words counts with zero weight
+      }
+      float[] expected = weightedAverage(locals, words);
+
+      // left-deep and right-deep reduce trees, both sides of merge get rows with and without the weights
+      for (boolean leftDeep : new boolean[]{true, false}) {
+        WordVectorRows rows = collect(locals[leftDeep ? 0 : nnodes - 1], touched[leftDeep ? 0 : nnodes - 1]);
+        long total = words[leftDeep ? 0 : nnodes - 1];
+        for (int k = 1; k < nnodes; k++) {
+          int n = leftDeep ? k : nnodes - 1 - k;
+          WordVectorRows other = collect(locals[n], touched[n]);
+          if (leftDeep) {
+            rows.merge(total, other, words[n], VEC_SIZE);
+          } else {
+            other.merge(words[n], rows, total, VEC_SIZE);
+            rows = other;
+          }
+          total += words[n];
+          assertNotNull(rows._weights);
+        }
+        float[] merged = synced.clone();
+        int[] changed = rows.mergeInto(merged, total, VEC_SIZE);
+        assertArrayEquals(expected, merged, 1e-5f);
+
+        boolean[] any = new boolean[NROWS];
+        for (boolean[] t : touched)
+          for (int r = 0; r < NROWS; r++)
+            any[r] |= t[r];
+        assertArrayEquals(touchedRows(any), changed);
+      }
+    }
+  }
+
+  /**
+   * Several syncs (eg. syncs_per_epoch > 1): the nodes keep their own copies of the matrix between the syncs, only the
+   * changed rows are copied to them after a sync. The copies have to stay equal to the merged matrix.
+   */
+  @Test
+  public void testSyncedRowsKeepTheCopiesEqual() {
+    Random rnd = new Random(7);
+    final int nnodes = 3;
+    float[] model = randomMatrix(rnd);
+    float[][] copies = new float[nnodes][];
+    for (int n = 0; n < nnodes; n++)
+      copies[n] = model.clone(); // the first sync ships the complete matrix
+    for (int sync = 0; sync < 5; sync++) {
+      boolean[][] touched = new boolean[nnodes][];
+      long[] words = new long[nnodes];
+      WordVectorRows rows = null;
+      long total = 0;
+      for (int n = 0; n < nnodes; n++) {
+        touched[n] = randomRows(rnd, 0.2);
+        copies[n] = train(copies[n], touched[n], rnd);
+        words[n] = 1 + rnd.nextInt(1000);
+        WordVectorRows r = collect(copies[n], touched[n]);
+        if (rows == null) rows = r;
+        else rows.merge(total, r, words[n], VEC_SIZE);
+        total += words[n];
+      }
+      float[] expected = weightedAverage(copies, words);
+      int[] changed = rows.mergeInto(model, total, VEC_SIZE);
+      assertArrayEquals("sync " + sync, expected, model, 1e-5f);
+
+      WordVectorRows syncRows = WordVectorRows.of(model, changed, VEC_SIZE);
+      for (int n = 0; n < nnodes; n++) {
+        syncRows.copyTo(copies[n], VEC_SIZE);
+        assertArrayEquals("sync " + sync + ", node " + n, model, copies[n], 0);
+      }
+    }
+  }
+
+  // the old way of merging: weighted average of the complete matrices of the nodes
+  private static float[] weightedAverage(float[][] locals, long[] words) {
+    float[] avg = locals[0].clone();
+    long total = words[0];
+    for (int n = 1; n < locals.length; n++) {
+      total += words[n];
+      float c = total == 0 ? 0 : (float) words[n] / total;
+      for (int i = 0; i < avg.length; i++)
+        avg[i] = (1.0f - c) * avg[i] + c * locals[n][i];
+    }
+    return avg;
+  }
+
+  private static WordVectorRows collect(float[] syn, boolean[] touched) {
+    WordVectorRows rows = new WordVectorRows();
+    rows.collect(syn, touched, VEC_SIZE);
+    return rows;
+  }
+
+  private static float[] randomMatrix(Random rnd) {
+    float[] syn = new float[NROWS * VEC_SIZE];
+    for (int i = 0; i < syn.length; i++)
+      syn[i] = (float) rnd.nextGaussian();
+    return syn;
+  }
+
+  private static boolean[] randomRows(Random rnd, double rate) {
+    boolean[] rows = new boolean[NROWS];
+    for (int r = 0; r < NROWS; r++)
+      rows[r] = rnd.nextDouble() < rate;
+    return rows;
+  }
+
+  // changes the touched rows of a copy of the matrix
+  private static float[] train(float[] syn, boolean[] touched, Random rnd) {
+    float[] local = syn.clone();
+    for (int r = 0; r < NROWS; r++)
+      if (touched[r])
+        for (int j = 0; j < VEC_SIZE; j++)
+          local[r * VEC_SIZE + j] += (float) rnd.nextGaussian();
+    return local;
+  }
+
+  private static int[] touchedRows(boolean[] touched) {
+    TreeSet<Integer> rows = new TreeSet<>();
+    for (int r = 0; r < touched.length; r++)
+      if (touched[r]) rows.add(r);
+    int[] res = new int[rows.size()];
+    int k = 0;
+    for (int r : rows) res[k++] = r;
+    return res;
+  }
+
+}
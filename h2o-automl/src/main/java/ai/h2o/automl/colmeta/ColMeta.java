@@ -71,7 +71,7 @@ public class ColMeta extends Iced {
 
   // SECOND PASS
   // https://0xdata.atlassian.net/browse/STEAM-41 --column metadata to gather
-  public long _numUniques;
+  public long _numUniques;             // approximate (HyperLogLog) count of distinct values
   public double _avgUniquesPerChunk;   // number of uniques per chunk divided by number of chunks
 
   public boolean  _chunksMonotonicallyIncreasing;  // indicates some weak ordering in the dataset (by this column)
@@ -261,5 +261,18 @@ examples = dict(
 ...                          score_each_iteration=True)
 >>> kmm.train(x=list(range(7)), training_frame=iris_h2o)
 >>> kmm.scoring_history()
+""",
+    mini_batch_size="""
+>>> prostate = h2o.import_file("http://s3.amazonaws.com/h2o-public-test-data/smalldata/prostate/prostate.csv")
+>>> predictors = ["AGE", "RACE", "DPROS", "DCAPS", "PSA", "VOL", "GLEASON"]
+>>> train, valid = prostate.split_frame(ratios=[.8], seed=1234)
+>>> pros_km = H2OKMeansEstimator(k=3,
+...                              mini_batch_size=100,
+...                              max_iterations=20,
+...                              seed=1234)
+>>> pros_km.train(x=predictors,
+...               training_frame=train,
+...               validation_frame=valid)
+>>> pros_km.scoring_history()
 """
 )
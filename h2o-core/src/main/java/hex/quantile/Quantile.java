@@ -39,6 +39,8 @@ public class Quantile extends ModelBuilder<QuantileModel,QuantileModel.QuantileP
     for( double p : _parms._probs )
       if( p < 0.0 || p > 1.0 )
         error("_probs","Probabilities must be between 0 and 1");
+    if( _parms._method == QuantileModel.QuantileMethod.SKETCH && !(_parms._sketch_accuracy > 0 && _parms._sketch_accuracy < 1) )
+      error("_sketch_accuracy","Sketch accuracy must be between 0 and 1 (exclusive)");
     _ncols = train().numCols()-numSpecialCols(); //offset/weights/nfold - should only ever be weights
     if ( numSpecialCols() == 1 && _weights == null)
       throw new IllegalArgumentException("The only special Vec that is supported for Quantiles is observation weights.");
@@ -73,6 +75,11 @@ public class Quantile extends ModelBuilder<QuantileModel,QuantileModel.QuantileP
         model.delete_and_lock(_job);
 
 
+        if( _parms._method == QuantileModel.QuantileMethod.SKETCH ) {
+          computeSketches(model);
+          return;
+        }
+
         // ---
         // Run the main Quantile Loop
         Vec vecs[] = train().vecs();
@@ -113,6 +120,64 @@ public class Quantile extends ModelBuilder<QuantileModel,QuantileModel.QuantileP
         if( model != null ) model.unlock(_job);
       }
     }
+
+    // Single pass over all the columns, all the probabilities are answered from the sketches
+    private void computeSketches(QuantileModel model) {
+      Vec vecs[] = train().vecs();
+      boolean skip[] = new boolean[_ncols];
+      for( int n=0; n<_ncols; n++ ) {
+        Vec vec = vecs[n];
+        skip[n] = vec.isBad() || vec.isCategorical() || vec.isString() || vec.isTime() || vec.isUUID();
+      }
+      Frame fr = new Frame(Arrays.copyOf(vecs, _ncols));
+      if( _weights != null ) fr.add("weights", _weights);
+      SketchTask st = new SketchTask(skip, _parms._sketch_accuracy, _weights != null).doAll(fr);
+      model._output._iterations = 1;
+      for( int n=0; n<_ncols; n++ ) {
+        // No sketch when no chunk was mapped (empty frame)
+        QuantileSketch sketch = skip[n] || st._sketches == null ? null : st._sketches[n];
+        for( int p = 0; p < _parms._probs.length; p++ )
+          model._output._quantiles[n][p] = sketch == null ? Double.NaN : sketch.quantile(_parms._probs[p]);
+        Log.debug("Quantile (sketch): Qs=" + Arrays.toString(model._output._quantiles[n]));
+      }
+      model.update(_job);
+      _job.update(_ncols * _parms._probs.length);
+    }
+  }
+
+  /** Builds a {@link QuantileSketch} for each of the (non-skipped) columns, weights are in the last column if present. */
+  static class SketchTask extends MRTask<SketchTask> {
+    // INPUT
+    final boolean[] _skip;
+    final double _accuracy;
+    final boolean _hasWeights;
+
+    // OUTPUT
+    QuantileSketch[] _sketches;
+
+    SketchTask(boolean[] skip, double accuracy, boolean hasWeights) {
+      _skip = skip; _accuracy = accuracy; _hasWeights = hasWeights;
+    }
+
+    @Override public void map(Chunk[] cs) {
+      _sketches = new QuantileSketch[_skip.length];
+      Chunk weights = _hasWeights ? cs[cs.length-1] : null;
+      for( int n=0; n<_skip.length; n++ ) {
+        if( _skip[n] ) continue;
+        QuantileSketch sketch = _sketches[n] = new QuantileSketch(_accuracy);
+        Chunk c = cs[n];
+        for( int row=0; row<c._len; row++ )
+          sketch.add(c.atd(row), weights == null ? 1 : weights.atd(row));
+        sketch.compress();
+      }
+    }
+
+    @Override public void reduce(SketchTask mrt) {
+      if( mrt._sketches == null ) return;
+      if( _sketches == null ) { _sketches = mrt._sketches; return; }
+      for( int n=0; n<_skip.length; n++ )
+        if( !_skip[n] ) _sketches[n].merge(mrt._sketches[n]);
+    }
   }
 
   public static class StratifiedQuantilesTask extends H2O.H2OCountedCompleter<StratifiedQuantilesTask> {
@@ -9,10 +9,15 @@ import water.Key;
 public class QuantileModel extends Model<QuantileModel,QuantileModel.QuantileParameters,QuantileModel.QuantileOutput> {
 
   public enum CombineMethod { INTERPOLATE, AVERAGE, LOW, HIGH }
+  public enum QuantileMethod { EXACT, SKETCH }
   public static class QuantileParameters extends Model.Parameters {
     // Set of probabilities to compute
     public double _probs[/*Q*/] = new double[]{0.001,0.01,0.1,0.25,0.333,0.50,0.667,0.75,0.9,0.99,0.999};
     public CombineMethod _combine_method = CombineMethod.INTERPOLATE;
+    // EXACT refines each probability with additional passes, SKETCH computes all columns and probabilities
+    // in a single pass with a bounded rank error (combine method is ignored, quantiles are interpolated)
+    public QuantileMethod _method = QuantileMethod.EXACT;
+    public double _sketch_accuracy = 0.01; // Maximal rank error (as a fraction of rows) of the SKETCH method
     protected boolean defaultDropConsCols() { return false; }
     public String algoName() { return "Quantiles"; }
     public String fullName() { return "Quantiles"; }
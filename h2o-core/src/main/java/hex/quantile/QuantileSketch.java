@@ -0,0 +1,170 @@
+package hex.quantile;
+
+import water.Iced;
+import water.util.ArrayUtils;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable streaming quantile sketch (a merging t-digest, see Dunning &amp; Ertl, "Computing extremely accurate
+ * quantiles using t-digests").
+ * <p/>
+ * The sketch summarizes the distribution by a bounded set of weighted centroids kept in sorted order. New points are
+ * buffered and periodically merged into the centroids; two sketches (eg. from different chunks or nodes) are merged
+ * the same way. Centroids near the median are allowed to cover more of the distribution than centroids in the tails,
+ * so the estimates are most precise for extreme probabilities.
+ * <p/>
+ * The compression is derived from the requested accuracy so that no centroid spans more than <code>accuracy</code>
+ * of the total weight, which bounds the rank error of a quantile estimate by roughly the same amount.
+ * Quantiles are linearly interpolated between centroids; when all centroids are single points (small data)
+ * this is the same as {@link QuantileModel.CombineMethod#INTERPOLATE}.
+ */
+public class QuantileSketch extends Iced<QuantileSketch> {
+  private final double _compression;
+
+  private double[] _means;   // Centroids, sorted by mean
+  private double[] _weights;
+  private int _n;            // Number of centroids
+
+  private double[] _bufMeans; // Points not yet merged into the centroids
+  private double[] _bufWeights;
+  private int _bufN;
+
+  private double _min = Double.POSITIVE_INFINITY;
+  private double _max = Double.NEGATIVE_INFINITY;
+  private double _totalWeight;
+
+  /**
+   * @param accuracy Maximal fraction of the total weight summarized by a single centroid, in (0, 1)
+   */
+  public QuantileSketch(double accuracy) {
+    if (!(accuracy > 0 && accuracy < 1))
+      throw new IllegalArgumentException("Sketch accuracy must be between 0 and 1 (exclusive): " + accuracy);
+    _compression = Math.max(10, Math.ceil(Math.PI / accuracy));
+    final int maxCentroids = (int) Math.ceil(_compression);
+    _means = new double[maxCentroids];
+    _weights = new double[maxCentroids];
+    _bufMeans = new double[2 * maxCentroids];
+    _bufWeights = new double[2 * maxCentroids];
+  }
+
+  /** Adds a point with the given (positive) weight, NAs are ignored. */
+  public void add(double x, double w) {
+    if (Double.isNaN(x) || !(w > 0))
+      return;
+    if (_bufN == _bufMeans.length)
+      compress();
+    _bufMeans[_bufN] = x;
+    _bufWeights[_bufN] = w;
+    _bufN++;
+    if (x < _min) _min = x;
+    if (x > _max) _max = x;
+    _totalWeight += w;
+  }
+
+  /** Merges another sketch into this one. */
+  public void merge(QuantileSketch other) {
+    other.compress();
+    _min = Math.min(_min, other._min);
+    _max = Math.max(_max, other._max);
+    _totalWeight += other._totalWeight;
+    for (int i = 0; i < other._n; i++) {
+      if (_bufN == _bufMeans.length)
+        compress();
+      _bufMeans[_bufN] = other._means[i];
+      _bufWeights[_bufN] = other._weights[i];
+      _bufN++;
+    }
+    compress();
+  }
+
+  public double totalWeight() {
+    return _totalWeight;
+  }
+
+  /** Merges all buffered points into the centroids. */
+  public void compress() {
+    if (_bufN == 0)
+      return;
+    // Sort the buffer and merge it with the (sorted) centroids
+    final int[] idxs = new int[_bufN];
+    for (int i = 0; i < _bufN; i++) idxs[i] = i;
+    final double[] bufMeans = Arrays.copyOf(_bufMeans, _bufN);
+    ArrayUtils.sort(idxs, bufMeans);
+    final int total = _n + _bufN;
+    final double[] means = new double[total];
+    final double[] weights = new double[total];
+    for (int i = 0, j = 0, k = 0; k < total; k++) {
+      if (j >= _bufN || (i < _n && _means[i] <= bufMeans[idxs[j]])) {
+        means[k] = _means[i];
+        weights[k] = _weights[i++];
+      } else {
+        means[k] = bufMeans[idxs[j]];
+        weights[k] = _bufWeights[idxs[j++]];
+      }
+    }
+    _bufN = 0;
+
+    // Single merging pass bounded by the k1 scale function
+    final double normalizer = _compression / (2 * Math.PI);
+    double weightSoFar = 0;
+    double kLeft = scale(0, normalizer);
+    int n = 0;
+    double curMean = means[0], curWeight = weights[0];
+    for (int k = 1; k < total; k++) {
+      final double proposed = curWeight + weights[k];
+      final double kRight = scale((weightSoFar + proposed) / _totalWeight, normalizer);
+      if (kRight - kLeft <= 1) {
+        curMean += (means[k] - curMean) * weights[k] / proposed;
+        curWeight = proposed;
+      } else {
+        n = emit(n, curMean, curWeight);
+        weightSoFar += curWeight;
+        kLeft = scale(weightSoFar / _totalWeight, normalizer);
+        curMean = means[k];
+        curWeight = weights[k];
+      }
+    }
+    _n = emit(n, curMean, curWeight);
+  }
+
+  private int emit(int n, double mean, double weight) {
+    if (n == _means.length) {
+      _means = Arrays.copyOf(_means, 2 * n);
+      _weights = Arrays.copyOf(_weights, 2 * n);
+    }
+    _means[n] = mean;
+    _weights[n] = weight;
+    return n + 1;
+  }
+
+  private static double scale(double q, double normalizer) {
+    return normalizer * Math.asin(2 * Math.min(1, Math.max(0, q)) - 1);
+  }
+
+  /**
+   * @param prob Probability in [0, 1]
+   * @return Estimate of the quantile, NaN if the sketch is empty
+   */
+  public double quantile(double prob) {
+    compress();
+    if (_n == 0)
+      return Double.NaN;
+    if (_n == 1)
+      return _means[0];
+    // Position of the desired row, centroids are located at the centers of the rows they summarize
+    final double index = Math.max(0, prob * (_totalWeight - 1)) + 0.5;
+    if (index < _weights[0] / 2)
+      return _min + (_means[0] - _min) * index / (_weights[0] / 2);
+    double weightSoFar = _weights[0] / 2;
+    for (int i = 0; i < _n - 1; i++) {
+      final double dw = (_weights[i] + _weights[i + 1]) / 2;
+      if (weightSoFar + dw > index)
+        return _means[i] + (_means[i + 1] - _means[i]) * (index - weightSoFar) / dw;
+      weightSoFar += dw;
+    }
+    final double lastHalf = _weights[_n - 1] / 2;
+    final double z = Math.min(index - weightSoFar, lastHalf);
+    return _means[_n - 1] + (_max - _means[_n - 1]) * z / lastHalf;
+  }
+}
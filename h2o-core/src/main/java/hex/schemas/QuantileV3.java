@@ -8,10 +8,12 @@ import water.api.schemas3.ModelParametersSchemaV3;
 public class QuantileV3 extends ModelBuilderSchema<Quantile,QuantileV3,QuantileV3.QuantileParametersV3> {
 
   public static final class QuantileParametersV3 extends ModelParametersSchemaV3<QuantileModel.QuantileParameters, QuantileParametersV3> {
-    static public String[] own_fields = new String[] {"probs", "combine_method", "weights_column"};
+    static public String[] own_fields = new String[] {"probs", "combine_method", "method", "sketch_accuracy", "weights_column"};
 
     // Input fields
     @API(help="Probabilities for quantiles")  public double probs[];
     @API(help="How to combine quantiles for even sample sizes", values={"INTERPOLATE", "AVG", "LO", "HI"}) public QuantileModel.CombineMethod combine_method;
+    @API(help="Method used to compute the quantiles: EXACT refines each probability with additional passes over the data, SKETCH computes all of them in a single pass with a bounded error", values={"EXACT", "SKETCH"}) public QuantileModel.QuantileMethod method;
+    @API(help="Maximal rank error (as a fraction of the number of rows) of quantiles computed with the SKETCH method") public double sketch_accuracy;
   } // QuantileParametersV2
 }
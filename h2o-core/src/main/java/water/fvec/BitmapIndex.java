@@ -0,0 +1,255 @@
+package water.fvec;
+
+import water.H2O;
+import water.Key;
+import water.MemoryManager;
+import water.Value;
+import water.nbhm.NonBlockingHashMap;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bitmap indexes of categorical Vecs, used to answer equality and membership filters
+ * without decoding the chunks.
+ * <p/>
+ * The index is built lazily, chunk by chunk, on the node that is home to the chunk and kept in
+ * a node-local cache so that repeated filters over the same frame only touch the bitmaps.
+ * For every categorical level present in a chunk the index holds the set of matching rows
+ * in a roaring-style container: a sorted array of row offsets for rare levels and a plain
+ * bitmap for the frequent ones.
+ * <p/>
+ * Each index remembers the {@link Value} of the chunk it was built from. Every write into a chunk puts
+ * a new Value into the K/V store, a stale index is then simply rebuilt when it is requested next time.
+ * The cache is bounded in size, when it grows over the limit the stale and the least recently used indexes
+ * are dropped. Indexes are also dropped when the Vec is removed.
+ */
+public final class BitmapIndex {
+
+  private static final boolean ENABLED = H2O.getSysBoolProperty("rapids.bitmap_index", true);
+  private static final int MAX_CARDINALITY = Integer.parseInt(H2O.getSysProperty("rapids.bitmap_index.max_cardinality", "1024"));
+  private static final long MAX_BYTES = Long.parseLong(H2O.getSysProperty("rapids.bitmap_index.max_bytes", String.valueOf(MemoryManager.MEM_MAX >> 5)));
+
+  // chunk key -> index of the chunk, local to the node
+  private static final NonBlockingHashMap<Key, ChunkIndex> INDEXES = new NonBlockingHashMap<>();
+  private static final AtomicLong BYTES = new AtomicLong(); // size of the cached indexes
+  private static final AtomicLong CLOCK = new AtomicLong(); // ticks on every access, orders the indexes by last use
+
+  private BitmapIndex() {}
+
+  public static boolean isIndexable(Vec v) {
+    return ENABLED && v.isCategorical() && v.cardinality() <= MAX_CARDINALITY;
+  }
+
+  /**
+   * Meant to be called before launching an MRTask, the result is passed along to the task.
+   */
+  public static boolean[] isIndexable(Vec[] vecs) {
+    boolean[] indexable = new boolean[vecs.length];
+    for (int i = 0; i < vecs.length; i++)
+      indexable[i] = isIndexable(vecs[i]);
+    return indexable;
+  }
+
+  /**
+   * Returns the index of a chunk, builds it if it doesn't exist yet or if the chunk was written since it was built.
+   * @param c chunk of an indexable Vec, see {@link #isIndexable(Vec)}
+   */
+  public static ChunkIndex get(Chunk c) {
+    Key k = c.vec().chunkKey(c.cidx());
+    Value val = Value.STORE_get(k); // Local-get only
+    if (val == null) // chunk not cached on this node, don't keep the index either
+      return new ChunkIndex(c, null);
+    ChunkIndex idx = INDEXES.get(k);
+    if (idx == null || idx.isStale(val) || idx._len != c._len) {
+      idx = new ChunkIndex(c, val);
+      ChunkIndex old = INDEXES.put(k, idx);
+      if (BYTES.addAndGet(idx._bytes - (old == null ? 0 : old._bytes)) > MAX_BYTES)
+        evict(MAX_BYTES);
+    }
+    idx._lastUsed = CLOCK.incrementAndGet();
+    return idx;
+  }
+
+  /**
+   * Drops the stale indexes and then the least recently used ones until the cache is within 3/4 of the limit.
+   */
+  static synchronized void evict(long maxBytes) {
+    if (BYTES.get() <= maxBytes)
+      return;
+    List<Map.Entry<Key, ChunkIndex>> entries = new ArrayList<>(INDEXES.entrySet());
+    final long[] lastUsed = new long[entries.size()];
+    Integer[] order = new Integer[entries.size()];
+    for (int i = 0; i < order.length; i++) {
+      Map.Entry<Key, ChunkIndex> e = entries.get(i);
+      lastUsed[i] = e.getValue()._lastUsed; // snapshot, the indexes are being used concurrently
+      order[i] = i;
+      if (e.getValue().isStale(Value.STORE_get(e.getKey())))
+        remove(e.getKey(), e.getValue());
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        return Long.compare(lastUsed[a], lastUsed[b]);
+      }
+    });
+    for (int i = 0; i < order.length && BYTES.get() > maxBytes / 4 * 3; i++) {
+      Map.Entry<Key, ChunkIndex> e = entries.get(order[i]);
+      remove(e.getKey(), e.getValue());
+    }
+  }
+
+  private static void remove(Key k, ChunkIndex idx) {
+    if (INDEXES.remove(k, idx))
+      BYTES.addAndGet(-idx._bytes);
+  }
+
+  /** Size of the indexes cached on this node (estimate in bytes). */
+  static long cachedBytes() {
+    return BYTES.get();
+  }
+
+  /**
+   * Drops indexes of all chunks of a Vec, local to this node.
+   */
+  static void removeLocal(Key vkey, int nChunks) {
+    if (INDEXES.isEmpty())
+      return;
+    for (int i = 0; i < nChunks; i++) {
+      ChunkIndex idx = INDEXES.remove(Vec.chunkKey(vkey, i));
+      if (idx != null)
+        BYTES.addAndGet(-idx._bytes);
+    }
+  }
+
+  /**
+   * Appends one value for each row of a chunk, the rows in the given set get value `in`, the rest `out`.
+   */
+  public static NewChunk fill(NewChunk nc, BitSet rows, int len, double in, double out) {
+    int r = 0;
+    for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) {
+      addRepeated(nc, out, i - r);
+      nc.addNum(in);
+      r = i + 1;
+    }
+    addRepeated(nc, out, len - r);
+    return nc;
+  }
+
+  private static void addRepeated(NewChunk nc, double d, int n) {
+    if (d == 0)
+      nc.addZeros(n);
+    else if (Double.isNaN(d))
+      nc.addNAs(n);
+    else
+      for (int i = 0; i < n; i++) nc.addNum(d);
+  }
+
+  public static final class ChunkIndex {
+    private final WeakReference<Value> _chunk; // Value the index was built from, doesn't keep an overwritten chunk alive
+    private final int _len;
+    private final RowSet[] _levels; // null if the level doesn't occur in the chunk
+    private final RowSet _nas;
+    private final long _bytes;
+    private volatile long _lastUsed;
+
+    ChunkIndex(Chunk c, Value val) {
+      _chunk = new WeakReference<>(val);
+      _len = c._len;
+      int card = c.vec().cardinality();
+      int[] cnts = new int[card + 1]; // last one counts NAs
+      int[] levels = new int[_len];
+      for (int r = 0; r < _len; r++) {
+        int level = c.isNA(r) ? card : (int) c.at8(r);
+        levels[r] = level;
+        cnts[level]++;
+      }
+      RowSet[] sets = new RowSet[card + 1];
+      for (int l = 0; l <= card; l++)
+        if (cnts[l] > 0)
+          sets[l] = RowSet.alloc(cnts[l], _len);
+      for (int r = 0; r < _len; r++)
+        sets[levels[r]].add(r);
+      _nas = sets[card];
+      _levels = new RowSet[card];
+      System.arraycopy(sets, 0, _levels, 0, card);
+      long bytes = 16L * (card + 1);
+      for (RowSet rs : sets)
+        if (rs != null) bytes += rs.bytes();
+      _bytes = bytes;
+    }
+
+    private boolean isStale(Value current) {
+      return current == null || _chunk.get() != current;
+    }
+
+    public boolean hasNAs() {
+      return _nas != null;
+    }
+
+    public int len() { return _len; }
+
+    /**
+     * Rows of the chunk having one of the given levels (and optionally also the NA rows).
+     * @param levels boolean mask over the domain of the Vec
+     * @param includeNAs whether NA rows should be included
+     */
+    public BitSet rows(boolean[] levels, boolean includeNAs) {
+      BitSet bs = new BitSet(_len);
+      for (int l = 0; l < Math.min(levels.length, _levels.length); l++)
+        if (levels[l] && _levels[l] != null)
+          _levels[l].orInto(bs);
+      if (includeNAs && _nas != null)
+        _nas.orInto(bs);
+      return bs;
+    }
+
+    public int count(int level) {
+      RowSet rs = level < _levels.length ? _levels[level] : null;
+      return rs == null ? 0 : rs._cardinality;
+    }
+  }
+
+  /**
+   * Container of row offsets, sparse (sorted array) or dense (bitmap) depending on which is smaller.
+   */
+  static final class RowSet {
+    private final int[] _rows;
+    private final long[] _bits;
+    private int _cardinality;
+
+    private RowSet(int[] rows, long[] bits) {
+      _rows = rows;
+      _bits = bits;
+    }
+
+    static RowSet alloc(int cardinality, int len) {
+      // 32 bits per row in the sparse form vs. 1 bit per row of the chunk in the dense form
+      return (long) cardinality * 32 < len ? new RowSet(new int[cardinality], null) : new RowSet(null, new long[(len + 63) >> 6]);
+    }
+
+    void add(int row) {
+      if (_rows != null) _rows[_cardinality] = row;
+      else _bits[row >> 6] |= 1L << row;
+      _cardinality++;
+    }
+
+    long bytes() {
+      return _rows != null ? 4L * _rows.length : 8L * _bits.length;
+    }
+
+    void orInto(BitSet bs) {
+      if (_rows != null)
+        for (int r : _rows) bs.set(r);
+      else
+        bs.or(BitSet.valueOf(_bits));
+    }
+  }
+
+}
@@ -7,6 +7,7 @@ import water.util.UnsafeUtils;
 import water.parser.BufferedString;
 
 import java.util.Arrays;
+import java.util.Locale;
 
 /**
  * The empty-compression function, where data is in 'string's.
@@ -311,5 +312,287 @@ public class CStrChunk extends Chunk {
     }
     return nc;
   }
-}
 
+  /**
+   * Length in bytes of the string at row i, -1 for NA.
+   */
+  public int lengthAt(int i) {
+    int off = intAt(i);
+    return off == NA ? -1 : lengthAtOffset(off);
+  }
+
+  /**
+   * Byte-level search for a UTF-8 encoded literal in the string at row i. UTF-8 is self-synchronizing,
+   * a match of the encoded bytes is therefore always a match of the whole characters.
+   *
+   * @param i row
+   * @param literal UTF-8 bytes to look for, non-empty
+   * @param asciiIgnoreCase if true, ASCII letters are compared case-insensitively (exact only for ASCII data)
+   * @return byte offset of the first occurrence relative to the start of the string, -1 if not found or NA
+   */
+  public int indexOf(int i, byte[] literal, boolean asciiIgnoreCase) {
+    int off = intAt(i);
+    if (off == NA) return -1;
+    int len = lengthAtOffset(off);
+    int base = _valstart + off;
+    for (int pos = 0; pos <= len - literal.length; pos++)
+      if (regionMatches(_mem, base + pos, literal, asciiIgnoreCase))
+        return pos;
+    return -1;
+  }
+
+  public boolean startsWith(int i, byte[] prefix, boolean asciiIgnoreCase) {
+    int off = intAt(i);
+    if (off == NA) return false;
+    int len = lengthAtOffset(off);
+    return len >= prefix.length && regionMatches(_mem, _valstart + off, prefix, asciiIgnoreCase);
+  }
+
+  public boolean endsWith(int i, byte[] suffix, boolean asciiIgnoreCase) {
+    int off = intAt(i);
+    if (off == NA) return false;
+    int len = lengthAtOffset(off);
+    return len >= suffix.length && regionMatches(_mem, _valstart + off + len - suffix.length, suffix, asciiIgnoreCase);
+  }
+
+  private static boolean regionMatches(byte[] mem, int pos, byte[] literal, boolean asciiIgnoreCase) {
+    for (int j = 0; j < literal.length; j++) {
+      byte a = mem[pos + j], b = literal[j];
+      if (a != b && !(asciiIgnoreCase && asciiLower(a) == asciiLower(b)))
+        return false;
+    }
+    return true;
+  }
+
+  private static byte asciiLower(byte b) { return b > 0x40 && b < 0x5B ? (byte) (b + 0x20) : b; }
+  private static byte asciiUpper(byte b) { return b > 0x60 && b < 0x7B ? (byte) (b - 0x20) : b; }
+
+  private static byte[] ensureCapacity(byte[] buf, int size) {
+    return size <= buf.length ? buf : Arrays.copyOf(buf, Math.max(size, buf.length << 1));
+  }
+
+  /**
+   * Replaces every occurrence of a literal with a replacement directly on the packed UTF-8 buffer,
+   * equivalent to Java's String.replaceAll() for a regex without meta-characters and a replacement
+   * without group references.
+   *
+   * @param nc NewChunk to be filled with the new strings
+   * @param literal UTF-8 bytes to be replaced, non-empty
+   * @param replacement UTF-8 bytes of the replacement
+   * @param asciiLower lower-case the string before replacing, only valid on an all-ASCII chunk
+   * @return Filled NewChunk
+   */
+  public NewChunk replaceAllLiteral(NewChunk nc, byte[] literal, byte[] replacement, boolean asciiLower) {
+    assert literal.length > 0;
+    assert !asciiLower || _isAllASCII;
+    BufferedString bs = new BufferedString();
+    byte[] out = new byte[64];
+    byte[] lowered = asciiLower ? new byte[64] : null;
+    for (int i = 0; i < _len; i++) {
+      int off = intAt(i);
+      if (off == NA) {
+        nc.addNA();
+        continue;
+      }
+      int len = lengthAtOffset(off);
+      byte[] src = _mem;
+      int base = _valstart + off;
+      if (asciiLower) {
+        lowered = ensureCapacity(lowered, len);
+        for (int j = 0; j < len; j++) lowered[j] = asciiLower(_mem[base + j]);
+        src = lowered;
+        base = 0;
+      }
+      int n = 0;
+      int pos = 0;
+      while (pos < len) {
+        if (pos <= len - literal.length && regionMatches(src, base + pos, literal, false)) {
+          out = ensureCapacity(out, n + replacement.length);
+          System.arraycopy(replacement, 0, out, n, replacement.length);
+          n += replacement.length;
+          pos += literal.length;
+        } else {
+          out = ensureCapacity(out, n + 1);
+          out[n++] = src[base + pos++];
+        }
+      }
+      nc.addStr(bs.set(out, 0, n));
+    }
+    return nc;
+  }
+
+  /**
+   * Splits the string at row i around a literal separator, following the semantics of Java's
+   * String.split() (trailing empty strings are dropped, a string without a separator is returned whole).
+   *
+   * @param i row, must not be NA
+   * @param sep UTF-8 bytes of the separator, non-empty
+   * @param bounds reusable buffer, bounds[2k] and bounds[2k+1] receive start and end of the k-th token
+   *               (relative to the start of the string)
+   * @return the buffer holding the bounds, reallocated if the given one was too small
+   */
+  public int[] splitLiteral(int i, byte[] sep, int[] bounds) {
+    int off = intAt(i);
+    assert off != NA;
+    int len = lengthAtOffset(off);
+    int base = _valstart + off;
+    int cnt = 0;
+    int start = 0;
+    for (int pos = 0; pos <= len - sep.length; ) {
+      if (regionMatches(_mem, base + pos, sep, false)) {
+        if (bounds.length < 2 * cnt + 3) bounds = Arrays.copyOf(bounds, Math.max(2 * cnt + 3, bounds.length << 1));
+        bounds[2 * cnt] = start;
+        bounds[2 * cnt + 1] = pos;
+        cnt++;
+        pos += sep.length;
+        start = pos;
+      } else pos++;
+    }
+    if (bounds.length < 2 * cnt + 3) bounds = Arrays.copyOf(bounds, 2 * cnt + 3);
+    bounds[2 * cnt] = start;
+    bounds[2 * cnt + 1] = len;
+    cnt++;
+    if (cnt > 1) // no separator found => the whole string, otherwise trailing empty strings are removed
+      while (cnt > 0 && bounds[2 * cnt - 2] == bounds[2 * cnt - 1]) cnt--;
+    bounds[bounds.length - 1] = cnt;
+    return bounds;
+  }
+
+  /**
+   * Number of tokens found by the last call of {@link #splitLiteral(int, byte[], int[])}.
+   */
+  public static int splitCount(int[] bounds) { return bounds[bounds.length - 1]; }
+
+  /**
+   * Distributes the tokens of {@link #splitLiteral(int, byte[], int[])} among the given NewChunks,
+   * remaining columns (and NA rows) are filled with NAs.
+   */
+  public void splitLiteral(NewChunk[] ncs, byte[] sep) {
+    BufferedString bs = new BufferedString();
+    int[] bounds = new int[16];
+    for (int i = 0; i < _len; i++) {
+      int col = 0;
+      int off = intAt(i);
+      if (off != NA) {
+        bounds = splitLiteral(i, sep, bounds);
+        int cnt = splitCount(bounds);
+        for (; col < cnt; col++)
+          ncs[col].addStr(bs.set(_mem, _valstart + off + bounds[2 * col], bounds[2 * col + 1] - bounds[2 * col]));
+      }
+      for (; col < ncs.length; col++) ncs[col].addNA();
+    }
+  }
+
+  /**
+   * toLower() for chunks containing non-ASCII characters. Strings that are pure ASCII are still folded
+   * byte-by-byte, only the remaining ones go through Java strings.
+   *
+   * @param nc NewChunk to be filled with the lower-case version of strings in this chunk
+   * @return Filled NewChunk
+   */
+  public NewChunk toLower(NewChunk nc) {
+    return foldCase(nc, true);
+  }
+
+  /**
+   * toUpper() for chunks containing non-ASCII characters, see {@link #toLower(NewChunk)}.
+   */
+  public NewChunk toUpper(NewChunk nc) {
+    return foldCase(nc, false);
+  }
+
+  private NewChunk foldCase(NewChunk nc, boolean lower) {
+    BufferedString bs = new BufferedString();
+    byte[] out = new byte[64];
+    for (int i = 0; i < _len; i++) {
+      int off = intAt(i);
+      if (off == NA) {
+        nc.addNA();
+        continue;
+      }
+      int len = lengthAtOffset(off);
+      int base = _valstart + off;
+      out = ensureCapacity(out, len);
+      boolean ascii = true;
+      for (int j = 0; j < len && ascii; j++) {
+        byte b = _mem[base + j];
+        ascii = b >= 0;
+        out[j] = lower ? asciiLower(b) : asciiUpper(b);
+      }
+      if (ascii)
+        nc.addStr(bs.set(out, 0, len));
+      else { // Locale.ENGLISH to give the correct results for local insensitive strings
+        String s = bs.set(_mem, base, len).toString();
+        nc.addStr(lower ? s.toLowerCase(Locale.ENGLISH) : s.toUpperCase(Locale.ENGLISH));
+      }
+    }
+    return nc;
+  }
+
+  /**
+   * substring() working directly on UTF-8 bytes. Indices are counted in UTF-16 code units to match
+   * Java's String.substring(); strings with supplementary characters or malformed sequences fall back
+   * to Java strings.
+   *
+   * @param nc NewChunk to be filled with substrings in this chunk
+   * @param startIndex The beginning index of the substring, inclusive
+   * @param endIndex The ending index of the substring, exclusive
+   * @return Filled NewChunk
+   */
+  public NewChunk utf8Substring(NewChunk nc, int startIndex, int endIndex) {
+    assert startIndex >= 0 && startIndex < endIndex;
+    BufferedString bs = new BufferedString();
+    for (int i = 0; i < _len; i++) {
+      int off = intAt(i);
+      if (off == NA) {
+        nc.addNA();
+        continue;
+      }
+      int len = lengthAtOffset(off);
+      int base = _valstart + off;
+      int from = -1, to = len;
+      int chars = 0;
+      int pos = 0;
+      while (pos < len) {
+        if (chars == startIndex) from = pos;
+        if (chars == endIndex) {
+          to = pos;
+          break;
+        }
+        int w = utf8Width(_mem, base + pos, len - pos);
+        if (w < 0) break;
+        pos += w;
+        chars++;
+      }
+      if (pos < len && chars < endIndex) { // supplementary or malformed character, let Java decide
+        String s = bs.set(_mem, base, len).toString();
+        nc.addStr(s.substring(Math.min(startIndex, s.length()), Math.min(endIndex, s.length())));
+      } else {
+        if (from == -1) from = chars == startIndex ? pos : len;
+        nc.addStr(bs.set(_mem, base + from, to - from));
+      }
+    }
+    return nc;
+  }
+
+  /**
+   * Width in bytes of a well-formed UTF-8 sequence of a character from the Basic Multilingual Plane,
+   * -1 for anything else (supplementary characters, encoded surrogates, malformed input).
+   */
+  private static int utf8Width(byte[] mem, int pos, int remaining) {
+    int c = mem[pos] & 0xFF;
+    if (c < 0x80) return 1;
+    if (c >= 0xC2 && c < 0xE0)
+      return remaining >= 2 && isContinuation(mem[pos + 1]) ? 2 : -1;
+    if (c >= 0xE0 && c < 0xF0) {
+      if (remaining < 3 || !isContinuation(mem[pos + 1]) || !isContinuation(mem[pos + 2])) return -1;
+      int c1 = mem[pos + 1] & 0xFF;
+      if (c == 0xE0 && c1 < 0xA0) return -1; // overlong
+      if (c == 0xED && c1 >= 0xA0) return -1; // surrogate
+      return 3;
+    }
+    return -1;
+  }
+
+  private static boolean isContinuation(byte b) { return (b & 0xC0) == 0x80; }
+}
@@ -12,6 +12,7 @@ import water.nbhm.NonBlockingHashMap;
 import water.parser.Categorical;
 import water.parser.BufferedString;
 import water.util.ArrayUtils;
+import water.util.HyperLogLog;
 import water.util.Log;
 
 import java.util.Arrays;
@@ -56,6 +57,8 @@ final class RollupStats extends Iced {
   volatile long[] _bins;
   // Approximate data value closest to the Xth percentile
   double[] _pctiles;
+  // Approximate number of distinct non-NA values (HyperLogLog estimate), computed with the histogram
+  long _approxUniques = -1;
 
   public boolean hasHisto(){return _bins != null;}
 
@@ -387,20 +390,28 @@ final class RollupStats extends Iced {
     final double _base, _stride; // Inputs
     final int _nbins;            // Inputs
     long[] _bins;                // Outputs
+    HyperLogLog _hll;            // Outputs, distinct values sketch
     Histo( H2OCountedCompleter cmp, RollupStats rs, int nbins ) { super(cmp);_base = rs.h_base(); _stride = rs.h_stride(nbins); _nbins = nbins; }
     @Override public void map( Chunk c ) {
       _bins = new long[_nbins];
+      _hll = new HyperLogLog();
+      double prev = Double.NaN;
       for( int i=c.nextNZ(-1); i< c._len; i=c.nextNZ(i) ) {
         double d = c.atd(i);
-        if( !Double.isNaN(d) ) _bins[idx(d)]++;
+        if( !Double.isNaN(d) ) {
+          _bins[idx(d)]++;
+          if( d != prev ) _hll.add(HyperLogLog.hash(prev = d)); // skip hashing of runs of a single value
+        }
       }
       // Sparse?  We skipped all the zeros; do them now
-      if( c.isSparseZero() )
+      if( c.isSparseZero() && c._len > c.sparseLenZero() ) {
         _bins[idx(0.0)] += (c._len - c.sparseLenZero());
+        _hll.add(HyperLogLog.hash(0.0));
+      }
     }
     private int idx( double d ) { int idx = (int)((d-_base)/_stride); return Math.min(idx,_bins.length-1); }
 
-    @Override public void reduce( Histo h ) { ArrayUtils.add(_bins,h._bins); }
+    @Override public void reduce( Histo h ) { ArrayUtils.add(_bins,h._bins); _hll.merge(h._hll); }
     // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
     @Override public boolean logVerbose() { return false; }
   }
@@ -511,6 +522,7 @@ final class RollupStats extends Iced {
       // All NAs or non-math; histogram has zero bins
       if (rs._naCnt == vec.length() || vec.isUUID()) {
         rs._bins = new long[0];
+        if (!vec.isUUID()) rs._approxUniques = 0;
         installResponse(nnn, rs);
         return;
       }
@@ -520,6 +532,7 @@ final class RollupStats extends Iced {
       assert rows > 0 : "rows = " + rows + ", vec.len() = " + vec.length() + ", naCnt = " + rs._naCnt;
       if (span == 0) {
         rs._bins = new long[]{rows};
+        rs._approxUniques = 1;
         installResponse(nnn, rs);
         return;
       }
@@ -535,6 +548,7 @@ final class RollupStats extends Iced {
       long sum = ArrayUtils.sum(histo._bins);
       assert sum == rows:"expected " + rows + " rows, got " + sum;
       rs._bins = histo._bins;
+      rs._approxUniques = histo._hll.estimate();
       // Compute percentiles from histogram
       rs._pctiles = new double[Vec.PERCENTILES.length];
       int j = 0;                 // Histogram bin number
@@ -3,6 +3,7 @@ package water.fvec;
 import water.*;
 import water.nbhm.NonBlockingHashMap;
 import water.parser.BufferedString;
+import water.fvec.task.ApproxUniqTask;
 import water.util.*;
 
 import java.util.Arrays;
@@ -906,6 +907,16 @@ public class Vec extends Keyed<Vec> {
    *  @return A set of percentiles */
   public double[] pctiles() { return RollupStats.get(this, true)._pctiles;   }
 
+  /** Approximate number of distinct non-NA values of the Vec (HyperLogLog
+   *  estimate with about 1.6% relative error).  For numeric, categorical and
+   *  time Vecs it is computed together with the histogram and cached
+   *  thereafter; String and UUID Vecs are sketched in a separate pass.
+   *  @return estimated number of distinct values */
+  public long approxUniqueCount() {
+    if( isString() || isUUID() ) return new ApproxUniqTask().doAll(this).estimates()[0];
+    return RollupStats.get(this, true)._approxUniques;
+  }
+
 
   /** Compute the roll-up stats as-needed */
   private RollupStats rollupStats() { return RollupStats.get(this); }
@@ -1376,6 +1387,7 @@ public class Vec extends Keyed<Vec> {
       Key kc = chunkKey(vkey,i);
       H2O.raw_remove(kc);
     }
+    BitmapIndex.removeLocal(vkey, ncs);
     H2O.raw_remove(vkey);
   }
 
@@ -0,0 +1,74 @@
+package water.fvec.task;
+
+import water.MRTask;
+import water.fvec.Chunk;
+import water.parser.BufferedString;
+import water.util.HyperLogLog;
+
+/**
+ * Estimates the number of distinct non-NA values of each column in a single pass, using mergeable
+ * {@link HyperLogLog} sketches. Unlike {@link UniqTask} the memory used does not grow with the number
+ * of distinct values. Works for all column types, including strings and UUIDs.
+ */
+public class ApproxUniqTask extends MRTask<ApproxUniqTask> {
+  private final int _precision;
+  private HyperLogLog[] _hlls;
+
+  public ApproxUniqTask() {
+    this(HyperLogLog.DEFAULT_PRECISION);
+  }
+
+  public ApproxUniqTask(int precision) {
+    _precision = precision;
+  }
+
+  @Override
+  public void map(Chunk[] cs) {
+    _hlls = new HyperLogLog[cs.length];
+    final BufferedString tmpStr = new BufferedString();
+    for (int col = 0; col < cs.length; col++) {
+      final Chunk c = cs[col];
+      final HyperLogLog hll = _hlls[col] = new HyperLogLog(_precision);
+      if (c.vec().isString()) {
+        for (int i = 0; i < c._len; i++) {
+          if (c.isNA(i)) continue;
+          final BufferedString s = c.atStr(tmpStr, i);
+          hll.add(HyperLogLog.hash(s.getBuffer(), s.getOffset(), s.length()));
+        }
+      } else if (c.vec().isUUID()) {
+        for (int i = 0; i < c._len; i++) {
+          if (c.isNA(i)) continue;
+          hll.add(HyperLogLog.hash(c.at16l(i), c.at16h(i)));
+        }
+      } else {
+        for (int i = c.nextNZ(-1); i < c._len; i = c.nextNZ(i)) {
+          final double d = c.atd(i);
+          if (!Double.isNaN(d)) hll.add(HyperLogLog.hash(d));
+        }
+        if (c.isSparseZero() && c.sparseLenZero() < c._len)
+          hll.add(HyperLogLog.hash(0.0));
+      }
+    }
+  }
+
+  @Override
+  public void reduce(ApproxUniqTask t) {
+    if (_hlls == null) {
+      _hlls = t._hlls;
+      return;
+    }
+    if (t._hlls == null)
+      return;
+    for (int col = 0; col < _hlls.length; col++)
+      _hlls[col].merge(t._hlls[col]);
+  }
+
+  /** @return estimated number of distinct non-NA values of each column */
+  public long[] estimates() {
+    final long[] res = new long[_fr.numCols()];
+    if (_hlls != null)
+      for (int col = 0; col < res.length; col++)
+        res[col] = _hlls[col].estimate();
+    return res;
+  }
+}
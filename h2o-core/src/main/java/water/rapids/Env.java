@@ -22,6 +22,9 @@ import water.rapids.ast.prims.search.*;
 import water.rapids.ast.prims.string.*;
 import water.rapids.ast.prims.time.*;
 import water.rapids.ast.prims.timeseries.*;
+import water.rapids.ast.prims.timeseries.window.AstCumulative;
+import water.rapids.ast.prims.timeseries.window.AstRolling;
+import water.rapids.ast.prims.timeseries.window.AstShift;
 import water.rapids.vals.ValFrame;
 import water.rapids.vals.ValFun;
 import water.rapids.vals.ValKeyed;
@@ -196,6 +199,9 @@ public class Env extends Iced {
     // Time Series
     init(new AstDiffLag1());
     init(new AstIsax());
+    init(new AstShift());
+    init(new AstRolling());
+    init(new AstCumulative());
 
     // Advanced Math
     init(new AstCorrelation());
@@ -215,6 +221,7 @@ public class Env extends Iced {
     init(new AstStratifiedSplit());
     init(new AstTable());
     init(new AstUnique());
+    init(new AstApproxUnique());
     init(new AstVariance());
     init(new AstTfIdf());
 
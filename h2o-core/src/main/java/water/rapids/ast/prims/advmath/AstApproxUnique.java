@@ -0,0 +1,51 @@
+package water.rapids.ast.prims.advmath;
+
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.fvec.task.ApproxUniqTask;
+import water.rapids.Env;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.vals.ValNums;
+
+/**
+ * Approximate number of distinct non-NA values of each column, estimated with HyperLogLog sketches.
+ * Unlike (unique ...) this does not materialize the distinct values and works on columns of any cardinality.
+ */
+public class AstApproxUnique extends AstPrimitive {
+  @Override
+  public String[] args() {
+    return new String[]{"ary"};
+  }
+
+  @Override
+  public int nargs() {
+    return 1 + 1;
+  }  // (approx_nunique ary)
+
+  @Override
+  public String str() {
+    return "approx_nunique";
+  }
+
+  @Override
+  public ValNums apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    final Frame fr = stk.track(asts[1].exec(env)).getFrame();
+    final double[] res = new double[fr.numCols()];
+    // columns with an already computed histogram are served from the rollups, the rest is sketched in a single pass
+    final boolean[] cached = new boolean[fr.numCols()];
+    final Frame sketched = new Frame();
+    for (int i = 0; i < fr.numCols(); i++) {
+      final Vec v = fr.vec(i);
+      cached[i] = !v.isString() && !v.isUUID() && v.lazy_bins() != null;
+      if (cached[i]) res[i] = v.approxUniqueCount();
+      else sketched.add(fr.name(i), v);
+    }
+    if (sketched.numCols() > 0) {
+      final long[] estimates = new ApproxUniqTask().doAll(sketched).estimates();
+      for (int i = 0, j = 0; i < fr.numCols(); i++)
+        if (!cached[i]) res[i] = estimates[j++];
+    }
+    return new ValNums(res);
+  }
+}
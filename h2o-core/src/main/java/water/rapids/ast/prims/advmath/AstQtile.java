@@ -15,17 +15,18 @@ import water.rapids.ast.params.AstNumList;
 
 /**
  * Quantiles:
- * (quantile %frame [numnber_list_probs] "string_interpolation_type")
+ * (quantile %frame [numnber_list_probs] "string_interpolation_type" weights_column [sketch_accuracy])
+ * With a positive sketch_accuracy the quantiles are estimated from single-pass sketches (see {@link hex.quantile.QuantileSketch}).
  */
 public class AstQtile extends AstPrimitive {
   @Override
   public String[] args() {
-    return new String[]{"ary", "probs", "interpolationMethod", "weights_column"};
+    return new String[]{"ary", "probs", "interpolationMethod", "weights_column", "sketch_accuracy"};
   }
 
   @Override
   public int nargs() {
-    return 1 + 4;
+    return -1;  // 1 + 4 or 1 + 5
   }
 
   @Override
@@ -48,6 +49,15 @@ public class AstQtile extends AstPrimitive {
     String inter = asts[3].exec(env).getStr();
     parms._combine_method = QuantileModel.CombineMethod.valueOf(inter.toUpperCase());
     parms._weights_column = asts[4].str().equals("_") ? null : asts[4].str();
+    if (asts.length == 6) {
+      double accuracy = asts[5].exec(env).getNum();
+      if (accuracy > 0) {
+        parms._method = QuantileModel.QuantileMethod.SKETCH;
+        parms._sketch_accuracy = accuracy;
+      }
+    } else if (asts.length != 5) {
+      throw new IllegalArgumentException("Expected 4 or 5 arguments for quantile. Got: " + (asts.length - 1));
+    }
 
     // Compute Quantiles
     Job j = new Quantile(parms).trainModel();
@@ -4,6 +4,7 @@ import water.Futures;
 import water.H2O;
 import water.MRTask;
 import water.MemoryManager;
+import water.fvec.BitmapIndex;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NewChunk;
@@ -220,6 +221,7 @@ abstract public class AstBinOp extends AstPrimitive {
    * Auto-widen the scalar to every element of the frame
    */
   private ValFrame frame_op_scalar(Frame fr, final String str) {
+    final boolean[] indexable = BitmapIndex.isIndexable(fr.vecs());
     Frame res = new MRTask() {
       @Override
       public void map(Chunk[] chks, NewChunk[] cress) {
@@ -243,8 +245,9 @@ abstract public class AstBinOp extends AstPrimitive {
             // part of the categorical domain, the find op returns -1 which is never
             // equal to any categorical dense integer (which are always 0+).
             final double d = (double) ArrayUtils.find(vec.domain(), str);
-            for (int i = 0; i < chk._len; i++)
-              cres.addNum(op(chk.atd(i), d));
+            if (!categoricalOpFromIndex(chk, indexable[c], d, false, cres))
+              for (int i = 0; i < chk._len; i++)
+                cres.addNum(op(chk.atd(i), d));
           } else { // mixing string and numeric
             final double d = op(1, 2); // false or true only
             for (int i = 0; i < chk._len; i++)
@@ -260,6 +263,7 @@ abstract public class AstBinOp extends AstPrimitive {
    * Auto-widen the scalar to every element of the frame
    */
   private ValFrame scalar_op_frame(final String str, Frame fr) {
+    final boolean[] indexable = BitmapIndex.isIndexable(fr.vecs());
     Frame res = new MRTask() {
       @Override
       public void map(Chunk[] chks, NewChunk[] cress) {
@@ -281,8 +285,9 @@ abstract public class AstBinOp extends AstPrimitive {
             // makes sense for EQ/NE, and is much faster when just comparing
             // doubles vs comparing strings.
             final double d = (double) ArrayUtils.find(vec.domain(), str);
-            for (int i = 0; i < chk._len; i++)
-              cres.addNum(op(d, chk.atd(i)));
+            if (!categoricalOpFromIndex(chk, indexable[c], d, true, cres))
+              for (int i = 0; i < chk._len; i++)
+                cres.addNum(op(d, chk.atd(i)));
           } else { // mixing string and numeric
             final double d = op(1, 2); // false or true only
             for (int i = 0; i < chk._len; i++)
@@ -294,6 +299,32 @@ abstract public class AstBinOp extends AstPrimitive {
     return new ValFrame(res);
   }
 
+  /**
+   * Evaluates the op on a categorical chunk using the bitmap index of the chunk instead of
+   * decoding it. Applicable only if the op maps every level (and NA) to either 0 or 1, which
+   * is the case for comparisons.
+   *
+   * @return false if the index cannot be used and the chunk needs to be scanned
+   */
+  private boolean categoricalOpFromIndex(Chunk chk, boolean indexable, double d, boolean scalarLeft, NewChunk cres) {
+    if (!indexable)
+      return false;
+    int card = chk.vec().cardinality();
+    boolean[] ones = new boolean[card];
+    for (int level = 0; level < card; level++) {
+      double x = scalarLeft ? op(d, level) : op(level, d);
+      if (x != 0 && x != 1)
+        return false;
+      ones[level] = x == 1;
+    }
+    double na = scalarLeft ? op(d, Double.NaN) : op(Double.NaN, d);
+    if (na != 0 && na != 1)
+      return false;
+    BitmapIndex.ChunkIndex idx = BitmapIndex.get(chk);
+    BitmapIndex.fill(cres, idx.rows(ones, na == 1), chk._len, 1, 0);
+    return true;
+  }
+
   /**
    * Auto-widen: If one frame has only 1 column, auto-widen that 1 column to
    * the rest.  Otherwise the frames must have the same column count, and
@@ -1,6 +1,7 @@
 package water.rapids.ast.prims.search;
 
 import water.MRTask;
+import water.fvec.BitmapIndex;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NewChunk;
@@ -53,10 +54,10 @@ public class AstMatch extends AstPrimitive {
     } else if (asts[2] instanceof AstStrList) {
       String[] values = ((AstStrList) asts[2])._strs;
       Arrays.sort(values);
-      matchTask = fr.anyVec().isString() ? new StrMatchTask(values, noMatch) : new CatMatchTask(values, noMatch);
+      matchTask = fr.anyVec().isString() ? new StrMatchTask(values, noMatch) : new CatMatchTask(values, noMatch, BitmapIndex.isIndexable(fr.anyVec()));
     } else if (asts[2] instanceof AstStr) {
       String[] values = new String[]{asts[2].exec(env).getStr()};
-      matchTask = fr.anyVec().isString() ? new StrMatchTask(values, noMatch) : new CatMatchTask(values, noMatch);
+      matchTask = fr.anyVec().isString() ? new StrMatchTask(values, noMatch) : new CatMatchTask(values, noMatch, BitmapIndex.isIndexable(fr.anyVec()));
     } else
       throw new IllegalArgumentException("Expected numbers/strings. Got: " + asts[2].getClass());
 
@@ -85,13 +86,22 @@ public class AstMatch extends AstPrimitive {
   private static class CatMatchTask extends MRTask<CatMatchTask> {
     String[] _values;
     double _noMatch;
-    CatMatchTask(String[] values, double noMatch) {
+    boolean _indexable;
+    CatMatchTask(String[] values, double noMatch, boolean indexable) {
       _values = values;
       _noMatch = noMatch;
+      _indexable = indexable;
     }
     @Override
     public void map(Chunk c, NewChunk nc) {
       String[] domain = c.vec().domain();
+      if (_indexable) { // union of the bitmaps of the matching levels
+        boolean[] matching = new boolean[domain.length];
+        for (int i = 0; i < domain.length; i++)
+          matching[i] = Arrays.binarySearch(_values, domain[i]) >= 0;
+        BitmapIndex.fill(nc, BitmapIndex.get(c).rows(matching, false), c._len, 1, _noMatch);
+        return;
+      }
       int rows = c._len;
       for (int r = 0; r < rows; r++) {
         double x = c.isNA(r) ? _noMatch : in(_values, domain[(int) c.at8(r)], _noMatch);
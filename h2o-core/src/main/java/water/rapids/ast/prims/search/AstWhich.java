@@ -8,6 +8,9 @@ import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
 
+import java.util.Arrays;
+import java.util.BitSet;
+
 /**
  * Indices of which entries are not equal to 0
  */
@@ -48,10 +51,21 @@ public class AstWhich extends AstPrimitive {
     Vec vec = f.anyVec();
     if (f.numCols() > 1 || !vec.isInt())
       throw new IllegalArgumentException("which requires a single integer column");
+    final boolean indexable = BitmapIndex.isIndexable(vec);
+    final boolean[] nonZero = new boolean[indexable ? vec.cardinality() : 0];
+    if (nonZero.length > 1)
+      Arrays.fill(nonZero, 1, nonZero.length, true);
     Frame f2 = new MRTask() {
       @Override
       public void map(Chunk c, NewChunk nc) {
         long start = c.start();
+        BitmapIndex.ChunkIndex idx = indexable ? BitmapIndex.get(c) : null;
+        if (idx != null && !idx.hasNAs()) { // categorical column: all rows with a non-zero level
+          BitSet rows = idx.rows(nonZero, false);
+          for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1))
+            nc.addNum(start + i);
+          return;
+        }
         for (int i = 0; i < c._len; ++i)
           if (c.at8(i) != 0) nc.addNum(start + i);
       }
@@ -2,6 +2,7 @@ package water.rapids.ast.prims.string;
 
 import water.Iced;
 import water.MRTask;
+import water.fvec.CStrChunk;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NewChunk;
@@ -10,6 +11,7 @@ import water.parser.BufferedString;
 import water.rapids.Val;
 import water.rapids.ast.AstBuiltin;
 import water.rapids.vals.ValFrame;
+import water.util.StringUtils;
 
 import java.util.Arrays;
 import java.util.regex.Matcher;
@@ -121,10 +123,13 @@ public class AstGrep extends AstBuiltin<AstGrep> {
       Pattern p = _gh.compilePattern();
       Matcher m = p.matcher("");
       BufferedString bs = new BufferedString();
+      CStrChunk literalChk = c instanceof CStrChunk && _gh.canMatchLiteral((CStrChunk) c) ? (CStrChunk) c : null;
       int rows = c._len;
       for (int r = 0; r < rows; r++) {
         if (c.isNA(r)) {
           w.addNA(r);
+        } else if (literalChk != null && !_gh.needsRegex(literalChk, r)) {
+          w.addRow(r, _gh.matchLiteral(literalChk, r));
         } else {
           m.reset(c.atStr(bs, r).toString());
           w.addRow(r, m.find());
@@ -138,6 +143,11 @@ public class AstGrep extends AstBuiltin<AstGrep> {
     private boolean _ignoreCase;
     private boolean _invert;
     private boolean _outputLogical;
+    // regex without any meta-characters (apart from ^ and $ anchors) is matched on bytes of the CStrChunk
+    private byte[] _literal;
+    private boolean _literalIsAscii;
+    private boolean _anchorStart;
+    private boolean _anchorEnd;
 
     public GrepHelper() {}
 
@@ -146,11 +156,67 @@ public class AstGrep extends AstBuiltin<AstGrep> {
       _ignoreCase = ignoreCase;
       _invert = invert;
       _outputLogical = outputLogical;
+      initLiteral();
+    }
+
+    private void initLiteral() {
+      String body = _regex;
+      _anchorStart = body.startsWith("^");
+      if (_anchorStart)
+        body = body.substring(1);
+      _anchorEnd = body.endsWith("$") && !isEscaped(body, body.length() - 1);
+      if (_anchorEnd)
+        body = body.substring(0, body.length() - 1);
+      String literal = RegexCache.literalOf(body);
+      if (literal == null || (literal.isEmpty() && !_anchorStart && !_anchorEnd))
+        return;
+      _literal = StringUtils.bytesOf(literal);
+      _literalIsAscii = true;
+      for (byte b : _literal)
+        _literalIsAscii &= b >= 0;
+    }
+
+    private static boolean isEscaped(String regex, int pos) {
+      int backslashes = 0;
+      while (pos - backslashes > 0 && regex.charAt(pos - backslashes - 1) == '\\')
+        backslashes++;
+      return backslashes % 2 == 1;
     }
 
     Pattern compilePattern() {
       int flags = _ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
-      return Pattern.compile(_regex, flags);
+      return RegexCache.compile(_regex, flags);
+    }
+
+    /**
+     * Case-insensitive matching of ASCII bytes is only exact if both the data and the literal are ASCII
+     * (Unicode case folding maps eg. 'k' to the Kelvin sign).
+     */
+    boolean canMatchLiteral(CStrChunk c) {
+      return _literal != null && (!_ignoreCase || (_literalIsAscii && c._isAllASCII));
+    }
+
+    /**
+     * Java's $ also matches in front of a final line terminator, leave such strings to the regex.
+     */
+    boolean needsRegex(CStrChunk c, int row) {
+      if (!_anchorEnd)
+        return false;
+      int len = c.lengthAt(row);
+      if (len == 0)
+        return false;
+      byte last = c.byteAt(c.intAt(row) + len - 1);
+      return last == '\n' || last == '\r' || last < 0;
+    }
+
+    boolean matchLiteral(CStrChunk c, int row) {
+      if (_anchorStart && _anchorEnd)
+        return c.lengthAt(row) == _literal.length && c.startsWith(row, _literal, _ignoreCase);
+      if (_anchorStart)
+        return c.startsWith(row, _literal, _ignoreCase);
+      if (_anchorEnd)
+        return c.endsWith(row, _literal, _ignoreCase);
+      return c.indexOf(row, _literal, _ignoreCase) >= 0;
     }
 
   }
@@ -9,6 +9,7 @@ import water.rapids.Val;
 import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
+import water.util.StringUtils;
 import water.util.VecUtils;
 
 import java.util.*;
@@ -92,18 +93,21 @@ public class AstReplaceAll extends AstPrimitive {
     final String pattern = pat;
     final String replacement = rep;
     final boolean ignoreCase = ic;
+    final String literal = RegexCache.literalOf(pattern);
+    final byte[] literalBytes = literal != null && !literal.isEmpty() && RegexCache.isLiteralReplacement(replacement)
+            ? StringUtils.bytesOf(literal) : null;
+    final byte[] replacementBytes = StringUtils.bytesOf(replacement);
     return new MRTask() {
       @Override
       public void map(Chunk chk, NewChunk newChk) {
         if (chk instanceof C0DChunk) // all NAs
           for (int i = 0; i < chk.len(); i++)
             newChk.addNA();
-        else {
-//        if (((CStrChunk)chk)._isAllASCII) { // fast-path operations
-//          ((CStrChunk) chk).asciiReplaceAll(newChk);
-//        } else { //UTF requires Java string methods for accuracy
+        else if (literalBytes != null && (!ignoreCase || ((CStrChunk) chk)._isAllASCII)) { // fast-path operations
+          ((CStrChunk) chk).replaceAllLiteral(newChk, literalBytes, replacementBytes, ignoreCase);
+        } else { //UTF requires Java string methods for accuracy
           BufferedString tmpStr = new BufferedString();
-          final Pattern compiledPattern = Pattern.compile(pattern); // Compile the pattern once before replacements
+          final Pattern compiledPattern = RegexCache.compile(pattern); // Compiled once per node
           for (int i = 0; i < chk._len; i++) {
             if (chk.isNA(i))
               newChk.addNA();
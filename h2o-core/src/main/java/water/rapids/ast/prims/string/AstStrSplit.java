@@ -8,10 +8,12 @@ import water.rapids.Val;
 import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
+import water.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.regex.Pattern;
 
 /**
  */
@@ -123,7 +125,8 @@ public class AstStrSplit extends AstPrimitive {
   }
 
   private Vec[] strSplitStringCol(Vec vec, final String splitRegEx) {
-    final int newColCnt = (new AstStrSplit.CountSplits(splitRegEx)).doAll(vec)._maxSplits;
+    final byte[] literal = literalSeparator(splitRegEx);
+    final int newColCnt = (new AstStrSplit.CountSplits(splitRegEx, literal)).doAll(vec)._maxSplits;
     return new MRTask() {
       @Override
       public void map(Chunk[] cs, NewChunk[] ncs) {
@@ -132,12 +135,15 @@ public class AstStrSplit extends AstPrimitive {
           for (int row = 0; row < chk.len(); row++)
             for (int col = 0; col < ncs.length; col++)
               ncs[col].addNA();
-        else {
+        else if (literal != null) { // split directly on the bytes of the chunk
+          ((CStrChunk) chk).splitLiteral(ncs, literal);
+        } else {
+          Pattern p = RegexCache.compile(splitRegEx);
           BufferedString tmpStr = new BufferedString();
           for (int row = 0; row < chk._len; ++row) {
             int col = 0;
             if (!chk.isNA(row)) {
-              String[] ss = chk.atStr(tmpStr, row).toString().split(splitRegEx);
+              String[] ss = p.split(chk.atStr(tmpStr, row).toString());
               for (String s : ss) // distribute strings among new cols
                 ncs[col++].addStr(s);
             }
@@ -149,6 +155,14 @@ public class AstStrSplit extends AstPrimitive {
     }.doAll(newColCnt, Vec.T_STR, new Frame(vec)).outputFrame().vecs();
   }
 
+  /**
+   * Separators that are plain literals are handled by the byte-level kernels of CStrChunk.
+   */
+  private static byte[] literalSeparator(String splitRegEx) {
+    String literal = RegexCache.literalOf(splitRegEx);
+    return literal == null || literal.isEmpty() ? null : StringUtils.bytesOf(literal);
+  }
+
   /**
    * Run through column to figure out the maximum split that
    * any string in the column will need.
@@ -156,19 +170,33 @@ public class AstStrSplit extends AstPrimitive {
   private static class CountSplits extends MRTask<AstStrSplit.CountSplits> {
     // IN
     private final String _regex;
+    private final byte[] _literal;
     // OUT
     int _maxSplits = 0;
 
-    CountSplits(String regex) {
+    CountSplits(String regex, byte[] literal) {
       _regex = regex;
+      _literal = literal;
     }
 
     @Override
     public void map(Chunk chk) {
+      if (_literal != null && chk instanceof CStrChunk) {
+        CStrChunk cs = (CStrChunk) chk;
+        int[] bounds = new int[16];
+        for (int row = 0; row < cs._len; row++) {
+          if (!cs.isNA(row)) {
+            bounds = cs.splitLiteral(row, _literal, bounds);
+            _maxSplits = Math.max(_maxSplits, CStrChunk.splitCount(bounds));
+          }
+        }
+        return;
+      }
+      Pattern p = RegexCache.compile(_regex);
       BufferedString tmpStr = new BufferedString();
       for (int row = 0; row < chk._len; row++) {
         if (!chk.isNA(row)) {
-          int split = chk.atStr(tmpStr, row).toString().split(_regex).length;
+          int split = p.split(chk.atStr(tmpStr, row).toString()).length;
           if (split > _maxSplits) _maxSplits = split;
         }
       }
@@ -2,7 +2,6 @@ package water.rapids.ast.prims.string;
 
 import water.MRTask;
 import water.fvec.*;
-import water.parser.BufferedString;
 import water.rapids.Env;
 import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
@@ -100,17 +99,8 @@ public class AstSubstring extends AstPrimitive {
             newChk.addStr("");
         } else if (((CStrChunk) chk)._isAllASCII) { // fast-path operations
           ((CStrChunk) chk).asciiSubstring(newChk, startIndex, endIndex);
-        } else { //UTF requires Java string methods
-          BufferedString tmpStr = new BufferedString();
-          for (int i = 0; i < chk._len; i++) {
-            if (chk.isNA(i))
-              newChk.addNA();
-            else {
-              String str = chk.atStr(tmpStr, i).toString();
-              newChk.addStr(str.substring(startIndex < str.length() ? startIndex : str.length(),
-                  endIndex < str.length() ? endIndex : str.length()));
-            }
-          }
+        } else { // UTF-8 aware byte-level path
+          ((CStrChunk) chk).utf8Substring(newChk, startIndex, endIndex);
         }
       }
     }.doAll(new byte[]{Vec.T_STR}, vec).outputFrame().anyVec();
@@ -0,0 +1,70 @@
+package water.rapids.ast.prims.string;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Node-local cache of compiled regular expressions used by the string primitives.
+ * <p/>
+ * A {@link Pattern} cannot be sent over the wire, tasks therefore carry just the source of the regex.
+ * Compiling it through this cache lets all the chunks mapped on a node share a single compiled instance
+ * (Pattern is thread-safe, only Matchers are not).
+ * <p/>
+ * It also recognizes regular expressions that are in fact plain literals, these can skip java.util.regex
+ * altogether and use the byte-level kernels of {@link water.fvec.CStrChunk}.
+ */
+public final class RegexCache {
+
+  private static final int MAX_SIZE = 256;
+  private static final String META_CHARS = "\\^$.|?*+()[]{}";
+
+  private static final ConcurrentHashMap<String, Pattern> CACHE = new ConcurrentHashMap<>();
+
+  private RegexCache() {}
+
+  public static Pattern compile(String regex) {
+    return compile(regex, 0);
+  }
+
+  public static Pattern compile(String regex, int flags) {
+    String key = flags + ":" + regex;
+    Pattern p = CACHE.get(key);
+    if (p == null) {
+      p = Pattern.compile(regex, flags);
+      if (CACHE.size() >= MAX_SIZE) // patterns come from user expressions, don't let them accumulate
+        CACHE.clear();
+      CACHE.put(key, p);
+    }
+    return p;
+  }
+
+  /**
+   * Returns the literal text matched by the given regex if it doesn't use any regex constructs
+   * (escaped punctuation like "\\." is allowed), null otherwise.
+   */
+  public static String literalOf(String regex) {
+    StringBuilder sb = new StringBuilder(regex.length());
+    for (int i = 0; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        if (++i == regex.length()) return null;
+        char e = regex.charAt(i);
+        if (Character.isLetterOrDigit(e)) return null; // character classes, back references, \Q...\E, etc.
+        sb.append(e);
+      } else if (META_CHARS.indexOf(c) >= 0) {
+        return null;
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Literal replacement can be used only if the replacement string doesn't reference any groups.
+   */
+  static boolean isLiteralReplacement(String replacement) {
+    return replacement.indexOf('$') < 0 && replacement.indexOf('\\') < 0;
+  }
+
+}
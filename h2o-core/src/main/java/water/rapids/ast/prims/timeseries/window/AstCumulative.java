@@ -0,0 +1,37 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.ast.AstRoot;
+import water.rapids.vals.ValFrame;
+
+/**
+ * Cumulative aggregate of columns within partitions of a frame. NA values are skipped (and produce an NA).
+ */
+public class AstCumulative extends AstWindow<AstCumulative> {
+  @Override
+  public String[] args() {
+    return new String[]{"ary", "cols", "by", "order", "fun"};
+  }
+
+  @Override
+  public int nargs() {
+    return 1 + 5;
+  } // (cumulative ary cols by order fun)
+
+  @Override
+  public String str() {
+    return "cumulative";
+  }
+
+  @Override
+  public ValFrame apply(Env env, Env.StackHelp stk, AstRoot[] asts) {
+    final PartitionedWindow window = makeWindow(env, stk, asts);
+    final WindowFunction fun = parseFunction(env, asts[5]);
+    final Frame result = window.apply(fr -> CumulativeTask.make(window.layout(), fun, fr)
+            .doAll(window.layout()._nValues, Vec.T_NUM, fr)
+            .outputFrame(window.valueNames(), null));
+    return new ValFrame(result);
+  }
+}
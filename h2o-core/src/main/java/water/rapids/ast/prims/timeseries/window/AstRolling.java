@@ -0,0 +1,62 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.ast.AstRoot;
+import water.rapids.vals.ValFrame;
+
+/**
+ * Rolling aggregate of columns within partitions of a frame. The window ends at the current row and spans
+ * either a given number of rows, or a given range of the ordering column (eg. milliseconds of a time column).
+ */
+public class AstRolling extends AstWindow<AstRolling> {
+  @Override
+  public String[] args() {
+    return new String[]{"ary", "cols", "by", "order", "fun", "window", "range", "min_periods"};
+  }
+
+  @Override
+  public int nargs() {
+    return 1 + 8;
+  } // (rolling ary cols by order fun window range min_periods)
+
+  @Override
+  public String str() {
+    return "rolling";
+  }
+
+  @Override
+  public ValFrame apply(Env env, Env.StackHelp stk, AstRoot[] asts) {
+    final PartitionedWindow window = makeWindow(env, stk, asts);
+    final WindowFunction fun = parseFunction(env, asts[5]);
+    if (!fun.isSlidingSupported())
+      throw new IllegalArgumentException("Function '" + fun + "' is not supported for rolling windows.");
+    final double windowArg = asts[6].exec(env).getNum();
+    final double range = asts[7].exec(env).getNum();
+    final int minPeriods = (int) asts[8].exec(env).getNum();
+    final boolean rangeBased = range > 0;
+    if (rangeBased == windowArg > 0)
+      throw new IllegalArgumentException("Exactly one of 'window' (number of rows) or 'range' has to be positive.");
+    if (rangeBased && !window.layout()._hasOrder)
+      throw new IllegalArgumentException("Range-based windows require an ordering column.");
+    if (!rangeBased && (int) windowArg != windowArg)
+      throw new IllegalArgumentException("Window must be an integer number of rows. Got: " + windowArg);
+    final int windowRows = (int) windowArg;
+
+    final Frame result = window.apply(fr -> {
+      final CollectChunkBorderRowsTask borderTask = rangeBased ?
+              CollectChunkBorderRowsTask.trailingRange(window.layout().orderCol(), range) :
+              CollectChunkBorderRowsTask.trailingRows(windowRows - 1);
+      final Frame preceding = borderTask.doAll(fr.types(), fr).outputFrame();
+      try {
+        return new RollingWindowTask(window.layout(), fun, windowRows, rangeBased ? range : Double.NaN, minPeriods, preceding)
+                .doAll(window.layout()._nValues, Vec.T_NUM, fr)
+                .outputFrame(window.valueNames(), null);
+      } finally {
+        preceding.remove();
+      }
+    });
+    return new ValFrame(result);
+  }
+}
@@ -0,0 +1,53 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import water.fvec.Frame;
+import water.rapids.Env;
+import water.rapids.ast.AstRoot;
+import water.rapids.vals.ValFrame;
+
+/**
+ * Lag (positive offset) or lead (negative offset) of columns within partitions of a frame.
+ */
+public class AstShift extends AstWindow<AstShift> {
+  @Override
+  public String[] args() {
+    return new String[]{"ary", "cols", "by", "order", "offset"};
+  }
+
+  @Override
+  public int nargs() {
+    return 1 + 5;
+  } // (shift ary cols by order offset)
+
+  @Override
+  public String str() {
+    return "shift";
+  }
+
+  @Override
+  public ValFrame apply(Env env, Env.StackHelp stk, AstRoot[] asts) {
+    final PartitionedWindow window = makeWindow(env, stk, asts);
+    final double offsetArg = asts[5].exec(env).getNum();
+    final int offset = (int) offsetArg;
+    if (offset != offsetArg)
+      throw new IllegalArgumentException("Offset must be an integer. Got: " + offsetArg);
+    final Frame result = window.apply(fr -> {
+      if (offset == 0)
+        return new ShiftTask(window.layout(), 0, null)
+                .doAll(window.valueTypes(), fr)
+                .outputFrame(window.valueNames(), window.valueDomains());
+      final CollectChunkBorderRowsTask borderTask = offset > 0 ?
+              CollectChunkBorderRowsTask.trailingRows(offset) :
+              CollectChunkBorderRowsTask.leadingRows(-offset);
+      final Frame borders = borderTask.doAll(fr.types(), fr).outputFrame();
+      try {
+        return new ShiftTask(window.layout(), offset, borders)
+                .doAll(window.valueTypes(), fr)
+                .outputFrame(window.valueNames(), window.valueDomains());
+      } finally {
+        borders.remove();
+      }
+    });
+    return new ValFrame(result);
+  }
+}
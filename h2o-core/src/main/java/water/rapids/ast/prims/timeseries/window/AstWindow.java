@@ -0,0 +1,35 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import water.fvec.Frame;
+import water.rapids.Env;
+import water.rapids.ast.AstParameter;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.util.EnumUtils;
+
+import java.util.Arrays;
+
+/**
+ * Base class of the partitioned, ordered window primitives. The first four arguments are shared by all of them:
+ * the frame, the value columns, the partitioning ("by") columns and the ordering column. Partitioning and ordering
+ * columns can be given as empty lists.
+ */
+public abstract class AstWindow<T extends AstWindow<T>> extends AstPrimitive<T> {
+
+  PartitionedWindow makeWindow(Env env, Env.StackHelp stk, AstRoot[] asts) {
+    final Frame fr = stk.track(asts[1].exec(env)).getFrame();
+    final int[] valueCols = ((AstParameter) asts[2]).columns(fr.names());
+    final int[] byCols = ((AstParameter) asts[3]).columns(fr.names());
+    final int[] orderCols = ((AstParameter) asts[4]).columns(fr.names());
+    if (orderCols.length > 1)
+      throw new IllegalArgumentException("At most one ordering column is allowed. Got: " + orderCols.length);
+    return new PartitionedWindow(fr, valueCols, byCols, orderCols.length == 0 ? -1 : orderCols[0]);
+  }
+
+  static WindowFunction parseFunction(Env env, AstRoot ast) {
+    final String name = ast.exec(env).getStr();
+    return EnumUtils.valueOfIgnoreCase(WindowFunction.class, name)
+            .orElseThrow(() -> new IllegalArgumentException(String.format("Unknown window function: '%s'. Known functions: %s",
+                    name, Arrays.toString(WindowFunction.values()))));
+  }
+}
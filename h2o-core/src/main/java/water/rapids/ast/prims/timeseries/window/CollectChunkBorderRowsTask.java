@@ -0,0 +1,75 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.NewChunk;
+
+/**
+ * Collects border rows of each chunk - the rows a window anchored in a neighbouring chunk can reach.
+ * Either a fixed number of trailing/leading rows is collected, or (for time-based windows) all trailing rows
+ * whose ordering value falls within the given range from the last row of the chunk.
+ * <p/>
+ * The resulting frame has the same number of chunks as the source frame, chunk <code>i</code> holding the
+ * border rows of source chunk <code>i</code>. This is a generalization of
+ * {@link water.rapids.ast.prims.filters.dropduplicates.CollectChunkBorderValuesTask}.
+ */
+public class CollectChunkBorderRowsTask extends MRTask<CollectChunkBorderRowsTask> {
+  private final int _rows;
+  private final boolean _leading;
+  private final int _orderCol;
+  private final double _range;
+
+  private CollectChunkBorderRowsTask(int rows, boolean leading, int orderCol, double range) {
+    _rows = rows;
+    _leading = leading;
+    _orderCol = orderCol;
+    _range = range;
+  }
+
+  /**
+   * @param rows number of trailing rows to collect from each chunk
+   */
+  public static CollectChunkBorderRowsTask trailingRows(int rows) {
+    return new CollectChunkBorderRowsTask(rows, false, -1, Double.NaN);
+  }
+
+  /**
+   * @param rows number of leading rows to collect from each chunk
+   */
+  public static CollectChunkBorderRowsTask leadingRows(int rows) {
+    return new CollectChunkBorderRowsTask(rows, true, -1, Double.NaN);
+  }
+
+  /**
+   * @param orderCol index of the (sorted) ordering column
+   * @param range    trailing rows with ordering value greater than <code>last - range</code> are collected
+   */
+  public static CollectChunkBorderRowsTask trailingRange(int orderCol, double range) {
+    return new CollectChunkBorderRowsTask(-1, false, orderCol, range);
+  }
+
+  @Override
+  public void map(Chunk[] cs, NewChunk[] ncs) {
+    final int len = cs[0]._len;
+    if (len == 0)
+      return;
+    int from, to;
+    if (_leading) {
+      from = 0;
+      to = Math.min(len, _rows);
+    } else if (_orderCol >= 0) {
+      final double lowerBound = cs[_orderCol].atd(len - 1) - _range;
+      from = len;
+      while (from > 0 && cs[_orderCol].atd(from - 1) > lowerBound)
+        from--;
+      to = len;
+    } else {
+      from = Math.max(0, len - _rows);
+      to = len;
+    }
+    if (from == to)
+      return;
+    for (int i = 0; i < cs.length; i++)
+      cs[i].extractRows(ncs[i], from, to);
+  }
+}
@@ -0,0 +1,126 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+
+import java.util.Arrays;
+
+/**
+ * Computes cumulative aggregates within each partition. The running state of the trailing partition of every
+ * chunk is collected first ({@link CumulativeTask.ChunkSummaryTask}) and carried over into the following chunks,
+ * so that partitions spanning several chunks are aggregated correctly.
+ */
+public class CumulativeTask extends MRTask<CumulativeTask> {
+  private final WindowLayout _layout;
+  private final WindowFunction _fun;
+  private final double[][] _carryKeys;
+  private final double[][][] _carryStates;
+
+  private CumulativeTask(WindowLayout layout, WindowFunction fun, double[][] carryKeys, double[][][] carryStates) {
+    _layout = layout;
+    _fun = fun;
+    _carryKeys = carryKeys;
+    _carryStates = carryStates;
+  }
+
+  /**
+   * Creates the task by collecting the per-chunk running states of the given windowed frame.
+   */
+  public static CumulativeTask make(WindowLayout layout, WindowFunction fun, Frame windowed) {
+    final int nChunks = windowed.anyVec().nChunks();
+    final ChunkSummaryTask summary = new ChunkSummaryTask(layout, nChunks).doAll(windowed);
+    final double[][] carryKeys = new double[nChunks][];
+    final double[][][] carryStates = new double[nChunks][][];
+    for (int cidx = 1; cidx < nChunks; cidx++) {
+      final int prev = cidx - 1;
+      if (summary._lastKeys[prev] == null) { // empty chunk, pass the carry through
+        carryKeys[cidx] = carryKeys[prev];
+        carryStates[cidx] = carryStates[prev];
+        continue;
+      }
+      carryKeys[cidx] = summary._lastKeys[prev];
+      carryStates[cidx] = summary._states[prev];
+      if (summary._singlePartition[prev] && carryKeys[prev] != null &&
+              Arrays.equals(carryKeys[prev], summary._lastKeys[prev])) {
+        carryStates[cidx] = new double[layout._nValues][];
+        for (int c = 0; c < layout._nValues; c++)
+          carryStates[cidx][c] = WindowAccumulator.combine(carryStates[prev][c], summary._states[prev][c]);
+      }
+    }
+    return new CumulativeTask(layout, fun, carryKeys, carryStates);
+  }
+
+  @Override
+  public void map(Chunk[] cs, NewChunk[] ncs) {
+    final int cidx = cs[0].cidx();
+    final boolean carry = _carryKeys[cidx] != null && cs[0]._len > 0 && _layout.inPartition(cs, 0, _carryKeys[cidx]);
+    for (int c = 0; c < _layout._nValues; c++) {
+      final WindowAccumulator acc = new WindowAccumulator();
+      acc.reset(carry ? _carryStates[cidx][c] : null);
+      for (int row = 0; row < cs[0]._len; row++) {
+        if (row > 0 && !_layout.samePartition(cs, row - 1, row))
+          acc.reset(null);
+        final double v = cs[c].atd(row);
+        if (Double.isNaN(v)) {
+          ncs[c].addNA();
+        } else {
+          acc.add(v);
+          ncs[c].addNum(_fun.value(acc));
+        }
+      }
+    }
+  }
+
+  /**
+   * Collects the key and the running state of the trailing partition of each chunk.
+   */
+  static class ChunkSummaryTask extends MRTask<ChunkSummaryTask> {
+    private final WindowLayout _layout;
+    double[][] _lastKeys;         // OUT, key of the trailing partition, null for empty chunks
+    double[][][] _states;         // OUT, running state of the trailing partition per value column
+    boolean[] _singlePartition;   // OUT, whether all rows of the chunk belong to the trailing partition
+
+    ChunkSummaryTask(WindowLayout layout, int nChunks) {
+      _layout = layout;
+      _lastKeys = new double[nChunks][];
+      _states = new double[nChunks][][];
+      _singlePartition = new boolean[nChunks];
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      final int len = cs[0]._len;
+      if (len == 0)
+        return;
+      final int cidx = cs[0].cidx();
+      int first = len - 1;
+      while (first > 0 && _layout.samePartition(cs, first - 1, len - 1))
+        first--;
+      final double[][] states = new double[_layout._nValues][];
+      for (int c = 0; c < _layout._nValues; c++) {
+        final WindowAccumulator acc = new WindowAccumulator();
+        for (int row = first; row < len; row++)
+          acc.add(cs[c].atd(row));
+        states[c] = acc.state();
+      }
+      _lastKeys[cidx] = _layout.partitionKey(cs, len - 1);
+      _states[cidx] = states;
+      _singlePartition[cidx] = first == 0;
+    }
+
+    @Override
+    public void reduce(ChunkSummaryTask mrt) {
+      if (_lastKeys == mrt._lastKeys)
+        return;
+      for (int i = 0; i < _lastKeys.length; i++) {
+        if (mrt._lastKeys[i] != null) {
+          _lastKeys[i] = mrt._lastKeys[i];
+          _states[i] = mrt._states[i];
+          _singlePartition[i] = mrt._singlePartition[i];
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import water.MRTask;
+import water.Scope;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.rapids.Merge;
+
+import java.util.function.Function;
+
+/**
+ * Partitioned, ordered view of a frame used by the window primitives.
+ * <p/>
+ * Rows are sorted by the partitioning ("by") columns and by the ordering column, the window operation
+ * is evaluated over the sorted frame (see {@link WindowLayout} for its column layout) and the result is returned
+ * in the original row order. Without partitioning and ordering columns the frame is used in its natural row order
+ * and no sorting takes place.
+ */
+public class PartitionedWindow {
+
+  private static final String LABEL_COLUMN_NAME = "label";
+
+  private final Frame _source;
+  private final int[] _valueCols;
+  private final int[] _byCols;
+  private final int _orderCol;
+  private final WindowLayout _layout;
+
+  /**
+   * @param source    Frame to compute the window operation on
+   * @param valueCols Indices of the columns to aggregate
+   * @param byCols    Indices of the partitioning columns, can be empty
+   * @param orderCol  Index of the ordering column, -1 to use the natural row order
+   */
+  public PartitionedWindow(final Frame source, final int[] valueCols, final int[] byCols, final int orderCol) {
+    if (valueCols.length == 0)
+      throw new IllegalArgumentException("At least one value column has to be specified.");
+    for (int col : valueCols)
+      checkColumn(source, col, false);
+    for (int col : byCols)
+      checkColumn(source, col, true);
+    if (orderCol >= 0)
+      checkColumn(source, orderCol, false);
+    _source = source;
+    _valueCols = valueCols;
+    _byCols = byCols;
+    _orderCol = orderCol;
+    _layout = new WindowLayout(valueCols.length, byCols.length, orderCol >= 0);
+  }
+
+  private static void checkColumn(Frame fr, int col, boolean allowCategorical) {
+    if (col < 0 || col >= fr.numCols())
+      throw new IllegalArgumentException(String.format("No such column index: '%d', frame has %d columns.",
+              col, fr.numCols()));
+    final Vec v = fr.vec(col);
+    if (!(v.isNumeric() || v.isTime() || (allowCategorical && v.isCategorical())))
+      throw new IllegalArgumentException(String.format("Column '%s' is of unsupported type %s for window operations.",
+              fr.name(col), v.get_type_str()));
+  }
+
+  public WindowLayout layout() {
+    return _layout;
+  }
+
+  public String[] valueNames() {
+    final String[] names = new String[_valueCols.length];
+    for (int i = 0; i < names.length; i++)
+      names[i] = _source.name(_valueCols[i]);
+    return names;
+  }
+
+  public byte[] valueTypes() {
+    final byte[] types = new byte[_valueCols.length];
+    for (int i = 0; i < types.length; i++)
+      types[i] = _source.vec(_valueCols[i]).get_type();
+    return types;
+  }
+
+  public String[][] valueDomains() {
+    final String[][] domains = new String[_valueCols.length][];
+    for (int i = 0; i < domains.length; i++)
+      domains[i] = _source.vec(_valueCols[i]).domain();
+    return domains;
+  }
+
+  /**
+   * @param windowOp Operation producing one output column per value column, in the row order (and with the chunk
+   *                 layout) of its input frame.
+   * @return Result of the window operation in the row order of the source frame.
+   */
+  public Frame apply(final Function<Frame, Frame> windowOp) {
+    final Frame windowed = new Frame();
+    for (int col : _valueCols)
+      windowed.add(_source.name(col), _source.vec(col));
+    for (int col : _byCols)
+      windowed.add(_source.name(col), _source.vec(col));
+    if (_orderCol >= 0)
+      windowed.add(_source.name(_orderCol), _source.vec(_orderCol));
+    final int[] sortCols = new int[windowed.numCols() - _valueCols.length];
+    for (int i = 0; i < sortCols.length; i++)
+      sortCols[i] = _valueCols.length + i;
+    if (sortCols.length == 0)
+      return windowOp.apply(windowed);
+
+    Frame outputFrame = null;
+    try {
+      Scope.enter();
+      windowed.add(LABEL_COLUMN_NAME, Scope.track(makeRowLabels(_source.anyVec())));
+      final Frame sortedFrame = Scope.track(Merge.sort(windowed, sortCols));
+      final Frame result = Scope.track(windowOp.apply(sortedFrame.subframe(0, _layout.numCols())));
+      result.add(LABEL_COLUMN_NAME, sortedFrame.vec(LABEL_COLUMN_NAME));
+      outputFrame = Scope.track(Merge.sort(result, result.numCols() - 1));
+      outputFrame.remove(outputFrame.numCols() - 1).remove();
+      return outputFrame;
+    } finally {
+      if (outputFrame != null) {
+        Scope.exit(outputFrame.keys());
+      } else {
+        Scope.exit(); // Clean up in case of any exception/error.
+      }
+    }
+  }
+
+  private static Vec makeRowLabels(Vec template) {
+    final Vec labels = template.makeZero();
+    new MRTask() {
+      @Override
+      public void map(Chunk c) {
+        final long start = c.start();
+        for (int row = 0; row < c._len; row++)
+          c.set(row, start + row);
+      }
+    }.doAll(labels);
+    return labels;
+  }
+}
@@ -0,0 +1,68 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+
+/**
+ * Aggregates values over a sliding window ending at the current row. The window either spans a fixed number
+ * of rows, or all rows whose ordering value lies within <code>(current - range, current]</code>.
+ * Windows never cross partition boundaries.
+ */
+public class RollingWindowTask extends MRTask<RollingWindowTask> {
+  private final WindowLayout _layout;
+  private final WindowFunction _fun;
+  private final int _window;
+  private final double _range;
+  private final int _minPeriods;
+  private final Frame _preceding;
+
+  /**
+   * @param layout     layout of the windowed frame
+   * @param fun        aggregation to apply
+   * @param window     number of rows in the window, ignored for range-based windows
+   * @param range      extent of the window in units of the ordering column, NaN for row-based windows
+   * @param minPeriods minimum number of non-NA values in the window to produce a result
+   * @param preceding  trailing border rows of each chunk, see {@link CollectChunkBorderRowsTask}
+   */
+  public RollingWindowTask(WindowLayout layout, WindowFunction fun, int window, double range, int minPeriods,
+                           Frame preceding) {
+    _layout = layout;
+    _fun = fun;
+    _window = window;
+    _range = range;
+    _minPeriods = minPeriods;
+    _preceding = preceding;
+  }
+
+  private boolean isRangeBased() {
+    return !Double.isNaN(_range);
+  }
+
+  @Override
+  public void map(Chunk[] cs, NewChunk[] ncs) {
+    final WindowRows rows = WindowRows.gather(cs, _layout, _preceding, isRangeBased() ? -1 : _window - 1, null, 0);
+    for (int c = 0; c < _layout._nValues; c++) {
+      final WindowAccumulator acc = _fun.slidingAccumulator(rows._cols[c]);
+      int start = 0;
+      for (int row = 0; row < rows._n; row++) {
+        while (start < row && !inWindow(rows, start, row))
+          acc.remove(start++);
+        acc.add(row);
+        if (row < rows._offset)
+          continue; // border row, only builds up the window state
+        if (acc._cnt > 0 && acc._cnt >= _minPeriods) ncs[c].addNum(_fun.value(acc));
+        else ncs[c].addNA();
+      }
+    }
+  }
+
+  private boolean inWindow(WindowRows rows, int first, int last) {
+    if (!rows.samePartition(first, last))
+      return false;
+    if (isRangeBased())
+      return rows.order(first) > rows.order(last) - _range;
+    return last - first < _window;
+  }
+}
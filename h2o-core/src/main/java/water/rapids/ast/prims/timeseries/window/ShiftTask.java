@@ -0,0 +1,44 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+
+/**
+ * Shifts values within each partition by a given number of rows, positive offsets produce lags,
+ * negative offsets produce leads. Rows without a counterpart in their partition get an NA.
+ */
+public class ShiftTask extends MRTask<ShiftTask> {
+  private final WindowLayout _layout;
+  private final int _offset;
+  private final Frame _borders;
+
+  /**
+   * @param layout  layout of the windowed frame
+   * @param offset  number of rows to shift by
+   * @param borders trailing (lag) or leading (lead) border rows of each chunk,
+   *                see {@link CollectChunkBorderRowsTask}
+   */
+  public ShiftTask(WindowLayout layout, int offset, Frame borders) {
+    _layout = layout;
+    _offset = offset;
+    _borders = borders;
+  }
+
+  @Override
+  public void map(Chunk[] cs, NewChunk[] ncs) {
+    final WindowRows rows = _offset > 0 ?
+            WindowRows.gather(cs, _layout, _borders, _offset, null, 0) :
+            WindowRows.gather(cs, _layout, null, 0, _borders, -_offset);
+    for (int row = rows._offset; row < rows._offset + rows._chunkLen; row++) {
+      final int src = row - _offset;
+      final boolean valid = src >= 0 && src < rows._n && rows.samePartition(src, row);
+      for (int c = 0; c < _layout._nValues; c++) {
+        final double v = valid ? rows.value(c, src) : Double.NaN;
+        if (Double.isNaN(v)) ncs[c].addNA();
+        else ncs[c].addNum(v);
+      }
+    }
+  }
+}
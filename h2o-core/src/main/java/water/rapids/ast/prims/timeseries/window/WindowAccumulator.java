@@ -0,0 +1,127 @@
+package water.rapids.ast.prims.timeseries.window;
+
+/**
+ * Running state of a {@link WindowFunction}. Values can be removed from the running state (sliding windows);
+ * minimum and maximum are then tracked by monotonic deques of row indices over the source values.
+ * NA values are ignored.
+ */
+final class WindowAccumulator {
+  private final double[] _vals;
+  private final int[] _minDeque;
+  private final int[] _maxDeque;
+  private int _minHead, _minTail, _maxHead, _maxTail;
+
+  double _sum;
+  double _sumSquares;
+  double _prod = 1;
+  double _min = Double.POSITIVE_INFINITY;
+  double _max = Double.NEGATIVE_INFINITY;
+  long _cnt;
+
+  /**
+   * Creates an accumulator for cumulative (append-only) aggregation.
+   */
+  WindowAccumulator() {
+    this(null, false, false);
+  }
+
+  /**
+   * Creates an accumulator for a sliding window over the given values.
+   */
+  WindowAccumulator(double[] vals, boolean trackMin, boolean trackMax) {
+    _vals = vals;
+    _minDeque = trackMin ? new int[vals.length] : null;
+    _maxDeque = trackMax ? new int[vals.length] : null;
+  }
+
+  void add(double v) {
+    if (Double.isNaN(v))
+      return;
+    _sum += v;
+    _sumSquares += v * v;
+    _prod *= v;
+    _min = Math.min(_min, v);
+    _max = Math.max(_max, v);
+    _cnt++;
+  }
+
+  /**
+   * Adds the value at the given index of the source values.
+   */
+  void add(int idx) {
+    final double v = _vals[idx];
+    if (Double.isNaN(v))
+      return;
+    _sum += v;
+    _sumSquares += v * v;
+    _cnt++;
+    if (_minDeque != null) {
+      while (_minTail > _minHead && _vals[_minDeque[_minTail - 1]] >= v) _minTail--;
+      _minDeque[_minTail++] = idx;
+    }
+    if (_maxDeque != null) {
+      while (_maxTail > _maxHead && _vals[_maxDeque[_maxTail - 1]] <= v) _maxTail--;
+      _maxDeque[_maxTail++] = idx;
+    }
+  }
+
+  /**
+   * Removes the value at the given index of the source values, values have to be removed in the order they
+   * were added.
+   */
+  void remove(int idx) {
+    final double v = _vals[idx];
+    if (Double.isNaN(v))
+      return;
+    _sum -= v;
+    _sumSquares -= v * v;
+    _cnt--;
+    if (_minDeque != null && _minTail > _minHead && _minDeque[_minHead] == idx) _minHead++;
+    if (_maxDeque != null && _maxTail > _maxHead && _maxDeque[_maxHead] == idx) _maxHead++;
+  }
+
+  /**
+   * Resets the accumulator to the given state of a cumulative aggregation (see {@link #state()}).
+   */
+  void reset(double[] state) {
+    if (state == null) {
+      _sum = _sumSquares = 0;
+      _prod = 1;
+      _min = Double.POSITIVE_INFINITY;
+      _max = Double.NEGATIVE_INFINITY;
+      _cnt = 0;
+    } else {
+      _sum = state[0];
+      _sumSquares = state[1];
+      _prod = state[2];
+      _min = state[3];
+      _max = state[4];
+      _cnt = (long) state[5];
+    }
+  }
+
+  double[] state() {
+    return new double[]{_sum, _sumSquares, _prod, _min, _max, _cnt};
+  }
+
+  /**
+   * Combines two states of a cumulative aggregation, either of them can be null.
+   */
+  static double[] combine(double[] a, double[] b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    return new double[]{a[0] + b[0], a[1] + b[1], a[2] * b[2], Math.min(a[3], b[3]), Math.max(a[4], b[4]), a[5] + b[5]};
+  }
+
+  double min() {
+    if (_minDeque != null)
+      return _minTail > _minHead ? _vals[_minDeque[_minHead]] : Double.NaN;
+    return _cnt > 0 ? _min : Double.NaN;
+  }
+
+  double max() {
+    if (_maxDeque != null)
+      return _maxTail > _maxHead ? _vals[_maxDeque[_maxHead]] : Double.NaN;
+    return _cnt > 0 ? _max : Double.NaN;
+  }
+}
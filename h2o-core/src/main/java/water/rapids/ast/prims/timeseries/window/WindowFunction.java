@@ -0,0 +1,78 @@
+package water.rapids.ast.prims.timeseries.window;
+
+/**
+ * Aggregations supported by the window primitives.
+ */
+public enum WindowFunction {
+  sum() {
+    @Override
+    double value(WindowAccumulator acc) {
+      return acc._sum;
+    }
+  },
+  mean() {
+    @Override
+    double value(WindowAccumulator acc) {
+      return acc._cnt > 0 ? acc._sum / acc._cnt : Double.NaN;
+    }
+  },
+  min() {
+    @Override
+    double value(WindowAccumulator acc) {
+      return acc.min();
+    }
+
+    @Override
+    WindowAccumulator slidingAccumulator(double[] vals) {
+      return new WindowAccumulator(vals, true, false);
+    }
+  },
+  max() {
+    @Override
+    double value(WindowAccumulator acc) {
+      return acc.max();
+    }
+
+    @Override
+    WindowAccumulator slidingAccumulator(double[] vals) {
+      return new WindowAccumulator(vals, false, true);
+    }
+  },
+  sd() {
+    @Override
+    double value(WindowAccumulator acc) {
+      if (acc._cnt < 2)
+        return Double.NaN;
+      double numerator = acc._sumSquares - acc._sum * acc._sum / acc._cnt;
+      if (numerator < 0) numerator = 0; // rounding errors of the sliding sums
+      return Math.sqrt(numerator / (acc._cnt - 1));
+    }
+  },
+  prod() {
+    @Override
+    double value(WindowAccumulator acc) {
+      return acc._prod;
+    }
+
+    @Override
+    boolean isSlidingSupported() {
+      return false; // removing values from a running product is numerically unsafe
+    }
+  },
+  count() {
+    @Override
+    double value(WindowAccumulator acc) {
+      return acc._cnt;
+    }
+  };
+
+  abstract double value(WindowAccumulator acc);
+
+  WindowAccumulator slidingAccumulator(double[] vals) {
+    return new WindowAccumulator(vals, false, false);
+  }
+
+  boolean isSlidingSupported() {
+    return true;
+  }
+}
@@ -0,0 +1,62 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import water.Iced;
+import water.fvec.Chunk;
+
+/**
+ * Describes the column layout of a frame handed to the window tasks: the value columns come first,
+ * followed by the partitioning ("by") columns and an optional ordering column.
+ */
+public class WindowLayout extends Iced<WindowLayout> {
+  final int _nValues;
+  final int _nBy;
+  final boolean _hasOrder;
+
+  WindowLayout(int nValues, int nBy, boolean hasOrder) {
+    _nValues = nValues;
+    _nBy = nBy;
+    _hasOrder = hasOrder;
+  }
+
+  int numCols() {
+    return _nValues + _nBy + (_hasOrder ? 1 : 0);
+  }
+
+  int byCol(int i) {
+    return _nValues + i;
+  }
+
+  int orderCol() {
+    assert _hasOrder;
+    return _nValues + _nBy;
+  }
+
+  /**
+   * @return true if the two rows of the same chunk set belong to the same partition
+   */
+  boolean samePartition(Chunk[] cs, int rowA, int rowB) {
+    for (int i = 0; i < _nBy; i++) {
+      if (Double.compare(cs[byCol(i)].atd(rowA), cs[byCol(i)].atd(rowB)) != 0)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the row belongs to the partition identified by the given key
+   */
+  boolean inPartition(Chunk[] cs, int row, double[] key) {
+    for (int i = 0; i < _nBy; i++) {
+      if (Double.compare(cs[byCol(i)].atd(row), key[i]) != 0)
+        return false;
+    }
+    return true;
+  }
+
+  double[] partitionKey(Chunk[] cs, int row) {
+    double[] key = new double[_nBy];
+    for (int i = 0; i < _nBy; i++)
+      key[i] = cs[byCol(i)].atd(row);
+    return key;
+  }
+}
@@ -0,0 +1,119 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import water.fvec.Chunk;
+import water.fvec.Frame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rows of a single chunk extended with the border rows of the neighbouring chunks, decoded into plain arrays.
+ * Rows of the chunk itself are at indices <code>[_offset, _offset + _chunkLen)</code>.
+ */
+final class WindowRows {
+  final WindowLayout _layout;
+  final double[][] _cols;
+  final int _offset;
+  final int _chunkLen;
+  final int _n;
+
+  private WindowRows(WindowLayout layout, double[][] cols, int offset, int chunkLen) {
+    _layout = layout;
+    _cols = cols;
+    _offset = offset;
+    _chunkLen = chunkLen;
+    _n = cols.length == 0 ? 0 : cols[0].length;
+  }
+
+  /**
+   * @param cs             chunks of the windowed frame
+   * @param layout         layout of the windowed frame
+   * @param preceding      trailing border rows of each chunk (see {@link CollectChunkBorderRowsTask}), or null
+   * @param precedingRows  number of preceding rows needed, or -1 to collect rows until a border chunk
+   *                       does not cover all rows of its source chunk (range-based windows)
+   * @param following      leading border rows of each chunk, or null
+   * @param followingRows  number of following rows needed
+   */
+  static WindowRows gather(Chunk[] cs, WindowLayout layout, Frame preceding, int precedingRows,
+                           Frame following, int followingRows) {
+    final int cidx = cs[0].cidx();
+    final int ncols = layout.numCols();
+    final List<Chunk[]> before = new ArrayList<>();
+    int nBefore = 0;
+    if (preceding != null) {
+      for (int j = cidx - 1; j >= 0; j--) {
+        if (precedingRows >= 0 && nBefore >= precedingRows)
+          break;
+        final Chunk[] border = borderChunks(preceding, j, ncols);
+        final int borderLen = border[0]._len;
+        if (borderLen > 0 && layout._nBy > 0 && !samePartition(layout, border, borderLen - 1, cs, 0))
+          break; // border rows belong to a different partition, so do all the rows before them
+        before.add(border);
+        nBefore += borderLen;
+        if (precedingRows < 0 && borderLen < cs[0].vec().chunkLen(j))
+          break;
+      }
+    }
+    final List<Chunk[]> after = new ArrayList<>();
+    int nAfter = 0;
+    if (following != null) {
+      final int nChunks = cs[0].vec().nChunks();
+      for (int j = cidx + 1; j < nChunks && nAfter < followingRows; j++) {
+        final Chunk[] border = borderChunks(following, j, ncols);
+        after.add(border);
+        nAfter += border[0]._len;
+      }
+    }
+    final int len = cs[0]._len;
+    final double[][] cols = new double[ncols][nBefore + len + nAfter];
+    int pos = 0;
+    for (int k = before.size() - 1; k >= 0; k--)
+      pos = copy(before.get(k), cols, pos);
+    pos = copy(cs, cols, pos);
+    for (Chunk[] border : after)
+      pos = copy(border, cols, pos);
+    assert pos == cols[0].length;
+    return new WindowRows(layout, cols, nBefore, len);
+  }
+
+  private static Chunk[] borderChunks(Frame border, int cidx, int ncols) {
+    final Chunk[] chunks = new Chunk[ncols];
+    for (int i = 0; i < ncols; i++)
+      chunks[i] = border.vec(i).chunkForChunkIdx(cidx);
+    return chunks;
+  }
+
+  private static boolean samePartition(WindowLayout layout, Chunk[] csA, int rowA, Chunk[] csB, int rowB) {
+    for (int i = 0; i < layout._nBy; i++) {
+      final int col = layout.byCol(i);
+      if (Double.compare(csA[col].atd(rowA), csB[col].atd(rowB)) != 0)
+        return false;
+    }
+    return true;
+  }
+
+  private static int copy(Chunk[] cs, double[][] cols, int pos) {
+    final int len = cs[0]._len;
+    for (int i = 0; i < cols.length; i++)
+      for (int row = 0; row < len; row++)
+        cols[i][pos + row] = cs[i].atd(row);
+    return pos + len;
+  }
+
+  double value(int valueCol, int row) {
+    return _cols[valueCol][row];
+  }
+
+  double order(int row) {
+    return _cols[_layout.orderCol()][row];
+  }
+
+  boolean samePartition(int rowA, int rowB) {
+    for (int i = 0; i < _layout._nBy; i++) {
+      final int col = _layout.byCol(i);
+      if (Double.compare(_cols[col][rowA], _cols[col][rowB]) != 0)
+        return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,95 @@
+package water.util;
+
+import water.Iced;
+
+/**
+ * Mergeable HyperLogLog sketch for approximate distinct counts (Flajolet et al., "HyperLogLog: the analysis of a
+ * near-optimal cardinality estimation algorithm"). As in the paper, small cardinalities (raw estimate up to
+ * <code>2.5 * 2^p</code>) are estimated by linear counting of the empty registers; the empirical bias correction of
+ * HyperLogLog++ (Heule et al.) is not applied.
+ * <p/>
+ * Values are added as 64-bit hashes, see the static <code>hash</code> helpers. With precision <code>p</code> the
+ * sketch keeps <code>2^p</code> one-byte registers and the relative standard error of the estimate is about
+ * <code>1.04 / sqrt(2^p)</code>, independently of the number of values. Sketches of the same precision computed
+ * over different parts of the data can be merged.
+ */
+public class HyperLogLog extends Iced<HyperLogLog> {
+  public static final int DEFAULT_PRECISION = 12; // 4096 registers, ~1.6% relative error
+
+  private final int _p;
+  private final byte[] _registers;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  public HyperLogLog(int precision) {
+    if (precision < 4 || precision > 18)
+      throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 18: " + precision);
+    _p = precision;
+    _registers = new byte[1 << precision];
+  }
+
+  public void add(long hash) {
+    final int idx = (int) (hash >>> (64 - _p));
+    final long w = hash << _p;
+    final int rho = w == 0 ? 64 - _p + 1 : Long.numberOfLeadingZeros(w) + 1;
+    if (rho > _registers[idx])
+      _registers[idx] = (byte) rho;
+  }
+
+  public void merge(HyperLogLog other) {
+    if (other == null)
+      return;
+    if (other._p != _p)
+      throw new IllegalArgumentException("Cannot merge HyperLogLog sketches of different precision: " + _p + " != " + other._p);
+    for (int i = 0; i < _registers.length; i++)
+      if (other._registers[i] > _registers[i])
+        _registers[i] = other._registers[i];
+  }
+
+  /** @return estimated number of distinct values added to the sketch */
+  public long estimate() {
+    final int m = _registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte r : _registers) {
+      sum += Math.scalb(1.0, -r);
+      if (r == 0) zeros++;
+    }
+    final double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+    final double estimate = alpha * m * (double) m / sum;
+    if (estimate <= 2.5 * m && zeros > 0)
+      return Math.round(m * Math.log((double) m / zeros)); // linear counting for small cardinalities
+    return Math.round(estimate);
+  }
+
+  /** Finalization step of MurmurHash3, spreads the bits of the key over the whole 64-bit hash. */
+  public static long hash(long key) {
+    key ^= 0x9e3779b97f4a7c15L; // so that zero does not hash to zero
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return key;
+  }
+
+  public static long hash(double d) {
+    return hash(Double.doubleToLongBits(d == 0 ? 0.0 : d)); // -0.0 and 0.0 are the same value
+  }
+
+  public static long hash(long lo, long hi) {
+    return hash(lo ^ hash(hi));
+  }
+
+  /** 64-bit FNV-1a hash of the given bytes, finalized to improve the distribution of the low bits. */
+  public static long hash(byte[] buf, int off, int len) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = off; i < off + len; i++) {
+      h ^= buf[i];
+      h *= 0x100000001b3L;
+    }
+    return hash(h);
+  }
+}
@@ -0,0 +1,185 @@
+package water.fvec;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import water.Scope;
+import water.TestUtil;
+import water.rapids.Rapids;
+import water.runner.CloudSize;
+import water.runner.H2ORunner;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@RunWith(H2ORunner.class)
+@CloudSize(1)
+public class BitmapIndexTest extends TestUtil {
+
+  @Test
+  public void testChunkIndex() {
+    try {
+      Scope.enter();
+      Frame fr = makeTestFrame(12345);
+      Vec v = fr.vec(0);
+      assertTrue(BitmapIndex.isIndexable(v));
+      for (int cidx = 0; cidx < v.nChunks(); cidx++) {
+        Chunk c = v.chunkForChunkIdx(cidx);
+        BitmapIndex.ChunkIndex idx = BitmapIndex.get(c);
+        assertSame(idx, BitmapIndex.get(c));
+        boolean[] levels = new boolean[v.cardinality()];
+        levels[1] = true;
+        levels[3] = true;
+        BitSet rows = idx.rows(levels, true);
+        for (int r = 0; r < c._len; r++) {
+          boolean expected = c.isNA(r) || c.at8(r) == 1 || c.at8(r) == 3;
+          assertEquals(expected, rows.get(r));
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testEqualityFilterMatchesScan() {
+    try {
+      Scope.enter();
+      Frame fr = makeTestFrame(42);
+      Frame eq = Scope.track(Rapids.exec("(== (cols data [0]) \"c\")").getFrame());
+      Frame ne = Scope.track(Rapids.exec("(!= \"c\" (cols data [0]))").getFrame());
+      Vec v = fr.vec(0);
+      int cLevel = 2;
+      for (long r = 0; r < v.length(); r++) {
+        boolean isC = !v.isNA(r) && v.at8(r) == cLevel;
+        assertEquals(isC ? 1 : 0, eq.vec(0).at8(r));
+        assertEquals(isC ? 0 : 1, ne.vec(0).at8(r));
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testWhichMatchesScan() {
+    try {
+      Scope.enter();
+      Frame fr = makeTestFrame(42, false);
+      Frame which = Scope.track(Rapids.exec("(which (cols data [0]))").getFrame());
+      Vec v = fr.vec(0);
+      long nonZero = 0;
+      for (long r = 0; r < v.length(); r++)
+        if (v.at8(r) != 0)
+          assertEquals(r, which.vec(0).at8(nonZero++));
+      assertEquals(nonZero, which.numRows());
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testWhichFailsOnNAs() {
+    try {
+      Scope.enter();
+      makeTestFrame(42);
+      try {
+        Scope.track(Rapids.exec("(which (cols data [0]))").getFrame());
+        fail("NAs in a categorical column are expected to fail, same as without the index");
+      } catch (RuntimeException e) {
+        // expected
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testIndexIsInvalidatedOnWrite() {
+    try {
+      Scope.enter();
+      Frame fr = makeTestFrame(7);
+      Vec v = fr.vec(0);
+      Frame before = Scope.track(Rapids.exec("(== (cols data [0]) \"a\")").getFrame());
+
+      long row = 0;
+      while (v.isNA(row) || v.at8(row) == 0) row++;
+      assertEquals(0, before.vec(0).at8(row));
+      BitmapIndex.ChunkIndex idx = BitmapIndex.get(v.chunkForRow(row));
+      try (Vec.Writer w = v.open()) {
+        w.set(row, 0);
+      }
+      assertNotSame(idx, BitmapIndex.get(v.chunkForRow(row)));
+
+      Frame after = Scope.track(Rapids.exec("(== (cols data [0]) \"a\")").getFrame());
+      assertEquals(1, after.vec(0).at8(row));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testIndexIsInvalidatedOnLevelPermutation() {
+    try {
+      Scope.enter();
+      Frame fr = makeTestFrame(7);
+      Vec v = fr.vec(0);
+      Scope.track(Rapids.exec("(== (cols data [0]) \"a\")").getFrame());
+
+      // swap the levels "a" and "b" in place, the content of the Vec stays the same multiset of values
+      try (Vec.Writer w = v.open()) {
+        for (long r = 0; r < v.length(); r++)
+          if (!v.isNA(r) && v.at8(r) <= 1)
+            w.set(r, 1 - v.at8(r));
+      }
+      Frame eqA = Scope.track(Rapids.exec("(== (cols data [0]) \"a\")").getFrame());
+      Frame matchB = Scope.track(Rapids.exec("(match (cols data [0]) [\"b\"] 0 ignored)").getFrame());
+      for (long r = 0; r < v.length(); r++) {
+        assertEquals(!v.isNA(r) && v.at8(r) == 0 ? 1 : 0, eqA.vec(0).at8(r));
+        assertEquals(!v.isNA(r) && v.at8(r) == 1 ? 1 : 0, matchB.vec(0).at8(r));
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testEviction() {
+    try {
+      Scope.enter();
+      Frame fr = makeTestFrame(3);
+      Chunk c = fr.vec(0).chunkForChunkIdx(0);
+      BitmapIndex.ChunkIndex idx = BitmapIndex.get(c);
+      assertTrue(BitmapIndex.cachedBytes() > 0);
+
+      BitmapIndex.evict(0);
+      assertEquals(0, BitmapIndex.cachedBytes());
+      assertNotSame(idx, BitmapIndex.get(c));
+
+      fr.remove();
+      assertEquals(0, BitmapIndex.cachedBytes());
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static Frame makeTestFrame(long seed) {
+    return makeTestFrame(seed, true);
+  }
+
+  private static Frame makeTestFrame(long seed, boolean withNAs) {
+    Random rnd = new Random(seed);
+    String[] levels = {"a", "b", "c", "d", "e"};
+    String[] data = new String[30000];
+    for (int i = 0; i < data.length; i++) // mix of frequent (dense) and rare (sparse) levels
+      data[i] = withNAs && rnd.nextInt(20) == 0 ? null : levels[rnd.nextInt(50) == 0 ? rnd.nextInt(levels.length) : rnd.nextInt(2)];
+    return new TestFrameBuilder()
+            .withName("data")
+            .withColNames("C1")
+            .withVecTypes(Vec.T_CAT)
+            .withDataForCol(0, data)
+            .withChunkLayout(10000, 5000, 15000)
+            .build();
+  }
+
+}
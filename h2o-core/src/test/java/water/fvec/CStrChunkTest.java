@@ -6,8 +6,10 @@ import water.IcedUtils;
 import water.TestUtil;
 import water.parser.BufferedString;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 import static org.junit.Assert.*;
 
@@ -154,6 +156,98 @@ public class CStrChunkTest extends TestUtil {
     assertEquals("", sut.at(0));
   }
 
+  @Test
+  public void test_literalSearch() {
+    TextChunk sut = new TextChunk(Arrays.asList("abcabc", "", "Žluťoučký kůň", "ABC"));
+    byte[] abc = "abc".getBytes(StandardCharsets.UTF_8);
+    assertEquals(0, sut.cc.indexOf(0, abc, false));
+    assertEquals(-1, sut.cc.indexOf(1, abc, false));
+    assertEquals(14, sut.cc.indexOf(2, "kůň".getBytes(StandardCharsets.UTF_8), false));
+    assertEquals(-1, sut.cc.indexOf(3, abc, false));
+    assertEquals(0, sut.cc.indexOf(3, abc, true));
+    assertTrue(sut.cc.startsWith(2, "Žlu".getBytes(StandardCharsets.UTF_8), false));
+    assertTrue(sut.cc.endsWith(2, "ůň".getBytes(StandardCharsets.UTF_8), false));
+    assertFalse(sut.cc.endsWith(1, abc, false));
+    assertTrue(sut.cc.endsWith(0, abc, false));
+  }
+
+  @Test
+  public void test_replaceAllLiteral() {
+    List<String> content = Arrays.asList("aaa", "", "xaax", "čaač", "no match", "AaA");
+    TextChunk sut = new TextChunk(content);
+    sut.updateFrom(sut.cc.replaceAllLiteral(sut.newChunk(), "aa".getBytes(StandardCharsets.UTF_8),
+            "ř".getBytes(StandardCharsets.UTF_8), false));
+    for (int i = 0; i < content.size(); i++)
+      assertEquals(content.get(i).replaceAll("aa", "ř"), sut.at(i));
+  }
+
+  @Test
+  public void test_replaceAllLiteralIgnoreCase() {
+    List<String> content = Arrays.asList("AaA", "xAAx", "bbb");
+    TextChunk sut = new TextChunk(content);
+    assertTrue(sut.cc._isAllASCII);
+    sut.updateFrom(sut.cc.replaceAllLiteral(sut.newChunk(), "aa".getBytes(StandardCharsets.UTF_8),
+            "-".getBytes(StandardCharsets.UTF_8), true));
+    for (int i = 0; i < content.size(); i++)
+      assertEquals(content.get(i).toLowerCase().replaceAll("aa", "-"), sut.at(i));
+  }
+
+  @Test
+  public void test_splitLiteral() {
+    List<String> content = Arrays.asList("a,b,c", "", ",", ",a,,b,,", "no separator", "ž,,ř");
+    TextChunk sut = new TextChunk(content);
+    byte[] sep = ",".getBytes(StandardCharsets.UTF_8);
+    int[] bounds = new int[2];
+    for (int i = 0; i < content.size(); i++) {
+      String[] expected = content.get(i).split(",");
+      bounds = sut.cc.splitLiteral(i, sep, bounds);
+      assertEquals(expected.length, CStrChunk.splitCount(bounds));
+    }
+    NewChunk[] ncs = new NewChunk[4];
+    for (int i = 0; i < ncs.length; i++) ncs[i] = new NewChunk(null, 0);
+    sut.cc.splitLiteral(ncs, sep);
+    for (int i = 0; i < content.size(); i++) {
+      String[] expected = content.get(i).split(",");
+      for (int col = 0; col < ncs.length; col++) {
+        Chunk c = ncs[col].compress();
+        if (col < expected.length)
+          assertEquals(expected[col], c.atStr(new BufferedString(), i).toString());
+        else
+          assertTrue(c.isNA(i));
+      }
+    }
+  }
+
+  @Test
+  public void test_caseFolding() {
+    List<String> content = Arrays.asList("Hello World", "ŽLUŤOUČKÝ Kůň", "");
+    TextChunk sut = new TextChunk(content);
+    assertFalse(sut.cc._isAllASCII);
+    TextChunk lower = new TextChunk(content);
+    lower.updateFrom(sut.cc.toLower(sut.newChunk()));
+    TextChunk upper = new TextChunk(content);
+    upper.updateFrom(sut.cc.toUpper(sut.newChunk()));
+    for (int i = 0; i < content.size(); i++) {
+      assertEquals(content.get(i).toLowerCase(Locale.ENGLISH), lower.at(i));
+      assertEquals(content.get(i).toUpperCase(Locale.ENGLISH), upper.at(i));
+    }
+  }
+
+  @Test
+  public void test_utf8Substring() {
+    List<String> content = Arrays.asList("Žluťoučký kůň", "ab", "", "x\uD83D\uDE00yz", "€uro");
+    TextChunk sut = new TextChunk(content);
+    int[][] ranges = {{0, 1}, {1, 3}, {2, 100}, {0, Integer.MAX_VALUE}, {50, 60}};
+    for (int[] range : ranges) {
+      TextChunk sub = new TextChunk(content);
+      sub.updateFrom(sut.cc.utf8Substring(sut.newChunk(), range[0], range[1]));
+      for (int i = 0; i < content.size(); i++) {
+        String s = content.get(i);
+        assertEquals(s.substring(Math.min(range[0], s.length()), Math.min(range[1], s.length())), sub.at(i));
+      }
+    }
+  }
+
   class TextChunk {
     CStrChunk cc;
 
@@ -151,4 +151,28 @@ public class AstUniqueTest extends TestUtil {
     }
   }
 
+  @Test
+  public void approxUniqueCountTest() {
+    Scope.enter();
+    try {
+      final Frame fr = new TestFrameBuilder()
+              .withName("testFrame")
+              .withColNames("ColA", "ColB", "ColC")
+              .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_STR)
+              .withDataForCol(0, ard(1, 2, 2, 3, Double.NaN, 0))
+              .withDataForCol(1, ar("a", "b", "a", "b", "a", null))
+              .withDataForCol(2, ar("x", "y", "z", "x", null, "w"))
+              .withChunkLayout(2, 2, 2)
+              .build();
+      final Val val = Rapids.exec("(approx_nunique testFrame)");
+      final double[] res = val.getNums();
+      assertEquals(3, res.length);
+      assertEquals(4, res[0], 0);
+      assertEquals(2, res[1], 0);
+      assertEquals(4, res[2], 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
 }
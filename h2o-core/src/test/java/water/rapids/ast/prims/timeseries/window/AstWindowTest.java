@@ -0,0 +1,116 @@
+package water.rapids.ast.prims.timeseries.window;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.Rapids;
+import water.rapids.Session;
+import water.rapids.Val;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test for the {@link AstWindow} primitives - shift, rolling and cumulative.
+ */
+public class AstWindowTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() { stall_till_cloudsize(1); }
+
+  private static Frame makeFrame(Session sess) {
+    return new TestFrameBuilder()
+            .withName("$fr", sess)
+            .withColNames("g", "t", "x")
+            .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM)
+            .withDataForCol(0, ar("A", "B", "A", "B", "A", "B", "A", "B"))
+            .withDataForCol(1, ard(1, 1, 2, 2, 3, 3, 4, 4))
+            .withDataForCol(2, ard(1, 10, 2, 20, 3, 30, 4, Double.NaN))
+            .withChunkLayout(3, 3, 2)
+            .build();
+  }
+
+  private static Frame exec(String rapids, Session sess) {
+    Val val = Rapids.exec(rapids, sess);
+    Frame res = Scope.track(val.getFrame());
+    assertEquals(1, res.numCols());
+    assertEquals("x", res.name(0));
+    return res;
+  }
+
+  @Test
+  public void testShiftPartitioned() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      makeFrame(sess);
+      Frame lag = exec("(shift $fr [\"x\"] [\"g\"] [\"t\"] 1)", sess);
+      assertVecEquals(dvec(Double.NaN, Double.NaN, 1, 10, 2, 20, 3, 30), lag.vec(0), 0);
+      Frame lead = exec("(shift $fr [\"x\"] [\"g\"] [\"t\"] -1)", sess);
+      assertVecEquals(dvec(2, 20, 3, 30, 4, Double.NaN, Double.NaN, Double.NaN), lead.vec(0), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testRollingRows() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      makeFrame(sess);
+      Frame partitioned = exec("(rolling $fr [\"x\"] [\"g\"] [\"t\"] \"sum\" 2 0 1)", sess);
+      assertVecEquals(dvec(1, 10, 3, 30, 5, 50, 7, 30), partitioned.vec(0), 1e-10);
+      // natural row order, windows spanning chunk boundaries
+      Frame natural = exec("(rolling $fr [\"x\"] [] [] \"sum\" 3 0 1)", sess);
+      assertVecEquals(dvec(1, 11, 13, 32, 25, 53, 37, 34), natural.vec(0), 1e-10);
+      Frame max = exec("(rolling $fr [\"x\"] [] [] \"max\" 3 0 3)", sess);
+      assertVecEquals(dvec(Double.NaN, Double.NaN, 10, 20, 20, 30, 30, Double.NaN), max.vec(0), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testRollingRange() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      makeFrame(sess);
+      Frame mean = exec("(rolling $fr [\"x\"] [\"g\"] [\"t\"] \"mean\" 0 2 1)", sess);
+      assertVecEquals(dvec(1, 10, 1.5, 15, 2.5, 25, 3.5, 30), mean.vec(0), 1e-10);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testCumulativePartitioned() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      makeFrame(sess);
+      Frame sum = exec("(cumulative $fr [\"x\"] [\"g\"] [\"t\"] \"sum\")", sess);
+      assertVecEquals(dvec(1, 10, 3, 30, 6, 60, 10, Double.NaN), sum.vec(0), 1e-10);
+      Frame count = exec("(cumulative $fr [\"x\"] [] [] \"count\")", sess);
+      assertVecEquals(dvec(1, 2, 3, 4, 5, 6, 7, Double.NaN), count.vec(0), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRollingProdNotSupported() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      makeFrame(sess);
+      Rapids.exec("(rolling $fr [\"x\"] [] [] \"prod\" 2 0 1)", sess);
+    } finally {
+      Scope.exit();
+    }
+  }
+}
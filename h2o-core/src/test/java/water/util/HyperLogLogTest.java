@@ -0,0 +1,46 @@
+package water.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HyperLogLogTest {
+
+  @Test
+  public void testSmallCardinalityIsNearlyExact() {
+    HyperLogLog hll = new HyperLogLog();
+    for (int rep = 0; rep < 10; rep++)
+      for (int i = 0; i < 100; i++)
+        hll.add(HyperLogLog.hash((double) i));
+    assertEquals(100, hll.estimate(), 2);
+  }
+
+  @Test
+  public void testLargeCardinalityWithinError() {
+    HyperLogLog hll = new HyperLogLog();
+    final int n = 1000000;
+    for (int i = 0; i < n; i++)
+      hll.add(HyperLogLog.hash((long) i));
+    assertEquals(n, hll.estimate(), 0.05 * n); // ~3 standard errors
+  }
+
+  @Test
+  public void testMerge() {
+    HyperLogLog all = new HyperLogLog(10);
+    HyperLogLog a = new HyperLogLog(10);
+    HyperLogLog b = new HyperLogLog(10);
+    for (int i = 0; i < 50000; i++) {
+      long h = HyperLogLog.hash((long) i);
+      all.add(h);
+      (i < 30000 ? a : b).add(h);
+      if (i % 3 == 0) b.add(h); // overlap
+    }
+    a.merge(b);
+    assertEquals(all.estimate(), a.estimate());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentPrecision() {
+    new HyperLogLog(10).merge(new HyperLogLog(12));
+  }
+}
@@ -31,12 +31,12 @@ class H2OGradientBoostingEstimator(H2OEstimator):
                    "nbins_top_level", "nbins_cats", "r2_stopping", "stopping_rounds", "stopping_metric",
                    "stopping_tolerance", "max_runtime_secs", "seed", "build_tree_one_node", "learn_rate",
                    "learn_rate_annealing", "distribution", "quantile_alpha", "tweedie_power", "huber_alpha",
-                   "checkpoint", "sample_rate", "sample_rate_per_class", "col_sample_rate",
-                   "col_sample_rate_change_per_level", "col_sample_rate_per_tree", "min_split_improvement",
-                   "histogram_type", "max_abs_leafnode_pred", "pred_noise_bandwidth", "categorical_encoding",
-                   "calibrate_model", "calibration_frame", "custom_metric_func", "custom_distribution_func",
-                   "export_checkpoints_dir", "monotone_constraints", "check_constant_response", "gainslift_bins",
-                   "auc_type"}
+                   "checkpoint", "sample_rate", "sample_rate_per_class", "goss_top_rate", "goss_other_rate",
+                   "col_sample_rate", "col_sample_rate_change_per_level", "col_sample_rate_per_tree",
+                   "min_split_improvement", "histogram_type", "histogram_subtraction", "max_abs_leafnode_pred",
+                   "pred_noise_bandwidth", "categorical_encoding", "calibrate_model", "calibration_frame",
+                   "custom_metric_func", "custom_distribution_func", "export_checkpoints_dir", "monotone_constraints",
+                   "check_constant_response", "gainslift_bins", "auc_type"}
 
     def __init__(self, **kwargs):
         super(H2OGradientBoostingEstimator, self).__init__()
@@ -1327,6 +1327,38 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         self._parms["sample_rate_per_class"] = sample_rate_per_class
 
 
+    @property
+    def goss_top_rate(self):
+        """
+        Gradient-based one-side sampling (GOSS): fraction of rows with the largest gradients that are always used for
+        building a tree (0 disables GOSS)
+
+        Type: ``float``  (default: ``0``).
+        """
+        return self._parms.get("goss_top_rate")
+
+    @goss_top_rate.setter
+    def goss_top_rate(self, goss_top_rate):
+        assert_is_type(goss_top_rate, None, numeric)
+        self._parms["goss_top_rate"] = goss_top_rate
+
+
+    @property
+    def goss_other_rate(self):
+        """
+        Gradient-based one-side sampling (GOSS): fraction of rows randomly sampled from the rows with small gradients,
+        their weights are scaled up accordingly
+
+        Type: ``float``  (default: ``0.1``).
+        """
+        return self._parms.get("goss_other_rate")
+
+    @goss_other_rate.setter
+    def goss_other_rate(self, goss_other_rate):
+        assert_is_type(goss_other_rate, None, numeric)
+        self._parms["goss_other_rate"] = goss_other_rate
+
+
     @property
     def col_sample_rate(self):
         """
@@ -1498,6 +1530,23 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         self._parms["histogram_type"] = histogram_type
 
 
+    @property
+    def histogram_subtraction(self):
+        """
+        Build histograms only for the smaller child of each split and derive histograms of the larger child by
+        subtracting them from the histograms of the parent. Children then keep the bins of the parent instead of
+        adapting them to the range of their data.
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("histogram_subtraction")
+
+    @histogram_subtraction.setter
+    def histogram_subtraction(self, histogram_subtraction):
+        assert_is_type(histogram_subtraction, None, bool)
+        self._parms["histogram_subtraction"] = histogram_subtraction
+
+
     @property
     def max_abs_leafnode_pred(self):
         """
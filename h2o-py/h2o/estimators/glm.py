@@ -39,10 +39,10 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
                    "plug_values", "compute_p_values", "remove_collinear_columns", "intercept", "non_negative",
                    "max_iterations", "objective_epsilon", "beta_epsilon", "gradient_epsilon", "link", "rand_link",
                    "startval", "calc_like", "HGLM", "prior", "cold_start", "lambda_min_ratio", "beta_constraints",
-                   "max_active_predictors", "interactions", "interaction_pairs", "obj_reg", "stopping_rounds",
-                   "stopping_metric", "stopping_tolerance", "balance_classes", "class_sampling_factors",
-                   "max_after_balance_size", "max_confusion_matrix_size", "max_runtime_secs", "custom_metric_func",
-                   "auc_type"}
+                   "max_active_predictors", "interactions", "interaction_pairs", "obj_reg", "sgd_batch_size",
+                   "sgd_learning_rate", "sgd_holdout", "sgd_average", "stopping_rounds", "stopping_metric",
+                   "stopping_tolerance", "balance_classes", "class_sampling_factors", "max_after_balance_size",
+                   "max_confusion_matrix_size", "max_runtime_secs", "custom_metric_func", "auc_type"}
 
     def __init__(self, **kwargs):
         super(H2OGeneralizedLinearEstimator, self).__init__()
@@ -720,7 +720,7 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
         number of predictors and for lambda-search with L1 penalty, L_BFGS scales better for datasets with many columns.
 
         One of: ``"auto"``, ``"irlsm"``, ``"l_bfgs"``, ``"coordinate_descent_naive"``, ``"coordinate_descent"``,
-        ``"gradient_descent_lh"``, ``"gradient_descent_sqerr"``  (default: ``"auto"``).
+        ``"gradient_descent_lh"``, ``"gradient_descent_sqerr"``, ``"sgd"``  (default: ``"auto"``).
 
         :examples:
 
@@ -740,7 +740,7 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
 
     @solver.setter
     def solver(self, solver):
-        assert_is_type(solver, None, Enum("auto", "irlsm", "l_bfgs", "coordinate_descent_naive", "coordinate_descent", "gradient_descent_lh", "gradient_descent_sqerr"))
+        assert_is_type(solver, None, Enum("auto", "irlsm", "l_bfgs", "coordinate_descent_naive", "coordinate_descent", "gradient_descent_lh", "gradient_descent_sqerr", "sgd"))
         self._parms["solver"] = solver
 
 
@@ -1586,6 +1586,67 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
         self._parms["obj_reg"] = obj_reg
 
 
+    @property
+    def sgd_batch_size(self):
+        """
+        Number of rows per mini-batch of the SGD solver.
+
+        Type: ``int``  (default: ``256``).
+        """
+        return self._parms.get("sgd_batch_size")
+
+    @sgd_batch_size.setter
+    def sgd_batch_size(self, sgd_batch_size):
+        assert_is_type(sgd_batch_size, None, int)
+        self._parms["sgd_batch_size"] = sgd_batch_size
+
+
+    @property
+    def sgd_learning_rate(self):
+        """
+        Learning rate of the Adam updates of the SGD solver.
+
+        Type: ``float``  (default: ``0.01``).
+        """
+        return self._parms.get("sgd_learning_rate")
+
+    @sgd_learning_rate.setter
+    def sgd_learning_rate(self, sgd_learning_rate):
+        assert_is_type(sgd_learning_rate, None, numeric)
+        self._parms["sgd_learning_rate"] = sgd_learning_rate
+
+
+    @property
+    def sgd_holdout(self):
+        """
+        Every sgd_holdout-th row is held out by the SGD solver, it stops when the loss of the held out rows stops
+        improving. Use 0 to train on all the rows for max_iterations passes.
+
+        Type: ``int``  (default: ``100``).
+        """
+        return self._parms.get("sgd_holdout")
+
+    @sgd_holdout.setter
+    def sgd_holdout(self, sgd_holdout):
+        assert_is_type(sgd_holdout, None, int)
+        self._parms["sgd_holdout"] = sgd_holdout
+
+
+    @property
+    def sgd_average(self):
+        """
+        Average the coefficients of the SGD solver over the steps after the first pass.
+
+        Type: ``bool``  (default: ``True``).
+        """
+        return self._parms.get("sgd_average")
+
+    @sgd_average.setter
+    def sgd_average(self, sgd_average):
+        assert_is_type(sgd_average, None, bool)
+        self._parms["sgd_average"] = sgd_average
+
+
     @property
     def stopping_rounds(self):
         """
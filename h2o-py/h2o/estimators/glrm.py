@@ -693,7 +693,7 @@ class H2OGeneralizedLowRankEstimator(H2OEstimator):
         """
         Method for computing SVD during initialization (Caution: Randomized is currently experimental and unstable)
 
-        One of: ``"gram_s_v_d"``, ``"power"``, ``"randomized"``  (default: ``"randomized"``).
+        One of: ``"gram_s_v_d"``, ``"power"``, ``"randomized"``, ``"single_pass"``  (default: ``"randomized"``).
 
         :examples:
 
@@ -710,7 +710,7 @@ class H2OGeneralizedLowRankEstimator(H2OEstimator):
 
     @svd_method.setter
     def svd_method(self, svd_method):
-        assert_is_type(svd_method, None, Enum("gram_s_v_d", "power", "randomized"))
+        assert_is_type(svd_method, None, Enum("gram_s_v_d", "power", "randomized", "single_pass"))
         self._parms["svd_method"] = svd_method
 
 
@@ -24,7 +24,7 @@ class H2OKMeansEstimator(H2OEstimator):
                    "keep_cross_validation_predictions", "keep_cross_validation_fold_assignment", "fold_assignment",
                    "fold_column", "ignored_columns", "ignore_const_cols", "score_each_iteration", "k", "estimate_k",
                    "user_points", "max_iterations", "standardize", "seed", "init", "max_runtime_secs",
-                   "categorical_encoding", "export_checkpoints_dir", "cluster_size_constraints"}
+                   "categorical_encoding", "export_checkpoints_dir", "cluster_size_constraints", "mini_batch_size"}
 
     def __init__(self, **kwargs):
         super(H2OKMeansEstimator, self).__init__()
@@ -652,3 +652,33 @@ class H2OKMeansEstimator(H2OEstimator):
         self._parms["cluster_size_constraints"] = cluster_size_constraints
 
 
+    @property
+    def mini_batch_size(self):
+        """
+        If positive, the Lloyds iterations are replaced by mini-batch iterations on random samples of about this many
+        rows, followed by a single full assignment pass. Zero to disable.
+
+        Type: ``int``  (default: ``0``).
+
+        :examples:
+
+        >>> prostate = h2o.import_file("http://s3.amazonaws.com/h2o-public-test-data/smalldata/prostate/prostate.csv")
+        >>> predictors = ["AGE", "RACE", "DPROS", "DCAPS", "PSA", "VOL", "GLEASON"]
+        >>> train, valid = prostate.split_frame(ratios=[.8], seed=1234)
+        >>> pros_km = H2OKMeansEstimator(k=3,
+        ...                              mini_batch_size=100,
+        ...                              max_iterations=20,
+        ...                              seed=1234)
+        >>> pros_km.train(x=predictors,
+        ...               training_frame=train,
+        ...               validation_frame=valid)
+        >>> pros_km.scoring_history()
+        """
+        return self._parms.get("mini_batch_size")
+
+    @mini_batch_size.setter
+    def mini_batch_size(self, mini_batch_size):
+        assert_is_type(mini_batch_size, None, int)
+        self._parms["mini_batch_size"] = mini_batch_size
+
+
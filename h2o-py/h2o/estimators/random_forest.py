@@ -29,8 +29,8 @@ class H2ORandomForestEstimator(H2OEstimator):
                    "nbins_top_level", "nbins_cats", "r2_stopping", "stopping_rounds", "stopping_metric",
                    "stopping_tolerance", "max_runtime_secs", "seed", "build_tree_one_node", "mtries", "sample_rate",
                    "sample_rate_per_class", "binomial_double_trees", "checkpoint", "col_sample_rate_change_per_level",
-                   "col_sample_rate_per_tree", "min_split_improvement", "histogram_type", "categorical_encoding",
-                   "calibrate_model", "calibration_frame", "distribution", "custom_metric_func",
+                   "col_sample_rate_per_tree", "min_split_improvement", "histogram_type", "histogram_subtraction",
+                   "categorical_encoding", "calibrate_model", "calibration_frame", "distribution", "custom_metric_func",
                    "export_checkpoints_dir", "check_constant_response", "gainslift_bins", "auc_type"}
 
     def __init__(self, **kwargs):
@@ -1335,6 +1335,23 @@ class H2ORandomForestEstimator(H2OEstimator):
         self._parms["histogram_type"] = histogram_type
 
 
+    @property
+    def histogram_subtraction(self):
+        """
+        Build histograms only for the smaller child of each split and derive histograms of the larger child by
+        subtracting them from the histograms of the parent. Children then keep the bins of the parent instead of
+        adapting them to the range of their data.
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("histogram_subtraction")
+
+    @histogram_subtraction.setter
+    def histogram_subtraction(self, histogram_subtraction):
+        assert_is_type(histogram_subtraction, None, bool)
+        self._parms["histogram_subtraction"] = histogram_subtraction
+
+
     @property
     def categorical_encoding(self):
         """
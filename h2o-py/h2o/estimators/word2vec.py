@@ -20,8 +20,8 @@ class H2OWord2vecEstimator(H2OEstimator):
 
     algo = "word2vec"
     param_names = {"model_id", "training_frame", "min_word_freq", "word_model", "norm_model", "vec_size", "window_size",
-                   "sent_sample_rate", "init_learning_rate", "epochs", "pre_trained", "max_runtime_secs",
-                   "export_checkpoints_dir"}
+                   "negative_samples", "syncs_per_epoch", "sent_sample_rate", "init_learning_rate", "epochs",
+                   "pre_trained", "max_runtime_secs", "export_checkpoints_dir"}
 
     def __init__(self, **kwargs):
         super(H2OWord2vecEstimator, self).__init__()
@@ -123,9 +123,9 @@ class H2OWord2vecEstimator(H2OEstimator):
     @property
     def norm_model(self):
         """
-        Use Hierarchical Softmax
+        Use Hierarchical Softmax or Negative Sampling
 
-        One of: ``"hsm"``  (default: ``"hsm"``).
+        One of: ``"hsm"``, ``"negative_sampling"``  (default: ``"hsm"``).
 
         :examples:
 
@@ -143,7 +143,7 @@ class H2OWord2vecEstimator(H2OEstimator):
 
     @norm_model.setter
     def norm_model(self, norm_model):
-        assert_is_type(norm_model, None, Enum("hsm"))
+        assert_is_type(norm_model, None, Enum("hsm", "negative_sampling"))
         self._parms["norm_model"] = norm_model
 
 
@@ -201,6 +201,48 @@ class H2OWord2vecEstimator(H2OEstimator):
         self._parms["window_size"] = window_size
 
 
+    @property
+    def negative_samples(self):
+        """
+        Number of negative words drawn for each target word (used only with NegativeSampling)
+
+        Type: ``int``  (default: ``5``).
+
+        :examples:
+
+        >>> job_titles = h2o.import_file(("https://s3.amazonaws.com/h2o-public-test-data/smalldata/craigslistJobTitles.csv"), 
+        ...                               col_names = ["category", "jobtitle"], 
+        ...                               col_types = ["string", "string"], 
+        ...                               header = 1)
+        >>> words = job_titles.tokenize(" ")
+        >>> w2v_model = H2OWord2vecEstimator(epochs=3, norm_model="negative_sampling", negative_samples=10)
+        >>> w2v_model.train(training_frame=words)
+        >>> synonyms = w2v_model.find_synonyms("teacher", 3)
+        >>> print(synonyms)
+        """
+        return self._parms.get("negative_samples")
+
+    @negative_samples.setter
+    def negative_samples(self, negative_samples):
+        assert_is_type(negative_samples, None, int)
+        self._parms["negative_samples"] = negative_samples
+
+
+    @property
+    def syncs_per_epoch(self):
+        """
+        Number of times the word vectors are synchronized between the nodes in each epoch
+
+        Type: ``int``  (default: ``1``).
+        """
+        return self._parms.get("syncs_per_epoch")
+
+    @syncs_per_epoch.setter
+    def syncs_per_epoch(self, syncs_per_epoch):
+        assert_is_type(syncs_per_epoch, None, int)
+        self._parms["syncs_per_epoch"] = syncs_per_epoch
+
+
     @property
     def sent_sample_rate(self):
         """
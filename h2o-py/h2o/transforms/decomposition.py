@@ -126,7 +126,8 @@ class H2OSVD(H2OEstimator):
             - ``"GramSVD"``: distributed computation of the Gram matrix followed by a local SVD
               using the JAMA package,
             - ``"Power"``: computation of the SVD using the power iteration method,
-            - ``"Randomized"``: approximate SVD by projecting onto a random subspace.
+            - ``"Randomized"``: approximate SVD by projecting onto a random subspace,
+            - ``"SinglePass"``: approximate SVD from random sketches of the data formed in a single pass over it.
 
         :returns: a new H2OSVD model
         """
@@ -134,7 +135,7 @@ class H2OSVD(H2OEstimator):
         self._parms = locals()
         self._parms = {k: v for k, v in self._parms.items() if k != "self"}
 
-        assert_is_type(svd_method, Enum("GramSVD", "Power", "GLRM", "Randomized"))
+        assert_is_type(svd_method, Enum("GramSVD", "Power", "GLRM", "Randomized", "SinglePass"))
         self._parms["svd_method"] = svd_method
         assert_is_type(transform, Enum("NONE", "DEMEAN", "DESCALE", "STANDARDIZE", "NORMALIZE"))
         self._parms["transform"]=transform